@@ -0,0 +1,85 @@
+package com.faraz;
+
+import com.faraz.analysis.AnalysisReport;
+import com.faraz.analysis.FlightAnalyzer;
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless batch analysis of recorded flights - no window, no OpenGL
+ *
+ *   java -cp TVCVisualizer.jar com.faraz.AnalysisMain [--csv summary.csv] [--threads n] <flight-or-folder>...
+ *
+ * Prints one summary row per flight (attitude extremes and RMS, servo saturation time,
+ * stability distribution, buffer high-water mark) and optionally writes them as CSV.
+ */
+public class AnalysisMain {
+    private static final String USAGE = "Usage: AnalysisMain [--csv summary.csv] [--threads n] <flight-or-folder>...";
+
+    public static void main(String[] args) throws IOException {
+        Path csv = null;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<Path> flights = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--csv":
+                    csv = Paths.get(value(args, ++i));
+                    break;
+                case "--threads":
+                    pool = new ForkJoinPool(threads(value(args, ++i)));
+                    break;
+                default:
+                    flights.addAll(RecordedFlight.findFlights(Paths.get(args[i])));
+                    break;
+            }
+        }
+        if (flights.isEmpty()) usage();
+
+        long start = System.nanoTime();
+        List<FlightAnalyzer.Result> results = new FlightAnalyzer(pool).analyzeAll(flights);
+        AnalysisReport.printTable(System.out, results);
+        if (csv != null) AnalysisReport.writeCsv(csv, results);
+
+        long samples = 0;
+        int failed = 0;
+        for (FlightAnalyzer.Result result : results) {
+            if (result.getFailure() != null) {
+                failed++;
+            } else {
+                samples += result.getStats().getSamples();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Analyzed %d flights (%d failed), %d samples in %.2f s (%.0f samples/s)%n",
+                results.size() - failed, failed, samples, seconds, samples / Math.max(seconds, 1e-9));
+        if (failed > 0) System.exit(1);
+    }
+
+    // Value following an option, or usage if the option came last
+    private static String value(String[] args, int i) {
+        if (i >= args.length) usage();
+        return args[i];
+    }
+
+    private static int threads(String value) {
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads > 0) return threads;
+        } catch (NumberFormatException e) {
+            // Reported with the usage below
+        }
+        System.err.println("Not a thread count: " + value);
+        usage();
+        return 0;
+    }
+
+    private static void usage() {
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,71 @@
+package com.faraz;
+
+import com.faraz.communication.SerialReader;
+import com.faraz.communication.source.TelemetrySources;
+import com.faraz.graphics.FleetRenderer;
+import com.faraz.model.TelemetryData;
+import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+/**
+ * Several telemetry streams side by side in one 3D view, for comparing flights
+ *
+ *   java -cp TVCVisualizer.jar com.faraz.FleetMain [name=]<source-spec>...
+ *
+ * One vehicle per source spec (see TelemetrySources), labelled with the optional name or
+ * else its position. Each vehicle keeps a short history (-Dtvc.fleet.history.capacity,
+ * default 8192 samples) so that dozens of streams stay small.
+ */
+public class FleetMain {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: FleetMain [name=]<source-spec>...");
+            System.exit(2);
+        }
+
+        int historyCapacity = Integer.getInteger("tvc.fleet.history.capacity", 8192);
+        List<TelemetryData> vehicles = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<SerialReader> readers = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String spec = args[i];
+            String name = "#" + (i + 1);
+            int equals = spec.indexOf('=');
+            if (equals > 0 && spec.lastIndexOf(':', equals) < 0) { // "=" before any ":" names the vehicle
+                name = spec.substring(0, equals);
+                spec = spec.substring(equals + 1);
+            }
+            TelemetryData data = new TelemetryData(historyCapacity);
+            vehicles.add(data);
+            names.add(name);
+            readers.add(new SerialReader(data, TelemetrySources.fromSpec(spec)));
+        }
+
+        System.setProperty("sun.java2d.uiScale", "1.0");
+        SwingUtilities.invokeLater(() -> {
+            FleetRenderer renderer = new FleetRenderer(vehicles, names);
+            JFrame frame = new JFrame("TVC Fleet - " + vehicles.size() + " vehicles");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.getContentPane().add(renderer.getComponent(), BorderLayout.CENTER);
+            frame.setSize(1400, 900);
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+            renderer.getComponent().requestFocusInWindow();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                System.out.println("Shutting down fleet view...");
+                for (SerialReader reader : readers) {
+                    reader.stop();
+                }
+                renderer.cleanup();
+            }));
+
+            for (SerialReader reader : readers) {
+                reader.start();
+            }
+        });
+    }
+}
@@ -7,6 +7,9 @@ import javax.swing.*;
 /**
  * Main application entry point
  * Professional TVC Rocket Control Center
+ *
+ * Optional first argument: telemetry source spec (see TelemetrySources),
+ * e.g. "tcp:relay.local:5760" - defaults to -Dtvc.source or /dev/ttyACM0
  */
 public class Main {
     public static void main(String[] args) {
@@ -26,7 +29,9 @@ public class Main {
         // Launch application on EDT
         SwingUtilities.invokeLater(() -> {
             try {
-                RocketVisualizerFrame frame = new RocketVisualizerFrame( );
+                RocketVisualizerFrame frame = args.length > 0
+                        ? new RocketVisualizerFrame(args[0])
+                        : new RocketVisualizerFrame();
                 frame.setVisible(true);
 
                 // Graceful shutdown
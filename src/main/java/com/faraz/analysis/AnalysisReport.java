@@ -0,0 +1,112 @@
+package com.faraz.analysis;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Summary table of analyzed flights: aligned text for the terminal, or CSV
+ *
+ * Stability bands match the HUD colours: above 80 is OK, above 50 is WARN, the rest ERROR.
+ */
+public final class AnalysisReport {
+    private static final String ROW_FORMAT =
+            "%-24s %10s %9s %8s %8s %8s %8s %8s %7s %7s %8s %7s %7s %7s %6s %5s %7s%n";
+
+    private AnalysisReport() {}
+
+    public static void printTable(PrintStream out, List<FlightAnalyzer.Result> results) {
+        out.printf(Locale.ROOT, ROW_FORMAT, "flight", "samples", "dur s", "max|p|", "max|r|",
+                "rms p", "rms r", "rms att", "satX %", "satY %", "sat s", "stab>80", "50-80", "<=50",
+                "bufHW", "gaps", "invalid");
+        FlightStats total = new FlightStats();
+        long totalDuration = 0;
+        int analyzed = 0;
+        for (FlightAnalyzer.Result result : results) {
+            String name = result.getFlight().getFileName().toString();
+            if (result.getFailure() != null) {
+                Exception failure = result.getFailure();
+                out.printf("%-24s FAILED %s%n", name, failure instanceof IOException ? failure.getMessage() : failure);
+                continue;
+            }
+            printRow(out, name, result.getDurationNanos(), result.getStats());
+            total.merge(result.getStats());
+            totalDuration += result.getDurationNanos();
+            analyzed++;
+        }
+        if (analyzed > 1) printRow(out, "TOTAL", totalDuration, total);
+    }
+
+    private static void printRow(PrintStream out, String name, long durationNanos, FlightStats stats) {
+        out.printf(Locale.ROOT, ROW_FORMAT, name,
+                Long.toString(stats.getSamples()),
+                String.format(Locale.ROOT, "%.1f", durationNanos / 1e9),
+                degrees(stats.getMaxAbsPitch()),
+                degrees(stats.getMaxAbsRoll()),
+                degrees(stats.getRmsPitch()),
+                degrees(stats.getRmsRoll()),
+                degrees(stats.getRmsAttitude()),
+                percent(stats.getFraction(stats.getServoXSaturatedNanos())),
+                percent(stats.getFraction(stats.getServoYSaturatedNanos())),
+                String.format(Locale.ROOT, "%.2f", stats.getAnySaturatedNanos() / 1e9),
+                percent(stats.getStabilityFraction(8, 10)),
+                percent(stats.getStabilityFraction(5, 8)),
+                percent(stats.getStabilityFraction(0, 5)),
+                Integer.toString(stats.getBufferHighWater()),
+                Long.toString(stats.getGaps()),
+                Long.toString(stats.getInvalid()));
+    }
+
+    /**
+     * One row per flight, times in seconds, stability as the time in each decile
+     */
+    public static void writeCsv(Path file, List<FlightAnalyzer.Result> results) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            StringBuilder header = new StringBuilder("flight,samples,duration_s,covered_s,gaps,invalid,"
+                    + "max_abs_pitch,max_abs_roll,rms_pitch,rms_roll,rms_attitude,"
+                    + "servo_x_saturated_s,servo_y_saturated_s,any_saturated_s,buffer_high_water");
+            for (int b = 0; b < FlightStats.STABILITY_BINS; b++) {
+                header.append(",stability_").append(b * 10).append('_').append(b * 10 + 10).append("_s");
+            }
+            out.write(header.append('\n').toString());
+
+            for (FlightAnalyzer.Result result : results) {
+                if (result.getFailure() != null) continue;
+                FlightStats stats = result.getStats();
+                StringBuilder row = new StringBuilder();
+                row.append(result.getFlight().getFileName()).append(',')
+                        .append(stats.getSamples()).append(',')
+                        .append(result.getDurationNanos() / 1e9).append(',')
+                        .append(stats.getCoveredNanos() / 1e9).append(',')
+                        .append(stats.getGaps()).append(',')
+                        .append(stats.getInvalid()).append(',')
+                        .append(stats.getMaxAbsPitch()).append(',')
+                        .append(stats.getMaxAbsRoll()).append(',')
+                        .append(stats.getRmsPitch()).append(',')
+                        .append(stats.getRmsRoll()).append(',')
+                        .append(stats.getRmsAttitude()).append(',')
+                        .append(stats.getServoXSaturatedNanos() / 1e9).append(',')
+                        .append(stats.getServoYSaturatedNanos() / 1e9).append(',')
+                        .append(stats.getAnySaturatedNanos() / 1e9).append(',')
+                        .append(stats.getBufferHighWater());
+                for (int b = 0; b < FlightStats.STABILITY_BINS; b++) {
+                    row.append(',').append(stats.getStabilityNanos(b) / 1e9);
+                }
+                out.write(row.append('\n').toString());
+            }
+        }
+    }
+
+    // Garbage values stay readable without breaking the columns
+    private static String degrees(double value) {
+        return String.format(Locale.ROOT, Math.abs(value) < 1e6 ? "%.2f" : "%.3g", value);
+    }
+
+    private static String percent(double fraction) {
+        return String.format(Locale.ROOT, "%.1f", fraction * 100);
+    }
+}
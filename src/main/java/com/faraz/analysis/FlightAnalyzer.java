@@ -0,0 +1,151 @@
+package com.faraz.analysis;
+
+import com.faraz.model.TelemetrySample;
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes FlightStats for many recorded flights on a fork-join pool
+ *
+ * Every flight is a task, and a long flight splits further into record ranges, so one
+ * long flight among short ones still spreads over the workers. Records are read one at a
+ * time from the mapped flight; nothing proportional to the flight length is held.
+ */
+public class FlightAnalyzer {
+    // Ranges at or below this many records are walked sequentially
+    private static final long SPLIT_RECORDS = 1 << 20;
+
+    /**
+     * Stats of one flight, or why it could not be read
+     */
+    public static final class Result {
+        private final Path flight;
+        private final long durationNanos;
+        private final FlightStats stats;
+        private final long elapsedNanos;
+        private final Exception failure;
+
+        Result(Path flight, long durationNanos, FlightStats stats, long elapsedNanos, Exception failure) {
+            this.flight = flight;
+            this.durationNanos = durationNanos;
+            this.stats = stats;
+            this.elapsedNanos = elapsedNanos;
+            this.failure = failure;
+        }
+
+        public Path getFlight() { return flight; }
+        public long getDurationNanos() { return durationNanos; }
+        public FlightStats getStats() { return stats; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        /**
+         * IOException for an unreadable flight, RuntimeException for a corrupt one
+         */
+        public Exception getFailure() { return failure; }
+    }
+
+    private final ForkJoinPool pool;
+    private final long splitRecords;
+
+    public FlightAnalyzer(ForkJoinPool pool) {
+        this(pool, SPLIT_RECORDS);
+    }
+
+    FlightAnalyzer(ForkJoinPool pool, long splitRecords) {
+        this.pool = pool;
+        this.splitRecords = splitRecords;
+    }
+
+    /**
+     * Analyze every flight in parallel; results are in the order given
+     * A flight that fails is reported in its result; the others are still analyzed
+     */
+    public List<Result> analyzeAll(List<Path> flights) {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>();
+        for (Path flight : flights) {
+            tasks.add(pool.submit(() -> analyzeOne(flight)));
+        }
+        List<Result> results = new ArrayList<>();
+        for (ForkJoinTask<Result> task : tasks) results.add(task.join());
+        return results;
+    }
+
+    private Result analyzeOne(Path directory) {
+        long start = System.nanoTime();
+        try (RecordedFlight flight = RecordedFlight.open(directory)) {
+            FlightStats stats = analyze(flight, splitRecords);
+            return new Result(directory, flight.getDurationNanos(), stats, System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            // A block that fails to decode throws from flight.read() in whichever range task hit it
+            return new Result(directory, 0, null, System.nanoTime() - start, e);
+        }
+    }
+
+    /**
+     * Stats of a whole flight; call from a pool worker (or it runs in the common pool)
+     */
+    public static FlightStats analyze(RecordedFlight flight) {
+        return analyze(flight, SPLIT_RECORDS);
+    }
+
+    static FlightStats analyze(RecordedFlight flight, long splitRecords) {
+        RangeTask task = new RangeTask(flight, 0, flight.getRecordCount(), splitRecords);
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private static final class RangeTask extends RecursiveTask<FlightStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final RecordedFlight flight;
+        private final long from;
+        private final long to;
+        private final long splitRecords;
+
+        RangeTask(RecordedFlight flight, long from, long to, long splitRecords) {
+            this.flight = flight;
+            this.from = from;
+            this.to = to;
+            this.splitRecords = splitRecords;
+        }
+
+        @Override
+        protected FlightStats compute() {
+            if (to - from <= splitRecords) return walk();
+            long middle = (from + to) >>> 1;
+            RangeTask right = new RangeTask(flight, middle, to, splitRecords);
+            right.fork();
+            FlightStats stats = new RangeTask(flight, from, middle, splitRecords).compute();
+            stats.merge(right.join());
+            return stats;
+        }
+
+        // Each sample is added once the next one's time is known; the last looks past the range
+        private FlightStats walk() {
+            FlightStats stats = new FlightStats();
+            if (from >= to) return stats;
+            // Ranges of one flight run in parallel, so each reads through its own cursor
+            RecordedFlight.Cursor cursor = flight.newCursor();
+            TelemetrySample previous = new TelemetrySample();
+            TelemetrySample current = new TelemetrySample();
+            cursor.read(from, previous);
+            long previousTime = cursor.getTimeNanos(from);
+            for (long i = from + 1; i < to; i++) {
+                cursor.read(i, current);
+                long time = cursor.getTimeNanos(i);
+                stats.add(previousTime, previous, time, true);
+                TelemetrySample swap = previous;
+                previous = current;
+                current = swap;
+                previousTime = time;
+            }
+            boolean hasNext = to < flight.getRecordCount();
+            stats.add(previousTime, previous, hasNext ? cursor.getTimeNanos(to) : 0, hasNext);
+            return stats;
+        }
+    }
+}
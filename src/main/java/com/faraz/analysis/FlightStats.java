@@ -0,0 +1,151 @@
+package com.faraz.analysis;
+
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetrySample;
+
+/**
+ * Attitude, servo and buffer statistics over a run of samples
+ *
+ * Time-based figures weight each sample by the time to the next one. Gaps longer than
+ * MAX_SAMPLE_GAP_NANOS are link dropouts: they are counted but add no time. Samples with
+ * a non-finite pitch or roll count as invalid and are left out of the attitude and
+ * stability figures. Stats for consecutive ranges merge into the stats for the whole,
+ * so a flight can be split.
+ */
+public class FlightStats {
+    public static final long MAX_SAMPLE_GAP_NANOS = 100_000_000L;
+
+    // Stability deciles: (0,10], (10,20] ... (90,100], with 0 in the first
+    public static final int STABILITY_BINS = 10;
+
+    private long samples;
+    private long coveredNanos;
+    private long gaps;
+    private long invalid;
+    private long invalidNanos;
+    private double maxAbsPitch;
+    private double maxAbsRoll;
+    private double sumPitchSquared;
+    private double sumRollSquared;
+    private long servoXSaturatedNanos;
+    private long servoYSaturatedNanos;
+    private long anySaturatedNanos;
+    private final long[] stabilityNanos = new long[STABILITY_BINS];
+    private int bufferHighWater;
+
+    /**
+     * Count one sample that lasts until nextTimeNanos (or no time if there is no next sample)
+     */
+    public void add(long timeNanos, TelemetrySample sample, long nextTimeNanos, boolean hasNext) {
+        samples++;
+        double pitch = sample.getPitch();
+        double roll = sample.getRoll();
+        boolean valid = Double.isFinite(pitch) && Double.isFinite(roll);
+        if (valid) {
+            maxAbsPitch = Math.max(maxAbsPitch, Math.abs(pitch));
+            maxAbsRoll = Math.max(maxAbsRoll, Math.abs(roll));
+            sumPitchSquared += pitch * pitch;
+            sumRollSquared += roll * roll;
+        } else {
+            invalid++;
+        }
+        bufferHighWater = Math.max(bufferHighWater, sample.getBufferCount());
+
+        if (!hasNext) return;
+        long dt = nextTimeNanos - timeNanos;
+        if (dt > MAX_SAMPLE_GAP_NANOS) {
+            gaps++;
+            return;
+        }
+        if (dt <= 0) return;
+        coveredNanos += dt;
+
+        boolean saturatedX = isSaturated(sample.getServoX());
+        boolean saturatedY = isSaturated(sample.getServoY());
+        if (saturatedX) servoXSaturatedNanos += dt;
+        if (saturatedY) servoYSaturatedNanos += dt;
+        if (saturatedX || saturatedY) anySaturatedNanos += dt;
+        if (valid) {
+            stabilityNanos[stabilityBin(sample.getStability())] += dt;
+        } else {
+            invalidNanos += dt;
+        }
+    }
+
+    /**
+     * Fold in the stats of another range of the same flight
+     */
+    public void merge(FlightStats other) {
+        samples += other.samples;
+        coveredNanos += other.coveredNanos;
+        gaps += other.gaps;
+        invalid += other.invalid;
+        invalidNanos += other.invalidNanos;
+        maxAbsPitch = Math.max(maxAbsPitch, other.maxAbsPitch);
+        maxAbsRoll = Math.max(maxAbsRoll, other.maxAbsRoll);
+        sumPitchSquared += other.sumPitchSquared;
+        sumRollSquared += other.sumRollSquared;
+        servoXSaturatedNanos += other.servoXSaturatedNanos;
+        servoYSaturatedNanos += other.servoYSaturatedNanos;
+        anySaturatedNanos += other.anySaturatedNanos;
+        for (int b = 0; b < STABILITY_BINS; b++) stabilityNanos[b] += other.stabilityNanos[b];
+        bufferHighWater = Math.max(bufferHighWater, other.bufferHighWater);
+    }
+
+    /**
+     * At or past the clamp in TelemetryData; recordings keep the commanded value
+     */
+    public static boolean isSaturated(int servo) {
+        return servo <= TelemetryData.SERVO_MIN || servo >= TelemetryData.SERVO_MAX;
+    }
+
+    public static int stabilityBin(double stability) {
+        if (stability <= 0) return 0;
+        return Math.min(STABILITY_BINS - 1, (int) Math.ceil(stability / 10) - 1);
+    }
+
+    public long getSamples() { return samples; }
+    public long getCoveredNanos() { return coveredNanos; }
+    public long getGaps() { return gaps; }
+    public long getInvalid() { return invalid; }
+    public double getMaxAbsPitch() { return maxAbsPitch; }
+    public double getMaxAbsRoll() { return maxAbsRoll; }
+    public long getServoXSaturatedNanos() { return servoXSaturatedNanos; }
+    public long getServoYSaturatedNanos() { return servoYSaturatedNanos; }
+    public long getAnySaturatedNanos() { return anySaturatedNanos; }
+    public long getStabilityNanos(int bin) { return stabilityNanos[bin]; }
+    public int getBufferHighWater() { return bufferHighWater; }
+
+    public double getRmsPitch() {
+        long valid = samples - invalid;
+        return valid > 0 ? Math.sqrt(sumPitchSquared / valid) : 0;
+    }
+
+    public double getRmsRoll() {
+        long valid = samples - invalid;
+        return valid > 0 ? Math.sqrt(sumRollSquared / valid) : 0;
+    }
+
+    /**
+     * RMS of the total attitude error, sqrt(pitch^2 + roll^2)
+     */
+    public double getRmsAttitude() {
+        long valid = samples - invalid;
+        return valid > 0 ? Math.sqrt((sumPitchSquared + sumRollSquared) / valid) : 0;
+    }
+
+    /**
+     * Share of valid covered time (0-1) with stability in bins [fromBin, toBin)
+     */
+    public double getStabilityFraction(int fromBin, int toBin) {
+        long total = coveredNanos - invalidNanos;
+        if (total <= 0) return 0;
+        long nanos = 0;
+        for (int b = fromBin; b < toBin; b++) nanos += stabilityNanos[b];
+        return (double) nanos / total;
+    }
+
+    public double getFraction(long nanos) {
+        return coveredNanos > 0 ? (double) nanos / coveredNanos : 0;
+    }
+}
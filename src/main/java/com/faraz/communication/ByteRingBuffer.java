@@ -0,0 +1,92 @@
+package com.faraz.communication;
+
+/**
+ * Reusable byte ring buffer for the serial ingest path
+ * Bytes are written in bulk into the free space and released once framed
+ */
+public class ByteRingBuffer {
+    private final byte[] data;
+    private final int mask;
+
+    // Absolute positions, only ever increase (offset = index & mask)
+    private long readIndex = 0;
+    private long writeIndex = 0;
+
+    public ByteRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.data = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public byte[] array() { return data; }
+    public int capacity() { return data.length; }
+    public int size() { return (int) (writeIndex - readIndex); }
+    public long readIndex() { return readIndex; }
+    public long writeIndex() { return writeIndex; }
+    public int offset(long index) { return (int) index & mask; }
+    public int writeOffset() { return offset(writeIndex); }
+
+    /**
+     * Number of bytes that can be written at writeOffset() without wrapping
+     */
+    public int contiguousFree() {
+        int free = data.length - size();
+        int toEnd = data.length - writeOffset();
+        return Math.min(free, toEnd);
+    }
+
+    /**
+     * Make bytes written directly into array() visible to readers
+     */
+    public void commitWrite(int count) {
+        if (count < 0 || count > data.length - size()) {
+            throw new IllegalArgumentException("Invalid write count: " + count);
+        }
+        writeIndex += count;
+    }
+
+    /**
+     * Find the next occurrence of value between from and the write position
+     * @return absolute index of the byte, or -1 if not buffered yet
+     */
+    public long indexOf(byte value, long from) {
+        long start = Math.max(from, readIndex);
+        while (start < writeIndex) {
+            int begin = offset(start);
+            int end = begin + (int) Math.min(writeIndex - start, data.length - begin);
+            for (int i = begin; i < end; i++) {
+                if (data[i] == value) {
+                    return start + (i - begin);
+                }
+            }
+            start += end - begin;
+        }
+        return -1;
+    }
+
+    /**
+     * Copy length bytes starting at index into dst (handles wrap-around)
+     */
+    public void copyOut(long index, byte[] dst, int dstOffset, int length) {
+        int begin = offset(index);
+        int first = Math.min(length, data.length - begin);
+        System.arraycopy(data, begin, dst, dstOffset, first);
+        if (first < length) {
+            System.arraycopy(data, 0, dst, dstOffset + first, length - first);
+        }
+    }
+
+    /**
+     * Release all bytes before upTo so the space can be reused
+     */
+    public void release(long upTo) {
+        if (upTo < readIndex || upTo > writeIndex) {
+            throw new IllegalArgumentException("Invalid release position: " + upTo);
+        }
+        readIndex = upTo;
+    }
+
+    public void clear() {
+        readIndex = writeIndex;
+    }
+}
@@ -0,0 +1,70 @@
+package com.faraz.communication;
+
+/**
+ * Consistent Overhead Byte Stuffing
+ * Removes every 0x00 from a frame so 0x00 can be used as the frame delimiter
+ */
+public final class Cobs {
+
+    private Cobs() {}
+
+    /**
+     * Worst-case encoded size of a frame of the given length (excluding the delimiter)
+     */
+    public static int maxEncodedLength(int length) {
+        return length + length / 254 + 1;
+    }
+
+    /**
+     * Encode src into dst; dst must hold maxEncodedLength(length) bytes
+     * @return number of bytes written (no delimiter is appended)
+     */
+    public static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int codeIndex = dstOffset;
+        int out = dstOffset + 1;
+        int code = 1;
+
+        for (int i = offset; i < offset + length; i++) {
+            if (src[i] == 0) {
+                dst[codeIndex] = (byte) code;
+                codeIndex = out++;
+                code = 1;
+            } else {
+                dst[out++] = src[i];
+                if (++code == 0xFF) {
+                    dst[codeIndex] = (byte) code;
+                    codeIndex = out++;
+                    code = 1;
+                }
+            }
+        }
+        dst[codeIndex] = (byte) code;
+        return out - dstOffset;
+    }
+
+    /**
+     * Decode one encoded frame (without its delimiter) into dst
+     * @return decoded length, or -1 if the input is not valid COBS or dst is too small
+     */
+    public static int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int in = offset;
+        int out = dstOffset;
+
+        while (in < end) {
+            int code = src[in++] & 0xFF;
+            if (code == 0 || in + code - 1 > end) return -1;
+
+            for (int i = 1; i < code; i++) {
+                byte b = src[in++];
+                if (b == 0 || out >= dst.length) return -1;
+                dst[out++] = b;
+            }
+            if (code != 0xFF && in < end) {
+                if (out >= dst.length) return -1;
+                dst[out++] = 0;
+            }
+        }
+        return out - dstOffset;
+    }
+}
@@ -0,0 +1,100 @@
+package com.faraz.communication;
+
+/**
+ * Splits the bytes buffered in a ByteRingBuffer into delimiter terminated frames
+ * ('\n' for text lines, 0x00 for COBS frames)
+ * Frames are handed out as (array, offset, length) views - no String per frame
+ */
+public class DelimitedFramer {
+
+    /**
+     * Receives one non-empty frame; the bytes are only valid during the call
+     */
+    public interface FrameHandler {
+        void onFrame(byte[] buffer, int offset, int length);
+    }
+
+    private final ByteRingBuffer ring;
+    private final byte delimiter;
+    private final boolean trimWhitespace;
+    private final byte[] scratch; // Only used for frames that wrap around the ring end
+    private long scanIndex = 0;
+    private long overflowCount = 0;
+
+    public DelimitedFramer(ByteRingBuffer ring, byte delimiter, boolean trimWhitespace) {
+        this.ring = ring;
+        this.delimiter = delimiter;
+        this.trimWhitespace = trimWhitespace;
+        this.scratch = new byte[ring.capacity()];
+    }
+
+    /**
+     * Framer for '\n' terminated text lines, trimmed like String.trim()
+     */
+    public static DelimitedFramer lines(ByteRingBuffer ring) {
+        return new DelimitedFramer(ring, (byte) '\n', true);
+    }
+
+    /**
+     * Emit every complete frame currently buffered and release its bytes
+     * @return number of frames handed to the handler
+     */
+    public int drain(FrameHandler handler) {
+        int frames = 0;
+        long end;
+        while ((end = ring.indexOf(delimiter, scanIndex)) >= 0) {
+            if (emit(ring.readIndex(), end, handler)) {
+                frames++;
+            }
+            ring.release(end + 1);
+            scanIndex = end + 1;
+        }
+        scanIndex = ring.writeIndex();
+
+        // A frame longer than the whole buffer can never complete - drop it
+        if (ring.size() == ring.capacity()) {
+            overflowCount++;
+            ring.clear();
+        }
+        return frames;
+    }
+
+    private boolean emit(long start, long end, FrameHandler handler) {
+        byte[] data = ring.array();
+
+        if (trimWhitespace) {
+            // Same whitespace rules as String.trim() (also strips the '\r' of CRLF)
+            while (start < end && (data[ring.offset(start)] & 0xFF) <= ' ') start++;
+            while (end > start && (data[ring.offset(end - 1)] & 0xFF) <= ' ') end--;
+        }
+
+        int length = (int) (end - start);
+        if (length == 0) return false;
+
+        int offset = ring.offset(start);
+        if (offset + length <= data.length) {
+            handler.onFrame(data, offset, length);
+        } else {
+            ring.copyOut(start, scratch, 0, length);
+            handler.onFrame(scratch, 0, length);
+        }
+        return true;
+    }
+
+    /**
+     * Number of over-long frames discarded because they did not fit the buffer
+     */
+    public long getOverflowCount() { return overflowCount; }
+
+    /**
+     * Restart scanning at the oldest buffered byte (after another reader inspected it)
+     */
+    public void rewind() {
+        scanIndex = ring.readIndex();
+    }
+
+    public void reset() {
+        ring.clear();
+        scanIndex = ring.writeIndex();
+    }
+}
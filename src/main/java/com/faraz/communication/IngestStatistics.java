@@ -0,0 +1,73 @@
+package com.faraz.communication;
+
+/**
+ * Ingest throughput counters (a "line" is a text line or a binary frame)
+ * Updated by the reader thread only; published once per second for the UI
+ */
+public class IngestStatistics {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    // Reader thread only
+    private long bytes = 0;
+    private long lines = 0;
+    private long malformedLines = 0;
+    private long lostFrames = 0;
+    private long windowStartNanos = System.nanoTime();
+    private long windowStartBytes = 0;
+    private long windowStartLines = 0;
+
+    // Published snapshot
+    private volatile long totalBytes = 0;
+    private volatile long totalLines = 0;
+    private volatile long totalMalformedLines = 0;
+    private volatile long totalLostFrames = 0;
+    private volatile double bytesPerSecond = 0;
+    private volatile double linesPerSecond = 0;
+
+    public void recordBytes(int count) { bytes += count; }
+    public void recordLines(int count) { lines += count; }
+    public void recordMalformedLine() { malformedLines++; }
+    public void recordLostFrames(long count) { lostFrames += count; }
+
+    /**
+     * Publish rates if the current window has elapsed
+     */
+    public void update(long nowNanos) {
+        if (nowNanos - windowStartNanos >= WINDOW_NANOS) {
+            publish(nowNanos);
+        }
+    }
+
+    /**
+     * Publish immediately, e.g. when the source ends mid-window
+     */
+    public void publish(long nowNanos) {
+        long elapsed = Math.max(1, nowNanos - windowStartNanos);
+        double seconds = elapsed / 1e9;
+        bytesPerSecond = (bytes - windowStartBytes) / seconds;
+        linesPerSecond = (lines - windowStartLines) / seconds;
+        totalBytes = bytes;
+        totalLines = lines;
+        totalMalformedLines = malformedLines;
+        totalLostFrames = lostFrames;
+
+        windowStartNanos = nowNanos;
+        windowStartBytes = bytes;
+        windowStartLines = lines;
+    }
+
+    public void reset() {
+        bytes = lines = malformedLines = lostFrames = 0;
+        windowStartBytes = windowStartLines = 0;
+        windowStartNanos = System.nanoTime();
+        totalBytes = totalLines = totalMalformedLines = totalLostFrames = 0;
+        bytesPerSecond = linesPerSecond = 0;
+    }
+
+    public long getTotalBytes() { return totalBytes; }
+    public long getTotalLines() { return totalLines; }
+    public long getTotalMalformedLines() { return totalMalformedLines; }
+    public long getTotalLostFrames() { return totalLostFrames; }
+    public double getBytesPerSecond() { return bytesPerSecond; }
+    public double getLinesPerSecond() { return linesPerSecond; }
+}
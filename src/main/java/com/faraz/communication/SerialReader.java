@@ -1,35 +1,50 @@
 package com.faraz.communication;
 
+import com.faraz.communication.source.SampleSource;
+import com.faraz.communication.source.SerialTelemetrySource;
+import com.faraz.communication.source.TelemetryInput;
+import com.faraz.communication.source.TelemetrySource;
 import com.faraz.model.TelemetryData;
-import com.fazecast.jSerialComm.SerialPort;
-import java.io.InputStream;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import com.faraz.model.TelemetrySample;
+import java.io.IOException;
 
 /**
- * Serial communication handler for ESP32 TVC system
- * Parses telemetry data and updates the data model
+ * Telemetry reader for the ESP32 TVC system
+ * Reads from any TelemetryInput (serial by default): bytes from a TelemetrySource are
+ * decoded, samples from a SampleSource are published as they are
  */
 public class SerialReader {
     private final TelemetryData telemetryData;
-    private final String portName;
-    private final int baudRate;
+    private final TelemetryInput source;
+    private final TelemetrySource bytes;   // Set for a byte transport
+    private final SampleSource samples;    // Set for a sample source
     private volatile boolean isRunning = false;
     private Thread readerThread;
 
-    // Regex pattern for parsing ESP32 output
-    private static final Pattern TELEMETRY_PATTERN = Pattern.compile(
-            "P:([-\\d.]+) R:([-\\d.]+) \\| PID P:([-\\d.]+) R:([-\\d.]+) \\| SRV X:(\\d+) Y:(\\d+) \\| BUF:(\\d+)(?:: \\| ALT:([-\\d.]+)m)?"
-    );
+    // Bulk ingest buffers, reused for the lifetime of the reader
+    private static final int RING_CAPACITY = 64 * 1024;
+    private final IngestStatistics statistics = new IngestStatistics();
+    private final TelemetryStreamDecoder decoder;
+    private final ByteRingBuffer ringBuffer;
+    private final TelemetrySample sample = new TelemetrySample(); // For sample sources
 
     public SerialReader(TelemetryData telemetryData, String portName, int baudRate) {
+        this(telemetryData, new SerialTelemetrySource(portName, baudRate));
+    }
+
+    public SerialReader(TelemetryData telemetryData, TelemetryInput source) {
         this.telemetryData = telemetryData;
-        this.portName = portName;
-        this.baudRate = baudRate;
+        this.source = source;
+        this.bytes = source instanceof TelemetrySource ? (TelemetrySource) source : null;
+        this.samples = source instanceof SampleSource ? (SampleSource) source : null;
+        this.decoder = new TelemetryStreamDecoder(RING_CAPACITY,
+                TelemetryStreamDecoder.parseProtocol(System.getProperty("tvc.protocol")),
+                statistics, this::updateTelemetryData);
+        this.ringBuffer = decoder.buffer();
     }
 
     /**
-     * Start reading serial data in background thread
+     * Start reading telemetry in background thread
      */
     public boolean start() {
         if (isRunning) {
@@ -37,7 +52,8 @@ public class SerialReader {
             return true;
         }
 
-        readerThread = new Thread(this::serialReaderLoop, "SerialReader");
+        statistics.reset();
+        readerThread = new Thread(this::readerLoop, "SerialReader");
         readerThread.setDaemon(true);
         isRunning = true;
         readerThread.start();
@@ -46,7 +62,7 @@ public class SerialReader {
     }
 
     /**
-     * Stop serial reader
+     * Stop telemetry reader
      */
     public void stop() {
         isRunning = false;
@@ -57,114 +73,87 @@ public class SerialReader {
     }
 
     /**
-     * Main serial reading loop
+     * Main reading loop
+     * Reads whatever the transport has buffered in one call and decodes frames in place;
+     * samples (replay) are published one by one without decoding
      */
-    private void serialReaderLoop() {
-        SerialPort port = SerialPort.getCommPort(portName);
-        port.setBaudRate(baudRate);
-        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_BLOCKING, 1000, 0);
+    private void readerLoop() {
+        String description = source.getDescription();
+        System.out.println("Attempting to connect to: " + description);
 
-        System.out.println("Attempting to connect to: " + portName + " @ " + baudRate + " baud");
-
-        if (!port.openPort()) {
-            System.err.println("Failed to open serial port: " + portName);
+        try {
+            source.open();
+        } catch (IOException e) {
+            System.err.println("Failed to open telemetry source: " + e.getMessage());
             telemetryData.setConnected(false);
             return;
         }
 
-        System.out.println("✅ Connected to TVC system: " + portName);
+        System.out.println("✅ Connected to TVC system: " + description);
         telemetryData.setConnected(true);
+        decoder.reset();
 
-        try (InputStream input = port.getInputStream()) {
-            StringBuilder buffer = new StringBuilder();
-
+        try {
+            if (samples != null) {
+                readSamples(description);
+                return;
+            }
             while (isRunning && !Thread.currentThread().isInterrupted()) {
-                int byteRead = input.read();
-                if (byteRead == -1) continue;
-
-                char c = (char) byteRead;
-                if (c == '\n') {
-                    String line = buffer.toString().trim();
-                    buffer.setLength(0);
-
-                    if (!line.isEmpty()) {
-                        parseTelemetryLine(line);
-                    }
-                } else {
-                    buffer.append(c);
+                int count = bytes.read(ringBuffer.array(), ringBuffer.writeOffset(), ringBuffer.contiguousFree());
+                if (count < 0) {
+                    System.out.println("Telemetry source ended: " + description);
+                    break;
                 }
+
+                if (count > 0) {
+                    ringBuffer.commitWrite(count);
+                    statistics.recordBytes(count);
+                    decoder.process();
+                }
+                statistics.update(System.nanoTime());
             }
 
         } catch (Exception e) {
             if (isRunning) { // Only log if not intentionally stopped
-                System.err.println("Serial communication error: " + e.getMessage());
+                System.err.println("Telemetry communication error: " + e.getMessage());
                 e.printStackTrace();
             }
         } finally {
-            port.closePort();
+            try {
+                source.close();
+            } catch (IOException e) {
+                System.err.println("Error closing telemetry source: " + e.getMessage());
+            }
+            statistics.publish(System.nanoTime());
             telemetryData.setConnected(false);
-            System.out.println("Serial port closed: " + portName);
+            System.out.println("Telemetry source closed: " + description);
         }
     }
 
     /**
-     * Parse telemetry line and update data model
+     * Publish recorded samples as they are; each counts as one line in the statistics
      */
-    private void parseTelemetryLine(String line) {
-        try {
-            Matcher matcher = TELEMETRY_PATTERN.matcher(line);
-            if (matcher.find()) {
-                // Parse orientation data
-                double pitch = Double.parseDouble(matcher.group(1));
-                double roll = Double.parseDouble(matcher.group(2));
-
-                // Parse PID outputs
-                double pidPitch = Double.parseDouble(matcher.group(3));
-                double pidRoll = Double.parseDouble(matcher.group(4));
-
-                // Parse servo positions
-                int servoX = Integer.parseInt(matcher.group(5));
-                int servoY = Integer.parseInt(matcher.group(6));
-
-                // Parse system status
-                int bufferCount = Integer.parseInt(matcher.group(7));
-
-                // Parse altitude (optional)
-                double altitude = 0.0;
-                if (matcher.group(8) != null) {
-                    altitude = Double.parseDouble(matcher.group(8));
-                }
-
-                // Update telemetry data atomically
-                updateTelemetryData(pitch, roll, pidPitch, pidRoll, servoX, servoY, bufferCount, altitude);
-
-            } else {
-                // Log unmatched lines for debugging
-                if (line.contains("P:") && line.contains("R:")) {
-                    System.out.println("Failed to parse: " + line);
-                }
+    private void readSamples(String description) throws IOException {
+        while (isRunning && !Thread.currentThread().isInterrupted()) {
+            int count = samples.readSample(sample);
+            if (count < 0) {
+                System.out.println("Telemetry source ended: " + description);
+                break;
             }
 
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid number format in line: " + line);
-        } catch (Exception e) {
-            System.err.println("Error parsing telemetry: " + e.getMessage());
+            if (count > 0) {
+                statistics.recordLines(1);
+                telemetryData.publish(sample);
+            }
+            statistics.update(System.nanoTime());
         }
     }
 
     /**
-     * Update telemetry data with new values
+     * Update telemetry data with new values (one atomic publish per sample)
      */
-    private void updateTelemetryData(double pitch, double roll, double pidPitch, double pidRoll,
-                                     int servoX, int servoY, int bufferCount, double altitude) {
-        telemetryData.setPitch(pitch);
-        telemetryData.setRoll(roll);
-        telemetryData.setPidPitch(pidPitch);
-        telemetryData.setPidRoll(pidRoll);
-        telemetryData.setServoX(servoX);
-        telemetryData.setServoY(servoY);
-        telemetryData.setBufferCount(bufferCount);
-        telemetryData.setAltitude(altitude);
+    private void updateTelemetryData(TelemetrySample sample) {
+        telemetryData.publish(sample);
     }
 
     /**
@@ -173,4 +162,26 @@ public class SerialReader {
     public boolean isConnected() {
         return isRunning && telemetryData.isConnected();
     }
+
+    /**
+     * Get ingest throughput counters (bytes/s, lines/s)
+     */
+    public IngestStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Get the transport this reader is attached to
+     */
+    public TelemetryInput getSource() {
+        return source;
+    }
+
+    /**
+     * Get the wire protocol in use (text, binary, still detecting, or recorded samples)
+     */
+    public TelemetryStreamDecoder.Protocol getProtocol() {
+        if (samples != null) return TelemetryStreamDecoder.Protocol.RECORDED;
+        return decoder.getProtocol();
+    }
 }
\ No newline at end of file
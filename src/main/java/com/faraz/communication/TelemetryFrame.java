@@ -0,0 +1,50 @@
+package com.faraz.communication;
+
+/**
+ * Binary telemetry frame layout, protocol version 1
+ *
+ * All fields little-endian. The frame is COBS encoded and terminated by a 0x00 byte.
+ *
+ *   offset  size  field
+ *        0     1  version (1)
+ *        1     1  message type (1 = telemetry)
+ *        2     1  flags (bit 0 = altitude present)
+ *        3     4  sequence number (u32, wraps)
+ *        7     4  pitch (f32, degrees)
+ *       11     4  roll (f32, degrees)
+ *       15     4  PID pitch output (f32)
+ *       19     4  PID roll output (f32)
+ *       23     4  altitude (f32, m)
+ *       27     1  servo X (u8, degrees)
+ *       28     1  servo Y (u8, degrees)
+ *       29     2  buffer count (u16)
+ *       31     2  CRC-16/CCITT-FALSE over bytes 0..30
+ *
+ * 35 bytes on the wire per sample versus ~75 for the text line.
+ */
+public final class TelemetryFrame {
+    public static final int VERSION = 1;
+    public static final int TYPE_TELEMETRY = 1;
+    public static final int FLAG_ALTITUDE = 0x01;
+    public static final byte DELIMITER = 0x00;
+
+    // Field offsets
+    public static final int OFFSET_VERSION = 0;
+    public static final int OFFSET_TYPE = 1;
+    public static final int OFFSET_FLAGS = 2;
+    public static final int OFFSET_SEQUENCE = 3;
+    public static final int OFFSET_PITCH = 7;
+    public static final int OFFSET_ROLL = 11;
+    public static final int OFFSET_PID_PITCH = 15;
+    public static final int OFFSET_PID_ROLL = 19;
+    public static final int OFFSET_ALTITUDE = 23;
+    public static final int OFFSET_SERVO_X = 27;
+    public static final int OFFSET_SERVO_Y = 28;
+    public static final int OFFSET_BUFFER = 29;
+    public static final int OFFSET_CRC = 31;
+
+    public static final int FRAME_LENGTH = 33;
+    public static final int MAX_WIRE_LENGTH = Cobs.maxEncodedLength(FRAME_LENGTH) + 1;
+
+    private TelemetryFrame() {}
+}
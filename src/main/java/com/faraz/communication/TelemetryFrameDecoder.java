@@ -0,0 +1,85 @@
+package com.faraz.communication;
+
+import com.faraz.model.TelemetrySample;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decoder for COBS framed binary telemetry
+ * Validates length, version and CRC, and tracks sequence gaps
+ */
+public class TelemetryFrameDecoder {
+
+    public enum Result { DECODED, BAD_FRAME, BAD_CRC, UNSUPPORTED }
+
+    private final byte[] frame = new byte[TelemetryFrame.FRAME_LENGTH];
+    private final ByteBuffer view = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long lastSequence = -1;
+    private long decodedCount = 0;
+    private long errorCount = 0;
+    private long lostCount = 0;
+
+    /**
+     * Decode one encoded frame (delimiter excluded) into sample
+     * sample is only written when DECODED is returned
+     */
+    public Result decode(byte[] buffer, int offset, int length, TelemetrySample sample) {
+        Result result = decodeFrame(buffer, offset, length, sample);
+        if (result == Result.DECODED) {
+            decodedCount++;
+        } else {
+            errorCount++;
+        }
+        return result;
+    }
+
+    private Result decodeFrame(byte[] buffer, int offset, int length, TelemetrySample sample) {
+        if (length > TelemetryFrame.MAX_WIRE_LENGTH) return Result.BAD_FRAME;
+
+        int decoded = Cobs.decode(buffer, offset, length, frame, 0);
+        if (decoded < TelemetryFrame.OFFSET_TYPE + 1) return Result.BAD_FRAME;
+
+        int version = frame[TelemetryFrame.OFFSET_VERSION] & 0xFF;
+        int type = frame[TelemetryFrame.OFFSET_TYPE] & 0xFF;
+        if (version != TelemetryFrame.VERSION || type != TelemetryFrame.TYPE_TELEMETRY) {
+            return Result.UNSUPPORTED;
+        }
+        if (decoded != TelemetryFrame.FRAME_LENGTH) return Result.BAD_FRAME;
+
+        int expectedCrc = view.getShort(TelemetryFrame.OFFSET_CRC) & 0xFFFF;
+        if (Crc16.compute(frame, 0, TelemetryFrame.OFFSET_CRC) != expectedCrc) {
+            return Result.BAD_CRC;
+        }
+
+        boolean hasAltitude = (frame[TelemetryFrame.OFFSET_FLAGS] & TelemetryFrame.FLAG_ALTITUDE) != 0;
+        sample.set(
+                view.getFloat(TelemetryFrame.OFFSET_PITCH),
+                view.getFloat(TelemetryFrame.OFFSET_ROLL),
+                view.getFloat(TelemetryFrame.OFFSET_PID_PITCH),
+                view.getFloat(TelemetryFrame.OFFSET_PID_ROLL),
+                frame[TelemetryFrame.OFFSET_SERVO_X] & 0xFF,
+                frame[TelemetryFrame.OFFSET_SERVO_Y] & 0xFF,
+                view.getShort(TelemetryFrame.OFFSET_BUFFER) & 0xFFFF,
+                hasAltitude ? view.getFloat(TelemetryFrame.OFFSET_ALTITUDE) : 0.0);
+
+        long sequence = view.getInt(TelemetryFrame.OFFSET_SEQUENCE) & 0xFFFFFFFFL;
+        if (lastSequence >= 0) {
+            long gap = (sequence - lastSequence - 1) & 0xFFFFFFFFL;
+            // A large backwards jump is a device reset, not loss
+            if (gap < 0x80000000L) lostCount += gap;
+        }
+        lastSequence = sequence;
+        sample.setSequence(sequence);
+        return Result.DECODED;
+    }
+
+    /**
+     * Forget the last sequence number (call on reconnect)
+     */
+    public void resetSequence() { lastSequence = -1; }
+
+    public long getDecodedCount() { return decodedCount; }
+    public long getErrorCount() { return errorCount; }
+    public long getLostCount() { return lostCount; }
+}
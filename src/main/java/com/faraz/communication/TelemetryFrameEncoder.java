@@ -0,0 +1,60 @@
+package com.faraz.communication;
+
+import com.faraz.model.TelemetrySample;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reference encoder for the binary telemetry protocol
+ * Mirrors what the flight computer sends so the decoder can be exercised without hardware
+ */
+public class TelemetryFrameEncoder {
+    private final byte[] frame = new byte[TelemetryFrame.FRAME_LENGTH];
+    private final ByteBuffer view = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    private long sequence = 0;
+    private boolean includeAltitude = true;
+
+    /**
+     * Encode one sample as a complete wire frame (COBS + 0x00 delimiter)
+     * @return number of bytes written; out needs TelemetryFrame.MAX_WIRE_LENGTH free bytes
+     */
+    public int encode(TelemetrySample sample, byte[] out, int offset) {
+        view.put(TelemetryFrame.OFFSET_VERSION, (byte) TelemetryFrame.VERSION);
+        view.put(TelemetryFrame.OFFSET_TYPE, (byte) TelemetryFrame.TYPE_TELEMETRY);
+        view.put(TelemetryFrame.OFFSET_FLAGS, (byte) (includeAltitude ? TelemetryFrame.FLAG_ALTITUDE : 0));
+        view.putInt(TelemetryFrame.OFFSET_SEQUENCE, (int) sequence);
+        view.putFloat(TelemetryFrame.OFFSET_PITCH, (float) sample.getPitch());
+        view.putFloat(TelemetryFrame.OFFSET_ROLL, (float) sample.getRoll());
+        view.putFloat(TelemetryFrame.OFFSET_PID_PITCH, (float) sample.getPidPitch());
+        view.putFloat(TelemetryFrame.OFFSET_PID_ROLL, (float) sample.getPidRoll());
+        view.putFloat(TelemetryFrame.OFFSET_ALTITUDE, includeAltitude ? (float) sample.getAltitude() : 0f);
+        view.put(TelemetryFrame.OFFSET_SERVO_X, (byte) clamp(sample.getServoX(), 0xFF));
+        view.put(TelemetryFrame.OFFSET_SERVO_Y, (byte) clamp(sample.getServoY(), 0xFF));
+        view.putShort(TelemetryFrame.OFFSET_BUFFER, (short) clamp(sample.getBufferCount(), 0xFFFF));
+        view.putShort(TelemetryFrame.OFFSET_CRC, (short) Crc16.compute(frame, 0, TelemetryFrame.OFFSET_CRC));
+
+        int length = Cobs.encode(frame, 0, frame.length, out, offset);
+        out[offset + length] = TelemetryFrame.DELIMITER;
+        sequence = (sequence + 1) & 0xFFFFFFFFL;
+        return length + 1;
+    }
+
+    /**
+     * Convenience variant returning a new array
+     */
+    public byte[] encode(TelemetrySample sample) {
+        byte[] out = new byte[TelemetryFrame.MAX_WIRE_LENGTH];
+        int length = encode(sample, out, 0);
+        byte[] result = new byte[length];
+        System.arraycopy(out, 0, result, 0, length);
+        return result;
+    }
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence & 0xFFFFFFFFL; }
+    public void setIncludeAltitude(boolean includeAltitude) { this.includeAltitude = includeAltitude; }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
@@ -0,0 +1,241 @@
+package com.faraz.communication;
+
+import com.faraz.model.TelemetrySample;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation-free parser for the ESP32 text telemetry line
+ *
+ * Accepts exactly what the original regex accepted with find():
+ *   P:([-\d.]+) R:([-\d.]+) \| PID P:([-\d.]+) R:([-\d.]+) \| SRV X:(\d+) Y:(\d+) \| BUF:(\d+)(?:: \| ALT:([-\d.]+)m)?
+ * The match may start anywhere in the line. Numbers are decoded straight from the bytes
+ * and give the same doubles as Double.parseDouble / Integer.parseInt.
+ *
+ * Not thread-safe - use one parser per reader thread.
+ */
+public class TelemetryLineParser {
+
+    public enum Result { PARSED, IGNORED, MALFORMED }
+
+    private static final byte[] PITCH = ascii("P:");
+    private static final byte[] ROLL = ascii(" R:");
+    private static final byte[] PID_PITCH = ascii(" | PID P:");
+    private static final byte[] SERVO_X = ascii(" | SRV X:");
+    private static final byte[] SERVO_Y = ascii(" Y:");
+    private static final byte[] BUFFER = ascii(" | BUF:");
+    private static final byte[] ALTITUDE = ascii(": | ALT:");
+
+    // Powers of ten that are exact doubles (10^22 is the largest)
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10.0;
+    }
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Number token boundaries of the current match: [start, end) pairs
+    private static final int FIELD_COUNT = 8;
+    private static final int ALT_FIELD = 7;
+    private final int[] tokens = new int[FIELD_COUNT * 2];
+    private boolean hasAltitude;
+
+    // Counters
+    private long parsedCount = 0;
+    private long ignoredCount = 0;
+    private long malformedCount = 0;
+
+    /**
+     * Parse one line into sample; sample is only written when PARSED is returned
+     */
+    public Result parse(byte[] buffer, int offset, int length, TelemetrySample sample) {
+        int end = offset + length;
+        int start = find(buffer, offset, end);
+
+        if (start < 0) {
+            if (looksLikeTelemetry(buffer, offset, end)) {
+                malformedCount++;
+                return Result.MALFORMED;
+            }
+            ignoredCount++;
+            return Result.IGNORED;
+        }
+
+        // Leftmost match decides, like Matcher.find(); a bad number rejects the whole line
+        double pitch = parseDecimal(buffer, tokens[0], tokens[1]);
+        double roll = parseDecimal(buffer, tokens[2], tokens[3]);
+        double pidPitch = parseDecimal(buffer, tokens[4], tokens[5]);
+        double pidRoll = parseDecimal(buffer, tokens[6], tokens[7]);
+        long servoX = parseInteger(buffer, tokens[8], tokens[9]);
+        long servoY = parseInteger(buffer, tokens[10], tokens[11]);
+        long bufferCount = parseInteger(buffer, tokens[12], tokens[13]);
+        double altitude = hasAltitude ? parseDecimal(buffer, tokens[14], tokens[15]) : 0.0;
+
+        if (Double.isNaN(pitch) || Double.isNaN(roll) || Double.isNaN(pidPitch) || Double.isNaN(pidRoll)
+                || servoX < 0 || servoY < 0 || bufferCount < 0 || Double.isNaN(altitude)) {
+            malformedCount++;
+            return Result.MALFORMED;
+        }
+
+        sample.set(pitch, roll, pidPitch, pidRoll, (int) servoX, (int) servoY, (int) bufferCount, altitude);
+        parsedCount++;
+        return Result.PARSED;
+    }
+
+    /**
+     * Find the leftmost position where the grammar matches, filling tokens
+     */
+    private int find(byte[] buffer, int from, int end) {
+        for (int i = from; i + PITCH.length <= end; i++) {
+            if (buffer[i] == 'P' && buffer[i + 1] == ':' && matchAt(buffer, i, end)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchAt(byte[] buffer, int pos, int end) {
+        pos = literal(buffer, pos, end, PITCH);
+        pos = token(buffer, pos, end, 0, true);
+        pos = literal(buffer, pos, end, ROLL);
+        pos = token(buffer, pos, end, 1, true);
+        pos = literal(buffer, pos, end, PID_PITCH);
+        pos = token(buffer, pos, end, 2, true);
+        pos = literal(buffer, pos, end, ROLL);
+        pos = token(buffer, pos, end, 3, true);
+        pos = literal(buffer, pos, end, SERVO_X);
+        pos = token(buffer, pos, end, 4, false);
+        pos = literal(buffer, pos, end, SERVO_Y);
+        pos = token(buffer, pos, end, 5, false);
+        pos = literal(buffer, pos, end, BUFFER);
+        pos = token(buffer, pos, end, 6, false);
+        if (pos < 0) return false;
+
+        // Optional altitude group - greedy, so it is taken whenever it matches completely
+        int alt = literal(buffer, pos, end, ALTITUDE);
+        alt = token(buffer, alt, end, ALT_FIELD, true);
+        hasAltitude = alt >= 0 && alt < end && buffer[alt] == 'm';
+        return true;
+    }
+
+    private static int literal(byte[] buffer, int pos, int end, byte[] expected) {
+        if (pos < 0 || pos + expected.length > end) return -1;
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer[pos + i] != expected[i]) return -1;
+        }
+        return pos + expected.length;
+    }
+
+    /**
+     * Consume a non-empty run of [-\d.] (decimal) or \d (integer) and record its bounds
+     */
+    private int token(byte[] buffer, int pos, int end, int field, boolean decimal) {
+        if (pos < 0) return -1;
+        int start = pos;
+        while (pos < end) {
+            byte b = buffer[pos];
+            if ((b >= '0' && b <= '9') || (decimal && (b == '-' || b == '.'))) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (pos == start) return -1;
+        tokens[field * 2] = start;
+        tokens[field * 2 + 1] = pos;
+        return pos;
+    }
+
+    /**
+     * Decode -?(\d+\.?\d*|\.\d+) to the nearest double
+     * @return the value, or NaN where Double.parseDouble would have thrown
+     */
+    static double parseDecimal(byte[] buffer, int start, int end) {
+        int pos = start;
+        boolean negative = buffer[pos] == '-';
+        if (negative) pos++;
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        boolean seenPoint = false;
+
+        for (; pos < end; pos++) {
+            byte b = buffer[pos];
+            if (b == '.') {
+                if (seenPoint) return Double.NaN;
+                seenPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                digits++;
+                if (seenPoint) fractionDigits++;
+                if (mantissa != 0 || b != '0') {
+                    if (++significantDigits > 18) {
+                        return parseSlow(buffer, start, end);
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+            } else {
+                return Double.NaN; // '-' anywhere but the front
+            }
+        }
+        if (digits == 0) return Double.NaN;
+
+        // Both operands exact, so the single IEEE division is correctly rounded
+        if (mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POW10.length) {
+            return parseSlow(buffer, start, end);
+        }
+        double value = fractionDigits == 0 ? (double) mantissa : mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Fallback for numbers with more precision than the fast path handles exactly
+     */
+    private static double parseSlow(byte[] buffer, int start, int end) {
+        try {
+            return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Decode \d+ as an int
+     * @return the value, or -1 on overflow (Integer.parseInt would have thrown)
+     */
+    static long parseInteger(byte[] buffer, int start, int end) {
+        long value = 0;
+        for (int pos = start; pos < end; pos++) {
+            value = value * 10 + (buffer[pos] - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return value;
+    }
+
+    /**
+     * Same heuristic the regex path used to decide whether a failure is worth reporting
+     */
+    private static boolean looksLikeTelemetry(byte[] buffer, int start, int end) {
+        boolean pitch = false;
+        boolean roll = false;
+        for (int i = start; i + 1 < end; i++) {
+            if (buffer[i + 1] == ':') {
+                if (buffer[i] == 'P') pitch = true;
+                else if (buffer[i] == 'R') roll = true;
+            }
+        }
+        return pitch && roll;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public long getParsedCount() { return parsedCount; }
+    public long getIgnoredCount() { return ignoredCount; }
+    public long getMalformedCount() { return malformedCount; }
+
+    public void resetCounters() {
+        parsedCount = ignoredCount = malformedCount = 0;
+    }
+}
@@ -0,0 +1,183 @@
+package com.faraz.communication;
+
+import com.faraz.model.TelemetrySample;
+
+/**
+ * Turns a raw byte stream into telemetry samples
+ * Auto-detects the text line format vs COBS framed binary on connect
+ */
+public class TelemetryStreamDecoder {
+
+    // RECORDED is never detected: SerialReader reports it for sources that deliver samples
+    public enum Protocol { DETECTING, TEXT, BINARY, RECORDED }
+
+    /**
+     * Receives each decoded sample; the instance is reused for the next sample
+     */
+    public interface SampleSink {
+        void onSample(TelemetrySample sample);
+    }
+
+    // Detection gives up on the oldest bytes once this much is buffered without a verdict
+    private static final int DETECT_WINDOW = 4096;
+    // Consecutive bad frames after which an auto-detected stream is probed again
+    private static final int REDETECT_THRESHOLD = 64;
+
+    private final ByteRingBuffer ring;
+    private final DelimitedFramer textFramer;
+    private final DelimitedFramer binaryFramer;
+    private final TelemetryLineParser lineParser = new TelemetryLineParser();
+    private final TelemetryFrameDecoder frameDecoder = new TelemetryFrameDecoder();
+    private final TelemetrySample sample = new TelemetrySample();
+    private final byte[] probe;
+    private final IngestStatistics statistics;
+    private final SampleSink sink;
+    private final Protocol forcedProtocol;
+
+    private volatile Protocol protocol = Protocol.DETECTING;
+    private int consecutiveErrors = 0;
+    private long textSequence = 0;
+    private long reportedLost = 0;
+    private long receiveNanos = 0;
+
+    private final DelimitedFramer.FrameHandler lineHandler = this::onLine;
+    private final DelimitedFramer.FrameHandler frameHandler = this::onBinaryFrame;
+
+    /**
+     * @param forcedProtocol TEXT or BINARY to skip detection, DETECTING for auto
+     */
+    public TelemetryStreamDecoder(int bufferCapacity, Protocol forcedProtocol,
+                                  IngestStatistics statistics, SampleSink sink) {
+        this.ring = new ByteRingBuffer(bufferCapacity);
+        this.textFramer = DelimitedFramer.lines(ring);
+        this.binaryFramer = new DelimitedFramer(ring, TelemetryFrame.DELIMITER, false);
+        this.probe = new byte[ring.capacity()];
+        this.statistics = statistics;
+        this.sink = sink;
+        this.forcedProtocol = forcedProtocol;
+        reset();
+    }
+
+    /**
+     * Buffer the transport reads into (write at writeOffset(), then commitWrite())
+     */
+    public ByteRingBuffer buffer() { return ring; }
+
+    /**
+     * Drop buffered bytes and start detection again (call on every (re)connect)
+     */
+    public void reset() {
+        textFramer.reset();
+        binaryFramer.reset();
+        frameDecoder.resetSequence();
+        consecutiveErrors = 0;
+        protocol = forcedProtocol;
+    }
+
+    /**
+     * Decode everything that is complete in the buffer
+     */
+    public void process() {
+        receiveNanos = System.nanoTime(); // One receive stamp per read
+        if (protocol == Protocol.DETECTING) {
+            detect();
+        }
+        if (protocol == Protocol.TEXT) {
+            statistics.recordLines(textFramer.drain(lineHandler));
+        } else if (protocol == Protocol.BINARY) {
+            statistics.recordLines(binaryFramer.drain(frameHandler));
+            long lost = frameDecoder.getLostCount();
+            if (lost != reportedLost) {
+                statistics.recordLostFrames(lost - reportedLost);
+                reportedLost = lost;
+            }
+        }
+    }
+
+    /**
+     * Look for either a parseable text line or a binary frame with a valid CRC
+     * Bytes are only inspected; whichever framer wins starts from the oldest byte
+     */
+    private void detect() {
+        if (containsValidFrame((byte) '\n', true)) {
+            switchTo(Protocol.TEXT, textFramer);
+        } else if (containsValidFrame(TelemetryFrame.DELIMITER, false)) {
+            switchTo(Protocol.BINARY, binaryFramer);
+        } else if (ring.size() > DETECT_WINDOW) {
+            ring.release(ring.writeIndex() - DETECT_WINDOW / 2);
+        }
+    }
+
+    private boolean containsValidFrame(byte delimiter, boolean text) {
+        long start = ring.readIndex();
+        long end;
+        while ((end = ring.indexOf(delimiter, start)) >= 0) {
+            int length = (int) (end - start);
+            ring.copyOut(start, probe, 0, length);
+            boolean valid = text
+                    ? lineParser.parse(probe, 0, length, sample) == TelemetryLineParser.Result.PARSED
+                    : frameDecoder.decode(probe, 0, length, sample) == TelemetryFrameDecoder.Result.DECODED;
+            if (valid) return true;
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private void switchTo(Protocol detected, DelimitedFramer framer) {
+        System.out.println("Telemetry protocol detected: " + detected);
+        frameDecoder.resetSequence();
+        framer.rewind();
+        consecutiveErrors = 0;
+        protocol = detected;
+    }
+
+    private void onLine(byte[] buffer, int offset, int length) {
+        TelemetryLineParser.Result result = lineParser.parse(buffer, offset, length, sample);
+        if (result == TelemetryLineParser.Result.PARSED) {
+            sample.setSequence(textSequence++);
+            accept();
+        } else if (result == TelemetryLineParser.Result.MALFORMED) {
+            reject();
+        }
+    }
+
+    private void onBinaryFrame(byte[] buffer, int offset, int length) {
+        if (frameDecoder.decode(buffer, offset, length, sample) == TelemetryFrameDecoder.Result.DECODED) {
+            accept();
+        } else {
+            reject();
+        }
+    }
+
+    private void accept() {
+        consecutiveErrors = 0;
+        sample.setReceiveNanos(receiveNanos);
+        sink.onSample(sample);
+    }
+
+    private void reject() {
+        statistics.recordMalformedLine();
+        if (++consecutiveErrors >= REDETECT_THRESHOLD && forcedProtocol == Protocol.DETECTING) {
+            System.out.println("Telemetry stream no longer decodes as " + protocol + ", re-detecting");
+            consecutiveErrors = 0;
+            protocol = Protocol.DETECTING;
+        }
+    }
+
+    /**
+     * Current wire protocol (safe to read from any thread)
+     */
+    public Protocol getProtocol() { return protocol; }
+
+    /**
+     * Parse a protocol name from configuration ("auto", "text" or "binary")
+     */
+    public static Protocol parseProtocol(String name) {
+        if (name == null) return Protocol.DETECTING;
+        switch (name.trim().toLowerCase()) {
+            case "text": return Protocol.TEXT;
+            case "binary": return Protocol.BINARY;
+            default: return Protocol.DETECTING;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.faraz.communication.source;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable ByteBuffer over the caller's array so channel reads do not allocate
+ */
+class ByteBufferView {
+    private byte[] array;
+    private ByteBuffer buffer;
+
+    ByteBuffer wrap(byte[] dst, int offset, int length) {
+        if (dst != array) {
+            array = dst;
+            buffer = ByteBuffer.wrap(dst);
+        }
+        buffer.limit(offset + length).position(offset);
+        return buffer;
+    }
+}
@@ -0,0 +1,93 @@
+package com.faraz.communication.source;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongSupplier;
+
+/**
+ * Raw capture file (text lines or binary frames) fed as if it came off the wire
+ * Reads as fast as possible, or paced to a byte rate to imitate a serial link
+ */
+public class FileTelemetrySource implements TelemetrySource {
+    private static final long PACING_SLEEP_MS = 5;
+
+    private final Path path;
+    private final long bytesPerSecond;
+    private final boolean loop;
+    private final LongSupplier nanoClock;
+    private final ByteBufferView view = new ByteBufferView();
+    private FileChannel channel;
+    private long startNanos;
+    private long delivered;
+
+    /**
+     * @param bytesPerSecond pacing rate, 0 for unlimited
+     * @param loop restart from the beginning at end of file
+     */
+    public FileTelemetrySource(String path, long bytesPerSecond, boolean loop) {
+        this(path, bytesPerSecond, loop, System::nanoTime);
+    }
+
+    FileTelemetrySource(String path, long bytesPerSecond, boolean loop, LongSupplier nanoClock) {
+        this.path = Paths.get(path);
+        this.bytesPerSecond = bytesPerSecond;
+        this.loop = loop;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        startPacing();
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        if (bytesPerSecond > 0) {
+            // In double, as elapsed nanoseconds times the rate overflows a long within hours
+            long allowed = (long) ((nanoClock.getAsLong() - startNanos) / 1e9 * bytesPerSecond) - delivered;
+            if (allowed <= 0) {
+                try {
+                    Thread.sleep(PACING_SLEEP_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+            length = (int) Math.min(length, allowed);
+        }
+
+        int count = channel.read(view.wrap(dst, offset, length));
+        if (count < 0 && loop) {
+            channel.position(0);
+            startPacing();
+            return 0;
+        }
+        if (count > 0) delivered += count;
+        return count;
+    }
+
+    private void startPacing() {
+        startNanos = nanoClock.getAsLong();
+        delivered = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "file " + path + (bytesPerSecond > 0 ? " @ " + bytesPerSecond + " B/s" : "");
+    }
+
+    @Override
+    public String getType() { return "FILE"; }
+}
@@ -0,0 +1,120 @@
+package com.faraz.communication.source;
+
+import com.faraz.model.TelemetrySample;
+import com.faraz.recording.FlightPlayback;
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded flight sample by sample
+ *
+ * Records are handed over exactly as recorded (no wire encoding, so no f32 rounding or
+ * field clamping, and independent of -Dtvc.protocol), stamped with the host time they
+ * fall due at their original spacing (optionally scaled). At max speed the end of the
+ * flight reports the throughput of the model and UI path.
+ * Playback controls are on getPlayback() once the source is open.
+ */
+public class FlightTelemetrySource implements SampleSource {
+    // Longest a read() blocks, so stop() is noticed promptly
+    private static final long MAX_WAIT_NANOS = 20_000_000L;
+
+    private final Path path;
+    private final double speed;
+    private final boolean loop;
+
+    private RecordedFlight flight;
+    private volatile FlightPlayback playback;
+
+    // Throughput of one pass through the flight
+    private long passStartNanos;
+    private long passSamples;
+    private boolean endReported;
+
+    /**
+     * @param speed 1 for real time, N for N times faster, FlightPlayback.MAX_SPEED for no waiting
+     * @param loop start over at the end instead of holding the last sample
+     */
+    public FlightTelemetrySource(String path, double speed, boolean loop) {
+        this.path = Paths.get(path);
+        this.speed = speed;
+        this.loop = loop;
+    }
+
+    @Override
+    public void open() throws IOException {
+        flight = RecordedFlight.open(path);
+        playback = new FlightPlayback(flight, speed);
+        startPass();
+        System.out.printf("Replaying %s: %d samples, %.1f s%n",
+                path, flight.getRecordCount(), flight.getDurationNanos() / 1e9);
+    }
+
+    @Override
+    public int readSample(TelemetrySample sample) throws IOException {
+        FlightPlayback playback = this.playback;
+        if (playback == null) throw new IOException("Replay source is not open");
+
+        while (true) {
+            FlightPlayback.Status status = playback.next(System.nanoTime(), sample);
+            if (status == FlightPlayback.Status.SAMPLE) {
+                passSamples++;
+                endReported = false;
+                return 1;
+            }
+
+            if (status == FlightPlayback.Status.END) {
+                reportPass();
+                if (loop) {
+                    playback.seek(0);
+                    startPass();
+                    continue;
+                }
+            }
+
+            // Nothing due yet: wait for the next record
+            LockSupport.parkNanos(Math.min(playback.getWaitNanos(), MAX_WAIT_NANOS));
+            return 0;
+        }
+    }
+
+    private void startPass() {
+        passStartNanos = System.nanoTime();
+        passSamples = 0;
+        endReported = false;
+    }
+
+    private void reportPass() {
+        if (endReported) return;
+        endReported = true;
+        double seconds = (System.nanoTime() - passStartNanos) / 1e9;
+        System.out.printf("Replay reached end of %s: %d samples in %.2f s (%.0f samples/s)%n",
+                path.getFileName(), passSamples, seconds, passSamples / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * Speed, pause, step and seek controls (null until opened)
+     */
+    public FlightPlayback getPlayback() { return playback; }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public void close() {
+        if (flight != null) {
+            flight.close();
+            flight = null;
+        }
+        playback = null;
+    }
+
+    @Override
+    public String getDescription() {
+        return "replay " + path + (speed == FlightPlayback.MAX_SPEED ? " @ max" : " @ " + speed + "x");
+    }
+
+    @Override
+    public String getType() { return "REPLAY"; }
+}
@@ -0,0 +1,83 @@
+package com.faraz.communication.source;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unix pseudo terminal, e.g. one end of `socat -d -d pty,raw,echo=0 pty,raw,echo=0`
+ * Create the pty in raw mode so binary frames pass through unmodified.
+ *
+ * Terminal devices cannot be read non-blocking from Java, so open() sets the terminal's
+ * own read timeout (VMIN 0, VTIME 1 s) with stty. A read then returns after at most a
+ * second with or without data and the reader loop sees stop() promptly. The closed far
+ * end of a pty shows up as an I/O error, so an empty read is always a timeout.
+ */
+public class PtyTelemetrySource implements TelemetrySource {
+    private static final String READ_TIMEOUT_DECISECONDS = "10";
+    private static final long STTY_TIMEOUT_SECONDS = 5;
+
+    private final Path path;
+    private final ByteBufferView view = new ByteBufferView();
+    private FileChannel channel;
+
+    public PtyTelemetrySource(String path) {
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            setReadTimeout();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void setReadTimeout() throws IOException {
+        // GNU stty names the device with -F, BSD and macOS stty with -f
+        for (String flag : new String[] { "-F", "-f" }) {
+            Process stty = new ProcessBuilder("stty", flag, path.toString(), "min", "0", "time", READ_TIMEOUT_DECISECONDS)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try {
+                if (stty.waitFor(STTY_TIMEOUT_SECONDS, TimeUnit.SECONDS) && stty.exitValue() == 0) return;
+                stty.destroyForcibly();
+            } catch (InterruptedException e) {
+                stty.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted setting the read timeout of " + path, e);
+            }
+        }
+        throw new IOException("Could not set the read timeout of " + path + " with stty");
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        // An empty read comes back as end of stream from FileChannel
+        int count = channel.read(view.wrap(dst, offset, length));
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "pty " + path;
+    }
+
+    @Override
+    public String getType() { return "PTY"; }
+}
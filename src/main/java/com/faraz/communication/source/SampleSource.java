@@ -0,0 +1,17 @@
+package com.faraz.communication.source;
+
+import com.faraz.model.TelemetrySample;
+import java.io.IOException;
+
+/**
+ * Source that delivers complete samples instead of bytes (a recorded flight)
+ * SerialReader publishes them as they are, without going through the wire decoder
+ */
+public non-sealed interface SampleSource extends TelemetryInput {
+
+    /**
+     * Next sample into sample, waiting a short time for it
+     * @return 1 for a sample, 0 on timeout, -1 once the source has ended
+     */
+    int readSample(TelemetrySample sample) throws IOException;
+}
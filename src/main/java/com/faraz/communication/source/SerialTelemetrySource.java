@@ -0,0 +1,68 @@
+package com.faraz.communication.source;
+
+import com.fazecast.jSerialComm.SerialPort;
+import java.io.IOException;
+
+/**
+ * USB serial connection to the flight computer (jSerialComm)
+ */
+public class SerialTelemetrySource implements TelemetrySource {
+    private static final int READ_TIMEOUT_MS = 1000;
+
+    private final String portName;
+    private final int baudRate;
+    private SerialPort port;
+
+    public SerialTelemetrySource(String portName, int baudRate) {
+        this.portName = portName;
+        this.baudRate = baudRate;
+    }
+
+    @Override
+    public void open() throws IOException {
+        port = SerialPort.getCommPort(portName);
+        port.setBaudRate(baudRate);
+        // Semi-blocking: wait for the first byte, then return whatever is buffered
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, READ_TIMEOUT_MS, 0);
+
+        if (!port.openPort()) {
+            port = null;
+            throw new IOException("Failed to open serial port: " + portName);
+        }
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        // Never block when data is already waiting; otherwise block for the first byte
+        int available = port.bytesAvailable();
+        if (available < 0) {
+            throw new IOException("Serial port no longer available: " + portName);
+        }
+        int request = available > 0 ? Math.min(length, available) : length;
+
+        int count = port.readBytes(dst, request, offset);
+        if (count < 0) {
+            throw new IOException("Serial read failed on: " + portName);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        if (port != null) {
+            port.closePort();
+            port = null;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return portName + " @ " + baudRate + " baud";
+    }
+
+    @Override
+    public String getType() { return "SERIAL"; }
+
+    public String getPortName() { return portName; }
+    public int getBaudRate() { return baudRate; }
+}
@@ -0,0 +1,81 @@
+package com.faraz.communication.source;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * TCP client, e.g. for the radio-bridge relay
+ * Uses a non-blocking channel with a selector so reads time out like the serial port
+ */
+public class TcpTelemetrySource implements TelemetrySource {
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 1000;
+
+    private final String host;
+    private final int port;
+    private final ByteBufferView view = new ByteBufferView();
+    private SocketChannel channel;
+    private Selector selector;
+    private SelectionKey key;
+
+    public TcpTelemetrySource(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void open() throws IOException {
+        selector = Selector.open();
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+
+        try {
+            if (!channel.connect(new InetSocketAddress(host, port))) {
+                key = channel.register(selector, SelectionKey.OP_CONNECT);
+                if (selector.select(CONNECT_TIMEOUT_MS) == 0 || !channel.finishConnect()) {
+                    throw new IOException("Timed out connecting to " + getDescription());
+                }
+                selector.selectedKeys().clear();
+                key.interestOps(SelectionKey.OP_READ);
+            } else {
+                key = channel.register(selector, SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        int count = channel.read(view.wrap(dst, offset, length));
+        if (count != 0) return count;
+
+        selector.select(READ_TIMEOUT_MS);
+        selector.selectedKeys().clear();
+        return channel.read(view.wrap(dst, offset, length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "tcp://" + host + ":" + port;
+    }
+
+    @Override
+    public String getType() { return "TCP"; }
+}
@@ -0,0 +1,26 @@
+package com.faraz.communication.source;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where telemetry comes from: a byte transport (TelemetrySource) or a source of
+ * complete samples (SampleSource). SerialReader accepts either.
+ */
+public sealed interface TelemetryInput extends Closeable permits TelemetrySource, SampleSource {
+
+    /**
+     * Open the underlying transport
+     */
+    void open() throws IOException;
+
+    /**
+     * Human readable description for status labels and logs
+     */
+    String getDescription();
+
+    /**
+     * Short transport name (SERIAL, TCP, UDP, PTY, FILE, REPLAY)
+     */
+    String getType();
+}
@@ -0,0 +1,16 @@
+package com.faraz.communication.source;
+
+import java.io.IOException;
+
+/**
+ * Byte transport that telemetry is read from (serial port, socket, file...)
+ * All sources feed the same decoder and TelemetryData update path in SerialReader
+ */
+public non-sealed interface TelemetrySource extends TelemetryInput {
+
+    /**
+     * Read whatever is available into dst, waiting a short time (about a second) for the first byte
+     * @return number of bytes read, 0 on timeout, -1 once the source has ended
+     */
+    int read(byte[] dst, int offset, int length) throws IOException;
+}
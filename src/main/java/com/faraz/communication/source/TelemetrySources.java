@@ -0,0 +1,121 @@
+package com.faraz.communication.source;
+
+import com.faraz.recording.FlightPlayback;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates telemetry sources from a one-line spec (command line / -Dtvc.source)
+ *
+ *   serial:/dev/ttyACM0@500000        serial port, baud optional
+ *   tcp:relay.local:5760              TCP client
+ *   udp::5760                         UDP on all interfaces
+ *   udp:5760?group=239.1.2.3&iface=eth0   UDP multicast
+ *   pty:/dev/pts/4                    Unix pseudo terminal
+ *   file:capture.txt?rate=50000&loop=true   capture file, rate in bytes/s (0 = max)
+ *   replay:flights/flight-1?speed=4   recorded flight, speed factor or "max"
+ *
+ * A spec without a known prefix is taken as a serial port name.
+ */
+public final class TelemetrySources {
+    public static final int DEFAULT_BAUD_RATE = 500000;
+
+    private TelemetrySources() {}
+
+    public static TelemetryInput fromSpec(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Empty telemetry source spec");
+        }
+        spec = spec.trim();
+
+        int colon = spec.indexOf(':');
+        String scheme = colon > 0 ? spec.substring(0, colon).toLowerCase() : "";
+        String rest = colon > 0 ? spec.substring(colon + 1) : spec;
+
+        String query = "";
+        int question = rest.indexOf('?');
+        if (question >= 0) {
+            query = rest.substring(question + 1);
+            rest = rest.substring(0, question);
+        }
+        Map<String, String> options = parseQuery(query);
+
+        switch (scheme) {
+            case "serial":
+                return serial(rest);
+            case "tcp": {
+                int split = rest.lastIndexOf(':');
+                if (split <= 0) throw new IllegalArgumentException("Expected tcp:<host>:<port> in " + spec);
+                return new TcpTelemetrySource(stripBrackets(rest.substring(0, split)),
+                        parsePort(rest.substring(split + 1), spec));
+            }
+            case "udp": {
+                int split = rest.lastIndexOf(':');
+                String host = split > 0 ? stripBrackets(rest.substring(0, split)) : null;
+                int port = parsePort(rest.substring(split + 1), spec);
+                return new UdpTelemetrySource(host, port, options.get("group"), options.get("iface"));
+            }
+            case "pty":
+                return new PtyTelemetrySource(rest);
+            case "file":
+                return new FileTelemetrySource(rest,
+                        Long.parseLong(options.getOrDefault("rate", "0")),
+                        Boolean.parseBoolean(options.getOrDefault("loop", "false")));
+            case "replay":
+                return new FlightTelemetrySource(rest,
+                        parseSpeed(options.getOrDefault("speed", "1"), spec),
+                        Boolean.parseBoolean(options.getOrDefault("loop", "false")));
+            default:
+                // Plain port name, e.g. /dev/ttyACM0 or COM3 (also COM3@115200)
+                return serial(spec);
+        }
+    }
+
+    private static SerialTelemetrySource serial(String port) {
+        int at = port.lastIndexOf('@');
+        if (at > 0) {
+            return new SerialTelemetrySource(port.substring(0, at), Integer.parseInt(port.substring(at + 1)));
+        }
+        return new SerialTelemetrySource(port, DEFAULT_BAUD_RATE);
+    }
+
+    private static int parsePort(String value, String spec) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port in telemetry source: " + spec);
+        }
+    }
+
+    private static double parseSpeed(String value, String spec) {
+        if (value.equalsIgnoreCase("max")) return FlightPlayback.MAX_SPEED;
+        try {
+            double speed = Double.parseDouble(value.endsWith("x") ? value.substring(0, value.length() - 1) : value);
+            if (speed > 0) return speed;
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw new IllegalArgumentException("Invalid replay speed in telemetry source: " + spec);
+    }
+
+    private static String stripBrackets(String host) {
+        if (host.startsWith("[") && host.endsWith("]")) {
+            return host.substring(1, host.length() - 1);
+        }
+        return host;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> options = new HashMap<>();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                options.put(pair.substring(0, eq).toLowerCase(), pair.substring(eq + 1));
+            } else {
+                options.put(pair.toLowerCase(), "true");
+            }
+        }
+        return options;
+    }
+}
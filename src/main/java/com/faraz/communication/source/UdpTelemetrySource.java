@@ -0,0 +1,132 @@
+package com.faraz.communication.source;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Enumeration;
+
+/**
+ * UDP receiver, unicast or multicast
+ * Datagram payloads are concatenated into the byte stream, so each datagram
+ * should carry whole text lines or whole binary frames
+ */
+public class UdpTelemetrySource implements TelemetrySource {
+    private static final int READ_TIMEOUT_MS = 1000;
+    private static final int MAX_DATAGRAM = 65536;
+
+    private final String bindHost;
+    private final int port;
+    private final String group;
+    private final String interfaceName;
+
+    // Holds the current datagram until the caller has consumed all of it
+    private final ByteBuffer datagram = ByteBuffer.allocate(MAX_DATAGRAM);
+    private DatagramChannel channel;
+    private Selector selector;
+
+    /**
+     * @param bindHost local address to bind, or null for all interfaces
+     * @param group multicast group to join, or null for unicast
+     * @param interfaceName network interface for the multicast join, or null for the first suitable one
+     */
+    public UdpTelemetrySource(String bindHost, int port, String group, String interfaceName) {
+        this.bindHost = bindHost;
+        this.port = port;
+        this.group = group;
+        this.interfaceName = interfaceName;
+    }
+
+    @Override
+    public void open() throws IOException {
+        InetAddress groupAddress = group != null ? InetAddress.getByName(group) : null;
+        if (groupAddress != null && !groupAddress.isMulticastAddress()) {
+            throw new IOException("Not a multicast address: " + group);
+        }
+        ProtocolFamily family = groupAddress instanceof Inet6Address
+                ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET;
+
+        channel = DatagramChannel.open(family);
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(bindHost != null ? new InetSocketAddress(bindHost, port) : new InetSocketAddress(port));
+            channel.configureBlocking(false);
+
+            if (groupAddress != null) {
+                channel.join(groupAddress, findInterface());
+            }
+
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        datagram.limit(0);
+    }
+
+    private NetworkInterface findInterface() throws IOException {
+        if (interfaceName != null) {
+            NetworkInterface ni = NetworkInterface.getByName(interfaceName);
+            if (ni == null) throw new IOException("Unknown network interface: " + interfaceName);
+            return ni;
+        }
+        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements()) {
+            NetworkInterface ni = interfaces.nextElement();
+            if (ni.isUp() && ni.supportsMulticast() && !ni.isLoopback()) return ni;
+        }
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback == null) throw new IOException("No multicast capable network interface");
+        return loopback;
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+        if (!datagram.hasRemaining()) {
+            datagram.clear();
+            SocketAddress sender = channel.receive(datagram);
+            if (sender == null) {
+                selector.select(READ_TIMEOUT_MS);
+                selector.selectedKeys().clear();
+                sender = channel.receive(datagram);
+            }
+            datagram.flip();
+            if (sender == null) return 0;
+        }
+
+        int count = Math.min(length, datagram.remaining());
+        datagram.get(dst, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
+        if (channel != null) {
+            channel.close(); // Also drops the multicast membership
+            channel = null;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        String address = group != null ? group : (bindHost != null ? bindHost : "*");
+        return "udp://" + address + ":" + port + (interfaceName != null ? " (" + interfaceName + ")" : "");
+    }
+
+    @Override
+    public String getType() { return "UDP"; }
+}
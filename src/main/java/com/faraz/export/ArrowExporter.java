@@ -0,0 +1,243 @@
+package com.faraz.export;
+
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Flight to an Arrow IPC file (Feather v2): pandas.read_feather, pyarrow.ipc.open_file,
+ * DuckDB and Polars read it directly
+ *
+ * The file is the Arrow IPC stream - schema message, then one record batch per
+ * ExportBatch - between "ARROW1" magics, with a footer listing the batches. Columns are
+ * non-nullable: int64 time_ns and sequence, timestamp[ns, UTC] epoch_ns, float64 and
+ * int32 channels. Batch bodies are the ExportBatch column buffers themselves, handed to
+ * a gathering write without being copied into a body buffer first.
+ */
+public class ArrowExporter implements TableExporter {
+    private static final byte[] MAGIC = { 'A', 'R', 'R', 'O', 'W', '1', 0, 0 };
+    private static final int CONTINUATION = 0xFFFFFFFF;
+
+    // org.apache.arrow.flatbuf enums
+    private static final short METADATA_V5 = 4;
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_RECORD_BATCH = 3;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_TIMESTAMP = 10;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short UNIT_NANOSECOND = 3;
+
+    private static final int BLOCK_SIZE = 24;
+    private static final int STRUCT_16 = 16;
+
+    private final ExportBatch batch;
+    private final FlatBufferWriter metadata = new FlatBufferWriter();
+    private final ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer zeros = ByteBuffer.allocateDirect(8);
+    private final ByteBuffer[] body = new ByteBuffer[ExportBatch.COLUMN_COUNT * 2];
+    private final long[] bufferOffsets = new long[ExportBatch.COLUMN_COUNT];
+
+    // Record batch blocks for the footer: offset, metadata length, body length
+    private long[] blocks = new long[3 * 16];
+
+    public ArrowExporter() {
+        this(ExportBatch.DEFAULT_ROWS);
+    }
+
+    public ArrowExporter(int batchRows) {
+        this.batch = new ExportBatch(batchRows);
+    }
+
+    @Override
+    public long export(RecordedFlight flight, Path file) throws IOException {
+        long rows = 0;
+        int batches = 0;
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.wrap(MAGIC));
+            writeMessage(out, schemaMessage());
+
+            int count;
+            while ((count = batch.fill(flight, rows)) > 0) {
+                if (3 * (batches + 1) > blocks.length) blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                long offset = out.position();
+                long bodyLength = layoutBody(count);
+                int metadataLength = writeMessage(out, recordBatchMessage(count, bodyLength));
+                writeFully(out, body);
+
+                blocks[3 * batches] = offset;
+                blocks[3 * batches + 1] = metadataLength;
+                blocks[3 * batches + 2] = bodyLength;
+                batches++;
+                rows += count;
+            }
+
+            // End-of-stream marker, then the footer and its length
+            prefix.clear();
+            prefix.putInt(CONTINUATION).putInt(0).flip();
+            writeFully(out, prefix);
+            byte[] footer = footer(batches);
+            writeFully(out, ByteBuffer.wrap(footer));
+            prefix.clear();
+            prefix.putInt(footer.length).flip();
+            writeFully(out, prefix);
+            writeFully(out, ByteBuffer.wrap(MAGIC, 0, 6));
+        }
+        return rows;
+    }
+
+    /**
+     * Fill body[] with the column buffers and padding; returns the body length
+     */
+    private long layoutBody(int rows) {
+        long offset = 0;
+        for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+            ByteBuffer column = batch.column(c);
+            int length = column.remaining();
+            int padding = (8 - length % 8) % 8;
+            bufferOffsets[c] = offset;
+            body[2 * c] = column;
+            body[2 * c + 1] = zeros.duplicate().limit(padding);
+            offset += length + padding;
+        }
+        return offset;
+    }
+
+    /**
+     * Continuation marker, metadata length, metadata; returns the bytes written
+     */
+    private int writeMessage(FileChannel out, byte[] flatbuffer) throws IOException {
+        prefix.clear();
+        prefix.putInt(CONTINUATION).putInt(flatbuffer.length).flip();
+        writeFully(out, prefix);
+        writeFully(out, ByteBuffer.wrap(flatbuffer));
+        return 8 + flatbuffer.length;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) remaining += buffer.remaining();
+        while (remaining > 0) remaining -= out.write(buffers);
+    }
+
+    private byte[] schemaMessage() {
+        int root = metadata.start();
+        FlatBufferWriter.Table message = metadata.table()
+                .addShort(0, METADATA_V5)            // version
+                .addByte(1, HEADER_SCHEMA)           // header_type
+                .addOffset(2)                        // header
+                .addLong(3, 0);                      // bodyLength
+        metadata.setOffset(root, message.end());
+        writeSchema(message.getPosition(2));
+        return metadata.finish();
+    }
+
+    private byte[] recordBatchMessage(int rows, long bodyLength) {
+        int root = metadata.start();
+        FlatBufferWriter.Table message = metadata.table()
+                .addShort(0, METADATA_V5)
+                .addByte(1, HEADER_RECORD_BATCH)
+                .addOffset(2)
+                .addLong(3, bodyLength);
+        metadata.setOffset(root, message.end());
+
+        FlatBufferWriter.Table recordBatch = metadata.table()
+                .addLong(0, rows)                    // length
+                .addOffset(1)                        // nodes
+                .addOffset(2);                       // buffers
+        metadata.setOffset(message.getPosition(2), recordBatch.end());
+
+        int nodes = metadata.structVector(ExportBatch.COLUMN_COUNT, STRUCT_16, 8);
+        metadata.setOffset(recordBatch.getPosition(1), nodes - 4);
+        for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+            metadata.putLong(nodes + c * STRUCT_16, rows); // length; null_count stays 0
+        }
+
+        // Per column: an empty validity buffer (no nulls), then the values
+        int buffers = metadata.structVector(ExportBatch.COLUMN_COUNT * 2, STRUCT_16, 8);
+        metadata.setOffset(recordBatch.getPosition(2), buffers - 4);
+        for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+            int validity = buffers + 2 * c * STRUCT_16;
+            metadata.putLong(validity, bufferOffsets[c]);
+            metadata.putLong(validity + STRUCT_16, bufferOffsets[c]);
+            metadata.putLong(validity + STRUCT_16 + 8, (long) rows * ExportBatch.width(c));
+        }
+        return metadata.finish();
+    }
+
+    private byte[] footer(int batches) {
+        int root = metadata.start();
+        FlatBufferWriter.Table footer = metadata.table()
+                .addShort(0, METADATA_V5)            // version
+                .addOffset(1)                        // schema
+                .addOffset(2)                        // dictionaries
+                .addOffset(3);                       // recordBatches
+        metadata.setOffset(root, footer.end());
+        writeSchema(footer.getPosition(1));
+
+        int dictionaries = metadata.structVector(0, BLOCK_SIZE, 8);
+        metadata.setOffset(footer.getPosition(2), dictionaries - 4);
+        int recordBatches = metadata.structVector(batches, BLOCK_SIZE, 8);
+        metadata.setOffset(footer.getPosition(3), recordBatches - 4);
+        for (int b = 0; b < batches; b++) {
+            int block = recordBatches + b * BLOCK_SIZE;
+            metadata.putLong(block, blocks[3 * b]);
+            metadata.putInt(block + 8, (int) blocks[3 * b + 1]);
+            metadata.putLong(block + 16, blocks[3 * b + 2]);
+        }
+        return metadata.finish();
+    }
+
+    // Schema table and its fields, pointed to from the offset field at parentOffset
+    private void writeSchema(int parentOffset) {
+        FlatBufferWriter.Table schema = metadata.table()
+                .addShort(0, (short) 0)              // endianness: little
+                .addOffset(1);                       // fields
+        metadata.setOffset(parentOffset, schema.end());
+
+        int fields = metadata.offsetVector(ExportBatch.COLUMN_COUNT);
+        metadata.setOffset(schema.getPosition(1), fields - 4);
+        for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+            int typeId = c == ExportBatch.EPOCH ? TYPE_TIMESTAMP
+                    : ExportBatch.isInteger(c) ? TYPE_INT : TYPE_FLOATING_POINT;
+            FlatBufferWriter.Table field = metadata.table()
+                    .addOffset(0)                    // name
+                    .addBool(1, false)               // nullable
+                    .addByte(2, typeId)              // type_type
+                    .addOffset(3)                    // type
+                    .addOffset(5);                   // children (required, empty)
+            metadata.setOffset(fields + 4 * c, field.end());
+
+            metadata.setOffset(field.getPosition(0), metadata.string(ExportBatch.name(c)));
+            switch (typeId) {
+                case TYPE_TIMESTAMP: {
+                    FlatBufferWriter.Table type = metadata.table().addShort(0, UNIT_NANOSECOND).addOffset(1);
+                    metadata.setOffset(field.getPosition(3), type.end());
+                    metadata.setOffset(type.getPosition(1), metadata.string("UTC"));
+                    break;
+                }
+                case TYPE_INT:
+                    metadata.setOffset(field.getPosition(3),
+                            metadata.table().addInt(0, ExportBatch.width(c) * 8).addBool(1, true).end());
+                    break;
+                default:
+                    metadata.setOffset(field.getPosition(3), metadata.table().addShort(0, PRECISION_DOUBLE).end());
+                    break;
+            }
+            metadata.setOffset(field.getPosition(5), metadata.offsetVector(0) - 4);
+        }
+    }
+
+    @Override
+    public String getExtension() { return "arrow"; }
+}
@@ -0,0 +1,80 @@
+package com.faraz.export;
+
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Flight to CSV, one header line then one line per record
+ *
+ * Doubles are written in Java's shortest round-trip form, so reading the file back gives
+ * exactly the recorded values. Text is built in a reusable buffer and written in large
+ * chunks; nothing is allocated per row.
+ */
+public class CsvExporter implements TableExporter {
+    private static final int FLUSH_BYTES = 256 * 1024;
+
+    private final ExportBatch batch;
+    private final StringBuilder text = new StringBuilder(FLUSH_BYTES + 1024);
+    private byte[] bytes = new byte[FLUSH_BYTES + 1024];
+
+    public CsvExporter() {
+        this(ExportBatch.DEFAULT_ROWS);
+    }
+
+    public CsvExporter(int batchRows) {
+        this.batch = new ExportBatch(batchRows);
+    }
+
+    @Override
+    public long export(RecordedFlight flight, Path file) throws IOException {
+        long rows = 0;
+        text.setLength(0);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+                if (c > 0) text.append(',');
+                text.append(ExportBatch.name(c));
+            }
+            text.append('\n');
+
+            int count;
+            while ((count = batch.fill(flight, rows)) > 0) {
+                for (int row = 0; row < count; row++) {
+                    appendRow(row);
+                    if (text.length() >= FLUSH_BYTES) flush(out);
+                }
+                rows += count;
+            }
+            flush(out);
+        }
+        return rows;
+    }
+
+    private void appendRow(int row) {
+        for (int c = 0; c < ExportBatch.COLUMN_COUNT; c++) {
+            if (c > 0) text.append(',');
+            if (ExportBatch.width(c) == 8 && ExportBatch.isInteger(c)) {
+                text.append(batch.getLong(c, row));
+            } else if (ExportBatch.isInteger(c)) {
+                text.append(batch.getInt(c, row));
+            } else {
+                text.append(batch.getDouble(c, row));
+            }
+        }
+        text.append('\n');
+    }
+
+    // The text is plain ASCII: one byte per char
+    private void flush(OutputStream out) throws IOException {
+        int length = text.length();
+        if (bytes.length < length) bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = (byte) text.charAt(i);
+        out.write(bytes, 0, length);
+        text.setLength(0);
+    }
+
+    @Override
+    public String getExtension() { return "csv"; }
+}
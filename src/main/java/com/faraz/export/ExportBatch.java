@@ -0,0 +1,105 @@
+package com.faraz.export;
+
+import com.faraz.model.TelemetrySample;
+import com.faraz.recording.FlightChannel;
+import com.faraz.recording.RecordedFlight;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A run of flight records laid out as the export columns
+ *
+ * Every column is a little-endian direct buffer in Arrow's fixed-width layout, so the
+ * Arrow exporter hands the buffers to the file channel as they are and the CSV exporter
+ * formats straight out of them. Memory is fixed by the row capacity.
+ */
+final class ExportBatch {
+    static final int DEFAULT_ROWS = 64 * 1024;
+
+    static final int TIME = 0;
+    static final int EPOCH = 1;
+    static final int SEQUENCE = 2;
+    static final int FIRST_CHANNEL = 3;
+    static final int COLUMN_COUNT = FIRST_CHANNEL + FlightChannel.values().length;
+
+    private static final FlightChannel[] CHANNELS = FlightChannel.values();
+
+    private final ByteBuffer[] columns = new ByteBuffer[COLUMN_COUNT];
+    private final int capacity;
+    private final TelemetrySample sample = new TelemetrySample();
+    private int size = 0;
+
+    ExportBatch(int capacity) {
+        this.capacity = capacity;
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            columns[c] = ByteBuffer.allocateDirect(capacity * width(c)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    static String name(int column) {
+        switch (column) {
+            case TIME: return "time_ns";
+            case EPOCH: return "epoch_ns";
+            case SEQUENCE: return "sequence";
+            default: return CHANNELS[column - FIRST_CHANNEL].getLabel();
+        }
+    }
+
+    static boolean isInteger(int column) {
+        return column < FIRST_CHANNEL || CHANNELS[column - FIRST_CHANNEL].isInteger();
+    }
+
+    /**
+     * Bytes per value: time, epoch and sequence are int64, integer channels int32, the rest float64
+     */
+    static int width(int column) {
+        return column >= FIRST_CHANNEL && CHANNELS[column - FIRST_CHANNEL].isInteger() ? 4 : 8;
+    }
+
+    /**
+     * Read up to capacity records starting at from; returns the number read
+     */
+    int fill(RecordedFlight flight, long from) {
+        long remaining = flight.getRecordCount() - from;
+        int count = (int) Math.max(0, Math.min(capacity, remaining));
+        long startNanos = flight.getStartNanos();
+        long epochNanos = flight.getStartEpochMillis() * 1_000_000L;
+
+        for (int i = 0; i < count; i++) {
+            flight.read(from + i, sample);
+            long time = sample.getReceiveNanos() - startNanos;
+            int at8 = i * 8;
+            columns[TIME].putLong(at8, time);
+            columns[EPOCH].putLong(at8, epochNanos + time);
+            columns[SEQUENCE].putLong(at8, sample.getSequence());
+            for (int c = 0; c < CHANNELS.length; c++) {
+                ByteBuffer column = columns[FIRST_CHANNEL + c];
+                FlightChannel channel = CHANNELS[c];
+                if (channel.isInteger()) {
+                    column.putInt(i * 4, (int) channel.get(sample));
+                } else {
+                    column.putDouble(at8, channel.get(sample));
+                }
+            }
+        }
+        size = count;
+        return count;
+    }
+
+    int size() { return size; }
+
+    long getLong(int column, int row) { return columns[column].getLong(row * 8); }
+
+    int getInt(int column, int row) { return columns[column].getInt(row * 4); }
+
+    double getDouble(int column, int row) { return columns[column].getDouble(row * 8); }
+
+    /**
+     * The filled part of a column, ready to write (a fresh view each call)
+     */
+    ByteBuffer column(int column) {
+        ByteBuffer view = columns[column].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.clear().limit(size * width(column));
+        return view;
+    }
+}
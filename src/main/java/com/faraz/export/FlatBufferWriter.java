@@ -0,0 +1,178 @@
+package com.faraz.export;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Just enough of a FlatBuffers encoder for Arrow IPC metadata
+ *
+ * Objects are written front to back: a parent goes first with placeholder offsets, and
+ * each child is written afterwards and patched in with setOffset(). FlatBuffers only
+ * requires child objects to sit after the offsets that point at them. Every scalar is
+ * aligned to its own size relative to the buffer start, as the Arrow verifier checks.
+ */
+final class FlatBufferWriter {
+    private ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Start a buffer; returns the position of the root offset
+     */
+    int start() {
+        buffer.clear();
+        buffer.putInt(0);
+        return 0;
+    }
+
+    /**
+     * Point the offset field at position at to target (which must come later)
+     */
+    void setOffset(int at, int target) {
+        if (target <= at) throw new IllegalStateException("Child " + target + " written before its offset " + at);
+        buffer.putInt(at, target - at);
+    }
+
+    int position() { return buffer.position(); }
+
+    /**
+     * The finished buffer, zero padded to a multiple of 8 bytes
+     */
+    byte[] finish() {
+        pad(8, 0);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // Pad so that (position + extra) is a multiple of alignment
+    private void pad(int alignment, int extra) {
+        while ((buffer.position() + extra) % alignment != 0) {
+            ensure(1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    /**
+     * Null-terminated UTF-8 string; returns its position
+     */
+    int string(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        pad(4, 0);
+        ensure(4 + utf8.length + 1);
+        int at = buffer.position();
+        buffer.putInt(utf8.length);
+        buffer.put(utf8);
+        buffer.put((byte) 0);
+        return at;
+    }
+
+    /**
+     * Vector of count structs (elements zeroed); returns the position of the first element
+     */
+    int structVector(int count, int structSize, int alignment) {
+        pad(Math.max(4, alignment), 4);
+        ensure(4 + count * structSize);
+        buffer.putInt(count);
+        int first = buffer.position();
+        for (int i = 0; i < count * structSize; i++) buffer.put((byte) 0);
+        return first;
+    }
+
+    /**
+     * Vector of count offsets; element i is at the returned position + 4 * i, to be set later
+     */
+    int offsetVector(int count) {
+        return structVector(count, 4, 4);
+    }
+
+    void putLong(int at, long value) { buffer.putLong(at, value); }
+
+    void putInt(int at, int value) { buffer.putInt(at, value); }
+
+    /**
+     * Table under construction: add the fields, then end() writes it
+     */
+    Table table() {
+        return new Table();
+    }
+
+    final class Table {
+        private final long[] values = new long[16];
+        private final int[] sizes = new int[16]; // 0 = field absent, 4 for offsets
+        private final boolean[] offsets = new boolean[16];
+        private final int[] fieldPositions = new int[16];
+        private int slots = 0;
+
+        Table addLong(int slot, long value) { return add(slot, value, 8, false); }
+        Table addInt(int slot, int value) { return add(slot, value, 4, false); }
+        Table addShort(int slot, short value) { return add(slot, value, 2, false); }
+        Table addByte(int slot, int value) { return add(slot, value, 1, false); }
+        Table addBool(int slot, boolean value) { return add(slot, value ? 1 : 0, 1, false); }
+
+        /**
+         * Offset field to set with setOffset(getPosition(slot), child) once the child is written
+         */
+        Table addOffset(int slot) { return add(slot, 0, 4, true); }
+
+        private Table add(int slot, long value, int size, boolean offset) {
+            values[slot] = value;
+            sizes[slot] = size;
+            offsets[slot] = offset;
+            slots = Math.max(slots, slot + 1);
+            return this;
+        }
+
+        /**
+         * Write the vtable and the table; returns the table position
+         */
+        int end() {
+            // Vtable first, so the table's signed vtable offset is positive
+            pad(2, 0);
+            int vtableSize = 4 + 2 * slots;
+            ensure(vtableSize);
+            int vtable = buffer.position();
+            for (int i = 0; i < vtableSize; i++) buffer.put((byte) 0);
+
+            boolean hasLongs = false;
+            for (int s = 0; s < slots; s++) hasLongs |= sizes[s] == 8;
+            if (hasLongs) pad(8, 4); else pad(4, 0);
+
+            int table = buffer.position();
+            ensure(4 + 8 * slots);
+            buffer.putInt(table - vtable);
+            // Largest fields first keeps every field aligned without padding
+            for (int size = 8; size >= 1; size /= 2) {
+                for (int s = 0; s < slots; s++) {
+                    if (sizes[s] != size) continue;
+                    fieldPositions[s] = buffer.position();
+                    switch (size) {
+                        case 8: buffer.putLong(values[s]); break;
+                        case 4: buffer.putInt((int) values[s]); break;
+                        case 2: buffer.putShort((short) values[s]); break;
+                        default: buffer.put((byte) values[s]); break;
+                    }
+                    buffer.putShort(vtable + 4 + 2 * s, (short) (fieldPositions[s] - table));
+                }
+            }
+            buffer.putShort(vtable, (short) vtableSize);
+            buffer.putShort(vtable + 2, (short) (buffer.position() - table));
+            return table;
+        }
+
+        /**
+         * Position of an offset field after end()
+         */
+        int getPosition(int slot) {
+            if (!offsets[slot]) throw new IllegalArgumentException("Slot " + slot + " is not an offset");
+            return fieldPositions[slot];
+        }
+    }
+}
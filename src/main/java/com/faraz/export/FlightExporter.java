@@ -0,0 +1,149 @@
+package com.faraz.export;
+
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Exports recorded flights to CSV or Arrow, several flights at once
+ *
+ * Each flight is one task on a fork-join pool with its own exporter, so memory is one
+ * export batch per worker regardless of how many or how long the flights are.
+ *
+ *   java -cp TVCVisualizer.jar com.faraz.export.FlightExporter csv|arrow <output-dir> <flight-or-folder>...
+ */
+public class FlightExporter {
+
+    public enum Format {
+        CSV(CsvExporter::new),
+        ARROW(ArrowExporter::new);
+
+        private final Supplier<TableExporter> factory;
+
+        Format(Supplier<TableExporter> factory) {
+            this.factory = factory;
+        }
+
+        public TableExporter newExporter() { return factory.get(); }
+    }
+
+    /**
+     * Result of exporting one flight
+     */
+    public static final class Result {
+        private final Path flight;
+        private final Path file;
+        private final long rows;
+        private final long elapsedNanos;
+        private final Exception failure;
+
+        Result(Path flight, Path file, long rows, long elapsedNanos, Exception failure) {
+            this.flight = flight;
+            this.file = file;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.failure = failure;
+        }
+
+        public Path getFlight() { return flight; }
+        public Path getFile() { return file; }
+        public long getRows() { return rows; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        /**
+         * IOException for an unreadable or unwritable flight, RuntimeException for a corrupt one
+         */
+        public Exception getFailure() { return failure; }
+
+        @Override
+        public String toString() {
+            if (failure != null) {
+                return flight + ": FAILED " + (failure instanceof IOException ? failure.getMessage() : failure);
+            }
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%s -> %s: %d rows in %.2f s (%.0f rows/s)",
+                    flight, file.getFileName(), rows, seconds, rows / Math.max(seconds, 1e-9));
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Format format;
+
+    public FlightExporter(ForkJoinPool pool, Format format) {
+        this.pool = pool;
+        this.format = format;
+    }
+
+    /**
+     * Export every flight into outputDirectory as <flight name>.<extension>, in parallel
+     * A flight that fails is reported in its result; the others still export
+     */
+    public List<Result> exportAll(List<Path> flights, Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>();
+        for (Path flight : flights) {
+            tasks.add(pool.submit(() -> exportOne(flight, outputDirectory)));
+        }
+        List<Result> results = new ArrayList<>();
+        for (ForkJoinTask<Result> task : tasks) results.add(task.join());
+        return results;
+    }
+
+    /**
+     * Exports into a .part file that only takes the final name once complete, so a flight
+     * that fails part way leaves no truncated table (or an earlier export) under that name
+     */
+    private Result exportOne(Path flightDirectory, Path outputDirectory) {
+        long start = System.nanoTime();
+        TableExporter exporter = format.newExporter();
+        Path file = outputDirectory.resolve(flightDirectory.getFileName() + "." + exporter.getExtension());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try (RecordedFlight flight = RecordedFlight.open(flightDirectory)) {
+            long rows = exporter.export(flight, partial);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Result(flightDirectory, file, rows, System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            return new Result(flightDirectory, file, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FlightExporter csv|arrow <output-dir> <flight-or-folder>...");
+            System.exit(2);
+        }
+        Format format = Format.valueOf(args[0].toUpperCase());
+        List<Path> flights = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) flights.addAll(RecordedFlight.findFlights(Paths.get(args[i])));
+        if (flights.isEmpty()) {
+            System.err.println("No flights found");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        List<Result> results = new FlightExporter(ForkJoinPool.commonPool(), format)
+                .exportAll(flights, Paths.get(args[1]));
+        long rows = 0;
+        int failed = 0;
+        for (Result result : results) {
+            System.out.println(result);
+            rows += result.getRows();
+            if (result.getFailure() != null) failed++;
+        }
+        System.out.printf("Exported %d flights (%d failed), %d rows in %.2f s%n",
+                results.size() - failed, failed, rows, (System.nanoTime() - start) / 1e9);
+        if (failed > 0) System.exit(1);
+    }
+}
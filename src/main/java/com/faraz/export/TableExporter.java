@@ -0,0 +1,25 @@
+package com.faraz.export;
+
+import com.faraz.recording.RecordedFlight;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes a recorded flight as one table file
+ *
+ * Columns, in order: time_ns (since recording start), epoch_ns (wall clock), sequence,
+ * then every FlightChannel by label. Exporters stream in fixed-size batches and are
+ * reusable, but not thread-safe - use one per thread.
+ */
+public interface TableExporter {
+
+    /**
+     * Write the whole flight to file (replaced if it exists); returns the rows written
+     */
+    long export(RecordedFlight flight, Path file) throws IOException;
+
+    /**
+     * File name extension, without the dot
+     */
+    String getExtension();
+}
@@ -0,0 +1,291 @@
+package com.faraz.graphics;
+
+import com.faraz.model.TelemetryHistory;
+import com.faraz.model.TelemetrySampleBatch;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Fading ribbons behind the nose and the nozzle exit, over the last few seconds of telemetry
+ *
+ * Each sample adds one pair of vertices per ribbon: a short segment along the nose
+ * direction, and one along the deflected nozzle axis, both in world coordinates. The
+ * pairs live in a ring inside one vertex buffer object; a frame writes only the slots of
+ * samples that came in since the last frame (glBufferSubData), and never rebuilds the
+ * trail. Each vertex carries its receive time as a texture coordinate, and the fade is a
+ * 1D alpha texture slid along by the texture matrix, so old vertices never change either.
+ * When the ring wraps, its last sample is written again at slot 0, so each ribbon is at
+ * most two triangle strips.
+ */
+public class AttitudeTrail {
+    public static final int DEFAULT_SECONDS = 30;
+    public static final int DEFAULT_SAMPLES = 65536; // 30 s at 2 kHz
+
+    private static final int FLOATS_PER_VERTEX = 4; // time, position
+    private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+    private static final int FLOATS_PER_SAMPLE = 2 * FLOATS_PER_VERTEX; // One pair per ribbon
+    private static final int BATCH = 256;
+    private static final int FADE_TEXELS = 256;
+
+    // Ribbon edges: distance from the centre along the nose, and from the gimbal along the nozzle axis
+    private static final float NOSE_INNER = 2.6f;
+    private static final float NOSE_OUTER = 3.2f;
+    private static final float NOZZLE_PIVOT = -2.0f;
+    private static final float NOZZLE_INNER = 0.6f;
+    private static final float NOZZLE_OUTER = 1.4f;
+
+    private final TelemetryHistory history;
+    private TelemetryHistory.Reader reader;
+    private final TelemetrySampleBatch batch = new TelemetrySampleBatch(BATCH);
+    private final int capacity; // Samples per ribbon
+    private final float seconds;
+
+    // Copy of the buffer, to upload from and to restore a new context: nose ring, then nozzle ring
+    private final FloatBuffer vertices;
+    private int head = 0; // Next slot to write
+    private boolean wrapped = false;
+    private int pending = 0; // Slots written since the last upload, ending at head
+    private long baseNanos;
+    private boolean empty = true;
+
+    private double neutralServoX = 90.0;
+    private double neutralServoY = 90.0;
+    private final float[] point = new float[3];
+
+    private final int[] buffer = new int[1]; // 0 until uploaded
+    private final int[] texture = new int[1];
+
+    /**
+     * Length from -Dtvc.trail.seconds, ring size from -Dtvc.trail.samples
+     */
+    public AttitudeTrail(TelemetryHistory history) {
+        this(history, Integer.getInteger("tvc.trail.seconds", DEFAULT_SECONDS),
+                Integer.getInteger("tvc.trail.samples", DEFAULT_SAMPLES));
+    }
+
+    public AttitudeTrail(TelemetryHistory history, int seconds, int capacity) {
+        if (seconds <= 0) throw new IllegalArgumentException("Trail length must be positive: " + seconds);
+        if (capacity < 2) throw new IllegalArgumentException("Trail needs at least 2 samples: " + capacity);
+        this.history = history;
+        this.seconds = seconds;
+        this.capacity = capacity;
+        this.vertices = ByteBuffer.allocateDirect(2 * capacity * FLOATS_PER_SAMPLE * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        this.reader = history.newReaderAt(Math.max(0, history.getCursor() - (capacity - 1)));
+    }
+
+    /**
+     * Servo positions that count as no deflection, as in the renderer
+     */
+    public void setNeutralServoPositions(double neutralX, double neutralY) {
+        this.neutralServoX = neutralX;
+        this.neutralServoY = neutralY;
+    }
+
+    /**
+     * Create the buffer and the fade texture; called from init(), which runs again for a new context
+     */
+    public void upload(GL2 gl) {
+        vertices.clear();
+        gl.glGenBuffers(1, buffer, 0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.capacity() * Float.BYTES, vertices, GL.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        pending = 0;
+
+        // Transparent at the far end of the trail, opaque at the newest sample
+        ByteBuffer fade = ByteBuffer.allocateDirect(FADE_TEXELS);
+        for (int i = 0; i < FADE_TEXELS; i++) {
+            float age = (i + 0.5f) / FADE_TEXELS;
+            fade.put((byte) Math.round(255 * age * age));
+        }
+        fade.flip();
+        gl.glGenTextures(1, texture, 0);
+        gl.glBindTexture(GL2.GL_TEXTURE_1D, texture[0]);
+        gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+        gl.glTexParameteri(GL2.GL_TEXTURE_1D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
+        gl.glTexParameteri(GL2.GL_TEXTURE_1D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+        gl.glTexParameteri(GL2.GL_TEXTURE_1D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+        gl.glTexImage1D(GL2.GL_TEXTURE_1D, 0, GL.GL_ALPHA, FADE_TEXELS, 0, GL.GL_ALPHA, GL.GL_UNSIGNED_BYTE, fade);
+        gl.glBindTexture(GL2.GL_TEXTURE_1D, 0);
+    }
+
+    /**
+     * Append the samples received since the last frame and upload only their slots
+     */
+    public void update(GL2 gl) {
+        if (reader.getBacklog() > capacity - 1) {
+            reader = history.newReaderAt(history.getCursor() - (capacity - 1));
+        }
+        int n;
+        while ((n = reader.poll(batch)) > 0) {
+            for (int i = 0; i < n; i++) {
+                append(batch.getReceiveNanos(i), batch.getPitch(i), batch.getRoll(i),
+                        batch.getServoX(i), batch.getServoY(i));
+            }
+        }
+        if (pending == 0 || buffer[0] == 0) return;
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        int start = head - Math.min(pending, capacity);
+        if (start >= 0) {
+            uploadSlots(gl, start, head);
+        } else {
+            uploadSlots(gl, capacity + start, capacity);
+            uploadSlots(gl, 0, head);
+        }
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        pending = 0;
+    }
+
+    private void uploadSlots(GL gl, int from, int to) {
+        if (to <= from) return;
+        for (int ribbon = 0; ribbon < 2; ribbon++) {
+            int first = (ribbon * capacity + from) * FLOATS_PER_SAMPLE;
+            int end = (ribbon * capacity + to) * FLOATS_PER_SAMPLE;
+            vertices.limit(end).position(first);
+            gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) first * Float.BYTES, (long) (end - first) * Float.BYTES, vertices);
+        }
+        vertices.clear();
+    }
+
+    private void append(long receiveNanos, double pitch, double roll, int servoX, int servoY) {
+        if (empty) {
+            baseNanos = receiveNanos;
+            empty = false;
+        }
+        float time = (float) ((receiveNanos - baseNanos) / 1e9);
+        write(head, time, pitch, roll, servoX, servoY);
+        head++;
+        pending++;
+        if (head == capacity) {
+            // Start the next lap with the same sample, so the strips join up
+            write(0, time, pitch, roll, servoX, servoY);
+            head = 1;
+            pending++;
+            wrapped = true;
+        }
+    }
+
+    private void write(int slot, float time, double pitch, double roll, int servoX, int servoY) {
+        double p = Math.toRadians(pitch);
+        double r = Math.toRadians(roll);
+        double sinP = Math.sin(p), cosP = Math.cos(p);
+        double sinR = Math.sin(r), cosR = Math.cos(r);
+
+        // Nose direction: Rz(roll) * Rx(pitch) * (0, 1, 0), as the rocket is drawn
+        float nx = (float) (-cosP * sinR);
+        float ny = (float) (cosP * cosR);
+        float nz = (float) sinP;
+        int at = slot * FLOATS_PER_SAMPLE;
+        putVertex(at, time, nx * NOSE_INNER, ny * NOSE_INNER, nz * NOSE_INNER);
+        putVertex(at + FLOATS_PER_VERTEX, time, nx * NOSE_OUTER, ny * NOSE_OUTER, nz * NOSE_OUTER);
+
+        // Nozzle axis in rocket coordinates: Rx(servo X) * Rz(servo Y) * (0, -1, 0), from the gimbal
+        double dx = Math.toRadians(servoX - neutralServoX);
+        double dy = Math.toRadians(servoY - neutralServoY);
+        double ax = Math.sin(dy);
+        double ay = -Math.cos(dy) * Math.cos(dx);
+        double az = -Math.cos(dy) * Math.sin(dx);
+        at += capacity * FLOATS_PER_SAMPLE;
+        for (int edge = 0; edge < 2; edge++) {
+            double length = edge == 0 ? NOZZLE_INNER : NOZZLE_OUTER;
+            double x = ax * length;
+            double y = NOZZLE_PIVOT + ay * length;
+            double z = az * length;
+            // Rx(pitch), then Rz(roll)
+            double y1 = y * cosP - z * sinP;
+            double z1 = y * sinP + z * cosP;
+            putVertex(at + edge * FLOATS_PER_VERTEX, time,
+                    (float) (x * cosR - y1 * sinR), (float) (x * sinR + y1 * cosR), (float) z1);
+        }
+    }
+
+    private void putVertex(int at, float time, float x, float y, float z) {
+        vertices.put(at, time);
+        vertices.put(at + 1, x);
+        vertices.put(at + 2, y);
+        vertices.put(at + 3, z);
+    }
+
+    /**
+     * Draw both ribbons in world coordinates (camera transform as it is) at nowNanos
+     */
+    public void draw(GL2 gl, long nowNanos) {
+        if (empty || buffer[0] == 0) return;
+
+        // Texture coordinate = receive time; map [now - seconds, now] onto the fade
+        float now = (float) ((nowNanos - baseNanos) / 1e9);
+        gl.glMatrixMode(GL2.GL_TEXTURE);
+        gl.glLoadIdentity();
+        gl.glScalef(1.0f / seconds, 1.0f, 1.0f);
+        gl.glTranslatef(seconds - now, 0.0f, 0.0f);
+        gl.glMatrixMode(GL2.GL_MODELVIEW);
+
+        gl.glDisable(GL2.GL_LIGHTING);
+        gl.glEnable(GL.GL_BLEND);
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        gl.glDepthMask(false);
+        gl.glEnable(GL2.GL_TEXTURE_1D);
+        gl.glBindTexture(GL2.GL_TEXTURE_1D, texture[0]);
+        gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, GL2.GL_MODULATE);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+        gl.glTexCoordPointer(1, GL.GL_FLOAT, STRIDE, 0);
+        gl.glVertexPointer(3, GL.GL_FLOAT, STRIDE, Float.BYTES);
+
+        gl.glColor4f(0.25f, 0.6f, 1.0f, 0.7f);
+        drawRibbon(gl, 0);
+        gl.glColor4f(1.0f, 0.55f, 0.1f, 0.7f);
+        drawRibbon(gl, capacity);
+
+        gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+        gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        gl.glBindTexture(GL2.GL_TEXTURE_1D, 0);
+        gl.glDisable(GL2.GL_TEXTURE_1D);
+        gl.glDepthMask(true);
+        gl.glDisable(GL.GL_BLEND);
+        gl.glEnable(GL2.GL_LIGHTING);
+
+        gl.glMatrixMode(GL2.GL_TEXTURE);
+        gl.glLoadIdentity();
+        gl.glMatrixMode(GL2.GL_MODELVIEW);
+    }
+
+    // Oldest part first, then the newest, each one triangle strip of vertex pairs
+    private void drawRibbon(GL2 gl, int firstSlot) {
+        if (wrapped) {
+            drawStrip(gl, firstSlot + head, capacity - head);
+        }
+        drawStrip(gl, firstSlot, head);
+    }
+
+    private void drawStrip(GL2 gl, int firstSlot, int slots) {
+        if (slots < 2) return;
+        gl.glDrawArrays(GL.GL_TRIANGLE_STRIP, firstSlot * 2, slots * 2);
+    }
+
+    public void dispose(GL gl) {
+        if (buffer[0] != 0) {
+            gl.glDeleteBuffers(1, buffer, 0);
+            buffer[0] = 0;
+        }
+        if (texture[0] != 0) {
+            gl.glDeleteTextures(1, texture, 0);
+            texture[0] = 0;
+        }
+    }
+
+    /**
+     * Samples currently in the ring
+     */
+    public int getSampleCount() { return wrapped ? capacity : head; }
+
+    public int getSeconds() { return (int) seconds; }
+}
@@ -0,0 +1,65 @@
+package com.faraz.graphics;
+
+/**
+ * Fixed-point numbers appended to a StringBuilder without allocating
+ *
+ * Same output as String.format("%.Nf") / ("%+.Nf") (rounding half up, "-0.00" for small
+ * negatives), which matters in code run every frame: each String.format call creates a
+ * Formatter and several strings. Values within a hair of a rounding tie, like 1.005, are
+ * still handed to String.format, which rounds the shortest decimal form rather than the
+ * binary value; they are rare enough not to matter.
+ */
+public final class DecimalText {
+    private static final long[] POWERS = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000 };
+    private static final double MAX_FIXED = 1e12; // Beyond this, and near ties, leave it to String.format
+
+    private DecimalText() {}
+
+    /**
+     * value with the given number of decimals (0-6), like "%.Nf"
+     */
+    public static StringBuilder append(StringBuilder out, double value, int decimals) {
+        return append(out, value, decimals, false);
+    }
+
+    /**
+     * Like "%+.Nf": always with a sign
+     */
+    public static StringBuilder appendSigned(StringBuilder out, double value, int decimals) {
+        return append(out, value, decimals, true);
+    }
+
+    /**
+     * Like "%+d"
+     */
+    public static StringBuilder appendSigned(StringBuilder out, int value) {
+        if (value >= 0) out.append('+');
+        return out.append(value);
+    }
+
+    private static StringBuilder append(StringBuilder out, double value, int decimals, boolean sign) {
+        if (Double.isNaN(value)) return out.append("NaN");
+        long scale = POWERS[decimals];
+        double magnitude = Math.abs(value) * scale;
+        if (Double.isInfinite(value) || Math.abs(value) >= MAX_FIXED
+                || Math.abs(magnitude - Math.floor(magnitude) - 0.5) < 1e-9 * Math.max(1.0, magnitude)) {
+            return out.append(String.format(sign ? "%+." + decimals + "f" : "%." + decimals + "f", value));
+        }
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        if (negative) {
+            out.append('-');
+        } else if (sign) {
+            out.append('+');
+        }
+        long scaled = Math.round(magnitude);
+        out.append(scaled / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                out.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,604 @@
+package com.faraz.graphics;
+
+import com.faraz.model.DeliveryPolicy;
+import com.faraz.model.Subscription;
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryListener;
+import com.faraz.model.TelemetrySample;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.event.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several vehicles side by side in one 3D view and one GL context, for comparing flights
+ *
+ * Each vehicle follows its own TelemetryData through its own TelemetryInterpolator and
+ * stands in a cell of a square layout grid. All of them are drawn with instanced
+ * rendering: once per frame their placement, attitude, gimbal and engine glow go into
+ * one per-instance buffer (orphaned and streamed, like the HUD's), and a small GLSL
+ * program builds each instance's transforms from it. Airframes, nozzles and the two
+ * flame layers are four draw calls whatever the number of vehicles. Where the driver
+ * has no instanced arrays, the same program is fed one vehicle at a time instead.
+ *
+ * Labels with each vehicle's name and attitude are projected under it and drawn with the
+ * HUD's glyph atlas in one batch. Camera controls as in RocketRenderer; L toggles the
+ * labels, F the frame-time overlay, E writes frame times.
+ */
+public class FleetRenderer implements GLEventListener, KeyListener, TelemetryListener {
+    private static final float SPACING = 5.0f;      // Grid cell size
+    private static final float GROUND_Y = -5.5f;    // Below the longest flame
+    private static final float FAR_PLANE = 200.0f;
+
+    // Per instance: grid x, grid z, pitch, roll | gimbal x, gimbal y, engine glow, brightness
+    private static final int FLOATS_PER_INSTANCE = 8;
+    private static final int INSTANCE_STRIDE = FLOATS_PER_INSTANCE * Float.BYTES;
+    // NVIDIA aliases generic attributes with the built-ins (0 gl_Vertex, 2 gl_Normal, 3 gl_Color,
+    // 8+ gl_MultiTexCoord); 6 and 7 are the slots no built-in uses
+    private static final int PLACEMENT_ATTRIBUTE = 6;
+    private static final int DRIVE_ATTRIBUTE = 7;
+
+    private static final int PART_AIRFRAME = 0;
+    private static final int PART_NOZZLE = 1;
+    private static final int PART_FLAME = 2;
+
+    private static final float GLOW_EPSILON = 0.005f;
+    private static final float DISCONNECTED_BRIGHTNESS = 0.45f;
+
+    private static final String VERTEX_SHADER =
+            "#version 120\n"
+            + "uniform int part;\n"
+            + "uniform vec2 flameShape;\n"      // Radius, length factor
+            + "uniform vec4 flameColor;\n"      // Alpha at full glow
+            + "uniform vec3 lightPosition;\n"   // Eye coordinates
+            + "attribute vec4 placement;\n"
+            + "attribute vec4 drive;\n"
+            + "varying vec4 color;\n"
+            + "mat3 rotateX(float a) { float c = cos(a), s = sin(a); return mat3(1.0, 0.0, 0.0, 0.0, c, s, 0.0, -s, c); }\n"
+            + "mat3 rotateZ(float a) { float c = cos(a), s = sin(a); return mat3(c, s, 0.0, -s, c, 0.0, 0.0, 0.0, 1.0); }\n"
+            + "void main() {\n"
+            // As RocketRenderer: Rz(roll) Rx(pitch), then the gimbal below the body: Rx(servo X) Rz(servo Y)
+            + "    mat3 body = rotateZ(radians(placement.w)) * rotateX(radians(placement.z));\n"
+            + "    vec3 position = gl_Vertex.xyz;\n"
+            + "    vec3 normal = gl_Normal;\n"
+            + "    if (part != 0) {\n"
+            + "        mat3 gimbal = rotateX(radians(drive.x)) * rotateZ(radians(drive.y));\n"
+            + "        if (part == 2) position = position * vec3(flameShape.x, (1.5 + drive.z) * flameShape.y, flameShape.x) + vec3(0.0, -0.6, 0.0);\n"
+            + "        position = gimbal * position + vec3(0.0, -2.0, 0.0);\n"
+            + "        normal = gimbal * normal;\n"
+            + "    }\n"
+            + "    vec4 eye = gl_ModelViewMatrix * vec4(body * position + vec3(placement.x, 0.0, placement.y), 1.0);\n"
+            + "    gl_Position = gl_ProjectionMatrix * eye;\n"
+            + "    if (part == 2) {\n"
+            + "        color = vec4(flameColor.rgb, flameColor.a * drive.z);\n"
+            + "        if (drive.z < 0.1) gl_Position = vec4(2.0, 2.0, 2.0, 1.0);\n" // No flame: clipped away
+            + "    } else {\n"
+            // One white positional light, with GL's default 0.2 ambient, as the fixed-function view
+            + "        vec3 n = normalize(gl_NormalMatrix * (body * normal));\n"
+            + "        float diffuse = max(dot(n, normalize(lightPosition - eye.xyz)), 0.0);\n"
+            + "        color = vec4(vec3(drive.w * min(1.0, 0.2 + diffuse)), 1.0);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER =
+            "#version 120\n"
+            + "varying vec4 color;\n"
+            + "void main() { gl_FragColor = color; }\n";
+
+    // Labels
+    private static final Font NAME_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font DETAIL_FONT = new Font("Consolas", Font.PLAIN, 11);
+    private static final Color TEXT_SECONDARY = new Color(180, 180, 180);
+    private static final Color STATUS_OK = new Color(50, 200, 100);
+    private static final Color STATUS_WARN = new Color(255, 165, 0);
+    private static final Color STATUS_ERROR = new Color(255, 80, 80);
+
+    private final List<TelemetryData> vehicles;
+    private final String[] names;
+    private final int count;
+    private final int columns;
+    private final int rows;
+    private final TelemetryInterpolator[] interpolators;
+    private final float[] engineGlow;
+    private final float[] targetGlow;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    private final Component surface;
+    private final FrameScheduler scheduler;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final RocketModel model = new RocketModel();
+    private final Starfield starfield = new Starfield();
+
+    // Per-instance data, rebuilt every frame: the array for the one-at-a-time path, the buffer to upload
+    private final float[] instances;
+    private final FloatBuffer instanceBuffer;
+    private final int[] buffers = new int[2]; // Instances, grid lines; 0 until uploaded
+    private final float[] gridLines;
+    private int program = 0;
+    private int partLocation, flameShapeLocation, flameColorLocation, lightLocation;
+    private boolean instanced = false;
+
+    // HUD: labels and the frame-time overlay
+    private final HudCanvas hudCanvas = new HudCanvas(new GlyphAtlas(NAME_FONT, DETAIL_FONT, FrameProfiler.OVERLAY_FONT));
+    private final StringBuilder line = new StringBuilder(64);
+    private boolean labelsVisible = true;
+    private int surfaceWidth = 1;
+    private int surfaceHeight = 1;
+
+    // Camera controls
+    private final OrbitCamera camera;
+
+    private long lastFrameNanos = 0;
+
+    // TVC neutral positions, as in RocketRenderer
+    private double neutralServoX = 90.0;
+    private double neutralServoY = 90.0;
+
+    /**
+     * One vehicle per TelemetryData, labelled with the name at the same index
+     */
+    public FleetRenderer(List<TelemetryData> vehicles, List<String> names) {
+        if (vehicles.isEmpty()) throw new IllegalArgumentException("No vehicles to show");
+        if (names.size() != vehicles.size()) throw new IllegalArgumentException("One name per vehicle");
+        this.vehicles = new ArrayList<>(vehicles);
+        this.names = names.toArray(new String[0]);
+        this.count = vehicles.size();
+        this.columns = (int) Math.ceil(Math.sqrt(count));
+        this.rows = (count + columns - 1) / columns;
+
+        interpolators = new TelemetryInterpolator[count];
+        for (int i = 0; i < count; i++) interpolators[i] = new TelemetryInterpolator(vehicles.get(i).getHistory());
+        engineGlow = new float[count];
+        targetGlow = new float[count];
+        instances = new float[count * FLOATS_PER_INSTANCE];
+        instanceBuffer = ByteBuffer.allocateDirect(instances.length * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        gridLines = buildGrid();
+
+        String surfaceName = System.getProperty("tvc.surface", RocketRenderer.SURFACE_PANEL);
+        profiler.setSurface(RocketRenderer.SURFACE_CANVAS.equals(surfaceName) ? RocketRenderer.SURFACE_CANVAS : RocketRenderer.SURFACE_PANEL);
+        surface = RocketRenderer.createSurface(surfaceName, profiler);
+        ((GLAutoDrawable) surface).addGLEventListener(this);
+        surface.addKeyListener(this);
+        surface.setFocusable(true);
+
+        scheduler = new FrameScheduler(surface::repaint);
+        float extent = Math.max(columns, rows) * SPACING;
+        camera = new OrbitCamera(Math.max(15.0f, extent * 1.4f), Math.max(50.0f, extent * 3.0f), FAR_PLANE,
+                scheduler::requestFrame);
+        camera.attach(surface);
+        for (TelemetryData vehicle : vehicles) {
+            subscriptions.add(vehicle.subscribe(this, DeliveryPolicy.rateLimited(scheduler.getMaxFps()), SwingUtilities::invokeLater));
+        }
+    }
+
+    /**
+     * Centre of a vehicle's cell on the ground plane (x, z), the grid centred on the origin
+     */
+    private float cellX(int vehicle) {
+        return (vehicle % columns - (columns - 1) / 2.0f) * SPACING;
+    }
+
+    private float cellZ(int vehicle) {
+        return (vehicle / columns - (rows - 1) / 2.0f) * SPACING;
+    }
+
+    /**
+     * Cell boundaries as GL_LINES on the ground plane
+     */
+    private float[] buildGrid() {
+        float halfWidth = columns * SPACING / 2.0f;
+        float halfDepth = rows * SPACING / 2.0f;
+        float[] lines = new float[(columns + 1 + rows + 1) * 2 * 3];
+        int at = 0;
+        for (int c = 0; c <= columns; c++) {
+            float x = -halfWidth + c * SPACING;
+            at = put(lines, at, x, GROUND_Y, -halfDepth);
+            at = put(lines, at, x, GROUND_Y, halfDepth);
+        }
+        for (int r = 0; r <= rows; r++) {
+            float z = -halfDepth + r * SPACING;
+            at = put(lines, at, -halfWidth, GROUND_Y, z);
+            at = put(lines, at, halfWidth, GROUND_Y, z);
+        }
+        return lines;
+    }
+
+    private static int put(float[] array, int at, float x, float y, float z) {
+        array[at] = x;
+        array[at + 1] = y;
+        array[at + 2] = z;
+        return at + 3;
+    }
+
+    /**
+     * The component to add to a container
+     */
+    public Component getComponent() { return surface; }
+
+    public int getVehicleCount() { return count; }
+
+    @Override
+    public void onTelemetry(TelemetrySample sample) {
+        scheduler.requestFrame();
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        scheduler.requestFrame();
+    }
+
+    @Override
+    public void init(GLAutoDrawable drawable) {
+        GL2 gl = drawable.getGL().getGL2();
+        gl.glEnable(GL.GL_DEPTH_TEST);
+        gl.glClearColor(0.05f, 0.05f, 0.15f, 1.0f);
+
+        // A new context (the panel was re-parented) starts without any of this
+        model.meshes.upload(gl);
+        starfield.upload(gl);
+        hudCanvas.upload(gl);
+        profiler.init(gl);
+
+        gl.glGenBuffers(2, buffers, 0);
+        FloatBuffer grid = ByteBuffer.allocateDirect(gridLines.length * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        grid.put(gridLines).flip();
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[1]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) gridLines.length * Float.BYTES, grid, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        program = createProgram(gl);
+        if (program != 0) {
+            partLocation = gl.glGetUniformLocation(program, "part");
+            flameShapeLocation = gl.glGetUniformLocation(program, "flameShape");
+            flameColorLocation = gl.glGetUniformLocation(program, "flameColor");
+            lightLocation = gl.glGetUniformLocation(program, "lightPosition");
+        } else {
+            System.err.println("Fleet view: no usable GLSL 1.20 shader program, vehicles will not be drawn"
+                    + " (only the grid and labels)");
+        }
+        instanced = gl.isFunctionAvailable("glDrawArraysInstanced") && gl.isFunctionAvailable("glVertexAttribDivisor");
+        System.out.println("Fleet view: " + count + " vehicles, " + (instanced ? "instanced" : "one draw per vehicle"));
+    }
+
+    private static int createProgram(GL2 gl) {
+        int vertex = compileShader(gl, GL2.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragment = compileShader(gl, GL2.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        if (vertex == 0 || fragment == 0) return 0;
+
+        int program = gl.glCreateProgram();
+        gl.glAttachShader(program, vertex);
+        gl.glAttachShader(program, fragment);
+        gl.glBindAttribLocation(program, PLACEMENT_ATTRIBUTE, "placement");
+        gl.glBindAttribLocation(program, DRIVE_ATTRIBUTE, "drive");
+        gl.glLinkProgram(program);
+        gl.glDeleteShader(vertex);
+        gl.glDeleteShader(fragment);
+
+        int[] status = new int[1];
+        gl.glGetProgramiv(program, GL2.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            gl.glGetProgramiv(program, GL2.GL_INFO_LOG_LENGTH, status, 0);
+            byte[] log = new byte[Math.max(1, status[0])];
+            gl.glGetProgramInfoLog(program, log.length, status, 0, log, 0);
+            System.err.println("Fleet view shader did not link: " + new String(log, 0, status[0], StandardCharsets.UTF_8));
+            gl.glDeleteProgram(program);
+            return 0;
+        }
+        return program;
+    }
+
+    private static int compileShader(GL2 gl, int type, String source) {
+        int shader = gl.glCreateShader(type);
+        gl.glShaderSource(shader, 1, new String[] { source }, null, 0);
+        gl.glCompileShader(shader);
+        int[] status = new int[1];
+        gl.glGetShaderiv(shader, GL2.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            gl.glGetShaderiv(shader, GL2.GL_INFO_LOG_LENGTH, status, 0);
+            byte[] log = new byte[Math.max(1, status[0])];
+            gl.glGetShaderInfoLog(shader, log.length, status, 0, log, 0);
+            System.err.println("Fleet view shader did not compile: " + new String(log, 0, status[0], StandardCharsets.UTF_8));
+            gl.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+
+    @Override
+    public void display(GLAutoDrawable drawable) {
+        display(drawable, System.nanoTime());
+    }
+
+    /**
+     * Draw the fleet as of nowNanos, on the clock of the telemetry receive stamps
+     */
+    public void display(GLAutoDrawable drawable, long nowNanos) {
+        long start = System.nanoTime();
+        scheduler.frameStarted();
+        GL2 gl = drawable.getGL().getGL2();
+        profiler.beginGpuFrame(gl);
+
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+        gl.glLoadIdentity();
+
+        profiler.start();
+        boolean animating = updateInstances(nowNanos);
+        profiler.end(FrameProfiler.Phase.ANIMATION);
+        camera.apply(gl);
+        profiler.end(FrameProfiler.Phase.CAMERA);
+
+        starfield.draw(gl);
+        profiler.end(FrameProfiler.Phase.STARS);
+        drawGrid(gl);
+        drawVehicles(gl);
+        profiler.end(FrameProfiler.Phase.ROCKET);
+
+        hudCanvas.begin(surfaceWidth, surfaceHeight);
+        drawLabels(hudCanvas);
+        if (profiler.isOverlayVisible()) {
+            profiler.drawOverlay(hudCanvas, surfaceHeight);
+        }
+        hudCanvas.end(gl);
+        profiler.end(FrameProfiler.Phase.HUD);
+
+        profiler.endGpuFrame(gl);
+        gl.glFlush();
+        profiler.record(FrameProfiler.Phase.DISPLAY, System.nanoTime() - start);
+
+        if (animating) scheduler.requestFrame();
+    }
+
+    /**
+     * Interpolate every vehicle to now and write its instance; true while any is still moving
+     */
+    private boolean updateInstances(long nowNanos) {
+        float deltaTime = lastFrameNanos != 0 ? (nowNanos - lastFrameNanos) / 1e9f : 0.0f;
+        lastFrameNanos = nowNanos;
+
+        boolean animating = false;
+        for (int i = 0; i < count; i++) {
+            TelemetryInterpolator interpolator = interpolators[i];
+            interpolator.update(nowNanos);
+            boolean connected = vehicles.get(i).isConnected();
+            int at = i * FLOATS_PER_INSTANCE;
+            instances[at] = cellX(i);
+            instances[at + 1] = cellZ(i);
+
+            if (connected) {
+                double servoXDeflection = interpolator.getServoX() - neutralServoX;
+                double servoYDeflection = interpolator.getServoY() - neutralServoY;
+                double tvcActivity = Math.sqrt(servoXDeflection * servoXDeflection
+                        + servoYDeflection * servoYDeflection) / 50.0;
+                targetGlow[i] = (float) Math.min(1.0, 0.3 + tvcActivity * 0.7);
+                engineGlow[i] += (targetGlow[i] - engineGlow[i]) * Math.min(1.0f, deltaTime * 5.0f);
+                instances[at + 2] = (float) interpolator.getPitch();
+                instances[at + 3] = (float) interpolator.getRoll();
+                instances[at + 4] = (float) servoXDeflection;
+                instances[at + 5] = (float) servoYDeflection;
+                instances[at + 7] = 1.0f;
+                animating |= interpolator.isMoving();
+            } else {
+                targetGlow[i] = 0.0f;
+                engineGlow[i] *= 0.95f;
+                if (engineGlow[i] < GLOW_EPSILON) engineGlow[i] = 0.0f;
+                instances[at + 2] = 0.0f;
+                instances[at + 3] = 0.0f;
+                instances[at + 4] = 0.0f;
+                instances[at + 5] = 0.0f;
+                instances[at + 7] = DISCONNECTED_BRIGHTNESS;
+            }
+            instances[at + 6] = engineGlow[i];
+            animating |= Math.abs(targetGlow[i] - engineGlow[i]) > GLOW_EPSILON;
+        }
+        return animating;
+    }
+
+    private void drawGrid(GL2 gl) {
+        gl.glDisable(GL2.GL_LIGHTING); // The starfield turns it back on; the vehicles light themselves
+        gl.glColor3f(0.2f, 0.3f, 0.5f);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[1]);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glVertexPointer(3, GL.GL_FLOAT, 0, 0);
+        gl.glDrawArrays(GL.GL_LINES, 0, gridLines.length / 3);
+        gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    private void drawVehicles(GL2 gl) {
+        if (program == 0) return; // Reported once in init()
+        gl.glUseProgram(program);
+        gl.glUniform3f(lightLocation, 10.0f, 10.0f, 10.0f);
+
+        if (instanced) {
+            // The whole fleet's state in one upload, into fresh storage (orphaning)
+            instanceBuffer.clear();
+            instanceBuffer.put(instances).flip();
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[0]);
+            gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) instances.length * Float.BYTES, instanceBuffer, GL2.GL_STREAM_DRAW);
+            gl.glEnableVertexAttribArray(PLACEMENT_ATTRIBUTE);
+            gl.glEnableVertexAttribArray(DRIVE_ATTRIBUTE);
+            gl.glVertexAttribPointer(PLACEMENT_ATTRIBUTE, 4, GL.GL_FLOAT, false, INSTANCE_STRIDE, 0);
+            gl.glVertexAttribPointer(DRIVE_ATTRIBUTE, 4, GL.GL_FLOAT, false, INSTANCE_STRIDE, 4 * Float.BYTES);
+            gl.glVertexAttribDivisor(PLACEMENT_ATTRIBUTE, 1);
+            gl.glVertexAttribDivisor(DRIVE_ATTRIBUTE, 1);
+        }
+
+        model.meshes.bind(gl);
+        gl.glUniform1i(partLocation, PART_AIRFRAME);
+        drawAll(gl, model.airframe);
+        gl.glUniform1i(partLocation, PART_NOZZLE);
+        drawAll(gl, model.nozzle);
+
+        // Both flame layers, as in RocketRenderer
+        gl.glEnable(GL.GL_BLEND);
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        gl.glUniform1i(partLocation, PART_FLAME);
+        gl.glUniform2f(flameShapeLocation, 0.25f, 1.0f);
+        gl.glUniform4f(flameColorLocation, 1.0f, 0.8f, 0.2f, 0.8f);
+        drawAll(gl, model.flame);
+        gl.glUniform2f(flameShapeLocation, 0.35f, 0.7f);
+        gl.glUniform4f(flameColorLocation, 1.0f, 0.4f, 0.0f, 0.6f);
+        drawAll(gl, model.flame);
+        gl.glDisable(GL.GL_BLEND);
+        model.meshes.unbind(gl);
+
+        if (instanced) {
+            gl.glVertexAttribDivisor(PLACEMENT_ATTRIBUTE, 0);
+            gl.glVertexAttribDivisor(DRIVE_ATTRIBUTE, 0);
+            gl.glDisableVertexAttribArray(PLACEMENT_ATTRIBUTE);
+            gl.glDisableVertexAttribArray(DRIVE_ATTRIBUTE);
+        }
+        gl.glUseProgram(0);
+    }
+
+    private void drawAll(GL2 gl, MeshBuffer.Mesh mesh) {
+        if (instanced) {
+            mesh.drawInstanced(gl, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int at = i * FLOATS_PER_INSTANCE;
+            gl.glVertexAttrib4f(PLACEMENT_ATTRIBUTE, instances[at], instances[at + 1], instances[at + 2], instances[at + 3]);
+            gl.glVertexAttrib4f(DRIVE_ATTRIBUTE, instances[at + 4], instances[at + 5], instances[at + 6], instances[at + 7]);
+            mesh.draw(gl);
+        }
+    }
+
+    /**
+     * Name and attitude under each vehicle, plus a fleet summary top left
+     */
+    private void drawLabels(HudCanvas hud) {
+        int connected = 0;
+        if (labelsVisible) {
+            // Same camera as the 3D view: translate, Rx, Ry, then gluPerspective(45)
+            double rx = Math.toRadians(camera.getRotationX());
+            double ry = Math.toRadians(camera.getRotationY());
+            double cosX = Math.cos(rx), sinX = Math.sin(rx);
+            double cosY = Math.cos(ry), sinY = Math.sin(ry);
+            double focal = 1.0 / Math.tan(Math.toRadians(22.5));
+            double aspect = (double) surfaceWidth / surfaceHeight;
+
+            for (int i = 0; i < count; i++) {
+                double x = cellX(i);
+                double z = cellZ(i);
+                double x1 = x * cosY + z * sinY;
+                double z1 = -x * sinY + z * cosY;
+                double y2 = GROUND_Y * cosX - z1 * sinX;
+                double z2 = GROUND_Y * sinX + z1 * cosX - camera.getDistance();
+                if (-z2 < 0.1) continue; // Behind the camera
+
+                int screenX = (int) Math.round((1.0 + focal / aspect * x1 / -z2) * surfaceWidth / 2.0);
+                int screenY = (int) Math.round((1.0 - focal * y2 / -z2) * surfaceHeight / 2.0);
+                drawLabel(hud, i, screenX, screenY);
+            }
+        }
+        for (TelemetryData vehicle : vehicles) {
+            if (vehicle.isConnected()) connected++;
+        }
+
+        hud.setFont(NAME_FONT);
+        hud.setColor(TEXT_SECONDARY);
+        line.setLength(0);
+        line.append(count).append(count == 1 ? " vehicle, " : " vehicles, ").append(connected).append(" connected");
+        hud.drawString(line, 20, 30);
+    }
+
+    private void drawLabel(HudCanvas hud, int vehicle, int x, int y) {
+        TelemetryData telemetry = vehicles.get(vehicle);
+        hud.setFont(NAME_FONT);
+        hud.setColor(!telemetry.isConnected() ? STATUS_ERROR : telemetry.isDataFresh() ? STATUS_OK : STATUS_WARN);
+        hud.drawString(names[vehicle], x - hud.stringWidth(names[vehicle]) / 2, y + 14);
+
+        if (!telemetry.isConnected()) return;
+        TelemetryInterpolator interpolator = interpolators[vehicle];
+        hud.setFont(DETAIL_FONT);
+        hud.setColor(TEXT_SECONDARY);
+        line.setLength(0);
+        DecimalText.appendSigned(line.append("P "), interpolator.getPitch(), 1).append('°');
+        DecimalText.appendSigned(line.append(" R "), interpolator.getRoll(), 1).append('°');
+        hud.drawString(line, x - hud.stringWidth(line) / 2, y + 28);
+    }
+
+    @Override
+    public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+        GL2 gl = drawable.getGL().getGL2();
+
+        if (height <= 0) height = 1;
+        surfaceWidth = width;
+        surfaceHeight = height;
+        camera.reshape(gl, width, height);
+    }
+
+    @Override
+    public void dispose(GLAutoDrawable drawable) {
+        scheduler.stop();
+        GL2 gl = drawable.getGL().getGL2();
+        model.meshes.dispose(gl);
+        starfield.dispose(gl);
+        hudCanvas.dispose(gl);
+        profiler.dispose(gl);
+        if (buffers[0] != 0) {
+            gl.glDeleteBuffers(2, buffers, 0);
+            buffers[0] = 0;
+            buffers[1] = 0;
+        }
+        if (program != 0) {
+            gl.glDeleteProgram(program);
+            program = 0;
+        }
+    }
+
+    public void cleanup() {
+        scheduler.stop();
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+        profiler.writeRequestedStats();
+    }
+
+    public FrameProfiler getFrameProfiler() { return profiler; }
+
+    /**
+     * Servo positions that count as no deflection, for every vehicle
+     */
+    public void setNeutralServoPositions(double neutralX, double neutralY) {
+        this.neutralServoX = neutralX;
+        this.neutralServoY = neutralY;
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_R: // Reset camera
+                camera.reset();
+                break;
+            case KeyEvent.VK_L: // Toggle labels
+                labelsVisible = !labelsVisible;
+                break;
+            case KeyEvent.VK_F: // Toggle frame-time overlay
+                profiler.setOverlayVisible(!profiler.isOverlayVisible());
+                break;
+            case KeyEvent.VK_E: // Export frame times
+                profiler.writeTimestampedStats();
+                break;
+        }
+        scheduler.requestFrame();
+    }
+
+    // Unused interface methods
+    @Override public void keyReleased(KeyEvent e) {}
+    @Override public void keyTyped(KeyEvent e) {}
+}
@@ -0,0 +1,174 @@
+package com.faraz.graphics;
+
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetrySample;
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * Flight information drawn over the 3D view: TVC status, gimbal, stability, flight data,
+ * link health, and the disconnected notice
+ *
+ * Drawn into a HudCanvas at the end of each frame. Text is built in one reusable
+ * StringBuilder, so a frame allocates nothing here.
+ */
+public class FlightHud {
+    // UI Colors
+    private static final Color TEXT_PRIMARY = Color.WHITE;
+    private static final Color TEXT_SECONDARY = new Color(180, 180, 180);
+    private static final Color STATUS_OK = new Color(50, 200, 100);
+    private static final Color STATUS_WARN = new Color(255, 165, 0);
+    private static final Color STATUS_ERROR = new Color(255, 80, 80);
+    private static final Color DISCONNECTED_SHADE = new Color(0, 0, 0, 100);
+
+    // Every font the HUD uses; the glyph atlas is built from these
+    private static final Font HUD_FONT = new Font("Consolas", Font.BOLD, 12);
+    private static final Font PERFORMANCE_FONT = new Font("Arial", Font.BOLD, 10);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font INSTRUCTION_FONT = new Font("Arial", Font.PLAIN, 14);
+
+    private static final String DISCONNECTED_MESSAGE = "TVC SYSTEM DISCONNECTED";
+    private static final String DISCONNECTED_INSTRUCTION = "Check serial connection and restart application";
+
+    private final TelemetryData telemetryData;
+    private final TelemetrySample hudSample = new TelemetrySample(); // One consistent sample per frame
+    private final StringBuilder line = new StringBuilder(64);
+
+    public FlightHud(TelemetryData telemetryData) {
+        this.telemetryData = telemetryData;
+    }
+
+    /**
+     * Atlas with the HUD fonts and the frame-time overlay's
+     */
+    public static GlyphAtlas createAtlas() {
+        return new GlyphAtlas(HUD_FONT, PERFORMANCE_FONT, MESSAGE_FONT, INSTRUCTION_FONT, FrameProfiler.OVERLAY_FONT);
+    }
+
+    /**
+     * Draw the HUD; delayMillis and smoothing describe the attitude shown in the 3D view
+     */
+    public void draw(HudCanvas hud, double delayMillis, String smoothing) {
+        telemetryData.snapshot(hudSample);
+        drawFlightData(hud);
+        drawPerformanceIndicator(hud, delayMillis, smoothing);
+
+        // Draw connection status if disconnected
+        if (!telemetryData.isConnected()) {
+            drawDisconnectedOverlay(hud);
+        }
+    }
+
+    private void drawFlightData(HudCanvas hud) {
+        hud.setFont(HUD_FONT);
+
+        int x = 20;
+        int y = 30;
+        int lineHeight = 20;
+
+        // TVC Status
+        double tvcActivity = hudSample.getTvcActivity();
+        hud.setColor(TEXT_SECONDARY);
+        hud.drawString("TVC SYSTEM STATUS", x, y);
+        y += lineHeight;
+
+        Color activityColor = tvcActivity > 70 ? STATUS_ERROR :
+                tvcActivity > 40 ? STATUS_WARN : STATUS_OK;
+        hud.setColor(activityColor);
+        line.setLength(0);
+        DecimalText.append(line.append("Activity: "), tvcActivity, 1).append('%');
+        hud.drawString(line, x, y);
+        y += lineHeight;
+
+        // Gimbal angles
+        hud.setColor(TEXT_PRIMARY);
+        line.setLength(0);
+        DecimalText.appendSigned(line.append("Gimbal: X"), hudSample.getServoXDeflection()).append('°');
+        DecimalText.appendSigned(line.append(" Y"), hudSample.getServoYDeflection()).append('°');
+        hud.drawString(line, x, y);
+        y += lineHeight;
+
+        // Stability indicator
+        double stability = hudSample.getStability();
+        Color stabilityColor = stability > 80 ? STATUS_OK :
+                stability > 50 ? STATUS_WARN : STATUS_ERROR;
+        hud.setColor(stabilityColor);
+        line.setLength(0);
+        DecimalText.append(line.append("Stability: "), stability, 0).append('%');
+        hud.drawString(line, x, y);
+        y += lineHeight * 2;
+
+        // Flight data
+        hud.setColor(TEXT_SECONDARY);
+        hud.drawString("FLIGHT DATA", x, y);
+        y += lineHeight;
+
+        hud.setColor(TEXT_PRIMARY);
+        line.setLength(0);
+        DecimalText.appendSigned(line.append("Pitch: "), hudSample.getPitch(), 2).append('°');
+        hud.drawString(line, x, y);
+        y += lineHeight;
+        line.setLength(0);
+        DecimalText.appendSigned(line.append("Roll:  "), hudSample.getRoll(), 2).append('°');
+        hud.drawString(line, x, y);
+        y += lineHeight;
+        line.setLength(0);
+        DecimalText.append(line.append("Alt:   "), hudSample.getAltitude(), 1).append('m');
+        hud.drawString(line, x, y);
+    }
+
+    /**
+     * Link health and display delay, top right
+     */
+    private void drawPerformanceIndicator(HudCanvas hud, double delayMillis, String smoothing) {
+        int x = hud.getWidth() - 150;
+        int y = 30;
+
+        hud.setFont(PERFORMANCE_FONT);
+        hud.setColor(TEXT_SECONDARY);
+        hud.drawString("SYSTEM PERFORMANCE", x, y);
+
+        // Data freshness indicator
+        boolean dataFresh = telemetryData.isDataFresh();
+        hud.setColor(dataFresh ? STATUS_OK : STATUS_ERROR);
+        hud.fillOval(x, y + 10, 8, 8);
+        hud.setColor(TEXT_PRIMARY);
+        hud.drawString(dataFresh ? "Data Fresh" : "Data Stale", x + 15, y + 18);
+
+        // Buffer status
+        int bufferCount = hudSample.getBufferCount();
+        Color bufferColor = bufferCount > 800 ? STATUS_ERROR :
+                bufferCount > 500 ? STATUS_WARN : STATUS_OK;
+        hud.setColor(bufferColor);
+        hud.fillOval(x, y + 25, 8, 8);
+        hud.setColor(TEXT_PRIMARY);
+        line.setLength(0);
+        line.append("Buffer: ").append(bufferCount);
+        hud.drawString(line, x + 15, y + 33);
+
+        // How far behind the present the drawn attitude is
+        hud.setColor(TEXT_SECONDARY);
+        line.setLength(0);
+        DecimalText.append(line.append("Delay: "), delayMillis, 1).append(" ms (").append(smoothing).append(')');
+        hud.drawString(line, x + 15, y + 48);
+    }
+
+    private void drawDisconnectedOverlay(HudCanvas hud) {
+        int width = hud.getWidth();
+        int height = hud.getHeight();
+
+        // Semi-transparent overlay
+        hud.setColor(DISCONNECTED_SHADE);
+        hud.fillRect(0, 0, width, height);
+
+        // Disconnected message
+        hud.setColor(STATUS_ERROR);
+        hud.setFont(MESSAGE_FONT);
+        hud.drawString(DISCONNECTED_MESSAGE, (width - hud.stringWidth(DISCONNECTED_MESSAGE)) / 2, height / 2);
+
+        // Connection instructions
+        hud.setColor(TEXT_SECONDARY);
+        hud.setFont(INSTRUCTION_FONT);
+        hud.drawString(DISCONNECTED_INSTRUCTION, (width - hud.stringWidth(DISCONNECTED_INSTRUCTION)) / 2, height / 2 + 40);
+    }
+}
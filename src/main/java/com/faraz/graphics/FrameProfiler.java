@@ -0,0 +1,291 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL2;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Per-frame timing of the 3D view: CPU time of each phase and GPU time of the frame
+ *
+ * Phases are timed with System.nanoTime() around each part of display(), and "paint"
+ * around the whole paint of the GL surface, which adds GLJPanel's readback and composite
+ * or GLCanvas's buffer swap - the figure to compare surfaces by. GPU time comes from
+ * GL_TIME_ELAPSED queries kept in a small ring, so a result is read a few frames later
+ * instead of stalling for it. Everything goes into lock-free histograms that the overlay
+ * and the CSV export read.
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        ANIMATION("animation"),
+        CAMERA("camera"),
+        STARS("stars"),
+        ROCKET("rocket"),
+        TRAIL("trail"),
+        HUD("hud"),
+        DISPLAY("display"), // All of display(), the phases above plus clear and flush
+        PAINT("paint"),     // display() plus what the surface does to show the frame
+        GPU("gpu");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    private static final int QUERY_RING = 4;
+
+    // Overlay: table, then the display() time per power of two from 1 us to 64 ms
+    private static final int OVERLAY_LINE = 14;
+    private static final int OVERLAY_WIDTH = 430;
+    private static final int OVERLAY_CHART_HEIGHT = 40;
+    private static final int OVERLAY_FIRST_OCTAVE = 10; // 1024 ns
+    private static final int OVERLAY_LAST_OCTAVE = 26;  // 64 ms
+    public static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color OVERLAY_HEADER = new Color(180, 180, 180);
+    private static final Color OVERLAY_BAR = new Color(64, 150, 255);
+    private static final String OVERLAY_COLUMNS =
+            String.format(Locale.ROOT, "%-10s %7s %8s %8s %8s %8s  ", "us", "n", "p50", "p95", "p99", "max");
+
+    private final FrameTimeHistogram[] histograms = new FrameTimeHistogram[Phase.values().length];
+    private long phaseStart;
+
+    // GPU timer queries: slot i is in flight while pending[i]
+    private final int[] queries = new int[QUERY_RING];
+    private final boolean[] pending = new boolean[QUERY_RING];
+    private final int[] available = new int[1];
+    private final long[] elapsed = new long[1];
+    private boolean gpuTimerAvailable = false;
+    private int nextQuery = 0;
+    private boolean queryOpen = false;
+
+    private volatile boolean overlayVisible = false;
+    private String surface = "";
+
+    // Overlay text is built here, so drawing it allocates nothing per frame
+    private final StringBuilder line = new StringBuilder(80);
+
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new FrameTimeHistogram();
+    }
+
+    /**
+     * Create the GPU queries if the driver has timer queries; called from init()
+     */
+    public void init(GL2 gl) {
+        gpuTimerAvailable = gl.isExtensionAvailable("GL_ARB_timer_query")
+                || gl.isExtensionAvailable("GL_EXT_timer_query");
+        if (gpuTimerAvailable) {
+            gl.glGenQueries(QUERY_RING, queries, 0);
+            Arrays.fill(pending, false);
+            nextQuery = 0;
+        }
+    }
+
+    public void dispose(GL2 gl) {
+        if (gpuTimerAvailable) {
+            gl.glDeleteQueries(QUERY_RING, queries, 0);
+            gpuTimerAvailable = false;
+        }
+    }
+
+    /**
+     * Collect finished GPU results and start timing this frame's GL commands
+     */
+    public void beginGpuFrame(GL2 gl) {
+        if (!gpuTimerAvailable) return;
+        for (int i = 0; i < QUERY_RING; i++) {
+            if (!pending[i]) continue;
+            gl.glGetQueryObjectiv(queries[i], GL2.GL_QUERY_RESULT_AVAILABLE, available, 0);
+            if (available[0] == 0) continue;
+            gl.glGetQueryObjectui64v(queries[i], GL2.GL_QUERY_RESULT, elapsed, 0);
+            histograms[Phase.GPU.ordinal()].record(elapsed[0]);
+            pending[i] = false;
+        }
+        // All slots still in flight: skip this frame rather than wait
+        if (pending[nextQuery]) return;
+        gl.glBeginQuery(GL2.GL_TIME_ELAPSED, queries[nextQuery]);
+        queryOpen = true;
+    }
+
+    public void endGpuFrame(GL2 gl) {
+        if (!queryOpen) return;
+        gl.glEndQuery(GL2.GL_TIME_ELAPSED);
+        pending[nextQuery] = true;
+        nextQuery = (nextQuery + 1) % QUERY_RING;
+        queryOpen = false;
+    }
+
+    /**
+     * Start the clock for the phases that follow; each end() records one and restarts it
+     */
+    public void start() {
+        phaseStart = System.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].record(now - phaseStart);
+        phaseStart = now;
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    public FrameTimeHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    public boolean isGpuTimerAvailable() { return gpuTimerAvailable; }
+
+    /**
+     * Name of the GL surface being timed, written with the statistics
+     */
+    public void setSurface(String surface) { this.surface = surface; }
+
+    public String getSurface() { return surface; }
+
+    public boolean isOverlayVisible() { return overlayVisible; }
+
+    /**
+     * Show or hide the overlay; showing it starts the statistics afresh
+     */
+    public void setOverlayVisible(boolean visible) {
+        if (visible && !overlayVisible) reset();
+        overlayVisible = visible;
+    }
+
+    public void reset() {
+        for (FrameTimeHistogram histogram : histograms) histogram.reset();
+    }
+
+    /**
+     * One row per phase: surface, sample count, then mean, p50, p95, p99 and max in microseconds
+     */
+    public void writeCsv(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("surface,phase,count,mean_us,p50_us,p95_us,p99_us,max_us\n");
+            for (Phase phase : Phase.values()) {
+                FrameTimeHistogram h = getHistogram(phase);
+                out.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f%n", surface, phase.getLabel(),
+                        h.getCount(), h.getMean() / 1e3, h.getPercentile(0.50) / 1e3,
+                        h.getPercentile(0.95) / 1e3, h.getPercentile(0.99) / 1e3, h.getMax() / 1e3));
+            }
+        }
+    }
+
+    /**
+     * writeCsv, with the outcome reported on the console rather than thrown
+     */
+    public void writeStats(Path file) {
+        try {
+            writeCsv(file);
+            System.out.println("Frame times written to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write frame times to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Statistics to frame-times-<date>-<time>.csv in the working directory (the E key)
+     */
+    public void writeTimestampedStats() {
+        writeStats(Paths.get("frame-times-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv"));
+    }
+
+    /**
+     * Statistics to -Dtvc.frameStats, if it is set (on exit)
+     */
+    public void writeRequestedStats() {
+        String frameStats = System.getProperty("tvc.frameStats");
+        if (frameStats != null) writeStats(Paths.get(frameStats));
+    }
+
+    /**
+     * Percentile table and the distribution of display() time, bottom left of the view
+     */
+    public void drawOverlay(HudCanvas hud, int height) {
+        int x = 20;
+        int tableLines = Phase.values().length + 1;
+        int blockHeight = OVERLAY_LINE * (tableLines + 1) + 10 + OVERLAY_CHART_HEIGHT;
+        int y = height - 20 - blockHeight + OVERLAY_LINE;
+
+        hud.setColor(OVERLAY_BACKGROUND);
+        hud.fillRect(x - 8, y - OVERLAY_LINE, OVERLAY_WIDTH, blockHeight + 8);
+
+        hud.setFont(OVERLAY_FONT);
+        hud.setColor(OVERLAY_HEADER);
+        line.setLength(0);
+        hud.drawString(line.append(OVERLAY_COLUMNS).append(surface), x, y);
+        hud.setColor(Color.WHITE);
+        for (Phase phase : Phase.values()) {
+            y += OVERLAY_LINE;
+            FrameTimeHistogram h = getHistogram(phase);
+            line.setLength(0);
+            line.append(phase.getLabel());
+            padEnd(0, 10);
+            if (phase == Phase.GPU && !gpuTimerAvailable) {
+                hud.drawString(line.append(" no timer queries"), x, y);
+                continue;
+            }
+            int start = line.append(' ').length();
+            line.append(h.getCount());
+            padStart(start, 7);
+            appendMicros(h.getPercentile(0.50));
+            appendMicros(h.getPercentile(0.95));
+            appendMicros(h.getPercentile(0.99));
+            appendMicros(h.getMax());
+            hud.drawString(line, x, y);
+        }
+
+        FrameTimeHistogram cpu = getHistogram(Phase.DISPLAY);
+        long peak = 1;
+        for (int octave = OVERLAY_FIRST_OCTAVE; octave <= OVERLAY_LAST_OCTAVE; octave++) {
+            peak = Math.max(peak, cpu.getOctaveCount(octave));
+        }
+        int chartBottom = y + 10 + OVERLAY_CHART_HEIGHT;
+        int barWidth = (OVERLAY_WIDTH - 20) / (OVERLAY_LAST_OCTAVE - OVERLAY_FIRST_OCTAVE + 1);
+        hud.setColor(OVERLAY_BAR);
+        for (int octave = OVERLAY_FIRST_OCTAVE; octave <= OVERLAY_LAST_OCTAVE; octave++) {
+            int barHeight = (int) (OVERLAY_CHART_HEIGHT * cpu.getOctaveCount(octave) / peak);
+            int barX = x + (octave - OVERLAY_FIRST_OCTAVE) * barWidth;
+            hud.fillRect(barX, chartBottom - barHeight, barWidth - 2, barHeight);
+        }
+        hud.setColor(OVERLAY_HEADER);
+        int labelY = chartBottom + OVERLAY_LINE - 2;
+        hud.drawString("1us", x, labelY);
+        hud.drawString("1ms", x + (20 - OVERLAY_FIRST_OCTAVE) * barWidth, labelY);
+        hud.drawString("64ms", x + (OVERLAY_LAST_OCTAVE - OVERLAY_FIRST_OCTAVE) * barWidth - 10, labelY);
+    }
+
+    // Like " %8.1f" of nanos in microseconds
+    private void appendMicros(double nanos) {
+        int start = line.append(' ').length();
+        DecimalText.append(line, nanos / 1e3, 1);
+        padStart(start, 8);
+    }
+
+    // Left-aligns what was appended since start in a field of width characters, like "%-Ns"
+    private void padEnd(int start, int width) {
+        while (line.length() - start < width) line.append(' ');
+    }
+
+    // Right-aligns it, like "%Ns"
+    private void padStart(int start, int width) {
+        while (line.length() - start < width) line.insert(start, ' ');
+    }
+}
@@ -0,0 +1,110 @@
+package com.faraz.graphics;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import javax.swing.Timer;
+
+/**
+ * Decides when the 3D view, and the HUD painted over it, is redrawn
+ *
+ * Anything that changes the scene calls requestFrame(): new telemetry, camera input, an
+ * animation that is still running. Requests made before the next frame collapse into
+ * it, and frames start at most once per refresh interval of the display, so a burst of
+ * data or mouse events costs one frame. Nothing runs while nobody asks for a frame.
+ * Everything happens on the EDT; the renderer calls frameStarted() from display().
+ */
+public class FrameScheduler {
+    public static final int DEFAULT_MAX_FPS = 60;
+
+    // A repaint that never turned into a frame (e.g. the view was hidden) stops blocking after this
+    private static final long STUCK_REQUEST_NANOS = 1_000_000_000L;
+
+    private final Runnable render;
+    private final int maxFps;
+    private final long frameIntervalNanos;
+    private final Timer deferTimer; // One-shot: the next frame when a request came too early
+
+    // Own flag: a one-shot Timer stops counting as running before its event reaches the EDT
+    private boolean deferred = false;
+    private boolean repaintPending = false;
+    private long repaintRequestedNanos;
+    private long lastFrameNanos;
+    private long frameCount = 0;
+
+    /**
+     * Capped at -Dtvc.maxFps, or else the refresh rate of the default screen
+     */
+    public FrameScheduler(Runnable render) {
+        this(render, Integer.getInteger("tvc.maxFps", detectRefreshRate()));
+    }
+
+    public FrameScheduler(Runnable render, int maxFps) {
+        if (maxFps <= 0) throw new IllegalArgumentException("Frame rate must be positive: " + maxFps);
+        this.render = render;
+        this.maxFps = maxFps;
+        this.frameIntervalNanos = 1_000_000_000L / maxFps;
+        this.lastFrameNanos = System.nanoTime() - frameIntervalNanos;
+        deferTimer = new Timer(0, e -> {
+            deferred = false;
+            issue();
+        });
+        deferTimer.setRepeats(false);
+    }
+
+    /**
+     * Ask for a frame: now if the last one is at least a refresh interval old, otherwise
+     * when it will be. Further requests until that frame starts are absorbed by it.
+     */
+    public void requestFrame() {
+        long now = System.nanoTime();
+        if (deferred) return;
+        if (repaintPending && now - repaintRequestedNanos < STUCK_REQUEST_NANOS) return;
+
+        long wait = lastFrameNanos + frameIntervalNanos - now;
+        if (wait <= 0) {
+            issue();
+        } else {
+            deferred = true;
+            deferTimer.setInitialDelay((int) Math.max(1, (wait + 999_999) / 1_000_000));
+            deferTimer.restart();
+        }
+    }
+
+    private void issue() {
+        repaintPending = true;
+        repaintRequestedNanos = System.nanoTime();
+        render.run();
+    }
+
+    /**
+     * Called at the start of every rendered frame, requested or not (resizes, exposes)
+     */
+    public void frameStarted() {
+        repaintPending = false;
+        lastFrameNanos = System.nanoTime();
+        frameCount++;
+    }
+
+    public void stop() {
+        deferTimer.stop();
+        deferred = false;
+    }
+
+    /**
+     * Frames actually rendered so far
+     */
+    public long getFrameCount() { return frameCount; }
+
+    public int getMaxFps() { return maxFps; }
+
+    /**
+     * Refresh rate of the default screen, DEFAULT_MAX_FPS if unknown or headless
+     */
+    public static int detectRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return DEFAULT_MAX_FPS;
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_MAX_FPS : rate;
+    }
+}
@@ -0,0 +1,102 @@
+package com.faraz.graphics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in ns, for percentiles of frame phases
+ *
+ * Buckets are log-linear: every power of two is split into SUB_BUCKETS equal buckets,
+ * so a percentile is within about 3% of the true value from 1 ns up to MAX_NANOS
+ * (longer values land in the last bucket; max is kept exactly). record() is a few
+ * atomic adds and safe from any thread; readers may see a sample that is half recorded.
+ */
+public class FrameTimeHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_MAGNITUDE = 36; // 2^36 ns, about 69 s
+    public static final long MAX_NANOS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    static int bucket(long nanos) {
+        if (nanos > MAX_NANOS) return BUCKETS - 1;
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        if (magnitude < SUB_BITS) return (int) nanos;
+        int shift = magnitude - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) - SUB_BUCKETS);
+    }
+
+    // Smallest value in a bucket
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long) SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    // Largest value in a bucket
+    static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? MAX_NANOS : lowerBound(bucket + 1) - 1;
+    }
+
+    /**
+     * Value at or below which the fraction p (0-1) of the samples fall: the middle of
+     * the bucket holding it, capped at max. 0 if empty.
+     */
+    public long getPercentile(double p) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                long middle = lowerBound(b) + (upperBound(b) - lowerBound(b)) / 2;
+                return Math.min(middle, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Samples in [2^octave, 2^(octave+1)) ns, for drawing the distribution
+     */
+    public long getOctaveCount(int octave) {
+        long total = 0;
+        long low = 1L << octave;
+        long high = (1L << (octave + 1)) - 1;
+        for (int b = bucket(low); b <= bucket(Math.min(high, MAX_NANOS)); b++) total += counts.get(b);
+        return total;
+    }
+
+    public long getCount() { return count.get(); }
+
+    public long getMax() { return max.get(); }
+
+    public long getMean() {
+        long total = count.get();
+        return total > 0 ? sum.get() / total : 0;
+    }
+
+    /**
+     * Start over; samples recorded concurrently may be partly kept
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
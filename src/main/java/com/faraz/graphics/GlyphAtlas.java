@@ -0,0 +1,210 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+/**
+ * The HUD fonts, rendered once into one alpha texture
+ *
+ * Every Latin-1 character of each font is drawn with Java2D (antialiased, as Swing would)
+ * and packed into rows of a texture, together with a solid block for filled rectangles
+ * and a disc for status lights. Drawing text is then one textured quad per character at
+ * whole-pixel positions, sampled with GL_NEAREST so the quads match the bitmaps exactly.
+ * Building the atlas needs no display, so it also works headless.
+ */
+public class GlyphAtlas {
+    private static final int FIRST_CHAR = 32;
+    private static final int LAST_CHAR = 255;
+    private static final int CHARS = LAST_CHAR - FIRST_CHAR + 1;
+    private static final int WIDTH = 512;
+    private static final int PADDING = 1;
+    private static final int SOLID_SIZE = 4;
+    private static final int DISC_SIZE = 32;
+
+    private final Font[] fonts;
+    private final int[] ascent;
+    private final int[] lineHeight;
+
+    // Per glyph (font * CHARS + char): quad offset from the pen on the baseline, size, atlas position, advance
+    private final int[] offsetX;
+    private final int[] offsetY;
+    private final int[] glyphWidth;
+    private final int[] glyphHeight;
+    private final int[] atlasX;
+    private final int[] atlasY;
+    private final int[] advance;
+
+    private int solidX, solidY;
+    private int discX, discY;
+    private final int height;
+    private final byte[] alpha;
+    private final int[] texture = new int[1]; // 0 until uploaded
+
+    public GlyphAtlas(Font... fonts) {
+        this.fonts = fonts.clone();
+        int glyphs = fonts.length * CHARS;
+        ascent = new int[fonts.length];
+        lineHeight = new int[fonts.length];
+        offsetX = new int[glyphs];
+        offsetY = new int[glyphs];
+        glyphWidth = new int[glyphs];
+        glyphHeight = new int[glyphs];
+        atlasX = new int[glyphs];
+        atlasY = new int[glyphs];
+        advance = new int[glyphs];
+
+        Graphics2D measure = createGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        FontRenderContext frc = measure.getFontRenderContext();
+        for (int f = 0; f < fonts.length; f++) {
+            FontMetrics metrics = measure.getFontMetrics(fonts[f]);
+            ascent[f] = metrics.getAscent();
+            lineHeight[f] = metrics.getHeight();
+            for (int c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+                int g = f * CHARS + c - FIRST_CHAR;
+                advance[g] = metrics.charWidth((char) c);
+                Rectangle bounds = fonts[f].createGlyphVector(frc, String.valueOf((char) c)).getPixelBounds(frc, 0, 0);
+                offsetX[g] = bounds.x;
+                offsetY[g] = bounds.y;
+                glyphWidth[g] = bounds.width;
+                glyphHeight[g] = bounds.height;
+            }
+        }
+        measure.dispose();
+
+        height = pack();
+        alpha = render();
+    }
+
+    /**
+     * Place glyphs in rows, tallest row item deciding the row height; returns the texture height
+     */
+    private int pack() {
+        int x = PADDING;
+        int y = PADDING;
+        int rowHeight = DISC_SIZE;
+        solidX = x;
+        solidY = y;
+        x += SOLID_SIZE + PADDING;
+        discX = x;
+        discY = y;
+        x += DISC_SIZE + PADDING;
+        for (int g = 0; g < advance.length; g++) {
+            if (glyphWidth[g] == 0) continue;
+            if (x + glyphWidth[g] + PADDING > WIDTH) {
+                x = PADDING;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            atlasX[g] = x;
+            atlasY[g] = y;
+            x += glyphWidth[g] + PADDING;
+            rowHeight = Math.max(rowHeight, glyphHeight[g]);
+        }
+        return Integer.highestOneBit(Math.max(1, y + rowHeight + PADDING - 1)) << 1;
+    }
+
+    private byte[] render() {
+        BufferedImage image = new BufferedImage(WIDTH, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = createGraphics(image);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(solidX, solidY, SOLID_SIZE, SOLID_SIZE);
+        g2d.fillOval(discX, discY, DISC_SIZE, DISC_SIZE);
+        for (int f = 0; f < fonts.length; f++) {
+            g2d.setFont(fonts[f]);
+            for (int c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+                int g = f * CHARS + c - FIRST_CHAR;
+                if (glyphWidth[g] == 0) continue;
+                g2d.drawString(String.valueOf((char) c), atlasX[g] - offsetX[g], atlasY[g] - offsetY[g]);
+            }
+        }
+        g2d.dispose();
+
+        int[] argb = image.getRGB(0, 0, WIDTH, height, null, 0, WIDTH);
+        byte[] bytes = new byte[argb.length];
+        for (int i = 0; i < argb.length; i++) bytes[i] = (byte) (argb[i] >>> 24);
+        return bytes;
+    }
+
+    private static Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+        return g2d;
+    }
+
+    /**
+     * Create the texture; called from init(), which runs again for a new context
+     */
+    public void upload(GL gl) {
+        gl.glGenTextures(1, texture, 0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, texture[0]);
+        gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_NEAREST);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_NEAREST);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+        gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_ALPHA, WIDTH, height, 0, GL.GL_ALPHA, GL.GL_UNSIGNED_BYTE,
+                ByteBuffer.wrap(alpha));
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+    }
+
+    public void dispose(GL gl) {
+        if (texture[0] != 0) {
+            gl.glDeleteTextures(1, texture, 0);
+            texture[0] = 0;
+        }
+    }
+
+    public int getTexture() { return texture[0]; }
+
+    /**
+     * Index of a font given to the constructor, -1 if it is not in the atlas
+     */
+    public int indexOf(Font font) {
+        for (int f = 0; f < fonts.length; f++) {
+            if (fonts[f] == font) return f;
+        }
+        for (int f = 0; f < fonts.length; f++) {
+            if (fonts[f].equals(font)) return f;
+        }
+        return -1;
+    }
+
+    /**
+     * Glyph index of a character in a font; characters outside Latin-1 show as '?'
+     */
+    public int glyph(int font, char c) {
+        if (c < FIRST_CHAR || c > LAST_CHAR) c = '?';
+        return font * CHARS + c - FIRST_CHAR;
+    }
+
+    public int getAscent(int font) { return ascent[font]; }
+    public int getLineHeight(int font) { return lineHeight[font]; }
+
+    public int getAdvance(int glyph) { return advance[glyph]; }
+    public int getOffsetX(int glyph) { return offsetX[glyph]; }
+    public int getOffsetY(int glyph) { return offsetY[glyph]; }
+    public int getGlyphWidth(int glyph) { return glyphWidth[glyph]; }
+    public int getGlyphHeight(int glyph) { return glyphHeight[glyph]; }
+    public int getAtlasX(int glyph) { return atlasX[glyph]; }
+    public int getAtlasY(int glyph) { return atlasY[glyph]; }
+
+    // Solid block and disc, in atlas pixels (the solid block is sampled at its centre)
+    public int getSolidX() { return solidX + SOLID_SIZE / 2; }
+    public int getSolidY() { return solidY + SOLID_SIZE / 2; }
+    public int getDiscX() { return discX; }
+    public int getDiscY() { return discY; }
+    public int getDiscSize() { return DISC_SIZE; }
+
+    public int getWidth() { return WIDTH; }
+    public int getHeight() { return height; }
+}
@@ -0,0 +1,194 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import java.awt.Color;
+import java.awt.Font;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * 2D drawing over the 3D view, inside the GL context: text, rectangles and discs
+ *
+ * Calls between begin() and end() only append quads to a vertex array, in pixels with
+ * the origin top left as in Swing; end() streams them into a buffer object and draws
+ * everything in one call, in the order it was drawn. All shapes sample the glyph atlas
+ * (rectangles its solid block), so colour is per vertex and no state changes between them.
+ * Nothing is allocated per frame once the array has grown to the HUD's size.
+ */
+public class HudCanvas {
+    private static final int FLOATS_PER_VERTEX = 8; // texture, colour, position
+    private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+    private static final int INITIAL_QUADS = 1024;
+
+    private final GlyphAtlas atlas;
+    private FloatBuffer vertices;
+    private int quads = 0;
+    private final int[] buffer = new int[1]; // 0 until uploaded
+
+    private int width;
+    private int height;
+    private int font = 0;
+    private float red = 1.0f, green = 1.0f, blue = 1.0f, alpha = 1.0f;
+
+    public HudCanvas(GlyphAtlas atlas) {
+        this.atlas = atlas;
+        this.vertices = allocate(INITIAL_QUADS);
+    }
+
+    private static FloatBuffer allocate(int quads) {
+        return ByteBuffer.allocateDirect(quads * 4 * STRIDE).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Create the atlas texture and the vertex buffer; called from init()
+     */
+    public void upload(GL gl) {
+        atlas.upload(gl);
+        gl.glGenBuffers(1, buffer, 0);
+    }
+
+    public void dispose(GL gl) {
+        atlas.dispose(gl);
+        if (buffer[0] != 0) {
+            gl.glDeleteBuffers(1, buffer, 0);
+            buffer[0] = 0;
+        }
+    }
+
+    /**
+     * Start a frame for a surface of the given size in pixels
+     */
+    public void begin(int width, int height) {
+        this.width = width;
+        this.height = height;
+        vertices.clear();
+        quads = 0;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * Font for the following text; it must be one the atlas was built with
+     */
+    public void setFont(Font font) {
+        int index = atlas.indexOf(font);
+        if (index < 0) throw new IllegalArgumentException("Font not in the HUD atlas: " + font);
+        this.font = index;
+    }
+
+    public void setColor(Color color) {
+        red = color.getRed() / 255.0f;
+        green = color.getGreen() / 255.0f;
+        blue = color.getBlue() / 255.0f;
+        alpha = color.getAlpha() / 255.0f;
+    }
+
+    public int stringWidth(CharSequence text) {
+        int total = 0;
+        for (int i = 0; i < text.length(); i++) total += atlas.getAdvance(atlas.glyph(font, text.charAt(i)));
+        return total;
+    }
+
+    /**
+     * Text with its baseline at y, like Graphics.drawString
+     */
+    public void drawString(CharSequence text, int x, int y) {
+        for (int i = 0; i < text.length(); i++) {
+            int g = atlas.glyph(font, text.charAt(i));
+            int w = atlas.getGlyphWidth(g);
+            if (w > 0) {
+                int h = atlas.getGlyphHeight(g);
+                quad(x + atlas.getOffsetX(g), y + atlas.getOffsetY(g), w, h,
+                        atlas.getAtlasX(g), atlas.getAtlasY(g), w, h);
+            }
+            x += atlas.getAdvance(g);
+        }
+    }
+
+    public void fillRect(int x, int y, int w, int h) {
+        quad(x, y, w, h, atlas.getSolidX(), atlas.getSolidY(), 0, 0);
+    }
+
+    public void fillOval(int x, int y, int w, int h) {
+        int size = atlas.getDiscSize();
+        quad(x, y, w, h, atlas.getDiscX(), atlas.getDiscY(), size, size);
+    }
+
+    private void quad(float x, float y, float w, float h, float u, float v, float uw, float vh) {
+        if (vertices.remaining() < 4 * FLOATS_PER_VERTEX) {
+            FloatBuffer larger = allocate(vertices.capacity() / (2 * FLOATS_PER_VERTEX));
+            vertices.flip();
+            larger.put(vertices);
+            vertices = larger;
+        }
+        float su = 1.0f / atlas.getWidth();
+        float sv = 1.0f / atlas.getHeight();
+        vertex(u * su, v * sv, x, y);
+        vertex((u + uw) * su, v * sv, x + w, y);
+        vertex((u + uw) * su, (v + vh) * sv, x + w, y + h);
+        vertex(u * su, (v + vh) * sv, x, y + h);
+        quads++;
+    }
+
+    private void vertex(float u, float v, float x, float y) {
+        vertices.put(u).put(v).put(red).put(green).put(blue).put(alpha).put(x).put(y);
+    }
+
+    /**
+     * Draw everything since begin() over the current frame, then restore the 3D state
+     */
+    public void end(GL2 gl) {
+        if (quads == 0 || buffer[0] == 0) return;
+
+        gl.glMatrixMode(GL2.GL_PROJECTION);
+        gl.glPushMatrix();
+        gl.glLoadIdentity();
+        gl.glOrtho(0, width, height, 0, -1, 1);
+        gl.glMatrixMode(GL2.GL_MODELVIEW);
+        gl.glPushMatrix();
+        gl.glLoadIdentity();
+
+        gl.glDisable(GL.GL_DEPTH_TEST);
+        gl.glDisable(GL2.GL_LIGHTING);
+        gl.glEnable(GL.GL_BLEND);
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, atlas.getTexture());
+        gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, GL2.GL_MODULATE);
+
+        // New storage every frame (orphaning), so this never waits for last frame's draw
+        vertices.flip();
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.remaining() * Float.BYTES, vertices, GL2.GL_STREAM_DRAW);
+        gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+        gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glTexCoordPointer(2, GL.GL_FLOAT, STRIDE, 0);
+        gl.glColorPointer(4, GL.GL_FLOAT, STRIDE, 2 * Float.BYTES);
+        gl.glVertexPointer(2, GL.GL_FLOAT, STRIDE, 6 * Float.BYTES);
+        gl.glDrawArrays(GL2.GL_QUADS, 0, quads * 4);
+        gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+        gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+        gl.glDisable(GL.GL_TEXTURE_2D);
+        gl.glDisable(GL.GL_BLEND);
+        gl.glEnable(GL2.GL_LIGHTING);
+        gl.glEnable(GL.GL_DEPTH_TEST);
+
+        gl.glMatrixMode(GL2.GL_PROJECTION);
+        gl.glPopMatrix();
+        gl.glMatrixMode(GL2.GL_MODELVIEW);
+        gl.glPopMatrix();
+    }
+
+    /**
+     * Quads drawn since begin()
+     */
+    public int getQuadCount() { return quads; }
+}
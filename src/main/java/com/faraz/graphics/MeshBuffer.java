@@ -0,0 +1,159 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Static triangle meshes sharing one vertex buffer object
+ *
+ * Geometry is built on the CPU once, with unit normals, and uploaded in init(). Each
+ * mesh is a range of vertices, so after bind() drawing one costs a single glDrawArrays.
+ * Vertices are interleaved as normal then position, the layout of GL_N3F_V3F.
+ */
+final class MeshBuffer {
+    private static final int FLOATS_PER_VERTEX = 6;
+    private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+
+    /**
+     * A range of vertices in the buffer, drawn as triangles
+     */
+    static final class Mesh {
+        private final int first;
+        private final int count;
+
+        private Mesh(int first, int count) {
+            this.first = first;
+            this.count = count;
+        }
+
+        /**
+         * Draw with the modelview as it is; the buffer must be bound
+         */
+        void draw(GL2 gl) {
+            gl.glDrawArrays(GL2.GL_TRIANGLES, first, count);
+        }
+
+        /**
+         * Draw once per instance, the caller having set up the per-instance attributes
+         */
+        void drawInstanced(GL2 gl, int instances) {
+            gl.glDrawArraysInstanced(GL2.GL_TRIANGLES, first, count, instances);
+        }
+
+        int getVertexCount() { return count; }
+    }
+
+    private float[] data = new float[FLOATS_PER_VERTEX * 256];
+    private int vertexCount = 0;
+    private final int[] buffer = new int[1]; // 0 until uploaded
+
+    /**
+     * Start of the next mesh; pass to end() once its triangles are added
+     */
+    int begin() {
+        return vertexCount;
+    }
+
+    Mesh end(int first) {
+        return new Mesh(first, vertexCount - first);
+    }
+
+    void vertex(float nx, float ny, float nz, float x, float y, float z) {
+        if ((vertexCount + 1) * FLOATS_PER_VERTEX > data.length) data = Arrays.copyOf(data, data.length * 2);
+        int at = vertexCount * FLOATS_PER_VERTEX;
+        data[at] = nx;
+        data[at + 1] = ny;
+        data[at + 2] = nz;
+        data[at + 3] = x;
+        data[at + 4] = y;
+        data[at + 5] = z;
+        vertexCount++;
+    }
+
+    /**
+     * Open tube around the Y axis from bottom to top
+     */
+    void cylinder(float radius, float bottom, float top, int slices) {
+        for (int i = 0; i < slices; i++) {
+            float c1 = cos(i, slices), s1 = sin(i, slices);
+            float c2 = cos(i + 1, slices), s2 = sin(i + 1, slices);
+            vertex(c1, 0, s1, radius * c1, bottom, radius * s1);
+            vertex(c1, 0, s1, radius * c1, top, radius * s1);
+            vertex(c2, 0, s2, radius * c2, top, radius * s2);
+
+            vertex(c1, 0, s1, radius * c1, bottom, radius * s1);
+            vertex(c2, 0, s2, radius * c2, top, radius * s2);
+            vertex(c2, 0, s2, radius * c2, bottom, radius * s2);
+        }
+    }
+
+    /**
+     * Open cone with its base ring at y = 0 and its tip at y = -height
+     */
+    void cone(float radius, float height, int slices) {
+        // Surface normal leans up by the slope: (h cos, r, h sin), normalized
+        float length = (float) Math.sqrt(height * height + radius * radius);
+        float horizontal = height / length;
+        float vertical = radius / length;
+        for (int i = 0; i < slices; i++) {
+            float c1 = cos(i, slices), s1 = sin(i, slices);
+            float c2 = cos(i + 1, slices), s2 = sin(i + 1, slices);
+            float cm = (float) Math.cos(Math.PI * (2 * i + 1) / slices);
+            float sm = (float) Math.sin(Math.PI * (2 * i + 1) / slices);
+            vertex(horizontal * c1, vertical, horizontal * s1, radius * c1, 0, radius * s1);
+            vertex(horizontal * cm, vertical, horizontal * sm, 0, -height, 0);
+            vertex(horizontal * c2, vertical, horizontal * s2, radius * c2, 0, radius * s2);
+        }
+    }
+
+    private static float cos(int i, int slices) {
+        return (float) Math.cos(2.0 * Math.PI * i / slices);
+    }
+
+    private static float sin(int i, int slices) {
+        return (float) Math.sin(2.0 * Math.PI * i / slices);
+    }
+
+    int getVertexCount() { return vertexCount; }
+
+    /**
+     * Copy the geometry to the GPU; called from init(), which runs again for a new context
+     */
+    void upload(GL gl) {
+        FloatBuffer floats = ByteBuffer.allocateDirect(vertexCount * STRIDE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        floats.put(data, 0, vertexCount * FLOATS_PER_VERTEX).flip();
+        gl.glGenBuffers(1, buffer, 0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertexCount * STRIDE, floats, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Point the vertex and normal arrays at the buffer; draw meshes, then unbind()
+     */
+    void bind(GL2 gl) {
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+        gl.glNormalPointer(GL.GL_FLOAT, STRIDE, 0);
+        gl.glVertexPointer(3, GL.GL_FLOAT, STRIDE, 3 * Float.BYTES);
+    }
+
+    void unbind(GL2 gl) {
+        gl.glDisableClientState(GL2.GL_NORMAL_ARRAY);
+        gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    void dispose(GL gl) {
+        if (buffer[0] != 0) {
+            gl.glDeleteBuffers(1, buffer, 0);
+            buffer[0] = 0;
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.faraz.graphics;
+
+import com.faraz.communication.TelemetryLineParser;
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetrySample;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Renders a telemetry text capture to a PNG sequence or an animated GIF, without a window
+ *
+ * The capture is replayed on its own clock at a fixed timestep: before each frame the
+ * samples up to that frame's time are published to a TelemetryData, and a RocketRenderer
+ * draws the scene and HUD as of that time into an offscreen framebuffer. Captures have no
+ * host timestamps, so samples are spaced at a nominal rate, as in CaptureImporter.
+ *
+ * Frames are read back asynchronously: glReadPixels goes into one of a ring of pixel
+ * buffer objects and returns at once, and each buffer is only mapped when the ring comes
+ * round to it again, long after the GPU has filled it. Encoding (PNG compression, GIF
+ * colour reduction) runs on a fork-join pool with at most two frames per worker in
+ * flight, finished strictly in frame order; frame images are reused.
+ *
+ * Any GL2 driver will do, including Mesa's software rasteriser (LIBGL_ALWAYS_SOFTWARE=1).
+ * JOGL creates the context through the X server, so on a machine without a display run
+ * it under xvfb-run.
+ *
+ *   java -Djava.awt.headless=true -cp TVCVisualizer.jar com.faraz.graphics.OffscreenRenderer capture.txt frames|review.gif [fps] [sample-rate-hz] [threads]
+ *
+ * Frame size from -Dtvc.video.width / -Dtvc.video.height (default 960 x 540).
+ */
+public class OffscreenRenderer {
+    public static final int DEFAULT_WIDTH = 960;
+    public static final int DEFAULT_HEIGHT = 540;
+    public static final double DEFAULT_FPS = 30;
+    public static final double DEFAULT_SAMPLE_RATE_HZ = 1000; // As CaptureImporter
+
+    // Frames between glReadPixels into a buffer and mapping it
+    private static final int READBACK_BUFFERS = 3;
+
+    public enum Format { PNG, GIF }
+
+    private final ForkJoinPool pool;
+    private final int width;
+    private final int height;
+    private final double fps;
+    private final double sampleRateHz;
+
+    public OffscreenRenderer() {
+        this(ForkJoinPool.commonPool(), Integer.getInteger("tvc.video.width", DEFAULT_WIDTH),
+                Integer.getInteger("tvc.video.height", DEFAULT_HEIGHT), DEFAULT_FPS, DEFAULT_SAMPLE_RATE_HZ);
+    }
+
+    public OffscreenRenderer(ForkJoinPool pool, int width, int height, double fps, double sampleRateHz) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Bad frame size: " + width + "x" + height);
+        if (!(fps > 0)) throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        if (!(sampleRateHz > 0)) throw new IllegalArgumentException("Sample rate must be positive: " + sampleRateHz);
+        this.pool = pool;
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.sampleRateHz = sampleRateHz;
+    }
+
+    /**
+     * GIF if output ends in .gif, otherwise a directory of frame-NNNNNN.png
+     */
+    public static Format formatOf(Path output) {
+        return output.getFileName().toString().toLowerCase().endsWith(".gif") ? Format.GIF : Format.PNG;
+    }
+
+    /**
+     * Render a capture in an offscreen GL2 framebuffer of its own
+     */
+    public Summary render(Path capture, Path output) throws IOException {
+        GLProfile profile = GLProfile.get(GLProfile.GL2);
+        GLCapabilities capabilities = new GLCapabilities(profile);
+        capabilities.setOnscreen(false);
+        capabilities.setFBO(true);
+        capabilities.setDoubleBuffered(false);
+        GLOffscreenAutoDrawable drawable = GLDrawableFactory.getFactory(profile)
+                .createOffscreenAutoDrawable(null, capabilities, null, width, height);
+        try {
+            drawable.display(); // Realises the framebuffer and its context
+            GLContext context = drawable.getContext();
+            if (context.makeCurrent() == GLContext.CONTEXT_NOT_CURRENT) {
+                throw new IOException("Could not make the offscreen GL context current");
+            }
+            try {
+                System.out.println("Rendering with " + context.getGLVersion());
+                return render(drawable, capture, output);
+            } finally {
+                context.release();
+            }
+        } finally {
+            drawable.destroy();
+        }
+    }
+
+    /**
+     * Render a capture with a drawable of this renderer's size whose context is current
+     */
+    public Summary render(GLAutoDrawable drawable, Path capture, Path output) throws IOException {
+        long startNanos = System.nanoTime();
+        Format format = formatOf(output);
+        if (format == Format.PNG) {
+            Files.createDirectories(output);
+        } else if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        Summary summary = new Summary(capture, output, format, width, height, fps);
+
+        TelemetryData telemetryData = new TelemetryData();
+        RocketRenderer renderer = new RocketRenderer(telemetryData, RocketRenderer.SURFACE_OFFSCREEN);
+        FrameProfiler profiler = renderer.getFrameProfiler();
+        GL2 gl = drawable.getGL().getGL2();
+        renderer.init(drawable);
+        renderer.reshape(drawable, 0, 0, width, height);
+
+        int[] buffers = new int[READBACK_BUFFERS];
+        long bufferBytes = (long) width * height * Integer.BYTES;
+        gl.glGenBuffers(READBACK_BUFFERS, buffers, 0);
+        for (int buffer : buffers) {
+            gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffer);
+            gl.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, bufferBytes, null, GL2.GL_STREAM_READ);
+        }
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+        gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 4);
+
+        try (InputStream in = Files.newInputStream(capture);
+             FrameSink sink = format == Format.GIF ? new GifSink(output, fps) : new PngSink(output)) {
+            CaptureReader reader = new CaptureReader(in);
+            TelemetrySample sample = new TelemetrySample();
+            double periodNanos = 1e9 / sampleRateHz;
+            boolean pending = reader.next(sample);
+            long sampleIndex = 0;
+
+            int window = Math.max(2, pool.getParallelism() * 2);
+            ArrayDeque<ForkJoinTask<BufferedImage>> inFlight = new ArrayDeque<>();
+            ConcurrentLinkedQueue<BufferedImage> freeImages = new ConcurrentLinkedQueue<>();
+
+            long frame = 0;
+            while (true) {
+                long frameNanos = Math.round(frame * 1e9 / fps);
+
+                // Everything the link would have delivered by this frame
+                while (pending && (long) (sampleIndex * periodNanos) <= frameNanos) {
+                    sample.setSequence(sampleIndex);
+                    sample.setReceiveNanos((long) (sampleIndex * periodNanos));
+                    telemetryData.publish(sample);
+                    if (sampleIndex == 0) telemetryData.setConnected(true);
+                    sampleIndex++;
+                    pending = reader.next(sample);
+                }
+
+                long paintStart = System.nanoTime();
+                renderer.display(drawable, frameNanos);
+
+                // The buffer read READBACK_BUFFERS frames ago is done by now; copy it out first
+                int slot = (int) (frame % READBACK_BUFFERS);
+                if (frame >= READBACK_BUFFERS) {
+                    submit(gl, buffers[slot], frame - READBACK_BUFFERS, sink, freeImages, inFlight, window);
+                }
+                gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffers[slot]);
+                gl.glReadPixels(0, 0, width, height, GL2.GL_BGRA, GL2.GL_UNSIGNED_INT_8_8_8_8_REV, 0L);
+                gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+                profiler.record(FrameProfiler.Phase.PAINT, System.nanoTime() - paintStart);
+                frame++;
+
+                if (!pending) break;
+            }
+
+            // The last frames still in the ring, oldest first
+            for (long f = Math.max(0, frame - READBACK_BUFFERS); f < frame; f++) {
+                submit(gl, buffers[(int) (f % READBACK_BUFFERS)], f, sink, freeImages, inFlight, window);
+            }
+            while (!inFlight.isEmpty()) sink.finish(inFlight.poll().join());
+
+            summary.frames = frame;
+            summary.samples = sampleIndex;
+            summary.flightNanos = Math.round((frame - 1) * 1e9 / fps);
+            summary.malformed = reader.parser.getMalformedCount();
+        } finally {
+            gl.glDeleteBuffers(READBACK_BUFFERS, buffers, 0);
+            renderer.dispose(drawable);
+            renderer.cleanup();
+        }
+
+        summary.elapsedNanos = System.nanoTime() - startNanos;
+        summary.renderNanos = profiler.getHistogram(FrameProfiler.Phase.PAINT).getMean();
+        return summary;
+    }
+
+    /**
+     * Copy a filled pixel buffer into a frame image (flipped: GL rows go bottom up) and queue its encoding
+     */
+    private void submit(GL2 gl, int buffer, long frame, FrameSink sink, ConcurrentLinkedQueue<BufferedImage> freeImages,
+                        ArrayDeque<ForkJoinTask<BufferedImage>> inFlight, int window) throws IOException {
+        if (inFlight.size() >= window) sink.finish(inFlight.poll().join());
+
+        BufferedImage image = freeImages.poll();
+        if (image == null) image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffer);
+        ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+        if (mapped == null) {
+            gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+            throw new IOException("Could not map the readback buffer of frame " + frame);
+        }
+        IntBuffer rows = mapped.order(ByteOrder.nativeOrder()).asIntBuffer();
+        for (int y = 0; y < height; y++) {
+            rows.position((height - 1 - y) * width);
+            rows.get(pixels, y * width, width);
+        }
+        gl.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+        BufferedImage frameImage = image;
+        inFlight.add(pool.submit(() -> {
+            try {
+                return sink.encode(frame, frameImage);
+            } finally {
+                freeImages.add(frameImage);
+            }
+        }));
+    }
+
+    /**
+     * Where frames go: encode() runs on the pool, finish() on the rendering thread in frame order
+     */
+    private interface FrameSink extends AutoCloseable {
+        BufferedImage encode(long frame, BufferedImage image) throws IOException;
+        void finish(BufferedImage encoded) throws IOException;
+        @Override void close() throws IOException;
+    }
+
+    /**
+     * One PNG per frame, written by the worker that compressed it. A fast deflate level:
+     * these are intermediate files, and it halves the encoding time for 1.5x the size.
+     */
+    private static final class PngSink implements FrameSink {
+        private static final float COMPRESSION_QUALITY = 0.75f;
+
+        private final Path directory;
+
+        PngSink(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public BufferedImage encode(long frame, BufferedImage image) throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+            if (!writers.hasNext()) throw new IOException("No PNG writer");
+            ImageWriter writer = writers.next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(COMPRESSION_QUALITY);
+
+            Path file = directory.resolve(String.format("frame-%06d.png", frame));
+            Files.deleteIfExists(file);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return null;
+        }
+
+        @Override public void finish(BufferedImage encoded) {}
+        @Override public void close() {}
+    }
+
+    /**
+     * One looping GIF; workers reduce frames to the standard 256-colour palette, frames
+     * are appended in order. Delays are whole hundredths, rounded so they add up to the
+     * real timing.
+     */
+    private static final class GifSink implements FrameSink {
+        private final ImageOutputStream out;
+        private final ImageWriter writer;
+        private final double fps;
+        private long written = 0;
+
+        GifSink(Path file, double fps) throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+            if (!writers.hasNext()) throw new IOException("No GIF writer");
+            this.writer = writers.next();
+            Files.deleteIfExists(file);
+            this.out = ImageIO.createImageOutputStream(file.toFile());
+            this.fps = fps;
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+        }
+
+        @Override
+        public BufferedImage encode(long frame, BufferedImage image) {
+            BufferedImage indexed = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_INDEXED);
+            Graphics2D g2d = indexed.createGraphics();
+            g2d.drawImage(image, 0, 0, null);
+            g2d.dispose();
+            return indexed;
+        }
+
+        @Override
+        public void finish(BufferedImage encoded) throws IOException {
+            long delay = Math.round((written + 1) * 100 / fps) - Math.round(written * 100 / fps);
+            IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(encoded), null);
+            String formatName = metadata.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(formatName);
+
+            IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "none");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", Long.toString(Math.max(1, delay)));
+            control.setAttribute("transparentColorIndex", "0");
+            if (written == 0) {
+                IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+                loop.setAttribute("applicationID", "NETSCAPE");
+                loop.setAttribute("authenticationCode", "2.0");
+                loop.setUserObject(new byte[] { 1, 0, 0 }); // Loop forever
+                child(root, "ApplicationExtensions").appendChild(loop);
+            }
+            metadata.setFromTree(formatName, root);
+            writer.writeToSequence(new IIOImage(encoded, null, metadata), null);
+            written++;
+        }
+
+        private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+            for (int i = 0; i < parent.getLength(); i++) {
+                if (parent.item(i).getNodeName().equals(name)) return (IIOMetadataNode) parent.item(i);
+            }
+            IIOMetadataNode node = new IIOMetadataNode(name);
+            parent.appendChild(node);
+            return node;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written > 0) writer.endWriteSequence();
+            } finally {
+                writer.dispose();
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Parsed samples of a text capture, in order, with the live line parser
+     */
+    private static final class CaptureReader {
+        private final InputStream in;
+        private final TelemetryLineParser parser = new TelemetryLineParser();
+        private byte[] data = new byte[64 * 1024];
+        private int start = 0;
+        private int end = 0;
+        private boolean eof = false;
+
+        CaptureReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Next sample into the holder; false at the end of the capture
+         */
+        boolean next(TelemetrySample sample) throws IOException {
+            while (true) {
+                int lineEnd = start;
+                while (lineEnd < end && data[lineEnd] != '\n') lineEnd++;
+                if (lineEnd == end && !eof) {
+                    fill();
+                    continue;
+                }
+                if (lineEnd == start && lineEnd == end) return false;
+
+                // Same whitespace rules as the live framer (String.trim(), drops the '\r' of CRLF)
+                int from = start;
+                int to = lineEnd;
+                start = Math.min(lineEnd + 1, end);
+                while (from < to && (data[from] & 0xFF) <= ' ') from++;
+                while (to > from && (data[to - 1] & 0xFF) <= ' ') to--;
+                if (to > from && parser.parse(data, from, to - from, sample) == TelemetryLineParser.Result.PARSED) {
+                    return true;
+                }
+            }
+        }
+
+        private void fill() throws IOException {
+            if (start > 0) {
+                System.arraycopy(data, start, data, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+            if (end == data.length) data = Arrays.copyOf(data, data.length * 2); // A line longer than the buffer
+            int count = in.read(data, end, data.length - end);
+            if (count < 0) {
+                eof = true;
+            } else {
+                end += count;
+            }
+        }
+    }
+
+    /**
+     * What a render did and how fast
+     */
+    public static final class Summary {
+        private final Path capture;
+        private final Path output;
+        private final Format format;
+        private final int width;
+        private final int height;
+        private final double fps;
+        private long frames = 0;
+        private long samples = 0;
+        private long malformed = 0;
+        private long flightNanos = 0;
+        private long elapsedNanos = 0;
+        private long renderNanos = 0;
+
+        Summary(Path capture, Path output, Format format, int width, int height, double fps) {
+            this.capture = capture;
+            this.output = output;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.fps = fps;
+        }
+
+        public Path getCapture() { return capture; }
+        public Path getOutput() { return output; }
+        public Format getFormat() { return format; }
+        public long getFrameCount() { return frames; }
+        public long getSampleCount() { return samples; }
+        public long getMalformedCount() { return malformed; }
+        public long getFlightNanos() { return flightNanos; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Mean time to draw a frame and start its readback, in ns
+         */
+        public long getRenderNanos() { return renderNanos; }
+
+        /**
+         * Flight time covered per second of rendering
+         */
+        public double getSpeedup() {
+            return elapsedNanos > 0 ? (double) flightNanos / elapsedNanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%s -> %s (%s %dx%d @ %.0f fps): %d frames, %.1f s of flight from %d samples "
+                            + "(%d malformed lines), %.2f s, %.0f frames/s, %.1fx real time, %.2f ms/frame drawing",
+                    capture, output, format, width, height, fps, frames, flightNanos / 1e9, samples, malformed,
+                    seconds, frames / Math.max(seconds, 1e-9), getSpeedup(), renderNanos / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OffscreenRenderer <capture.txt> <png-directory|file.gif> [fps] [sample-rate-hz] [threads]");
+            System.exit(2);
+        }
+        double fps = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_FPS;
+        double rate = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_SAMPLE_RATE_HZ;
+        ForkJoinPool pool = args.length > 4 ? new ForkJoinPool(Integer.parseInt(args[4])) : ForkJoinPool.commonPool();
+
+        Summary summary = new OffscreenRenderer(pool, Integer.getInteger("tvc.video.width", DEFAULT_WIDTH),
+                Integer.getInteger("tvc.video.height", DEFAULT_HEIGHT), fps, rate)
+                .render(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,111 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.glu.GLU;
+import java.awt.Component;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * Mouse-driven camera of the 3D views: drag to orbit, wheel to zoom
+ * Shared by RocketRenderer and FleetRenderer; every change asks for a frame.
+ * Input arrives on the EDT and display() runs there too, so no locking is needed.
+ */
+final class OrbitCamera extends MouseAdapter {
+    private static final float DEFAULT_ROTATION_X = 20.0f;
+    private static final float MIN_DISTANCE = 5.0f;
+    private static final float DEGREES_PER_PIXEL = 0.5f;
+    private static final float DISTANCE_PER_NOTCH = 1.5f;
+    private static final double FIELD_OF_VIEW = 45.0;
+    private static final double NEAR_PLANE = 0.1;
+
+    private final float defaultDistance;
+    private final float maxDistance;
+    private final double farPlane;
+    private final Runnable changed;
+    private final GLU glu = new GLU();
+
+    private float distance;
+    private float rotationX = DEFAULT_ROTATION_X;
+    private float rotationY = 0.0f;
+    private int lastMouseX, lastMouseY;
+    private boolean mousePressed = false;
+
+    OrbitCamera(float defaultDistance, float maxDistance, double farPlane, Runnable changed) {
+        this.defaultDistance = defaultDistance;
+        this.maxDistance = maxDistance;
+        this.farPlane = farPlane;
+        this.changed = changed;
+        this.distance = defaultDistance;
+    }
+
+    void attach(Component surface) {
+        surface.addMouseListener(this);
+        surface.addMouseMotionListener(this);
+        surface.addMouseWheelListener(this);
+    }
+
+    /**
+     * Viewport and perspective projection for a new surface size
+     */
+    void reshape(GL2 gl, int width, int height) {
+        gl.glViewport(0, 0, width, height);
+        gl.glMatrixMode(GL2.GL_PROJECTION);
+        gl.glLoadIdentity();
+        glu.gluPerspective(FIELD_OF_VIEW, (double) width / height, NEAR_PLANE, farPlane);
+        gl.glMatrixMode(GL2.GL_MODELVIEW);
+    }
+
+    /**
+     * View transform onto the current modelview matrix: back off, then tilt and turn
+     */
+    void apply(GL2 gl) {
+        gl.glTranslatef(0.0f, 0.0f, -distance);
+        gl.glRotatef(rotationX, 1.0f, 0.0f, 0.0f);
+        gl.glRotatef(rotationY, 0.0f, 1.0f, 0.0f);
+    }
+
+    void reset() {
+        distance = defaultDistance;
+        rotationX = DEFAULT_ROTATION_X;
+        rotationY = 0.0f;
+        changed.run();
+    }
+
+    float getDistance() { return distance; }
+    float getRotationX() { return rotationX; }
+    float getRotationY() { return rotationY; }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        mousePressed = true;
+        lastMouseX = e.getX();
+        lastMouseY = e.getY();
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        mousePressed = false;
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (mousePressed) {
+            rotationY += (e.getX() - lastMouseX) * DEGREES_PER_PIXEL;
+            rotationX += (e.getY() - lastMouseY) * DEGREES_PER_PIXEL;
+            rotationX = Math.max(-90.0f, Math.min(90.0f, rotationX));
+
+            lastMouseX = e.getX();
+            lastMouseY = e.getY();
+            changed.run();
+        }
+    }
+
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        distance += e.getWheelRotation() * DISTANCE_PER_NOTCH;
+        distance = Math.max(MIN_DISTANCE, Math.min(maxDistance, distance));
+        changed.run();
+    }
+}
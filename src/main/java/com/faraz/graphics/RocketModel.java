@@ -0,0 +1,51 @@
+package com.faraz.graphics;
+
+/**
+ * The rocket's static geometry: airframe, nozzle and a unit flame cone in one MeshBuffer
+ *
+ * Rocket coordinates have Y along the body, the nose at the top; the gimbal is at
+ * y = -2 and the nozzle hangs 0.6 below it. Shared by RocketRenderer and FleetRenderer.
+ */
+final class RocketModel {
+    private static final int BODY_SLICES = 16;
+    private static final int CONE_SLICES = 12;
+
+    final MeshBuffer meshes = new MeshBuffer();
+    final MeshBuffer.Mesh airframe;
+    final MeshBuffer.Mesh nozzle;
+    final MeshBuffer.Mesh flame; // Unit cone, scaled per layer
+
+    RocketModel() {
+        int first = meshes.begin();
+        buildAirframe();
+        airframe = meshes.end(first);
+        first = meshes.begin();
+        meshes.cone(0.25f, 0.6f, CONE_SLICES);
+        nozzle = meshes.end(first);
+        first = meshes.begin();
+        meshes.cone(1.0f, 1.0f, CONE_SLICES);
+        flame = meshes.end(first);
+    }
+
+    /**
+     * Body tube, nose tube and four fins in rocket coordinates
+     */
+    private void buildAirframe() {
+        // Main body and the nose tube above it
+        meshes.cylinder(0.35f, -2.0f, 2.0f, BODY_SLICES);
+        meshes.cylinder(0.35f, 1.5f, 2.5f, BODY_SLICES);
+
+        // Simple triangular fins at the body wall, every 90 degrees around Y
+        float[] fin = { 0.0f, 0.0f, 0.6f, -0.3f, 0.0f, -0.8f };
+        for (int i = 0; i < 4; i++) {
+            float c = (float) Math.cos(Math.toRadians(i * 90.0));
+            float s = (float) Math.sin(Math.toRadians(i * 90.0));
+            for (int v = 0; v < fin.length; v += 2) {
+                float x = 0.35f + fin[v];
+                float y = -1.0f + fin[v + 1];
+                // Rotation about Y of (x, y, 0), normal (0, 0, 1)
+                meshes.vertex(s, 0.0f, c, c * x, y, -s * x);
+            }
+        }
+    }
+}
@@ -1,29 +1,76 @@
 package com.faraz.graphics;
 
+import com.faraz.model.DeliveryPolicy;
+import com.faraz.model.Subscription;
 import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryListener;
+import com.faraz.model.TelemetrySample;
 import com.jogamp.opengl.*;
+import com.jogamp.opengl.awt.GLCanvas;
 import com.jogamp.opengl.awt.GLJPanel;
-import com.jogamp.opengl.glu.GLU;
-import com.jogamp.opengl.util.FPSAnimator;
-import javax.swing.*;
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Graphics;
 import java.awt.event.*;
 
-public class RocketRenderer extends GLJPanel implements GLEventListener, MouseListener, MouseMotionListener, KeyListener, MouseWheelListener {
+/**
+ * 3D rocket view
+ * Renders on demand through a FrameScheduler: when telemetry arrives, on camera input,
+ * and while the engine glow is still fading, at most at the display refresh rate.
+ * Nothing is drawn while the scene is unchanged.
+ *
+ * The airframe, nozzle and flame meshes are built once into a vertex buffer object;
+ * a frame only sets the telemetry-driven transforms and issues four draw calls.
+ *
+ * Attitude and gimbal come from a TelemetryInterpolator, so motion is smooth whatever
+ * the telemetry rate; I cycles between interpolated, extrapolated and latest-sample.
+ * An AttitudeTrail shows where the nose and nozzle have pointed recently (T toggles it).
+ *
+ * The HUD is drawn in the same GL frame from a glyph atlas (FlightHud, HudCanvas), so
+ * nothing Swing has to be composited over the view. That allows a heavyweight GLCanvas,
+ * which shows frames without GLJPanel's readback: -Dtvc.surface=canvas (default panel).
+ * With the offscreen surface there is no component at all; OffscreenRenderer makes the
+ * context current and calls init(), reshape() and display(drawable, nowNanos) itself.
+ *
+ * Every frame is timed by a FrameProfiler: F shows the frame-time overlay, E writes the
+ * statistics to a CSV file, as does -Dtvc.frameStats=file on exit.
+ */
+public class RocketRenderer implements GLEventListener, KeyListener, TelemetryListener {
+
+    public static final String SURFACE_PANEL = "panel";
+    public static final String SURFACE_CANVAS = "canvas";
+    public static final String SURFACE_OFFSCREEN = "offscreen";
 
     private final TelemetryData telemetryData;
-    private final GLU glu = new GLU();
-    private final FPSAnimator animator;
+    private final Component surface;
+    private final Subscription subscription;
+    private final FrameScheduler scheduler;
+    private final TelemetryInterpolator interpolator;
+    private final AttitudeTrail trail;
+    private boolean trailVisible = !"false".equals(System.getProperty("tvc.trail"));
+    private boolean paused = false;
+
+    // Frame timing, shown by the HUD when the overlay is on
+    private final FrameProfiler profiler = new FrameProfiler();
+
+    // Static geometry, uploaded in init()
+    private final RocketModel model = new RocketModel();
+    private final Starfield starfield = new Starfield();
+
+    // HUD, drawn last in every frame
+    private final HudCanvas hudCanvas = new HudCanvas(FlightHud.createAtlas());
+    private final FlightHud hud;
+    private int surfaceWidth = 1;
+    private int surfaceHeight = 1;
 
     // Camera controls
-    private float cameraDistance = 15.0f;
-    private float cameraRotationX = 20.0f;
-    private float cameraRotationY = 0.0f;
-    private int lastMouseX, lastMouseY;
-    private boolean mousePressed = false;
+    private final OrbitCamera camera;
 
     // Animation
+    private static final float GLOW_EPSILON = 0.005f;
     private float engineGlow = 0.0f;
-    private long lastTime = System.currentTimeMillis();
+    private float targetGlow = 0.0f;
+    private long lastFrameNanos = 0; // 0 before the first frame
 
     // TVC neutral positions (center positions for servos)
     private double neutralServoX = 90.0; // Adjust this to your servo's center position
@@ -32,19 +79,81 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
     // Debug
     private boolean debugMode = false;
 
+    /**
+     * Drawn on the surface named by -Dtvc.surface: panel (GLJPanel) or canvas (GLCanvas)
+     */
     public RocketRenderer(TelemetryData telemetryData) {
-        super(new GLCapabilities(GLProfile.get(GLProfile.GL2)));
+        this(telemetryData, System.getProperty("tvc.surface", SURFACE_PANEL));
+    }
+
+    public RocketRenderer(TelemetryData telemetryData, String surfaceName) {
         this.telemetryData = telemetryData;
+        boolean offscreen = SURFACE_OFFSCREEN.equals(surfaceName);
+        this.surface = offscreen ? null : createSurface(surfaceName, profiler);
+        profiler.setSurface(offscreen ? SURFACE_OFFSCREEN : SURFACE_CANVAS.equals(surfaceName) ? SURFACE_CANVAS : SURFACE_PANEL);
+
+        if (surface != null) {
+            ((GLAutoDrawable) surface).addGLEventListener(this);
+            surface.addKeyListener(this);
+            surface.setFocusable(true);
+        }
+
+        // Offscreen, whoever drives the renderer decides when frames are drawn
+        scheduler = new FrameScheduler(surface != null ? surface::repaint : () -> {});
+        camera = new OrbitCamera(15.0f, 50.0f, 100.0, scheduler::requestFrame);
+        if (surface != null) camera.attach(surface);
+
+        hud = telemetryData != null ? new FlightHud(telemetryData) : null;
+        interpolator = telemetryData != null ? new TelemetryInterpolator(telemetryData.getHistory()) : null;
+        trail = telemetryData != null ? new AttitudeTrail(telemetryData.getHistory()) : null;
+
+        // Callbacks at the frame rate only bound EDT wakeups; the scheduler paces frames
+        subscription = telemetryData != null && surface != null
+                ? telemetryData.subscribe(this, DeliveryPolicy.rateLimited(scheduler.getMaxFps()), SwingUtilities::invokeLater)
+                : null;
+    }
+
+    /**
+     * The GL surface, timing its whole paint: display() plus the readback and composite
+     * (GLJPanel) or the buffer swap (GLCanvas)
+     */
+    static Component createSurface(String surfaceName, FrameProfiler profiler) {
+        GLCapabilities capabilities = new GLCapabilities(GLProfile.get(GLProfile.GL2));
+        if (SURFACE_CANVAS.equals(surfaceName)) {
+            return new GLCanvas(capabilities) {
+                @Override
+                public void paint(Graphics g) {
+                    long start = System.nanoTime();
+                    super.paint(g);
+                    profiler.record(FrameProfiler.Phase.PAINT, System.nanoTime() - start);
+                }
+            };
+        }
+        return new GLJPanel(capabilities) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                long start = System.nanoTime();
+                super.paintComponent(g);
+                profiler.record(FrameProfiler.Phase.PAINT, System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * The component to add to a container; null offscreen
+     */
+    public Component getComponent() { return surface; }
 
-        addGLEventListener(this);
-        addMouseListener(this);
-        addMouseMotionListener(this);
-        addMouseWheelListener(this);
-        addKeyListener(this);
-        setFocusable(true);
+    public String getSurfaceName() { return profiler.getSurface(); }
 
-        animator = new FPSAnimator(this, 60);
-        animator.start();
+    @Override
+    public void onTelemetry(TelemetrySample sample) {
+        if (!paused) scheduler.requestFrame();
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        if (!paused) scheduler.requestFrame();
     }
 
     @Override
@@ -64,24 +173,72 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
         float[] lightColor = {1.0f, 1.0f, 1.0f, 1.0f};
         gl.glLightfv(GL2.GL_LIGHT0, GL2.GL_POSITION, lightPos, 0);
         gl.glLightfv(GL2.GL_LIGHT0, GL2.GL_DIFFUSE, lightColor, 0);
+
+        // A new context (the panel was re-parented) starts without our buffer
+        model.meshes.upload(gl);
+        starfield.upload(gl);
+        if (trail != null) trail.upload(gl);
+        hudCanvas.upload(gl);
+        profiler.init(gl);
     }
 
     @Override
     public void display(GLAutoDrawable drawable) {
+        display(drawable, System.nanoTime());
+    }
+
+    /**
+     * Draw the scene as of nowNanos, on the clock of the telemetry receive stamps
+     * (System.nanoTime() live; the flight's own time when rendering offscreen)
+     */
+    public void display(GLAutoDrawable drawable, long nowNanos) {
+        long start = System.nanoTime();
+        scheduler.frameStarted();
         GL2 gl = drawable.getGL().getGL2();
+        profiler.beginGpuFrame(gl);
 
         gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
         gl.glLoadIdentity();
 
-        updateAnimation();
-        setupCamera(gl);
+        profiler.start();
+        if (interpolator != null) {
+            interpolator.update(nowNanos);
+        }
+        updateAnimation(nowNanos);
+        profiler.end(FrameProfiler.Phase.ANIMATION);
+        camera.apply(gl);
+        profiler.end(FrameProfiler.Phase.CAMERA);
 
-        drawStars(gl);
+        starfield.draw(gl);
+        profiler.end(FrameProfiler.Phase.STARS);
         drawRocket(gl);
-
         if (debugMode) drawAxes(gl);
+        profiler.end(FrameProfiler.Phase.ROCKET);
+        if (trail != null && trailVisible) {
+            // Transparent, so after the opaque rocket
+            trail.update(gl);
+            trail.draw(gl, nowNanos);
+        }
+        profiler.end(FrameProfiler.Phase.TRAIL);
 
+        hudCanvas.begin(surfaceWidth, surfaceHeight);
+        if (hud != null) {
+            hud.draw(hudCanvas, getDisplayDelayMillis(), getSmoothingLabel());
+        }
+        if (profiler.isOverlayVisible()) {
+            profiler.drawOverlay(hudCanvas, surfaceHeight);
+        }
+        hudCanvas.end(gl);
+        profiler.end(FrameProfiler.Phase.HUD);
+
+        profiler.endGpuFrame(gl);
         gl.glFlush();
+        profiler.record(FrameProfiler.Phase.DISPLAY, System.nanoTime() - start);
+
+        // Keep frames coming while the glow or the smoothed attitude is still moving
+        if (!paused && (isAnimating() || (interpolator != null && interpolator.isMoving()))) {
+            scheduler.requestFrame();
+        }
     }
 
     @Override
@@ -89,55 +246,38 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
         GL2 gl = drawable.getGL().getGL2();
 
         if (height <= 0) height = 1;
-
-        gl.glViewport(0, 0, width, height);
-        gl.glMatrixMode(GL2.GL_PROJECTION);
-        gl.glLoadIdentity();
-        glu.gluPerspective(45.0, (double) width / height, 0.1, 100.0);
-        gl.glMatrixMode(GL2.GL_MODELVIEW);
+        surfaceWidth = width;
+        surfaceHeight = height;
+        camera.reshape(gl, width, height);
     }
 
-    private void updateAnimation() {
-        long currentTime = System.currentTimeMillis();
-        float deltaTime = (currentTime - lastTime) / 1000.0f;
-        lastTime = currentTime;
+    private void updateAnimation(long nowNanos) {
+        float deltaTime = lastFrameNanos != 0 ? (nowNanos - lastFrameNanos) / 1e9f : 0.0f;
+        lastFrameNanos = nowNanos;
 
         if (telemetryData != null && telemetryData.isConnected()) {
             // Calculate TVC activity based on deflection from neutral, not absolute values
-            double servoXDeflection = telemetryData.getServoX() - neutralServoX;
-            double servoYDeflection = telemetryData.getServoY() - neutralServoY;
+            double servoXDeflection = interpolator.getServoX() - neutralServoX;
+            double servoYDeflection = interpolator.getServoY() - neutralServoY;
 
             double tvcActivity = Math.sqrt(
                     Math.pow(servoXDeflection, 2) +
                             Math.pow(servoYDeflection, 2)) / 50.0;
-            float targetGlow = (float) Math.min(1.0, 0.3 + tvcActivity * 0.7);
-            engineGlow += (targetGlow - engineGlow) * deltaTime * 5.0f;
+            targetGlow = (float) Math.min(1.0, 0.3 + tvcActivity * 0.7);
+            // Frames can be seconds apart now, so never step past the target
+            engineGlow += (targetGlow - engineGlow) * Math.min(1.0f, deltaTime * 5.0f);
         } else {
+            targetGlow = 0.0f;
             engineGlow *= 0.95f;
+            if (engineGlow < GLOW_EPSILON) engineGlow = 0.0f;
         }
     }
 
-    private void setupCamera(GL2 gl) {
-        gl.glTranslatef(0.0f, 0.0f, -cameraDistance);
-        gl.glRotatef(cameraRotationX, 1.0f, 0.0f, 0.0f);
-        gl.glRotatef(cameraRotationY, 0.0f, 1.0f, 0.0f);
-    }
-
-    private void drawStars(GL2 gl) {
-        gl.glDisable(GL2.GL_LIGHTING);
-        gl.glColor3f(1.0f, 1.0f, 1.0f);
-        gl.glPointSize(1.5f);
-
-        gl.glBegin(GL.GL_POINTS);
-        for (int i = 0; i < 100; i++) {
-            float x = (float) (Math.random() - 0.5) * 100;
-            float y = (float) (Math.random() - 0.5) * 100;
-            float z = (float) (Math.random() - 0.5) * 100;
-            gl.glVertex3f(x, y, z);
-        }
-        gl.glEnd();
-
-        gl.glEnable(GL2.GL_LIGHTING);
+    /**
+     * True while the engine glow has not reached its target yet
+     */
+    private boolean isAnimating() {
+        return Math.abs(targetGlow - engineGlow) > GLOW_EPSILON;
     }
 
     private void drawRocket(GL2 gl) {
@@ -145,27 +285,18 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
 
         // Apply rocket orientation from telemetry
         if (telemetryData != null && telemetryData.isConnected() && !debugMode) {
-            gl.glRotatef((float) telemetryData.getRoll(), 0.0f, 0.0f, 1.0f);
-            gl.glRotatef((float) telemetryData.getPitch(), 1.0f, 0.0f, 0.0f);
+            gl.glRotatef((float) interpolator.getRoll(), 0.0f, 0.0f, 1.0f);
+            gl.glRotatef((float) interpolator.getPitch(), 1.0f, 0.0f, 0.0f);
         }
 
-        // Main body - pure white and slimmer
-        gl.glColor3f(1.0f, 1.0f, 1.0f);
-        drawSimpleCylinder(gl, 0.35f, 4.0f);
-
-        // Nose tube - pure white and slimmer
-        gl.glPushMatrix();
-        gl.glTranslatef(0.0f, 2.0f, 0.0f);
+        // Body, nose tube and fins - pure white, one mesh
+        model.meshes.bind(gl);
         gl.glColor3f(1.0f, 1.0f, 1.0f);
-        drawSimpleCylinder(gl, 0.35f, 1.0f); // Changed from drawSimpleCone to drawSimpleCylinder
-        gl.glPopMatrix();
-
-        // Fins - pure white
-        gl.glColor3f(1.0f, 1.0f, 1.0f);
-        drawFins(gl);
+        model.airframe.draw(gl);
 
         // TVC nozzle and exhaust - MOVED INSIDE rocket matrix
         drawTVCSystem(gl);
+        model.meshes.unbind(gl);
 
         gl.glPopMatrix();
     }
@@ -178,8 +309,8 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
         // Apply servo rotations (TVC gimbal) - relative to neutral position
         if (telemetryData != null && telemetryData.isConnected()) {
             // Calculate deflection angles relative to neutral positions
-            double servoXDeflection = telemetryData.getServoX() - neutralServoX;
-            double servoYDeflection = telemetryData.getServoY() - neutralServoY;
+            double servoXDeflection = interpolator.getServoX() - neutralServoX;
+            double servoYDeflection = interpolator.getServoY() - neutralServoY;
 
             // Apply deflection rotations (small angles around neutral)
             // ServoX controls pitch (rotation around X axis)
@@ -190,7 +321,7 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
 
         // Draw TVC nozzle - pure white
         gl.glColor3f(1.0f, 1.0f, 1.0f);
-        drawSimpleCone(gl, 0.25f, 0.6f);
+        model.nozzle.draw(gl);
 
         // Draw exhaust flame in the same coordinate system
         drawExhaust(gl);
@@ -211,79 +342,23 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
 
         float flameLength = 1.5f + engineGlow;
 
-        // Multi-layer flame effect
+        // Multi-layer flame effect (unlit, so scaling the normals does not matter)
         gl.glColor4f(1.0f, 0.8f, 0.2f, engineGlow * 0.8f);
-        drawSimpleCone(gl, 0.25f, flameLength);
+        drawFlame(gl, 0.25f, flameLength);
 
         gl.glColor4f(1.0f, 0.4f, 0.0f, engineGlow * 0.6f);
-        drawSimpleCone(gl, 0.35f, flameLength * 0.7f);
+        drawFlame(gl, 0.35f, flameLength * 0.7f);
 
         gl.glDisable(GL.GL_BLEND);
         gl.glEnable(GL2.GL_LIGHTING);
         gl.glPopMatrix();
     }
 
-    private void drawFins(GL2 gl) {
-        for (int i = 0; i < 4; i++) {
-            gl.glPushMatrix();
-            gl.glRotatef(i * 90.0f, 0.0f, 1.0f, 0.0f);
-            gl.glTranslatef(0.35f, -1.0f, 0.0f);
-
-            // Simple triangular fin
-            gl.glBegin(GL2.GL_TRIANGLES);
-            gl.glNormal3f(0.0f, 0.0f, 1.0f);
-            gl.glVertex3f(0.0f, 0.0f, 0.0f);
-            gl.glVertex3f(0.6f, -0.3f, 0.0f);
-            gl.glVertex3f(0.0f, -0.8f, 0.0f);
-            gl.glEnd();
-
-            gl.glPopMatrix();
-        }
-    }
-
-    private void drawSimpleCylinder(GL2 gl, float radius, float height) {
-        int slices = 16;
-
-        // Side faces
-        for (int i = 0; i < slices; i++) {
-            float angle1 = (float) (2.0 * Math.PI * i / slices);
-            float angle2 = (float) (2.0 * Math.PI * (i + 1) / slices);
-
-            float x1 = radius * (float) Math.cos(angle1);
-            float z1 = radius * (float) Math.sin(angle1);
-            float x2 = radius * (float) Math.cos(angle2);
-            float z2 = radius * (float) Math.sin(angle2);
-
-            gl.glBegin(GL2.GL_QUADS);
-            gl.glNormal3f(x1, 0.0f, z1);
-            gl.glVertex3f(x1, -height/2, z1);
-            gl.glVertex3f(x1, height/2, z1);
-            gl.glNormal3f(x2, 0.0f, z2);
-            gl.glVertex3f(x2, height/2, z2);
-            gl.glVertex3f(x2, -height/2, z2);
-            gl.glEnd();
-        }
-    }
-
-    private void drawSimpleCone(GL2 gl, float radius, float height) {
-        int slices = 12;
-
-        for (int i = 0; i < slices; i++) {
-            float angle1 = (float) (2.0 * Math.PI * i / slices);
-            float angle2 = (float) (2.0 * Math.PI * (i + 1) / slices);
-
-            float x1 = radius * (float) Math.cos(angle1);
-            float z1 = radius * (float) Math.sin(angle1);
-            float x2 = radius * (float) Math.cos(angle2);
-            float z2 = radius * (float) Math.sin(angle2);
-
-            gl.glBegin(GL2.GL_TRIANGLES);
-            gl.glNormal3f(x1, 0.5f, z1);
-            gl.glVertex3f(x1, 0.0f, z1);
-            gl.glVertex3f(0.0f, -height, 0.0f);
-            gl.glVertex3f(x2, 0.0f, z2);
-            gl.glEnd();
-        }
+    private void drawFlame(GL2 gl, float radius, float length) {
+        gl.glPushMatrix();
+        gl.glScalef(radius, length, radius);
+        model.flame.draw(gl);
+        gl.glPopMatrix();
     }
 
     private void drawAxes(GL2 gl) {
@@ -307,74 +382,104 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
         gl.glEnable(GL2.GL_LIGHTING);
     }
 
-    // Mouse controls
-    @Override
-    public void mousePressed(MouseEvent e) {
-        mousePressed = true;
-        lastMouseX = e.getX();
-        lastMouseY = e.getY();
-    }
-
-    @Override
-    public void mouseReleased(MouseEvent e) {
-        mousePressed = false;
-    }
-
-    @Override
-    public void mouseDragged(MouseEvent e) {
-        if (mousePressed) {
-            int deltaX = e.getX() - lastMouseX;
-            int deltaY = e.getY() - lastMouseY;
-
-            cameraRotationY += deltaX * 0.5f;
-            cameraRotationX += deltaY * 0.5f;
-            cameraRotationX = Math.max(-90.0f, Math.min(90.0f, cameraRotationX));
-
-            lastMouseX = e.getX();
-            lastMouseY = e.getY();
-            repaint();
-        }
-    }
-
-    @Override
-    public void mouseWheelMoved(MouseWheelEvent e) {
-        cameraDistance += e.getWheelRotation() * 1.5f;
-        cameraDistance = Math.max(5.0f, Math.min(50.0f, cameraDistance));
-        repaint();
-    }
-
     @Override
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyCode()) {
             case KeyEvent.VK_R: // Reset camera
-                cameraDistance = 15.0f;
-                cameraRotationX = 20.0f;
-                cameraRotationY = 0.0f;
+                camera.reset();
                 break;
             case KeyEvent.VK_D: // Toggle debug
                 debugMode = !debugMode;
                 break;
+            case KeyEvent.VK_I: // Cycle attitude smoothing
+                if (interpolator != null) {
+                    interpolator.setMode(interpolator.getMode().next());
+                    System.out.println("Attitude smoothing: " + interpolator.getMode().getLabel());
+                }
+                break;
+            case KeyEvent.VK_T: // Toggle attitude trail
+                trailVisible = !trailVisible;
+                break;
+            case KeyEvent.VK_F: // Toggle frame-time overlay
+                profiler.setOverlayVisible(!profiler.isOverlayVisible());
+                break;
+            case KeyEvent.VK_E: // Export frame times
+                profiler.writeTimestampedStats();
+                break;
         }
-        repaint();
+        scheduler.requestFrame();
     }
 
     @Override
     public void dispose(GLAutoDrawable drawable) {
-        if (animator != null) {
-            animator.stop();
-        }
+        scheduler.stop();
+        model.meshes.dispose(drawable.getGL());
+        starfield.dispose(drawable.getGL());
+        if (trail != null) trail.dispose(drawable.getGL());
+        hudCanvas.dispose(drawable.getGL());
+        profiler.dispose(drawable.getGL().getGL2());
     }
 
     public void cleanup() {
-        if (animator != null) {
-            animator.stop();
+        scheduler.stop();
+        if (subscription != null) {
+            subscription.cancel();
         }
+        profiler.writeRequestedStats();
+    }
+
+    /**
+     * Stop reacting to telemetry (camera input still redraws)
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (!paused) scheduler.requestFrame();
+    }
+
+    public boolean isPaused() { return paused; }
+
+    /**
+     * Frames actually rendered so far (read on the EDT)
+     */
+    public long getFrameCount() { return scheduler.getFrameCount(); }
+
+    /**
+     * Redraw the view (and the HUD over it) with the next frame
+     */
+    public void requestFrame() {
+        scheduler.requestFrame();
+    }
+
+    /**
+     * Frame rate cap: the display refresh rate, or -Dtvc.maxFps
+     */
+    public int getMaxFps() { return scheduler.getMaxFps(); }
+
+    /**
+     * Mean CPU time of display() since the statistics were last reset, in ns
+     */
+    public long getAverageDisplayNanos() {
+        return profiler.getHistogram(FrameProfiler.Phase.DISPLAY).getMean();
+    }
+
+    public FrameProfiler getFrameProfiler() { return profiler; }
+
+    /**
+     * Smoothing mode label and how far behind the present the drawn attitude is, in ms
+     */
+    public String getSmoothingLabel() {
+        return interpolator != null ? interpolator.getMode().getLabel() : "";
+    }
+
+    public double getDisplayDelayMillis() {
+        return interpolator != null ? interpolator.getDelayMillis() : 0.0;
     }
 
     // Method to set neutral servo positions
     public void setNeutralServoPositions(double neutralX, double neutralY) {
         this.neutralServoX = neutralX;
         this.neutralServoY = neutralY;
+        if (trail != null) trail.setNeutralServoPositions(neutralX, neutralY);
     }
 
     // Method to auto-calibrate neutral positions from current telemetry
@@ -382,15 +487,12 @@ public class RocketRenderer extends GLJPanel implements GLEventListener, MouseLi
         if (telemetryData != null && telemetryData.isConnected()) {
             this.neutralServoX = telemetryData.getServoX();
             this.neutralServoY = telemetryData.getServoY();
+            trail.setNeutralServoPositions(neutralServoX, neutralServoY);
             System.out.println("Neutral positions set to: X=" + neutralServoX + ", Y=" + neutralServoY);
         }
     }
 
     // Unused interface methods
-    @Override public void mouseClicked(MouseEvent e) {}
-    @Override public void mouseEntered(MouseEvent e) {}
-    @Override public void mouseExited(MouseEvent e) {}
-    @Override public void mouseMoved(MouseEvent e) {}
     @Override public void keyReleased(KeyEvent e) {}
     @Override public void keyTyped(KeyEvent e) {}
 }
\ No newline at end of file
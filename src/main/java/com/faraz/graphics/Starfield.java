@@ -0,0 +1,159 @@
+package com.faraz.graphics;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+/**
+ * Background stars: a seeded catalog generated once and kept in a vertex buffer object
+ *
+ * Stars are spread through the same 100-unit cube around the rocket as before, with
+ * magnitudes 0-6 distributed like a real sky (each magnitude about 3x as many stars as
+ * the one brighter). Brightness is a per-vertex colour, so the whole field is one draw
+ * call. With sizes on, the catalog is sorted by magnitude band and each band is drawn
+ * at its own point size - SIZE_BANDS calls, since fixed-function GL has one point size
+ * per draw. Same seed, same sky: nothing changes from frame to frame.
+ */
+public class Starfield {
+    public static final int DEFAULT_COUNT = 1000;
+    public static final long DEFAULT_SEED = 0x5EEDL;
+
+    private static final float EXTENT = 100.0f;
+    private static final float FAINTEST_MAGNITUDE = 6.0f;
+    private static final float FAINTEST_BRIGHTNESS = 0.3f;
+    private static final int FLOATS_PER_VERTEX = 6; // colour, position (GL_C3F_V3F)
+    private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+
+    // Upper magnitude bound and point size of each band, brightest first
+    private static final float[] BAND_MAGNITUDES = { 2.0f, 4.0f, Float.MAX_VALUE };
+    private static final float[] BAND_POINT_SIZES = { 3.0f, 2.0f, 1.5f };
+    public static final int SIZE_BANDS = BAND_MAGNITUDES.length;
+    private static final float UNIFORM_POINT_SIZE = 1.5f;
+
+    private final float[] vertices;
+    private final int count;
+    private final boolean sizedByMagnitude;
+    private final int[] bandFirst = new int[SIZE_BANDS + 1];
+    private final int[] buffer = new int[1]; // 0 until uploaded
+
+    /**
+     * Catalog from -Dtvc.stars (count), -Dtvc.stars.seed and -Dtvc.stars.sizes (default true)
+     */
+    public Starfield() {
+        this(Integer.getInteger("tvc.stars", DEFAULT_COUNT),
+                Long.getLong("tvc.stars.seed", DEFAULT_SEED),
+                !"false".equals(System.getProperty("tvc.stars.sizes")));
+    }
+
+    public Starfield(int count, long seed, boolean sizedByMagnitude) {
+        if (count < 0) throw new IllegalArgumentException("Star count must not be negative: " + count);
+        this.count = count;
+        this.sizedByMagnitude = sizedByMagnitude;
+        this.vertices = new float[count * FLOATS_PER_VERTEX];
+        generate(new Random(seed));
+    }
+
+    /**
+     * Fill the catalog band by band, so each size band is one contiguous range
+     */
+    private void generate(Random random) {
+        float[] magnitudes = new float[count];
+        float[] positions = new float[count * 3];
+        int[] bandCounts = new int[SIZE_BANDS];
+        // Inverse of N(<m) ~ 10^(m/2) - 1 over [0, FAINTEST_MAGNITUDE]
+        double scale = Math.pow(10, FAINTEST_MAGNITUDE / 2) - 1;
+        for (int i = 0; i < count; i++) {
+            magnitudes[i] = (float) (2 * Math.log10(1 + random.nextDouble() * scale));
+            for (int axis = 0; axis < 3; axis++) {
+                positions[3 * i + axis] = (random.nextFloat() - 0.5f) * EXTENT;
+            }
+            bandCounts[band(magnitudes[i])]++;
+        }
+
+        int[] next = new int[SIZE_BANDS];
+        for (int b = 0; b < SIZE_BANDS; b++) {
+            bandFirst[b + 1] = bandFirst[b] + bandCounts[b];
+            next[b] = bandFirst[b];
+        }
+        for (int i = 0; i < count; i++) {
+            int at = next[band(magnitudes[i])]++ * FLOATS_PER_VERTEX;
+            float brightness = 1.0f - (1.0f - FAINTEST_BRIGHTNESS) * magnitudes[i] / FAINTEST_MAGNITUDE;
+            vertices[at] = brightness;
+            vertices[at + 1] = brightness;
+            vertices[at + 2] = brightness;
+            vertices[at + 3] = positions[3 * i];
+            vertices[at + 4] = positions[3 * i + 1];
+            vertices[at + 5] = positions[3 * i + 2];
+        }
+    }
+
+    private static int band(float magnitude) {
+        int b = 0;
+        while (magnitude >= BAND_MAGNITUDES[b]) b++;
+        return b;
+    }
+
+    /**
+     * Copy the catalog to the GPU; called from init(), which runs again for a new context
+     */
+    public void upload(GL gl) {
+        FloatBuffer floats = ByteBuffer.allocateDirect(Math.max(1, vertices.length) * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        floats.put(vertices).flip();
+        gl.glGenBuffers(1, buffer, 0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.length * Float.BYTES, floats, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Draw with the camera transform as it is; leaves the current colour undefined
+     */
+    public void draw(GL2 gl) {
+        if (count == 0) return;
+        gl.glDisable(GL2.GL_LIGHTING);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+        gl.glColorPointer(3, GL.GL_FLOAT, STRIDE, 0);
+        gl.glVertexPointer(3, GL.GL_FLOAT, STRIDE, 3 * Float.BYTES);
+
+        if (sizedByMagnitude) {
+            for (int b = 0; b < SIZE_BANDS; b++) {
+                int bandCount = bandFirst[b + 1] - bandFirst[b];
+                if (bandCount == 0) continue;
+                gl.glPointSize(BAND_POINT_SIZES[b]);
+                gl.glDrawArrays(GL.GL_POINTS, bandFirst[b], bandCount);
+            }
+        } else {
+            gl.glPointSize(UNIFORM_POINT_SIZE);
+            gl.glDrawArrays(GL.GL_POINTS, 0, count);
+        }
+
+        gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+        gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        gl.glEnable(GL2.GL_LIGHTING);
+    }
+
+    public void dispose(GL gl) {
+        if (buffer[0] != 0) {
+            gl.glDeleteBuffers(1, buffer, 0);
+            buffer[0] = 0;
+        }
+    }
+
+    public int getCount() { return count; }
+
+    public boolean isSizedByMagnitude() { return sizedByMagnitude; }
+
+    /**
+     * Stars in a size band (0 = brightest)
+     */
+    public int getBandCount(int band) {
+        return bandFirst[band + 1] - bandFirst[band];
+    }
+}
@@ -0,0 +1,335 @@
+package com.faraz.graphics;
+
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryHistory;
+import com.faraz.model.TelemetrySampleBatch;
+import java.util.Locale;
+
+/**
+ * Attitude and gimbal state to draw in a frame, from a short window of timed samples
+ *
+ * Samples are read from the TelemetryHistory and timed by their receive stamp. One read
+ * from the link usually carries several samples with the same stamp, so they are spread
+ * evenly over the time since the previous read. A frame then shows:
+ *   LATEST      - the newest sample, as received
+ *   INTERPOLATE - the state a render delay ago, blended between the samples around it
+ *   EXTRAPOLATE - the state now, projected from the newest samples (at most 100 ms ahead)
+ * The render delay is -Dtvc.smoothing.delayMillis, or by default twice the smoothed time
+ * between reads, so the next sample is normally in before a frame needs it.
+ * Used from display() on the EDT only.
+ */
+public class TelemetryInterpolator {
+
+    public enum Mode {
+        LATEST("latest"),
+        INTERPOLATE("interp"),
+        EXTRAPOLATE("extrap");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+
+        public Mode next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    private static final int WINDOW = 1024; // Samples kept, a power of two
+    private static final int MASK = WINDOW - 1;
+    private static final int BATCH = 256;
+
+    // Reads further apart than this are a pause in the stream, not its rate
+    private static final long GAP_NANOS = 250_000_000L;
+    private static final double RATE_SMOOTHING = 0.05;
+    private static final long MIN_AUTO_DELAY_NANOS = 2_000_000L;
+    private static final long MAX_AUTO_DELAY_NANOS = 250_000_000L;
+    private static final long MAX_EXTRAPOLATION_NANOS = 100_000_000L;
+    // Rate of change for extrapolation is taken over at least this span, not between two noisy samples
+    private static final long RATE_SPAN_NANOS = 20_000_000L;
+
+    private final TelemetryHistory history;
+    private TelemetryHistory.Reader reader;
+    private final TelemetrySampleBatch batch = new TelemetrySampleBatch(BATCH);
+
+    // Window of samples; sample n (counting from the first ever) is in slot n & MASK
+    private final long[] time = new long[WINDOW];
+    private final double[] pitch = new double[WINDOW];
+    private final double[] roll = new double[WINDOW];
+    private final double[] servoX = new double[WINDOW];
+    private final double[] servoY = new double[WINDOW];
+    private long count = 0;
+
+    // Samples sharing the newest receive stamp; spaced again if more of them arrive later
+    private long groupStart = 0;
+    private long groupStamp = Long.MIN_VALUE;
+
+    private double sampleIntervalNanos = 0;
+    private double readIntervalNanos = 0;
+
+    private Mode mode;
+    private final long fixedDelayNanos; // 0 = automatic
+    private long lastRenderNanos = Long.MIN_VALUE;
+
+    // State for the current frame
+    private double framePitch = 0.0;
+    private double frameRoll = 0.0;
+    private double frameServoX = 90.0;
+    private double frameServoY = 90.0;
+    private long frameDelayNanos = 0;
+    private boolean moving = false;
+
+    /**
+     * Mode from -Dtvc.smoothing=latest|interpolate|extrapolate (default interpolate)
+     * The short labels the HUD shows (interp, extrap) are accepted as well
+     */
+    public TelemetryInterpolator(TelemetryHistory history) {
+        this(history, parseMode(System.getProperty("tvc.smoothing")),
+                Long.getLong("tvc.smoothing.delayMillis", 0L) * 1_000_000L);
+    }
+
+    public TelemetryInterpolator(TelemetryHistory history, Mode mode, long fixedDelayNanos) {
+        this.history = history;
+        this.mode = mode;
+        this.fixedDelayNanos = Math.max(0, fixedDelayNanos);
+        this.reader = history.newReaderAt(Math.max(0, history.getCursor() - WINDOW));
+    }
+
+    public static Mode parseMode(String name) {
+        if (name == null) return Mode.INTERPOLATE;
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (Mode mode : Mode.values()) {
+            if (key.equals(mode.getLabel()) || key.equals(mode.name().toLowerCase(Locale.ROOT))) return mode;
+        }
+        return Mode.INTERPOLATE;
+    }
+
+    /**
+     * Take in new samples and work out the state to draw at nowNanos (System.nanoTime())
+     */
+    public void update(long nowNanos) {
+        readSamples();
+        if (count == 0) {
+            frameDelayNanos = 0;
+            moving = false;
+            return;
+        }
+
+        long newest = count - 1;
+        switch (mode) {
+            case LATEST:
+                setFrame(newest);
+                frameDelayNanos = nowNanos - time[(int) newest & MASK];
+                moving = false;
+                break;
+            case INTERPOLATE:
+                interpolate(nowNanos);
+                break;
+            case EXTRAPOLATE:
+                extrapolate(nowNanos);
+                break;
+        }
+    }
+
+    private void readSamples() {
+        // After a long pause (hidden, paused) only the end of the backlog matters
+        if (reader.getBacklog() > WINDOW) {
+            reader = history.newReaderAt(history.getCursor() - WINDOW);
+        }
+        int n;
+        while ((n = reader.poll(batch)) > 0) {
+            for (int i = 0; i < n; i++) {
+                add(batch.getReceiveNanos(i), batch.getPitch(i), batch.getRoll(i),
+                        batch.getServoX(i), batch.getServoY(i));
+            }
+        }
+        if (count > groupStart) spaceGroup();
+    }
+
+    private void add(long stamp, double p, double r, int sx, int sy) {
+        int slot = (int) count & MASK;
+        pitch[slot] = p;
+        roll[slot] = r;
+        servoX[slot] = sx;
+        servoY[slot] = sy;
+
+        if (stamp != groupStamp) {
+            if (count > groupStart) {
+                spaceGroup();
+                closeGroup(stamp);
+            }
+            groupStart = count;
+            groupStamp = stamp;
+        }
+        count++;
+    }
+
+    /**
+     * A new read started: the previous one is complete, so it tells the stream's rate
+     */
+    private void closeGroup(long nextStamp) {
+        long previous = groupStart > 0 && count - groupStart < WINDOW ? time[(int) (groupStart - 1) & MASK] : Long.MIN_VALUE;
+        long span = previous == Long.MIN_VALUE ? GAP_NANOS + 1 : groupStamp - previous;
+        if (span > 0 && span <= GAP_NANOS) {
+            sampleIntervalNanos = smooth(sampleIntervalNanos, (double) span / (count - groupStart));
+        }
+        long readGap = nextStamp - groupStamp;
+        if (readGap > 0 && readGap <= GAP_NANOS) {
+            readIntervalNanos = smooth(readIntervalNanos, readGap);
+        }
+    }
+
+    private static double smooth(double average, double value) {
+        return average == 0 ? value : average + (value - average) * RATE_SMOOTHING;
+    }
+
+    /**
+     * Spread the samples of the newest read between the previous sample and the read's stamp
+     */
+    private void spaceGroup() {
+        int size = (int) Math.min(count - groupStart, WINDOW);
+        long first = count - size;
+        long stamp = groupStamp;
+        double step;
+        if (first > 0 && count - first < WINDOW) {
+            long previous = time[(int) (first - 1) & MASK];
+            if (stamp < previous) stamp = previous; // Never out of order
+            step = (double) (stamp - previous) / size;
+            // After a pause the burst still came in at the usual rate
+            if (stamp - previous > GAP_NANOS) step = Math.min(step, sampleIntervalNanos);
+        } else {
+            step = sampleIntervalNanos;
+        }
+        for (int i = 0; i < size; i++) {
+            time[(int) (first + i) & MASK] = stamp - Math.round((size - 1 - i) * step);
+        }
+    }
+
+    private void interpolate(long nowNanos) {
+        long delay = fixedDelayNanos > 0 ? fixedDelayNanos : getAutoDelayNanos();
+        long render = Math.max(nowNanos - delay, lastRenderNanos); // Never step backwards
+        lastRenderNanos = render;
+
+        long newest = count - 1;
+        long newestTime = time[(int) newest & MASK];
+        if (render >= newestTime) {
+            // Ran out of samples: hold the newest
+            setFrame(newest);
+            frameDelayNanos = nowNanos - newestTime;
+            moving = false;
+            return;
+        }
+
+        long before = findAtOrBefore(render);
+        if (before < 0) {
+            setFrame(oldest());
+        } else {
+            long after = before + 1;
+            long t0 = time[(int) before & MASK];
+            long t1 = time[(int) after & MASK];
+            double f = t1 > t0 ? (double) (render - t0) / (t1 - t0) : 1.0;
+            blend(before, after, f);
+        }
+        frameDelayNanos = nowNanos - render;
+        moving = true;
+    }
+
+    private void extrapolate(long nowNanos) {
+        long newest = count - 1;
+        long newestTime = time[(int) newest & MASK];
+        long from = findAtOrBefore(newestTime - RATE_SPAN_NANOS);
+        if (from < 0) from = oldest();
+        long span = newestTime - time[(int) from & MASK];
+        long ahead = Math.max(0, Math.min(nowNanos - newestTime, MAX_EXTRAPOLATION_NANOS));
+
+        if (from == newest || span <= 0) {
+            setFrame(newest);
+            frameDelayNanos = nowNanos - newestTime;
+            moving = false;
+            return;
+        }
+        // Linear projection of the newest sample along the rate of change over span
+        blend(from, newest, 1.0 + (double) ahead / span);
+        frameServoX = TelemetryData.clampServo(frameServoX);
+        frameServoY = TelemetryData.clampServo(frameServoY);
+        frameDelayNanos = nowNanos - newestTime - ahead;
+        moving = ahead < MAX_EXTRAPOLATION_NANOS;
+    }
+
+    private long oldest() {
+        return Math.max(0, count - WINDOW);
+    }
+
+    /**
+     * Newest retained sample timed at or before t, -1 if all are later
+     */
+    private long findAtOrBefore(long t) {
+        long low = oldest();
+        long high = count - 1;
+        if (time[(int) low & MASK] > t) return -1;
+        while (low < high) {
+            long mid = (low + high + 1) >>> 1;
+            if (time[(int) mid & MASK] <= t) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    private void setFrame(long n) {
+        int slot = (int) n & MASK;
+        framePitch = pitch[slot];
+        frameRoll = roll[slot];
+        frameServoX = servoX[slot];
+        frameServoY = servoY[slot];
+    }
+
+    // f = 0 gives sample a, 1 gives b, beyond 1 continues the line
+    private void blend(long a, long b, double f) {
+        int i = (int) a & MASK;
+        int j = (int) b & MASK;
+        framePitch = pitch[i] + wrapDegrees(pitch[j] - pitch[i]) * f;
+        frameRoll = roll[i] + wrapDegrees(roll[j] - roll[i]) * f;
+        frameServoX = servoX[i] + (servoX[j] - servoX[i]) * f;
+        frameServoY = servoY[i] + (servoY[j] - servoY[i]) * f;
+    }
+
+    // Shortest way round, so 179 -> -179 passes through 180 and not 0
+    private static double wrapDegrees(double degrees) {
+        return degrees - 360.0 * Math.floor((degrees + 180.0) / 360.0);
+    }
+
+    public double getPitch() { return framePitch; }
+    public double getRoll() { return frameRoll; }
+    public double getServoX() { return frameServoX; }
+    public double getServoY() { return frameServoY; }
+
+    /**
+     * How far behind the present the drawn state is, in ms
+     */
+    public double getDelayMillis() { return frameDelayNanos / 1e6; }
+
+    /**
+     * True while the drawn state would still change with time alone, so frames should keep coming
+     */
+    public boolean isMoving() { return moving; }
+
+    public Mode getMode() { return mode; }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        lastRenderNanos = Long.MIN_VALUE;
+    }
+
+    /**
+     * Render delay in INTERPOLATE mode: the fixed one, or twice the smoothed time between reads
+     */
+    public long getAutoDelayNanos() {
+        long delay = Math.round(2 * readIntervalNanos);
+        return Math.max(MIN_AUTO_DELAY_NANOS, Math.min(MAX_AUTO_DELAY_NANOS, delay));
+    }
+
+    public double getSampleIntervalMillis() { return sampleIntervalNanos / 1e6; }
+}
@@ -0,0 +1,49 @@
+package com.faraz.model;
+
+/**
+ * How a subscription hands telemetry to its listener
+ *
+ *   everySample()      every published sample in order (replayed from TelemetryHistory)
+ *   latest()           only the newest sample; bursts collapse into one callback
+ *   rateLimited(hz)    like latest(), but at most hz callbacks per second
+ */
+public final class DeliveryPolicy {
+
+    public enum Mode { EVERY_SAMPLE, LATEST, RATE_LIMITED }
+
+    private static final DeliveryPolicy EVERY_SAMPLE = new DeliveryPolicy(Mode.EVERY_SAMPLE, 0);
+    private static final DeliveryPolicy LATEST = new DeliveryPolicy(Mode.LATEST, 0);
+
+    private final Mode mode;
+    private final long minIntervalNanos;
+
+    private DeliveryPolicy(Mode mode, long minIntervalNanos) {
+        this.mode = mode;
+        this.minIntervalNanos = minIntervalNanos;
+    }
+
+    public static DeliveryPolicy everySample() { return EVERY_SAMPLE; }
+
+    public static DeliveryPolicy latest() { return LATEST; }
+
+    public static DeliveryPolicy rateLimited(double maxPerSecond) {
+        if (!(maxPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive: " + maxPerSecond);
+        }
+        return new DeliveryPolicy(Mode.RATE_LIMITED, (long) (1_000_000_000L / maxPerSecond));
+    }
+
+    public Mode getMode() { return mode; }
+
+    /**
+     * Minimum time between two callbacks (0 unless rate limited)
+     */
+    public long getMinIntervalNanos() { return minIntervalNanos; }
+
+    @Override
+    public String toString() {
+        return mode == Mode.RATE_LIMITED
+                ? String.format("RATE_LIMITED(%.1f/s)", 1e9 / minIntervalNanos)
+                : mode.name();
+    }
+}
@@ -0,0 +1,183 @@
+package com.faraz.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One listener registered on TelemetryData
+ *
+ * The publishing thread only raises flags and, if no dispatch is pending yet, posts a
+ * single preallocated task to the subscriber's executor. Any number of samples that
+ * arrive before that task runs are coalesced into one pass, so an idle link costs
+ * nothing and a 2 kHz link costs at most one task per subscriber per pass.
+ *
+ * The executor must run tasks one at a time (the UI passes SwingUtilities::invokeLater);
+ * the model itself knows nothing about Swing.
+ */
+public final class Subscription {
+    private static final int BATCH_SIZE = 1024;
+
+    // Waits out rate limits; it only hands the dispatch back to the subscriber's executor
+    private static final ScheduledExecutorService DELAYS = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "telemetry-delivery-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TelemetryData telemetryData;
+    private final TelemetryListener listener;
+    private final DeliveryPolicy policy;
+    private final Executor executor;
+
+    // Set by the publisher, cleared by dispatch
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicBoolean samplePending = new AtomicBoolean(false);
+    private final AtomicBoolean connectionPending = new AtomicBoolean(false);
+    private final Runnable dispatchTask = this::dispatch;
+    private final Runnable delayedTask = this::dispatchLater;
+    private volatile boolean cancelled = false;
+
+    // Executor only
+    private final TelemetrySample sample = new TelemetrySample();
+    private final TelemetryHistory.Reader reader;
+    private final TelemetrySampleBatch batch;
+    private volatile ScheduledFuture<?> delay;
+    private long lastDeliveryNanos = 0;
+    private long deliveredCount = 0;
+
+    Subscription(TelemetryData telemetryData, TelemetryListener listener, DeliveryPolicy policy, Executor executor) {
+        this.telemetryData = telemetryData;
+        this.listener = listener;
+        this.policy = policy;
+        this.executor = executor;
+
+        if (policy.getMode() == DeliveryPolicy.Mode.EVERY_SAMPLE) {
+            // Start at the newest published sample so the first pass has the current state
+            TelemetryHistory history = telemetryData.getHistory();
+            reader = history.newReaderAt(Math.max(0, history.getCursor() - 1));
+            batch = new TelemetrySampleBatch(BATCH_SIZE);
+        } else {
+            reader = null;
+            batch = null;
+        }
+    }
+
+    /**
+     * A sample was published (any thread)
+     */
+    void sampleAvailable() {
+        if (!samplePending.get()) {
+            samplePending.set(true);
+        }
+        schedule();
+    }
+
+    /**
+     * Connection state flipped (any thread)
+     */
+    void connectionChanged() {
+        connectionPending.set(true);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!cancelled && !scheduled.get() && scheduled.compareAndSet(false, true)) {
+            executor.execute(dispatchTask);
+        }
+    }
+
+    private void dispatchLater() {
+        if (!cancelled) {
+            executor.execute(dispatchTask);
+        }
+    }
+
+    /**
+     * Runs on the executor; a rate-limited subscription that is early stays scheduled and
+     * comes back after its delay, so it does not post again in the meantime
+     */
+    private void dispatch() {
+        if (cancelled) return;
+
+        if (connectionPending.getAndSet(false)) {
+            listener.onConnectionChanged(telemetryData.isConnected());
+        }
+
+        long now = System.nanoTime();
+        if (policy.getMode() == DeliveryPolicy.Mode.RATE_LIMITED && samplePending.get() && deliveredCount > 0) {
+            long wait = lastDeliveryNanos + policy.getMinIntervalNanos() - now;
+            if (wait > 0) {
+                // Replaces a pending delay, so at most one is ever outstanding
+                if (delay != null) delay.cancel(false);
+                delay = DELAYS.schedule(delayedTask, wait, TimeUnit.NANOSECONDS);
+                // Still scheduled, so a link change raised since the check above could not post itself
+                if (connectionPending.get()) {
+                    executor.execute(dispatchTask);
+                }
+                return;
+            }
+        }
+
+        // Cleared before delivering so samples published meanwhile post a new pass
+        scheduled.set(false);
+        if (samplePending.getAndSet(false)) {
+            lastDeliveryNanos = now;
+            if (reader != null) {
+                deliverAll();
+            } else {
+                telemetryData.snapshot(sample);
+                deliveredCount++;
+                listener.onTelemetry(sample);
+            }
+        }
+
+        // Flags raised before scheduled was cleared lost their CAS; pick them up now
+        if (connectionPending.get() || samplePending.get()) {
+            schedule();
+        }
+    }
+
+    private void deliverAll() {
+        int count;
+        while (!cancelled && (count = reader.poll(batch)) > 0) {
+            for (int i = 0; i < count && !cancelled; i++) {
+                batch.get(i, sample);
+                deliveredCount++;
+                listener.onTelemetry(sample);
+            }
+        }
+    }
+
+    /**
+     * Stop delivery; callbacks already running finish, no new ones start
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        telemetryData.unsubscribe(this);
+        ScheduledFuture<?> pending = delay;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    public boolean isCancelled() { return cancelled; }
+
+    public DeliveryPolicy getPolicy() { return policy; }
+
+    public TelemetryListener getListener() { return listener; }
+
+    /**
+     * Callbacks made so far (executor)
+     */
+    public long getDeliveredCount() { return deliveredCount; }
+
+    /**
+     * Samples an every-sample subscriber missed because its executor fell a whole history behind
+     */
+    public long getLostCount() { return reader != null ? reader.getLappedCount() : 0; }
+}
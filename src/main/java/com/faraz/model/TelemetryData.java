@@ -1,90 +1,279 @@
 package com.faraz.model;
 
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Thread-safe telemetry data container
  * Holds all rocket sensor and control data
+ *
+ * Fields are plain primitives guarded by a StampedLock used as a seqlock:
+ * writers publish a whole sample under the write lock, readers copy it with an
+ * optimistic read and retry if a write overlapped. snapshot(into) therefore never
+ * mixes two samples and does not allocate. The single-field getters and setters
+ * are kept for existing callers; each setter publishes a whole sample.
+ *
+ * Every published sample is also appended to a TelemetryHistory ring, so publish()
+ * and the setters must only be called from one ingest thread at a time.
+ *
+ * UI code should subscribe() instead of polling: listeners are told about new samples
+ * and connection changes on the executor they pass, only when something changed.
  */
 public class TelemetryData {
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    // Data older than this counts as stale
+    public static final long DATA_FRESH_MILLIS = 2000;
+
+    // Servo travel (degrees); commands outside it are clamped
+    public static final int SERVO_MIN = 0;
+    public static final int SERVO_MAX = 180;
+
+    private final StampedLock lock = new StampedLock();
+    private final TelemetryHistory history;
+    private final TelemetrySample setterSample = new TelemetrySample();
+
     // Orientation data (degrees)
-    private final AtomicReference<Double> pitch = new AtomicReference<>(0.0);
-    private final AtomicReference<Double> roll = new AtomicReference<>(0.0);
+    private double pitch = 0.0;
+    private double roll = 0.0;
 
     // PID controller outputs
-    private final AtomicReference<Double> pidPitch = new AtomicReference<>(0.0);
-    private final AtomicReference<Double> pidRoll = new AtomicReference<>(0.0);
+    private double pidPitch = 0.0;
+    private double pidRoll = 0.0;
 
     // Servo positions (degrees, 90 = center)
-    private final AtomicReference<Integer> servoX = new AtomicReference<>(90);
-    private final AtomicReference<Integer> servoY = new AtomicReference<>(90);
+    private int servoX = 90;
+    private int servoY = 90;
 
     // System status
-    private final AtomicReference<Integer> bufferCount = new AtomicReference<>(0);
-    private final AtomicReference<Double> altitude = new AtomicReference<>(0.0);
+    private int bufferCount = 0;
+    private double altitude = 0.0;
+    private long sequence = 0;
+    private long lastUpdateTime = 0L;
+    private long updateCount = 0;
     private final AtomicBoolean isConnected = new AtomicBoolean(false);
-    private final AtomicReference<Long> lastUpdateTime = new AtomicReference<>(0L);
-
-    // Getters
-    public double getPitch() { return pitch.get(); }
-    public double getRoll() { return roll.get(); }
-    public double getPidPitch() { return pidPitch.get(); }
-    public double getPidRoll() { return pidRoll.get(); }
-    public int getServoX() { return servoX.get(); }
-    public int getServoY() { return servoY.get(); }
-    public int getBufferCount() { return bufferCount.get(); }
-    public double getAltitude() { return altitude.get(); }
-    public boolean isConnected() { return isConnected.get(); }
-    public long getLastUpdateTime() { return lastUpdateTime.get(); }
 
-    // Setters
-    public void setPitch(double value) {
-        pitch.set(value);
-        updateTimestamp();
+    // Copy-on-write so the publisher iterates without locking or allocating
+    private volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+    /**
+     * History capacity from -Dtvc.history.capacity (default 131072 samples)
+     */
+    public TelemetryData() {
+        this(Integer.getInteger("tvc.history.capacity", TelemetryHistory.DEFAULT_CAPACITY));
+    }
+
+    public TelemetryData(int historyCapacity) {
+        this.history = new TelemetryHistory(historyCapacity);
+    }
+
+    /**
+     * Publish one complete sample; readers see either all of it or none of it
+     */
+    public void publish(TelemetrySample sample) {
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            pitch = sample.getPitch();
+            roll = sample.getRoll();
+            pidPitch = sample.getPidPitch();
+            pidRoll = sample.getPidRoll();
+            servoX = clampServo(sample.getServoX());
+            servoY = clampServo(sample.getServoY());
+            bufferCount = sample.getBufferCount();
+            altitude = sample.getAltitude();
+            sequence = sample.getSequence();
+            lastUpdateTime = now;
+            updateCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        history.append(sample);
+        notifySample();
+    }
+
+    /**
+     * Push telemetry to a listener according to policy
+     * The executor must run tasks one at a time; Swing code passes SwingUtilities::invokeLater
+     */
+    public synchronized Subscription subscribe(TelemetryListener listener, DeliveryPolicy policy, Executor executor) {
+        Subscription subscription = new Subscription(this, listener, policy, executor);
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+
+        // Let the new listener draw the current state straight away
+        subscription.connectionChanged();
+        subscription.sampleAvailable();
+        return subscription;
+    }
+
+    synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated.length == 0 ? NO_SUBSCRIPTIONS : updated;
+                return;
+            }
+        }
+    }
+
+    private void notifySample() {
+        for (Subscription subscription : subscriptions) {
+            subscription.sampleAvailable();
+        }
+    }
+
+    /**
+     * Recent samples, for consumers that must not miss any
+     */
+    public TelemetryHistory getHistory() { return history; }
+
+    /**
+     * Copy the latest sample into a caller-owned holder, consistently and without allocating
+     */
+    public void snapshot(TelemetrySample into) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                copyInto(into);
+                if (lock.validate(stamp)) return;
+            }
+        }
+
+        // Writer kept overlapping - take the read lock once
+        long stamp = lock.readLock();
+        try {
+            copyInto(into);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void copyInto(TelemetrySample into) {
+        into.set(pitch, roll, pidPitch, pidRoll, servoX, servoY, bufferCount, altitude);
+        into.setSequence(sequence);
+    }
+
+    /**
+     * Optimistic read of one value derived from the fields, falling back to the read lock
+     * if a write overlapped. The field accessors are non-capturing, so nothing is allocated.
+     */
+    private double readDouble(ToDoubleFunction<TelemetryData> field) {
+        long stamp = lock.tryOptimisticRead();
+        double value = field.applyAsDouble(this);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try { value = field.applyAsDouble(this); } finally { lock.unlockRead(stamp); }
+        }
+        return value;
+    }
+
+    private int readInt(ToIntFunction<TelemetryData> field) {
+        long stamp = lock.tryOptimisticRead();
+        int value = field.applyAsInt(this);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try { value = field.applyAsInt(this); } finally { lock.unlockRead(stamp); }
+        }
+        return value;
     }
 
-    public void setRoll(double value) {
-        roll.set(value);
-        updateTimestamp();
+    private long readLong(ToLongFunction<TelemetryData> field) {
+        long stamp = lock.tryOptimisticRead();
+        long value = field.applyAsLong(this);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try { value = field.applyAsLong(this); } finally { lock.unlockRead(stamp); }
+        }
+        return value;
     }
 
-    public void setPidPitch(double value) { pidPitch.set(value); }
-    public void setPidRoll(double value) { pidRoll.set(value); }
+    // Getters (each one consistent on its own; use snapshot() for several fields)
+    public double getPitch() { return readDouble(d -> d.pitch); }
+    public double getRoll() { return readDouble(d -> d.roll); }
+    public double getPidPitch() { return readDouble(d -> d.pidPitch); }
+    public double getPidRoll() { return readDouble(d -> d.pidRoll); }
+    public int getServoX() { return readInt(d -> d.servoX); }
+    public int getServoY() { return readInt(d -> d.servoY); }
+    public int getBufferCount() { return readInt(d -> d.bufferCount); }
+    public double getAltitude() { return readDouble(d -> d.altitude); }
+    public long getLastUpdateTime() { return readLong(d -> d.lastUpdateTime); }
 
-    public void setServoX(int value) {
-        servoX.set(Math.max(0, Math.min(180, value))); // Clamp 0-180
+    /**
+     * Number of writes so far - changes whenever any value changes
+     */
+    public long getUpdateCount() { return readLong(d -> d.updateCount); }
+
+    public boolean isConnected() { return isConnected.get(); }
+
+    // Setters (single field; prefer publish() for a whole sample)
+    public void setPitch(double value) { republish(s -> s.setPitch(value)); }
+    public void setRoll(double value) { republish(s -> s.setRoll(value)); }
+    public void setPidPitch(double value) { republish(s -> s.setPidPitch(value)); }
+    public void setPidRoll(double value) { republish(s -> s.setPidRoll(value)); }
+    public void setServoX(int value) { republish(s -> s.setServoX(value)); }
+    public void setServoY(int value) { republish(s -> s.setServoY(value)); }
+    public void setBufferCount(int value) { republish(s -> s.setBufferCount(value)); }
+    public void setAltitude(double value) { republish(s -> s.setAltitude(value)); }
+
+    /**
+     * Publish the current sample with one field changed, so history and subscribers see it too
+     */
+    private void republish(Consumer<TelemetrySample> change) {
+        synchronized (setterSample) {
+            snapshot(setterSample);
+            change.accept(setterSample);
+            setterSample.setReceiveNanos(System.nanoTime());
+            publish(setterSample);
+        }
     }
 
-    public void setServoY(int value) {
-        servoY.set(Math.max(0, Math.min(180, value))); // Clamp 0-180
+    public void setConnected(boolean value) {
+        if (isConnected.getAndSet(value) != value) {
+            for (Subscription subscription : subscriptions) {
+                subscription.connectionChanged();
+            }
+        }
     }
 
-    public void setBufferCount(int value) { bufferCount.set(value); }
-    public void setAltitude(double value) { altitude.set(value); }
-    public void setConnected(boolean value) { isConnected.set(value); }
+    /**
+     * Servo angle limited to the gimbal's range, as published
+     */
+    public static int clampServo(int value) {
+        return Math.max(SERVO_MIN, Math.min(SERVO_MAX, value));
+    }
 
-    private void updateTimestamp() {
-        lastUpdateTime.set(System.currentTimeMillis());
+    /**
+     * Same limit for a derived (interpolated or projected) servo angle
+     */
+    public static double clampServo(double value) {
+        return Math.max(SERVO_MIN, Math.min(SERVO_MAX, value));
     }
 
     /**
      * Calculate TVC activity percentage (0-100%)
      */
     public double getTvcActivity() {
-        double deflectionX = Math.abs(getServoX() - 90) / 90.0;
-        double deflectionY = Math.abs(getServoY() - 90) / 90.0;
-        return (deflectionX + deflectionY) / 2.0 * 100.0;
+        return readDouble(d -> TelemetrySample.tvcActivity(d.servoX, d.servoY));
     }
 
     /**
      * Calculate rocket stability percentage (0-100%)
      */
     public double getStability() {
-        double pitchError = Math.abs(getPitch());
-        double rollError = Math.abs(getRoll());
-        double totalError = pitchError + rollError;
-        return Math.max(0, 100 - totalError * 2); // 2 deg error = 4% stability loss
+        return readDouble(d -> TelemetrySample.stability(d.pitch, d.roll));
     }
 
     /**
@@ -97,6 +286,6 @@ public class TelemetryData {
      * Check if data is recent (within last 2 seconds)
      */
     public boolean isDataFresh() {
-        return (System.currentTimeMillis() - getLastUpdateTime()) < 2000;
+        return (System.currentTimeMillis() - getLastUpdateTime()) < DATA_FRESH_MILLIS;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.faraz.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring of the most recent telemetry samples
+ *
+ * One producer (the ingest thread) appends without locks or allocation; any number of
+ * readers follow with their own cursor and copy new samples out in batches. Slots are
+ * stored column-wise in primitive arrays. A reader that falls more than a ring behind
+ * is "lapped": it skips forward to the oldest intact sample and the skipped count is
+ * reported.
+ *
+ * Samples are stored exactly as received. TelemetrySampleBatch hands servo angles out
+ * clamped to the gimbal's range, as TelemetryData publishes them, so consumers need no
+ * clamping of their own; only a recorder that must stay lossless reads the raw values.
+ */
+public class TelemetryHistory {
+    public static final int DEFAULT_CAPACITY = 131072; // 60 s at 2 kHz
+
+    private final int capacity;
+    private final int mask;
+
+    // Sample slots (column per channel)
+    private final double[] pitch;
+    private final double[] roll;
+    private final double[] pidPitch;
+    private final double[] pidRoll;
+    private final int[] servoX;
+    private final int[] servoY;
+    private final int[] bufferCount;
+    private final double[] altitude;
+    private final long[] sequence;
+    private final long[] receiveNanos;
+
+    // Number of samples published; written with release semantics by the producer only
+    private final AtomicLong published = new AtomicLong();
+    private long next = 0; // Producer-local copy of published
+
+    public TelemetryHistory(int minCapacity) {
+        capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        mask = capacity - 1;
+        pitch = new double[capacity];
+        roll = new double[capacity];
+        pidPitch = new double[capacity];
+        pidRoll = new double[capacity];
+        servoX = new int[capacity];
+        servoY = new int[capacity];
+        bufferCount = new int[capacity];
+        altitude = new double[capacity];
+        sequence = new long[capacity];
+        receiveNanos = new long[capacity];
+    }
+
+    /**
+     * Append one sample (producer thread only)
+     */
+    public void append(TelemetrySample sample) {
+        int slot = (int) next & mask;
+        pitch[slot] = sample.getPitch();
+        roll[slot] = sample.getRoll();
+        pidPitch[slot] = sample.getPidPitch();
+        pidRoll[slot] = sample.getPidRoll();
+        servoX[slot] = sample.getServoX();
+        servoY[slot] = sample.getServoY();
+        bufferCount[slot] = sample.getBufferCount();
+        altitude[slot] = sample.getAltitude();
+        sequence[slot] = sample.getSequence();
+        receiveNanos[slot] = sample.getReceiveNanos();
+        published.lazySet(++next);
+    }
+
+    /**
+     * Total number of samples ever appended (the position the next sample will get)
+     */
+    public long getCursor() { return published.get(); }
+
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Reader that only sees samples appended from now on
+     */
+    public Reader newReader() { return new Reader(published.get()); }
+
+    /**
+     * Reader that starts with the oldest sample still in the ring
+     */
+    public Reader newReaderFromOldest() { return new Reader(Math.max(0, published.get() - capacity + 1)); }
+
+    /**
+     * Reader that starts at an absolute position (clamped to what is still retained)
+     */
+    public Reader newReaderAt(long position) { return new Reader(position); }
+
+    /**
+     * Per-consumer cursor; not thread-safe, give each consumer its own
+     */
+    public class Reader {
+        private long position;
+        private long lappedCount = 0;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Copy samples appended since the last poll into batch (up to its capacity)
+         * @return number of samples copied
+         */
+        public int poll(TelemetrySampleBatch batch) {
+            long available = published.get();
+            long start = position;
+
+            // The slot after the newest may already be being rewritten, so one slot is never readable
+            long oldest = available - capacity + 1;
+            if (start < oldest) {
+                lappedCount += oldest - start;
+                start = oldest;
+            }
+
+            int count = (int) Math.min(available - start, batch.capacity());
+            if (count <= 0) {
+                batch.clear(start);
+                return 0;
+            }
+            copy(start, count, batch);
+
+            // Anything the producer may have started overwriting during the copy is discarded
+            VarHandle.acquireFence();
+            long firstIntact = published.get() - capacity + 1;
+            int torn = (int) Math.max(0, Math.min(count, firstIntact - start));
+            if (torn > 0) {
+                lappedCount += torn;
+                batch.dropFront(torn);
+            }
+
+            position = start + count;
+            return count - torn;
+        }
+
+        /**
+         * Samples not yet polled
+         */
+        public long getBacklog() { return Math.max(0, published.get() - position); }
+
+        /**
+         * Total samples this reader missed because it was lapped
+         */
+        public long getLappedCount() { return lappedCount; }
+
+        public long getPosition() { return position; }
+
+        /**
+         * Jump to the newest sample, skipping any backlog
+         */
+        public void skipToLatest() { position = published.get(); }
+    }
+
+    private void copy(long start, int count, TelemetrySampleBatch batch) {
+        int from = (int) start & mask;
+        int first = Math.min(count, capacity - from);
+        batch.clear(start);
+        copyRange(from, 0, first, batch);
+        if (first < count) {
+            copyRange(0, first, count - first, batch);
+        }
+        batch.setSize(count);
+    }
+
+    private void copyRange(int from, int to, int length, TelemetrySampleBatch batch) {
+        System.arraycopy(pitch, from, batch.pitch, to, length);
+        System.arraycopy(roll, from, batch.roll, to, length);
+        System.arraycopy(pidPitch, from, batch.pidPitch, to, length);
+        System.arraycopy(pidRoll, from, batch.pidRoll, to, length);
+        System.arraycopy(servoX, from, batch.servoX, to, length);
+        System.arraycopy(servoY, from, batch.servoY, to, length);
+        System.arraycopy(bufferCount, from, batch.bufferCount, to, length);
+        System.arraycopy(altitude, from, batch.altitude, to, length);
+        System.arraycopy(sequence, from, batch.sequence, to, length);
+        System.arraycopy(receiveNanos, from, batch.receiveNanos, to, length);
+    }
+}
@@ -0,0 +1,18 @@
+package com.faraz.model;
+
+/**
+ * Receives telemetry pushed by a TelemetryData subscription
+ * Callbacks run on the executor passed to subscribe(), one at a time
+ */
+public interface TelemetryListener {
+
+    /**
+     * New telemetry; the sample is reused by the subscription, copy it to keep it
+     */
+    void onTelemetry(TelemetrySample sample);
+
+    /**
+     * Link went up or down
+     */
+    default void onConnectionChanged(boolean connected) {}
+}
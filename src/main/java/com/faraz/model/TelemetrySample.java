@@ -0,0 +1,111 @@
+package com.faraz.model;
+
+/**
+ * Mutable holder for one telemetry sample
+ * Reused by the ingest path so decoding a sample does not allocate
+ */
+public class TelemetrySample {
+    // Orientation data (degrees)
+    private double pitch;
+    private double roll;
+
+    // PID controller outputs
+    private double pidPitch;
+    private double pidRoll;
+
+    // Servo positions (degrees, 90 = center)
+    private int servoX = 90;
+    private int servoY = 90;
+
+    // System status
+    private int bufferCount;
+    private double altitude;
+
+    // Frame sequence number (device counter for binary frames, host counter for text)
+    private long sequence;
+
+    // Host System.nanoTime() when the bytes carrying this sample were read
+    private long receiveNanos;
+
+    // Getters
+    public double getPitch() { return pitch; }
+    public double getRoll() { return roll; }
+    public double getPidPitch() { return pidPitch; }
+    public double getPidRoll() { return pidRoll; }
+    public int getServoX() { return servoX; }
+    public int getServoY() { return servoY; }
+    public int getBufferCount() { return bufferCount; }
+    public double getAltitude() { return altitude; }
+    public long getSequence() { return sequence; }
+    public long getReceiveNanos() { return receiveNanos; }
+
+    // Setters
+    public void setPitch(double value) { pitch = value; }
+    public void setRoll(double value) { roll = value; }
+    public void setPidPitch(double value) { pidPitch = value; }
+    public void setPidRoll(double value) { pidRoll = value; }
+    public void setServoX(int value) { servoX = value; }
+    public void setServoY(int value) { servoY = value; }
+    public void setBufferCount(int value) { bufferCount = value; }
+    public void setAltitude(double value) { altitude = value; }
+    public void setSequence(long value) { sequence = value; }
+    public void setReceiveNanos(long value) { receiveNanos = value; }
+
+    /**
+     * Set every field at once
+     */
+    public void set(double pitch, double roll, double pidPitch, double pidRoll,
+                    int servoX, int servoY, int bufferCount, double altitude) {
+        this.pitch = pitch;
+        this.roll = roll;
+        this.pidPitch = pidPitch;
+        this.pidRoll = pidRoll;
+        this.servoX = servoX;
+        this.servoY = servoY;
+        this.bufferCount = bufferCount;
+        this.altitude = altitude;
+    }
+
+    public void copyFrom(TelemetrySample other) {
+        set(other.pitch, other.roll, other.pidPitch, other.pidRoll,
+                other.servoX, other.servoY, other.bufferCount, other.altitude);
+        sequence = other.sequence;
+        receiveNanos = other.receiveNanos;
+    }
+
+    /**
+     * TVC activity percentage (0-100%), see TelemetryData.getTvcActivity()
+     */
+    public double getTvcActivity() { return tvcActivity(servoX, servoY); }
+
+    /**
+     * Rocket stability percentage (0-100%), see TelemetryData.getStability()
+     */
+    public double getStability() { return stability(pitch, roll); }
+
+    /**
+     * Servo deflection angles from center
+     */
+    public int getServoXDeflection() { return servoX - 90; }
+    public int getServoYDeflection() { return servoY - 90; }
+
+    static double tvcActivity(int servoX, int servoY) {
+        double deflectionX = Math.abs(servoX - 90) / 90.0;
+        double deflectionY = Math.abs(servoY - 90) / 90.0;
+        return (deflectionX + deflectionY) / 2.0 * 100.0;
+    }
+
+    static double stability(double pitch, double roll) {
+        double totalError = Math.abs(pitch) + Math.abs(roll);
+        return Math.max(0, 100 - totalError * 2); // 2 deg error = 4% stability loss
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetrySample{pitch=" + pitch + ", roll=" + roll +
+                ", pidPitch=" + pidPitch + ", pidRoll=" + pidRoll +
+                ", servoX=" + servoX + ", servoY=" + servoY +
+                ", bufferCount=" + bufferCount + ", altitude=" + altitude +
+                ", sequence=" + sequence + ", receiveNanos=" + receiveNanos + "}";
+    }
+}
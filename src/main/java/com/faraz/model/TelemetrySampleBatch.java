@@ -0,0 +1,100 @@
+package com.faraz.model;
+
+/**
+ * Reusable column-wise batch of samples copied out of a TelemetryHistory
+ * Index 0 is the oldest sample in the batch
+ *
+ * Servo angles come out clamped to the gimbal's range, matching TelemetryData; the raw
+ * accessors return them as received.
+ */
+public class TelemetrySampleBatch {
+    final double[] pitch;
+    final double[] roll;
+    final double[] pidPitch;
+    final double[] pidRoll;
+    final int[] servoX;
+    final int[] servoY;
+    final int[] bufferCount;
+    final double[] altitude;
+    final long[] sequence;
+    final long[] receiveNanos;
+
+    private int offset = 0;
+    private int size = 0;
+    private long firstPosition = 0;
+
+    public TelemetrySampleBatch(int capacity) {
+        pitch = new double[capacity];
+        roll = new double[capacity];
+        pidPitch = new double[capacity];
+        pidRoll = new double[capacity];
+        servoX = new int[capacity];
+        servoY = new int[capacity];
+        bufferCount = new int[capacity];
+        altitude = new double[capacity];
+        sequence = new long[capacity];
+        receiveNanos = new long[capacity];
+    }
+
+    public int capacity() { return pitch.length; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * History position of sample 0 (positions are consecutive within a batch)
+     */
+    public long getFirstPosition() { return firstPosition; }
+
+    // Per-sample accessors
+    public double getPitch(int i) { return pitch[offset + i]; }
+    public double getRoll(int i) { return roll[offset + i]; }
+    public double getPidPitch(int i) { return pidPitch[offset + i]; }
+    public double getPidRoll(int i) { return pidRoll[offset + i]; }
+    public int getServoX(int i) { return TelemetryData.clampServo(servoX[offset + i]); }
+    public int getServoY(int i) { return TelemetryData.clampServo(servoY[offset + i]); }
+    public int getRawServoX(int i) { return servoX[offset + i]; }
+    public int getRawServoY(int i) { return servoY[offset + i]; }
+    public int getBufferCount(int i) { return bufferCount[offset + i]; }
+    public double getAltitude(int i) { return altitude[offset + i]; }
+    public long getSequence(int i) { return sequence[offset + i]; }
+    public long getReceiveNanos(int i) { return receiveNanos[offset + i]; }
+
+    /**
+     * Copy sample i into a TelemetrySample, servo angles as published
+     */
+    public void get(int i, TelemetrySample into) {
+        int index = offset + i;
+        into.set(pitch[index], roll[index], pidPitch[index], pidRoll[index],
+                TelemetryData.clampServo(servoX[index]), TelemetryData.clampServo(servoY[index]),
+                bufferCount[index], altitude[index]);
+        into.setSequence(sequence[index]);
+        into.setReceiveNanos(receiveNanos[index]);
+    }
+
+    /**
+     * Copy sample i into a TelemetrySample exactly as received
+     */
+    public void getRaw(int i, TelemetrySample into) {
+        int index = offset + i;
+        into.set(pitch[index], roll[index], pidPitch[index], pidRoll[index],
+                servoX[index], servoY[index], bufferCount[index], altitude[index]);
+        into.setSequence(sequence[index]);
+        into.setReceiveNanos(receiveNanos[index]);
+    }
+
+    void clear(long position) {
+        offset = 0;
+        size = 0;
+        firstPosition = position;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    void dropFront(int count) {
+        offset += count;
+        size -= count;
+        firstPosition += count;
+    }
+}
@@ -0,0 +1,369 @@
+package com.faraz.recording;
+
+import com.faraz.communication.TelemetryLineParser;
+import com.faraz.model.TelemetrySample;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Converts raw text captures (minicom / screen logs of the ESP32 output) into flights
+ *
+ * The capture is split into chunks that end on a newline, each chunk is read straight into
+ * a reused array and parsed on a fork-join pool with the live TelemetryLineParser, and the
+ * chunks are written to the flight in file order as they complete. At most two chunks per
+ * worker are held in memory, whatever the size of the capture, and the read buffers are
+ * only kept for the duration of one import. An import that fails removes what it wrote.
+ *
+ * Captures have no host timestamps, so samples are spaced at a nominal rate.
+ *
+ *   java -cp TVCVisualizer.jar com.faraz.recording.CaptureImporter capture.txt flights/imported [rateHz] [threads]
+ */
+public class CaptureImporter {
+    public static final int DEFAULT_CHUNK_BYTES = 8 * 1024 * 1024;
+    public static final double DEFAULT_SAMPLE_RATE_HZ = 1000;
+
+    // Bytes read at a time while looking for the newline that ends a chunk
+    private static final int BOUNDARY_PROBE_BYTES = 4096;
+
+    // Largest single read into a chunk array; the JDK stages heap reads through a per-thread
+    // direct buffer of the read's size, so this keeps that buffer small
+    private static final int READ_BYTES = 1024 * 1024;
+
+    // Furthest a chunk runs past chunkBytes looking for a newline; a longer line is cut
+    // there (it is no telemetry line anyway), so every chunk fits one array
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+    private final double sampleRateHz;
+
+    public CaptureImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES, DEFAULT_SAMPLE_RATE_HZ);
+    }
+
+    public CaptureImporter(ForkJoinPool pool, int chunkBytes, double sampleRateHz) {
+        if (chunkBytes < BOUNDARY_PROBE_BYTES) throw new IllegalArgumentException("Chunk too small: " + chunkBytes);
+        if (chunkBytes > Integer.MAX_VALUE - MAX_LINE_BYTES) throw new IllegalArgumentException("Chunk too large: " + chunkBytes);
+        if (!(sampleRateHz > 0)) throw new IllegalArgumentException("Sample rate must be positive: " + sampleRateHz);
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+        this.sampleRateHz = sampleRateHz;
+    }
+
+    /**
+     * Parse a capture file into a new flight directory
+     */
+    public Summary importCapture(Path capture, Path flightDirectory) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(capture, StandardOpenOption.READ)) {
+            long[] bounds = splitAtNewlines(channel);
+            int chunkCount = bounds.length - 1;
+            Summary summary = new Summary(capture, flightDirectory, channel.size(), chunkCount);
+            double periodNanos = 1e9 / sampleRateHz;
+
+            boolean createdDirectory = Files.notExists(flightDirectory);
+            FlightWriter flightWriter = new FlightWriter(flightDirectory, FlightFormat.DEFAULT_SEGMENT_BYTES,
+                    System.currentTimeMillis(), 0);
+            try (FlightWriter writer = flightWriter) {
+                // Keep the pool busy while the chunks are written strictly in order
+                int window = Math.max(2, pool.getParallelism() * 2);
+                ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+                Queue<byte[]> buffers = new ConcurrentLinkedQueue<>(); // At most one per task in flight
+                int submitted = 0;
+
+                for (int written = 0; written < chunkCount; written++) {
+                    while (submitted < chunkCount && inFlight.size() < window) {
+                        inFlight.add(pool.submit(new ParseTask(channel, buffers, submitted, bounds[submitted], bounds[submitted + 1])));
+                        submitted++;
+                    }
+
+                    Chunk chunk = inFlight.poll().join();
+                    for (int i = 0; i < chunk.size; i++) {
+                        long record = writer.getRecordCount();
+                        writer.append((long) (record * periodNanos), record,
+                                chunk.pitch[i], chunk.roll[i], chunk.pidPitch[i], chunk.pidRoll[i],
+                                chunk.servoX[i], chunk.servoY[i], chunk.bufferCount[i], chunk.altitude[i]);
+                    }
+                    summary.add(chunk);
+                }
+            } catch (IOException | RuntimeException e) {
+                deletePartialFlight(flightDirectory, createdDirectory, e);
+                throw e;
+            }
+
+            summary.elapsedNanos = System.nanoTime() - startNanos;
+            return summary;
+        }
+    }
+
+    /**
+     * Removes the segments of a failed import (and its directory, if the import created it)
+     * so no truncated flight is left behind to be replayed or exported
+     */
+    private static void deletePartialFlight(Path flightDirectory, boolean createdDirectory, Exception failure) {
+        try {
+            // Segments are numbered from 0 without gaps
+            int index = 0;
+            while (Files.deleteIfExists(FlightFormat.segmentPath(flightDirectory, index))) index++;
+            if (createdDirectory) Files.deleteIfExists(flightDirectory);
+        } catch (IOException cleanup) {
+            failure.addSuppressed(cleanup);
+        }
+    }
+
+    /**
+     * Chunk boundaries: every chunk but the last ends just after a '\n', or MAX_LINE_BYTES
+     * past chunkBytes when no newline comes before that
+     */
+    private long[] splitAtNewlines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_BYTES);
+
+        long position = 0;
+        while (size - position > chunkBytes) {
+            long limit = Math.min(size, position + chunkBytes + MAX_LINE_BYTES);
+            long boundary = findNewline(channel, position + chunkBytes, limit, probe);
+            position = boundary < 0 ? limit : boundary + 1;
+            bounds.add(position);
+        }
+        if (bounds.get(bounds.size() - 1) < size) bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    private static long findNewline(FileChannel channel, long from, long limit, ByteBuffer probe) throws IOException {
+        long position = from;
+        while (position < limit) {
+            probe.clear().limit((int) Math.min(probe.capacity(), limit - position));
+            int count = channel.read(probe, position);
+            if (count <= 0) return -1;
+            for (int i = 0; i < count; i++) {
+                if (probe.get(i) == '\n') return position + i;
+            }
+            position += count;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses one chunk into columns; runs on the pool
+     */
+    private static final class ParseTask implements Callable<Chunk> {
+        private final FileChannel channel;
+        private final Queue<byte[]> buffers;
+        private final int index;
+        private final long start;
+        private final long end;
+
+        ParseTask(FileChannel channel, Queue<byte[]> buffers, int index, long start, long end) {
+            this.channel = channel;
+            this.buffers = buffers;
+            this.index = index;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Chunk call() throws IOException {
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Chunk " + index + " too large: " + (end - start) + " bytes");
+            }
+            int length = (int) (end - start);
+
+            // The parser works on arrays, so the chunk is read directly into one borrowed
+            // from this import
+            byte[] data = buffers.poll();
+            if (data == null || data.length < length) data = new byte[length];
+            try {
+                read(data, length);
+                return parse(data, length);
+            } finally {
+                buffers.offer(data);
+            }
+        }
+
+        private void read(byte[] data, int length) throws IOException {
+            ByteBuffer target = ByteBuffer.wrap(data, 0, length);
+            while (target.hasRemaining()) {
+                int position = target.position();
+                target.limit(Math.min(length, position + READ_BYTES));
+                // Positional reads, so the workers share the channel
+                if (channel.read(target, start + position) < 0) {
+                    throw new EOFException("Capture ended inside chunk " + index);
+                }
+                target.limit(length);
+            }
+        }
+
+        private Chunk parse(byte[] data, int length) {
+            Chunk chunk = new Chunk(index, Math.max(16, length / 64));
+            TelemetryLineParser parser = new TelemetryLineParser();
+            TelemetrySample sample = new TelemetrySample();
+
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && data[lineEnd] != '\n') lineEnd++;
+
+                // Same whitespace rules as the live framer (String.trim(), drops the '\r' of CRLF)
+                int from = lineStart;
+                int to = lineEnd;
+                while (from < to && (data[from] & 0xFF) <= ' ') from++;
+                while (to > from && (data[to - 1] & 0xFF) <= ' ') to--;
+
+                if (to > from) {
+                    chunk.lines++;
+                    if (parser.parse(data, from, to - from, sample) == TelemetryLineParser.Result.PARSED) {
+                        chunk.add(sample);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            chunk.ignored = parser.getIgnoredCount();
+            chunk.malformed = parser.getMalformedCount();
+            return chunk;
+        }
+    }
+
+    /**
+     * Parsed samples of one chunk, column-wise
+     */
+    private static final class Chunk {
+        final int index;
+        int size = 0;
+        long lines = 0;
+        long ignored = 0;
+        long malformed = 0;
+        double[] pitch, roll, pidPitch, pidRoll, altitude;
+        int[] servoX, servoY, bufferCount;
+
+        Chunk(int index, int capacity) {
+            this.index = index;
+            pitch = new double[capacity];
+            roll = new double[capacity];
+            pidPitch = new double[capacity];
+            pidRoll = new double[capacity];
+            altitude = new double[capacity];
+            servoX = new int[capacity];
+            servoY = new int[capacity];
+            bufferCount = new int[capacity];
+        }
+
+        void add(TelemetrySample sample) {
+            if (size == pitch.length) grow();
+            pitch[size] = sample.getPitch();
+            roll[size] = sample.getRoll();
+            pidPitch[size] = sample.getPidPitch();
+            pidRoll[size] = sample.getPidRoll();
+            altitude[size] = sample.getAltitude();
+            servoX[size] = sample.getServoX();
+            servoY[size] = sample.getServoY();
+            bufferCount[size] = sample.getBufferCount();
+            size++;
+        }
+
+        private void grow() {
+            int capacity = pitch.length * 2;
+            pitch = Arrays.copyOf(pitch, capacity);
+            roll = Arrays.copyOf(roll, capacity);
+            pidPitch = Arrays.copyOf(pidPitch, capacity);
+            pidRoll = Arrays.copyOf(pidRoll, capacity);
+            altitude = Arrays.copyOf(altitude, capacity);
+            servoX = Arrays.copyOf(servoX, capacity);
+            servoY = Arrays.copyOf(servoY, capacity);
+            bufferCount = Arrays.copyOf(bufferCount, capacity);
+        }
+    }
+
+    /**
+     * What an import did, with bad line counts per chunk
+     */
+    public static final class Summary {
+        private final Path capture;
+        private final Path flight;
+        private final long bytes;
+        private final long[] malformedPerChunk;
+        private final long[] linesPerChunk;
+        private long lines = 0;
+        private long samples = 0;
+        private long ignored = 0;
+        private long malformed = 0;
+        private long elapsedNanos = 0;
+
+        Summary(Path capture, Path flight, long bytes, int chunks) {
+            this.capture = capture;
+            this.flight = flight;
+            this.bytes = bytes;
+            this.malformedPerChunk = new long[chunks];
+            this.linesPerChunk = new long[chunks];
+        }
+
+        void add(Chunk chunk) {
+            lines += chunk.lines;
+            samples += chunk.size;
+            ignored += chunk.ignored;
+            malformed += chunk.malformed;
+            malformedPerChunk[chunk.index] = chunk.malformed;
+            linesPerChunk[chunk.index] = chunk.lines;
+        }
+
+        public Path getCapture() { return capture; }
+        public Path getFlight() { return flight; }
+        public long getBytes() { return bytes; }
+        public int getChunkCount() { return malformedPerChunk.length; }
+        public long getLineCount() { return lines; }
+        public long getSampleCount() { return samples; }
+        public long getIgnoredCount() { return ignored; }
+        public long getMalformedCount() { return malformed; }
+        public long getMalformedCount(int chunk) { return malformedPerChunk[chunk]; }
+        public long getLineCount(int chunk) { return linesPerChunk[chunk]; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%s -> %s: %d samples from %d lines (%d ignored, %d malformed) in %d chunks, "
+                            + "%.2f s, %.1f MB/s, %.0f lines/s",
+                    capture, flight, samples, lines, ignored, malformed, malformedPerChunk.length,
+                    seconds, bytes / 1e6 / seconds, lines / seconds);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CaptureImporter <capture.txt> <flight-directory> [sample-rate-hz] [threads]");
+            System.exit(2);
+        }
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_SAMPLE_RATE_HZ;
+        ForkJoinPool pool = args.length > 3 ? new ForkJoinPool(Integer.parseInt(args[3])) : ForkJoinPool.commonPool();
+
+        Summary summary = new CaptureImporter(pool, DEFAULT_CHUNK_BYTES, rate)
+                .importCapture(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(summary);
+        for (int i = 0; i < summary.getChunkCount(); i++) {
+            if (summary.getMalformedCount(i) > 0) {
+                System.out.printf("  chunk %d: %d malformed of %d lines%n", i, summary.getMalformedCount(i), summary.getLineCount(i));
+            }
+        }
+    }
+}
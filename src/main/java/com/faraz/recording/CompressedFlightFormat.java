@@ -0,0 +1,82 @@
+package com.faraz.recording;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of a compressed flight (all values little-endian)
+ *
+ * A compressed flight is a directory holding one file, flight.tvcz: a 64 byte header
+ * followed by self-contained blocks of up to BLOCK_SAMPLES samples.
+ *
+ *   Header                              Block header
+ *   0   magic "TVCZFLGT"                0   i32 payload length
+ *   8   u16 version                     4   u32 CRC-32C of bytes 8 .. end of payload
+ *   10  u16 header size                 8   i32 sample count
+ *   12  u16 flags (CLOSED)              12  reserved
+ *   16  i32 samples per block           16  i64 first time (ns since recording start)
+ *   24  i64 start (epoch ms)            24  i64 last time
+ *   32  i64 start (host nanoTime)
+ *   40  reserved
+ *
+ * The payload is column-wise: COLUMN_COUNT i32 column lengths, the columns in COLUMN_*
+ * order, then a footer (i32 count, then f64 min and max of every FlightChannel).
+ * Time, sequence and the int channels are delta-of-delta, zigzag varint coded; the
+ * double channels use Gorilla XOR coding. Every block decodes on its own, and a block
+ * with a bad CRC ends the flight (a crash can only tear the last one).
+ */
+public final class CompressedFlightFormat {
+    public static final long MAGIC = 0x54474C465A435654L; // "TVCZFLGT" read little-endian
+    public static final int VERSION = 1;
+    public static final String FILE_NAME = "flight.tvcz";
+
+    public static final int HEADER_SIZE = 64;
+    public static final int BLOCK_HEADER_SIZE = 32;
+    public static final int DEFAULT_BLOCK_SAMPLES = 4096;
+
+    // Header flags
+    public static final int FLAG_CLOSED = 1;
+
+    // Header offsets
+    public static final int HEADER_MAGIC = 0;
+    public static final int HEADER_VERSION = 8;
+    public static final int HEADER_HEADER_SIZE = 10;
+    public static final int HEADER_FLAGS = 12;
+    public static final int HEADER_BLOCK_SAMPLES = 16;
+    public static final int HEADER_START_EPOCH_MILLIS = 24;
+    public static final int HEADER_START_NANOS = 32;
+
+    // Block header offsets
+    public static final int BLOCK_LENGTH = 0;
+    public static final int BLOCK_CRC = 4;
+    public static final int BLOCK_COUNT = 8;
+    public static final int BLOCK_FIRST_TIME = 16;
+    public static final int BLOCK_LAST_TIME = 24;
+
+    // Columns in payload order
+    public static final int COLUMN_TIME = 0;
+    public static final int COLUMN_SEQUENCE = 1;
+    public static final int COLUMN_PITCH = 2;
+    public static final int COLUMN_ROLL = 3;
+    public static final int COLUMN_PID_PITCH = 4;
+    public static final int COLUMN_PID_ROLL = 5;
+    public static final int COLUMN_ALTITUDE = 6;
+    public static final int COLUMN_SERVO_X = 7;
+    public static final int COLUMN_SERVO_Y = 8;
+    public static final int COLUMN_BUFFER = 9;
+    public static final int COLUMN_COUNT = 10;
+
+    public static final int FOOTER_SIZE = 4 + FlightChannel.values().length * 16;
+
+    private CompressedFlightFormat() {}
+
+    /**
+     * CRC-32C of a block from its count field to the end of the payload
+     */
+    static int blockCrc(CRC32C crc, ByteBuffer view, int blockOffset, int payloadLength) {
+        crc.reset();
+        view.limit(blockOffset + BLOCK_HEADER_SIZE + payloadLength).position(blockOffset + BLOCK_COUNT);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,323 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Random access to a compressed flight
+ *
+ * Opening checks every block's CRC and builds a small in-memory block index (offset,
+ * first record, time range, footer min/max); a torn last block is dropped. Records are
+ * read through a cursor that keeps the last decoded block, so sequential replay and
+ * analysis decode each block exactly once. The reader's own methods share one cursor;
+ * parallel readers each take newCursor(), which lives exactly as long as they hold it.
+ *
+ * The file is mapped in windows of up to WINDOW_BYTES that each start on a block, so no
+ * block straddles two mappings and flights of any length open (one mapping stops at 2 GiB).
+ */
+public class CompressedFlightReader implements RecordedFlight {
+    static final int WINDOW_BYTES = 1 << 30;
+
+    private final Path directory;
+    private final MappedByteBuffer[] windows;
+    private final long[] windowStart;      // File position of each window
+    private final int blockCount;
+    private final long[] blockPosition;    // File position of each block
+    private final int[] blockWindow;       // Window holding each block
+    private final long[] blockFirstRecord; // blockCount + 1 entries, last is the record count
+    private final long[] blockFirstTime;
+    private final long[] blockLastTime;
+    private final double[] blockMin;       // blockCount x channels
+    private final double[] blockMax;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final boolean cleanlyClosed;
+
+    private final BlockCursor cursor = new BlockCursor();
+
+    // Last decoded block of one reader
+    private final class BlockCursor implements Cursor {
+        final FlightBlock block = new FlightBlock();
+        int index = -1;
+
+        @Override
+        public void read(long index, TelemetrySample into) {
+            seek(index);
+            block.get((int) (index - blockFirstRecord[this.index]), into, startNanos);
+        }
+
+        @Override
+        public long getTimeNanos(long index) {
+            seek(index);
+            return block.getTimeNanos((int) (index - blockFirstRecord[this.index]));
+        }
+
+        private void seek(long index) {
+            if (index < 0 || index >= getRecordCount()) {
+                throw new IndexOutOfBoundsException("Record " + index + " of " + getRecordCount());
+            }
+            int b = this.index;
+            if (b < 0 || index < blockFirstRecord[b] || index >= blockFirstRecord[b + 1]) {
+                b = Arrays.binarySearch(blockFirstRecord, 0, blockCount, index);
+                if (b < 0) b = -b - 2;
+                decode(b);
+            }
+        }
+
+        void decode(int b) {
+            index = -1;
+            readBlock(b, block);
+            index = b;
+        }
+    }
+
+    private CompressedFlightReader(Path directory, List<MappedByteBuffer> windows, List<Long> windowStart,
+                                   int blockCount, long[] blockPosition, int[] blockWindow,
+                                   long[] blockFirstRecord, long[] blockFirstTime, long[] blockLastTime,
+                                   double[] blockMin, double[] blockMax) {
+        MappedByteBuffer file = windows.get(0);
+        this.directory = directory;
+        this.windows = windows.toArray(new MappedByteBuffer[0]);
+        this.windowStart = new long[this.windows.length];
+        for (int i = 0; i < this.windows.length; i++) this.windowStart[i] = windowStart.get(i);
+        this.blockCount = blockCount;
+        this.blockPosition = blockPosition;
+        this.blockWindow = blockWindow;
+        this.blockFirstRecord = blockFirstRecord;
+        this.blockFirstTime = blockFirstTime;
+        this.blockLastTime = blockLastTime;
+        this.blockMin = blockMin;
+        this.blockMax = blockMax;
+        this.startEpochMillis = file.getLong(CompressedFlightFormat.HEADER_START_EPOCH_MILLIS);
+        this.startNanos = file.getLong(CompressedFlightFormat.HEADER_START_NANOS);
+        this.cleanlyClosed = (file.getShort(CompressedFlightFormat.HEADER_FLAGS) & CompressedFlightFormat.FLAG_CLOSED) != 0;
+    }
+
+    public static CompressedFlightReader open(Path directory) throws IOException {
+        return open(directory, WINDOW_BYTES);
+    }
+
+    /**
+     * @param windowBytes largest single mapping; blocks must fit one
+     */
+    static CompressedFlightReader open(Path directory, int windowBytes) throws IOException {
+        if (windowBytes < CompressedFlightFormat.HEADER_SIZE) {
+            throw new IllegalArgumentException("Window too small: " + windowBytes);
+        }
+        Path path = directory.resolve(CompressedFlightFormat.FILE_NAME);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CompressedFlightFormat.HEADER_SIZE) {
+                throw new IOException("Not a readable compressed flight: " + path);
+            }
+            List<MappedByteBuffer> windows = new ArrayList<>();
+            List<Long> windowStarts = new ArrayList<>();
+            MappedByteBuffer file = map(channel, 0, windowBytes, windows, windowStarts);
+            if (file.getLong(CompressedFlightFormat.HEADER_MAGIC) != CompressedFlightFormat.MAGIC
+                    || file.getShort(CompressedFlightFormat.HEADER_VERSION) != CompressedFlightFormat.VERSION) {
+                throw new IOException("Not a compressed flight: " + path);
+            }
+
+            int channels = FlightChannel.values().length;
+            int capacity = 64;
+            long[] positions = new long[capacity];
+            int[] blockWindows = new int[capacity];
+            long[] firstRecord = new long[capacity + 1];
+            long[] firstTime = new long[capacity];
+            long[] lastTime = new long[capacity];
+            double[] min = new double[capacity * channels];
+            double[] max = new double[capacity * channels];
+
+            MappedByteBuffer window = file;
+            long start = 0;
+            ByteBuffer view = window.duplicate();
+            CRC32C crc = new CRC32C();
+            long position = file.getShort(CompressedFlightFormat.HEADER_HEADER_SIZE);
+            int count = 0;
+            long records = 0;
+            while (position + CompressedFlightFormat.BLOCK_HEADER_SIZE <= size) {
+                // A block that runs past the current window starts the next one
+                if (position + CompressedFlightFormat.BLOCK_HEADER_SIZE > start + window.capacity()) {
+                    window = map(channel, position, windowBytes, windows, windowStarts);
+                    start = position;
+                    view = window.duplicate();
+                }
+                int offset = (int) (position - start);
+                int payload = window.getInt(offset + CompressedFlightFormat.BLOCK_LENGTH);
+                if (payload < CompressedFlightFormat.COLUMN_COUNT * 4 + CompressedFlightFormat.FOOTER_SIZE
+                        || payload > size - position - CompressedFlightFormat.BLOCK_HEADER_SIZE) {
+                    break; // End of the flight, or a block torn by a crash
+                }
+                if (offset + CompressedFlightFormat.BLOCK_HEADER_SIZE + payload > window.capacity()) {
+                    if (offset == 0) break; // Larger than a window: not written by CompressedFlightWriter
+                    window = map(channel, position, windowBytes, windows, windowStarts);
+                    start = position;
+                    view = window.duplicate();
+                    offset = 0;
+                    if (CompressedFlightFormat.BLOCK_HEADER_SIZE + payload > window.capacity()) break;
+                }
+                if (window.getInt(offset + CompressedFlightFormat.BLOCK_CRC)
+                        != CompressedFlightFormat.blockCrc(crc, view, offset, payload)) {
+                    break;
+                }
+
+                if (count == capacity) {
+                    capacity *= 2;
+                    positions = Arrays.copyOf(positions, capacity);
+                    blockWindows = Arrays.copyOf(blockWindows, capacity);
+                    firstRecord = Arrays.copyOf(firstRecord, capacity + 1);
+                    firstTime = Arrays.copyOf(firstTime, capacity);
+                    lastTime = Arrays.copyOf(lastTime, capacity);
+                    min = Arrays.copyOf(min, capacity * channels);
+                    max = Arrays.copyOf(max, capacity * channels);
+                }
+                positions[count] = position;
+                blockWindows[count] = windows.size() - 1;
+                firstRecord[count] = records;
+                firstTime[count] = window.getLong(offset + CompressedFlightFormat.BLOCK_FIRST_TIME);
+                lastTime[count] = window.getLong(offset + CompressedFlightFormat.BLOCK_LAST_TIME);
+                int footer = offset + CompressedFlightFormat.BLOCK_HEADER_SIZE + payload - CompressedFlightFormat.FOOTER_SIZE + 4;
+                for (int c = 0; c < channels; c++) {
+                    min[count * channels + c] = window.getDouble(footer + c * 16);
+                    max[count * channels + c] = window.getDouble(footer + c * 16 + 8);
+                }
+
+                records += window.getInt(offset + CompressedFlightFormat.BLOCK_COUNT);
+                position += CompressedFlightFormat.BLOCK_HEADER_SIZE + payload;
+                count++;
+            }
+            firstRecord[count] = records;
+
+            CompressedFlightReader reader = new CompressedFlightReader(directory, windows, windowStarts, count,
+                    positions, blockWindows, firstRecord, firstTime, lastTime, min, max);
+            if (!reader.cleanlyClosed) {
+                System.out.println("Flight " + directory + " was not closed cleanly; read "
+                        + records + " records in " + count + " whole blocks");
+            }
+            return reader;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, int windowBytes,
+                                        List<MappedByteBuffer> windows, List<Long> windowStarts) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(channel.size() - position, windowBytes));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windows.add(window);
+        windowStarts.add(position);
+        return window;
+    }
+
+    @Override
+    public Cursor newCursor() { return new BlockCursor(); }
+
+    @Override
+    public void read(long index, TelemetrySample into) { cursor.read(index, into); }
+
+    @Override
+    public long getTimeNanos(long index) { return cursor.getTimeNanos(index); }
+
+    /**
+     * Block time ranges narrow the search to one block, which is then decoded
+     */
+    @Override
+    public long findIndex(long timeNanos) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockLastTime[mid] < timeNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == blockCount) return getRecordCount();
+
+        FlightBlock block = decodedBlock(low);
+        int first = 0;
+        int last = block.size();
+        while (first < last) {
+            int mid = (first + last) >>> 1;
+            if (block.getTimeNanos(mid) < timeNanos) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        return blockFirstRecord[low] + first;
+    }
+
+    @Override
+    public long getDurationNanos() {
+        return blockCount > 0 ? blockLastTime[blockCount - 1] : 0;
+    }
+
+    /**
+     * Decoded block b (the reader's own cached block, valid until its next read)
+     */
+    public FlightBlock decodedBlock(int b) {
+        if (cursor.index != b) cursor.decode(b);
+        return cursor.block;
+    }
+
+    /**
+     * Decode block b into a caller-owned block
+     */
+    public void readBlock(int b, FlightBlock into) {
+        int w = blockWindow[b];
+        into.decode(windows[w], (int) (blockPosition[b] - windowStart[w]));
+    }
+
+    public int getBlockCount() { return blockCount; }
+
+    int getWindowCount() { return windows.length; }
+
+    public long getBlockFirstRecord(int b) { return blockFirstRecord[b]; }
+
+    public int getBlockSize(int b) { return (int) (blockFirstRecord[b + 1] - blockFirstRecord[b]); }
+
+    public long getBlockFirstTime(int b) { return blockFirstTime[b]; }
+
+    public long getBlockLastTime(int b) { return blockLastTime[b]; }
+
+    /**
+     * Footer minimum of a channel over block b, without decoding it
+     */
+    public double getBlockMin(int b, FlightChannel channel) {
+        return blockMin[b * FlightChannel.values().length + channel.ordinal()];
+    }
+
+    public double getBlockMax(int b, FlightChannel channel) {
+        return blockMax[b * FlightChannel.values().length + channel.ordinal()];
+    }
+
+    @Override
+    public Path getDirectory() { return directory; }
+
+    @Override
+    public long getRecordCount() { return blockFirstRecord[blockCount]; }
+
+    @Override
+    public long getStartEpochMillis() { return startEpochMillis; }
+
+    @Override
+    public long getStartNanos() { return startNanos; }
+
+    public boolean isCleanlyClosed() { return cleanlyClosed; }
+
+    @Override
+    public void close() {
+        // The mapping is released once collected
+    }
+}
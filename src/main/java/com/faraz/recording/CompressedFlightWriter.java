@@ -0,0 +1,184 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends samples to a new compressed flight
+ *
+ * Samples are coded as they arrive and a block is written whenever it fills up or
+ * force() is called, so a crash loses at most the samples since the last force (the
+ * raw FlightWriter can also recover unforced records; this trades that for size).
+ * Every block costs about 200 bytes of header and footer, so force() only cuts a block
+ * short once it holds MIN_FORCED_BLOCK_SAMPLES; a slow link may lose up to that many
+ * more. close() writes whatever is left. Single-threaded; FlightRecorder runs one on
+ * its own thread.
+ */
+public class CompressedFlightWriter implements FlightSink {
+    // Smallest block force() writes early; keeps block overhead under a byte per sample
+    public static final int MIN_FORCED_BLOCK_SAMPLES = 256;
+
+    private final Path directory;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final FileChannel channel;
+    private final FlightBlockEncoder encoder;
+    private final int minForcedSamples;
+    private ByteBuffer blockBuffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long position;
+    private long recordCount = 0;
+    private long blockCount = 0;
+    private boolean closed = false;
+
+    public CompressedFlightWriter(Path directory, int blockSamples, long startEpochMillis, long startNanos) throws IOException {
+        this.directory = directory;
+        this.startEpochMillis = startEpochMillis;
+        this.startNanos = startNanos;
+        this.encoder = new FlightBlockEncoder(blockSamples);
+        this.minForcedSamples = Math.min(MIN_FORCED_BLOCK_SAMPLES, blockSamples);
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(CompressedFlightFormat.FILE_NAME);
+        if (Files.exists(file) || Files.exists(FlightFormat.segmentPath(directory, 0))) {
+            throw new IOException("Flight already exists: " + directory);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(CompressedFlightFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(CompressedFlightFormat.HEADER_MAGIC, CompressedFlightFormat.MAGIC);
+        header.putShort(CompressedFlightFormat.HEADER_VERSION, (short) CompressedFlightFormat.VERSION);
+        header.putShort(CompressedFlightFormat.HEADER_HEADER_SIZE, (short) CompressedFlightFormat.HEADER_SIZE);
+        header.putShort(CompressedFlightFormat.HEADER_FLAGS, (short) 0);
+        header.putInt(CompressedFlightFormat.HEADER_BLOCK_SAMPLES, blockSamples);
+        header.putLong(CompressedFlightFormat.HEADER_START_EPOCH_MILLIS, startEpochMillis);
+        header.putLong(CompressedFlightFormat.HEADER_START_NANOS, startNanos);
+        writeFully(header, 0);
+        position = CompressedFlightFormat.HEADER_SIZE;
+    }
+
+    /**
+     * New compressed flight starting now, default block size
+     */
+    public static CompressedFlightWriter create(Path directory) throws IOException {
+        return new CompressedFlightWriter(directory, CompressedFlightFormat.DEFAULT_BLOCK_SAMPLES,
+                System.currentTimeMillis(), System.nanoTime());
+    }
+
+    @Override
+    public void append(long timeNanos, long sequence, double pitch, double roll, double pidPitch, double pidRoll,
+                       int servoX, int servoY, int bufferCount, double altitude) throws IOException {
+        if (closed) throw new IOException("Flight writer is closed");
+        encoder.append(timeNanos, sequence, pitch, roll, pidPitch, pidRoll, servoX, servoY, bufferCount, altitude);
+        recordCount++;
+        if (encoder.isFull()) writeBlock();
+    }
+
+    private void writeBlock() throws IOException {
+        int length = encoder.encodedLength();
+        if (blockBuffer.capacity() < length) {
+            blockBuffer = ByteBuffer.allocate(Math.max(length, blockBuffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        blockBuffer.clear();
+        encoder.finish(blockBuffer);
+        blockBuffer.flip();
+        writeFully(blockBuffer, position);
+        position += length;
+        blockCount++;
+    }
+
+    private void writeFully(ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+
+    /**
+     * Write the open block if it holds at least MIN_FORCED_BLOCK_SAMPLES, and sync the file
+     */
+    @Override
+    public void force() throws IOException {
+        if (closed) return;
+        if (encoder.size() >= minForcedSamples) writeBlock();
+        channel.force(false);
+    }
+
+    /**
+     * Force the tail and mark the flight as cleanly closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            if (!encoder.isEmpty()) writeBlock();
+            channel.force(false);
+            ByteBuffer flags = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN);
+            flags.putShort(0, (short) CompressedFlightFormat.FLAG_CLOSED);
+            writeFully(flags, CompressedFlightFormat.HEADER_FLAGS);
+            channel.force(false);
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    @Override
+    public Path getDirectory() { return directory; }
+
+    @Override
+    public long getRecordCount() { return recordCount; }
+
+    public long getBlockCount() { return blockCount; }
+
+    /**
+     * Bytes written to disk so far
+     */
+    public long getByteCount() { return position; }
+
+    @Override
+    public long getStartEpochMillis() { return startEpochMillis; }
+
+    @Override
+    public long getStartNanos() { return startNanos; }
+
+    /**
+     * Copy any recorded flight into a new compressed flight
+     */
+    public static CompressedFlightWriter compress(RecordedFlight from, Path to) throws IOException {
+        TelemetrySample sample = new TelemetrySample();
+        CompressedFlightWriter writer = new CompressedFlightWriter(to, CompressedFlightFormat.DEFAULT_BLOCK_SAMPLES,
+                from.getStartEpochMillis(), from.getStartNanos());
+        try {
+            for (long i = 0; i < from.getRecordCount(); i++) {
+                from.read(i, sample);
+                writer.append(sample);
+            }
+        } finally {
+            writer.close();
+        }
+        return writer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompressedFlightWriter <flight-directory> <compressed-flight-directory>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        try (RecordedFlight from = RecordedFlight.open(Paths.get(args[0]))) {
+            CompressedFlightWriter writer = compress(from, Paths.get(args[1]));
+            long raw = from.getRecordCount() * FlightFormat.RECORD_SIZE;
+            System.out.printf("%d samples in %d blocks: %d bytes (%.2f bytes/sample, %.1fx smaller than raw) in %.2f s%n",
+                    writer.getRecordCount(), writer.getBlockCount(), writer.getByteCount(),
+                    writer.getByteCount() / (double) Math.max(1, writer.getRecordCount()),
+                    raw / (double) writer.getByteCount(), (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
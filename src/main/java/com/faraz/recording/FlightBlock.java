@@ -0,0 +1,194 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One decoded compressed flight block, column-wise
+ * Reusable: decode() overwrites the previous block without allocating once warmed up
+ */
+public class FlightBlock {
+    private long[] time = new long[0];
+    private long[] sequence = new long[0];
+    private double[] pitch = new double[0];
+    private double[] roll = new double[0];
+    private double[] pidPitch = new double[0];
+    private double[] pidRoll = new double[0];
+    private double[] altitude = new double[0];
+    private int[] servoX = new int[0];
+    private int[] servoY = new int[0];
+    private int[] bufferCount = new int[0];
+
+    private byte[] payload = new byte[0];
+    private final int[] columnStarts = new int[CompressedFlightFormat.COLUMN_COUNT];
+    private int size = 0;
+
+    // Decoder position in payload
+    private int position;
+    private long bitBuffer;
+    private int bitCount;
+
+    /**
+     * Decode the block at blockOffset of a little-endian flight file buffer
+     */
+    public void decode(ByteBuffer file, int blockOffset) {
+        int payloadLength = file.getInt(blockOffset + CompressedFlightFormat.BLOCK_LENGTH);
+        int count = file.getInt(blockOffset + CompressedFlightFormat.BLOCK_COUNT);
+        ensureCapacity(count);
+        if (payload.length < payloadLength) payload = new byte[payloadLength];
+        file.get(blockOffset + CompressedFlightFormat.BLOCK_HEADER_SIZE, payload, 0, payloadLength);
+
+        int columnStart = CompressedFlightFormat.COLUMN_COUNT * 4;
+        int[] starts = columnStarts;
+        for (int c = 0; c < starts.length; c++) {
+            starts[c] = columnStart;
+            columnStart += file.getInt(blockOffset + CompressedFlightFormat.BLOCK_HEADER_SIZE + c * 4);
+        }
+
+        decodeDelta(starts[CompressedFlightFormat.COLUMN_TIME], time, count);
+        decodeDelta(starts[CompressedFlightFormat.COLUMN_SEQUENCE], sequence, count);
+        decodeXor(starts[CompressedFlightFormat.COLUMN_PITCH], pitch, count);
+        decodeXor(starts[CompressedFlightFormat.COLUMN_ROLL], roll, count);
+        decodeXor(starts[CompressedFlightFormat.COLUMN_PID_PITCH], pidPitch, count);
+        decodeXor(starts[CompressedFlightFormat.COLUMN_PID_ROLL], pidRoll, count);
+        decodeXor(starts[CompressedFlightFormat.COLUMN_ALTITUDE], altitude, count);
+        decodeDelta(starts[CompressedFlightFormat.COLUMN_SERVO_X], servoX, count);
+        decodeDelta(starts[CompressedFlightFormat.COLUMN_SERVO_Y], servoY, count);
+        decodeDelta(starts[CompressedFlightFormat.COLUMN_BUFFER], bufferCount, count);
+        size = count;
+    }
+
+    private void ensureCapacity(int count) {
+        if (time.length >= count) return;
+        time = Arrays.copyOf(time, count);
+        sequence = Arrays.copyOf(sequence, count);
+        pitch = Arrays.copyOf(pitch, count);
+        roll = Arrays.copyOf(roll, count);
+        pidPitch = Arrays.copyOf(pidPitch, count);
+        pidRoll = Arrays.copyOf(pidRoll, count);
+        altitude = Arrays.copyOf(altitude, count);
+        servoX = Arrays.copyOf(servoX, count);
+        servoY = Arrays.copyOf(servoY, count);
+        bufferCount = Arrays.copyOf(bufferCount, count);
+    }
+
+    private void decodeDelta(int start, long[] into, int count) {
+        position = start;
+        long value = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) {
+            long coded = unzigzag(readVarLong());
+            if (i == 0) {
+                value = coded;
+            } else {
+                delta = i == 1 ? coded : delta + coded;
+                value += delta;
+            }
+            into[i] = value;
+        }
+    }
+
+    private void decodeDelta(int start, int[] into, int count) {
+        position = start;
+        long value = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) {
+            long coded = unzigzag(readVarLong());
+            if (i == 0) {
+                value = coded;
+            } else {
+                delta = i == 1 ? coded : delta + coded;
+                value += delta;
+            }
+            into[i] = (int) value;
+        }
+    }
+
+    private long readVarLong() {
+        byte[] bytes = payload;
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            shift += 7;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void decodeXor(int start, double[] into, int count) {
+        position = start;
+        bitBuffer = 0;
+        bitCount = 0;
+        if (count == 0) return;
+
+        long bits = readBits(64);
+        into[0] = Double.longBitsToDouble(bits);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (readBits(1) != 0) {
+                if (readBits(1) != 0) {
+                    leading = (int) readBits(5);
+                    trailing = 64 - leading - ((int) readBits(6) + 1);
+                }
+                bits ^= readBits(64 - leading - trailing) << trailing;
+            }
+            into[i] = Double.longBitsToDouble(bits);
+        }
+    }
+
+    private long readBits(int bits) {
+        if (bits > 32) {
+            long high = readBits(bits - 32);
+            return (high << 32) | readBits(32);
+        }
+        while (bitCount < bits) {
+            bitBuffer = (bitBuffer << 8) | (payload[position++] & 0xFF);
+            bitCount += 8;
+        }
+        bitCount -= bits;
+        return (bitBuffer >>> bitCount) & ((1L << bits) - 1);
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Copy sample i into a sample (receive stamp rebuilt from the recording start)
+     */
+    public void get(int i, TelemetrySample into, long startNanos) {
+        into.set(pitch[i], roll[i], pidPitch[i], pidRoll[i], servoX[i], servoY[i], bufferCount[i], altitude[i]);
+        into.setSequence(sequence[i]);
+        into.setReceiveNanos(startNanos + time[i]);
+    }
+
+    public double get(int i, FlightChannel channel) {
+        switch (channel) {
+            case PITCH: return pitch[i];
+            case ROLL: return roll[i];
+            case PID_PITCH: return pidPitch[i];
+            case PID_ROLL: return pidRoll[i];
+            case ALTITUDE: return altitude[i];
+            case SERVO_X: return servoX[i];
+            case SERVO_Y: return servoY[i];
+            case BUFFER: return bufferCount[i];
+            default: throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+    }
+
+    public long getTimeNanos(int i) { return time[i]; }
+    public long getSequence(int i) { return sequence[i]; }
+    public double getPitch(int i) { return pitch[i]; }
+    public double getRoll(int i) { return roll[i]; }
+    public double getPidPitch(int i) { return pidPitch[i]; }
+    public double getPidRoll(int i) { return pidRoll[i]; }
+    public double getAltitude(int i) { return altitude[i]; }
+    public int getServoX(int i) { return servoX[i]; }
+    public int getServoY(int i) { return servoY[i]; }
+    public int getBufferCount(int i) { return bufferCount[i]; }
+}
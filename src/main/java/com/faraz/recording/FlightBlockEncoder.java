@@ -0,0 +1,269 @@
+package com.faraz.recording;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Streaming encoder for one compressed flight block
+ *
+ * Every append() codes the sample into the column streams straight away, so finishing a
+ * block is a copy of the finished columns and the per-sample cost stays flat. Channels
+ * that hold still cost about a bit (doubles) or a byte (ints) per sample.
+ * Single-threaded; reusable after finish().
+ */
+public class FlightBlockEncoder {
+    private final int blockSamples;
+    private final CRC32C crc = new CRC32C();
+
+    private final DeltaColumn time = new DeltaColumn();
+    private final DeltaColumn sequence = new DeltaColumn();
+    private final XorColumn pitch = new XorColumn();
+    private final XorColumn roll = new XorColumn();
+    private final XorColumn pidPitch = new XorColumn();
+    private final XorColumn pidRoll = new XorColumn();
+    private final XorColumn altitude = new XorColumn();
+    private final DeltaColumn servoX = new DeltaColumn();
+    private final DeltaColumn servoY = new DeltaColumn();
+    private final DeltaColumn bufferCount = new DeltaColumn();
+
+    private final double[] min = new double[FlightChannel.values().length];
+    private final double[] max = new double[FlightChannel.values().length];
+
+    private int count = 0;
+    private long firstTime;
+    private long lastTime;
+
+    public FlightBlockEncoder(int blockSamples) {
+        if (blockSamples < 1) throw new IllegalArgumentException("Block must hold at least one sample");
+        this.blockSamples = blockSamples;
+        reset();
+    }
+
+    public void append(long timeNanos, long seq, double pitch, double roll, double pidPitch, double pidRoll,
+                       int servoX, int servoY, int bufferCount, double altitude) {
+        if (count == blockSamples) throw new IllegalStateException("Block is full");
+        if (count == 0) firstTime = timeNanos;
+        lastTime = timeNanos;
+
+        time.append(timeNanos);
+        sequence.append(seq);
+        this.pitch.append(pitch);
+        this.roll.append(roll);
+        this.pidPitch.append(pidPitch);
+        this.pidRoll.append(pidRoll);
+        this.altitude.append(altitude);
+        this.servoX.append(servoX);
+        this.servoY.append(servoY);
+        this.bufferCount.append(bufferCount);
+
+        track(FlightChannel.PITCH, pitch);
+        track(FlightChannel.ROLL, roll);
+        track(FlightChannel.PID_PITCH, pidPitch);
+        track(FlightChannel.PID_ROLL, pidRoll);
+        track(FlightChannel.ALTITUDE, altitude);
+        track(FlightChannel.SERVO_X, servoX);
+        track(FlightChannel.SERVO_Y, servoY);
+        track(FlightChannel.BUFFER, bufferCount);
+        count++;
+    }
+
+    private void track(FlightChannel channel, double value) {
+        int c = channel.ordinal();
+        if (value < min[c]) min[c] = value;
+        if (value > max[c]) max[c] = value;
+    }
+
+    public int size() { return count; }
+    public boolean isEmpty() { return count == 0; }
+    public boolean isFull() { return count == blockSamples; }
+
+    /**
+     * Bytes finish() will write for the samples so far
+     */
+    public int encodedLength() {
+        int length = CompressedFlightFormat.BLOCK_HEADER_SIZE + CompressedFlightFormat.COLUMN_COUNT * 4
+                + CompressedFlightFormat.FOOTER_SIZE;
+        for (Column column : columns()) length += column.length();
+        return length;
+    }
+
+    /**
+     * Write the block (little-endian buffer, encodedLength() bytes free) and start a new one
+     */
+    public int finish(ByteBuffer out) {
+        int start = out.position();
+        Column[] columns = columns();
+        int blockLength = encodedLength();
+
+        out.putInt(blockLength - CompressedFlightFormat.BLOCK_HEADER_SIZE);
+        out.putInt(0); // CRC, filled in below
+        out.putInt(count);
+        out.putInt(0);
+        out.putLong(firstTime);
+        out.putLong(lastTime);
+
+        for (Column column : columns) out.putInt(column.length());
+        for (Column column : columns) column.writeTo(out);
+
+        out.putInt(count);
+        for (int c = 0; c < min.length; c++) {
+            out.putDouble(min[c]);
+            out.putDouble(max[c]);
+        }
+
+        ByteBuffer view = out.duplicate();
+        out.putInt(start + CompressedFlightFormat.BLOCK_CRC, CompressedFlightFormat.blockCrc(crc, view, start,
+                blockLength - CompressedFlightFormat.BLOCK_HEADER_SIZE));
+        reset();
+        return blockLength;
+    }
+
+    private Column[] columns() {
+        return new Column[] { time, sequence, pitch, roll, pidPitch, pidRoll, altitude, servoX, servoY, bufferCount };
+    }
+
+    private void reset() {
+        for (Column column : columns()) column.reset();
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        count = 0;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Growable byte stream of one column
+     */
+    private abstract static class Column {
+        byte[] bytes = new byte[256];
+        int length = 0;
+
+        final void put(byte b) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = b;
+        }
+
+        int length() { return length; }
+
+        void writeTo(ByteBuffer out) { out.put(bytes, 0, length); }
+
+        void reset() { length = 0; }
+    }
+
+    /**
+     * Delta-of-delta, zigzag varint: a steady clock or a constant value is one byte per sample
+     */
+    private static final class DeltaColumn extends Column {
+        private long previous;
+        private long previousDelta;
+        private int count;
+
+        void append(long value) {
+            if (count == 0) {
+                putVarLong(zigzag(value));
+            } else {
+                long delta = value - previous;
+                putVarLong(zigzag(count == 1 ? delta : delta - previousDelta));
+                previousDelta = delta;
+            }
+            previous = value;
+            count++;
+        }
+
+        private void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            count = 0;
+        }
+    }
+
+    /**
+     * Gorilla XOR coding: '0' repeats the previous value, '10' reuses the previous window of
+     * meaningful bits, '11' + 5 bit leading zeros + 6 bit length opens a new window
+     */
+    private static final class XorColumn extends Column {
+        private long previous;
+        private int previousLeading;
+        private int previousTrailing;
+        private int count;
+
+        // Bits not yet flushed to the byte stream
+        private long pending;
+        private int pendingBits;
+
+        void append(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (count++ == 0) {
+                write(bits, 64);
+                previous = bits;
+                return;
+            }
+
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                write(0, 1);
+                return;
+            }
+
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                write(0b10, 2);
+                write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(meaningful - 1, 6);
+                write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        private void write(long value, int bits) {
+            if (bits > 32) {
+                write(value >>> 32, bits - 32);
+                write(value, 32);
+                return;
+            }
+            pending = (pending << bits) | (value & ((1L << bits) - 1));
+            pendingBits += bits;
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                put((byte) (pending >>> pendingBits));
+            }
+        }
+
+        @Override
+        int length() { return length + (pendingBits > 0 ? 1 : 0); }
+
+        @Override
+        void writeTo(ByteBuffer out) {
+            super.writeTo(out);
+            if (pendingBits > 0) out.put((byte) (pending << (8 - pendingBits)));
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            count = 0;
+            previousLeading = -1;
+            previousTrailing = 0;
+            pending = 0;
+            pendingBits = 0;
+        }
+    }
+}
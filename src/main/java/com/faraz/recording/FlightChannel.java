@@ -0,0 +1,63 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+
+/**
+ * Value channels of a recorded sample (time and sequence are not channels)
+ */
+public enum FlightChannel {
+    PITCH("pitch", "deg"),
+    ROLL("roll", "deg"),
+    PID_PITCH("pid_pitch", ""),
+    PID_ROLL("pid_roll", ""),
+    ALTITUDE("altitude", "m"),
+    SERVO_X("servo_x", "deg"),
+    SERVO_Y("servo_y", "deg"),
+    BUFFER("buffer", "");
+
+    private final String label;
+    private final String unit;
+
+    FlightChannel(String label, String unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+
+    /**
+     * Column name used in files and on the command line
+     */
+    public String getLabel() { return label; }
+
+    public String getUnit() { return unit; }
+
+    /**
+     * True for channels that only ever hold whole numbers (servo angles, buffer count)
+     */
+    public boolean isInteger() {
+        return this == SERVO_X || this == SERVO_Y || this == BUFFER;
+    }
+
+    public double get(TelemetrySample sample) {
+        switch (this) {
+            case PITCH: return sample.getPitch();
+            case ROLL: return sample.getRoll();
+            case PID_PITCH: return sample.getPidPitch();
+            case PID_ROLL: return sample.getPidRoll();
+            case ALTITUDE: return sample.getAltitude();
+            case SERVO_X: return sample.getServoX();
+            case SERVO_Y: return sample.getServoY();
+            case BUFFER: return sample.getBufferCount();
+            default: throw new IllegalStateException("Unknown channel " + this);
+        }
+    }
+
+    /**
+     * Channel by label or enum name, case-insensitive
+     */
+    public static FlightChannel parse(String name) {
+        for (FlightChannel channel : values()) {
+            if (channel.label.equalsIgnoreCase(name) || channel.name().equalsIgnoreCase(name)) return channel;
+        }
+        throw new IllegalArgumentException("Unknown channel: " + name);
+    }
+}
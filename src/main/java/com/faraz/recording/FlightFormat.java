@@ -0,0 +1,103 @@
+package com.faraz.recording;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of a recorded flight (all values little-endian)
+ *
+ * A flight is a directory of fixed-size segment files segment-000000.tvcf, -000001, ...
+ * Each segment is a 64 byte header followed by fixed-size records:
+ *
+ *   Header                              Record
+ *   0   magic "TVCFLGHT"                0   time (ns since recording start)
+ *   8   u16 version                     8   sequence
+ *   10  u16 header size                 16  f64 pitch
+ *   12  u16 record size                 24  f64 roll
+ *   14  u16 flags (CLOSED, SEALED)      32  f64 PID pitch
+ *   16  i32 segment index               40  f64 PID roll
+ *   20  i32 record capacity             48  f64 altitude
+ *   24  i64 first record number         56  i32 servo X
+ *   32  i64 committed record count      60  i32 servo Y
+ *   40  i64 start (epoch ms)            64  i32 buffer count
+ *   48  i64 start (host nanoTime)       68  u32 CRC-32C of bytes 0-67
+ *   56  reserved
+ *
+ * The committed count is only advanced after the records it covers were forced, so
+ * after a crash everything up to it is intact; records past it are accepted while
+ * their CRC matches, which recovers a torn final segment up to the last whole record.
+ */
+public final class FlightFormat {
+    public static final long MAGIC = 0x5448474C46435654L; // "TVCFLGHT" read little-endian
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 72;
+
+    // Header flags
+    public static final int FLAG_CLOSED = 1; // Recorder shut down cleanly
+    public static final int FLAG_SEALED = 2; // Segment full, a later segment follows
+
+    // Header offsets
+    public static final int HEADER_MAGIC = 0;
+    public static final int HEADER_VERSION = 8;
+    public static final int HEADER_HEADER_SIZE = 10;
+    public static final int HEADER_RECORD_SIZE = 12;
+    public static final int HEADER_FLAGS = 14;
+    public static final int HEADER_SEGMENT_INDEX = 16;
+    public static final int HEADER_CAPACITY = 20;
+    public static final int HEADER_FIRST_RECORD = 24;
+    public static final int HEADER_RECORD_COUNT = 32;
+    public static final int HEADER_START_EPOCH_MILLIS = 40;
+    public static final int HEADER_START_NANOS = 48;
+
+    // Record offsets
+    public static final int RECORD_TIME = 0;
+    public static final int RECORD_SEQUENCE = 8;
+    public static final int RECORD_PITCH = 16;
+    public static final int RECORD_ROLL = 24;
+    public static final int RECORD_PID_PITCH = 32;
+    public static final int RECORD_PID_ROLL = 40;
+    public static final int RECORD_ALTITUDE = 48;
+    public static final int RECORD_SERVO_X = 56;
+    public static final int RECORD_SERVO_Y = 60;
+    public static final int RECORD_BUFFER = 64;
+    public static final int RECORD_CRC = 68;
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024; // ~930k records
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    public static final String SEGMENT_SUFFIX = ".tvcf";
+
+    private FlightFormat() {}
+
+    public static Path segmentPath(Path flightDirectory, int index) {
+        return flightDirectory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    public static boolean isSegmentName(String name) {
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Records that fit a segment of the given size
+     */
+    public static int recordCapacity(long segmentBytes) {
+        long capacity = (segmentBytes - HEADER_SIZE) / RECORD_SIZE;
+        if (capacity < 1 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("Unsupported segment size: " + segmentBytes);
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * CRC-32C of the record at offset (view is a scratch duplicate of the segment buffer)
+     */
+    static int recordCrc(CRC32C crc, ByteBuffer view, int offset) {
+        crc.reset();
+        view.limit(offset + RECORD_CRC).position(offset);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,176 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays a recorded flight back against the host clock
+ *
+ * One playback thread calls next() in a loop; the controls (speed, pause, step, seek)
+ * may be called from any thread and take effect on the next call. Playback is anchored
+ * to a (wall time, flight time) pair that is reset on every control change, so speed
+ * changes and seeks never make the clock jump.
+ */
+public class FlightPlayback {
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    public enum Status { SAMPLE, WAIT, END }
+
+    // How long to wait while paused or at the end before checking the controls again
+    private static final long IDLE_WAIT_NANOS = 50_000_000L;
+
+    private final RecordedFlight flight;
+
+    // Controls (any thread)
+    private volatile double speed;
+    private volatile boolean paused = false;
+    private final AtomicLong seekTarget = new AtomicLong(-1);
+    private final AtomicInteger pendingSteps = new AtomicInteger();
+    private final AtomicInteger controlVersion = new AtomicInteger();
+
+    // Playback thread
+    private int appliedVersion = -1;
+    private long nextIndex = 0;
+    private long anchorWallNanos;
+    private long anchorFlightNanos;
+    private long waitNanos;
+
+    // Published for the UI, so reading them never touches the flight
+    private volatile long position = 0;
+    private volatile long positionNanos = 0;
+
+    /**
+     * @param speed 1 for real time, N for N times faster, MAX_SPEED for no waiting
+     */
+    public FlightPlayback(RecordedFlight flight, double speed) {
+        this.flight = flight;
+        this.speed = checkSpeed(speed);
+    }
+
+    /**
+     * Next record to publish at nowNanos
+     * SAMPLE: into holds the record, stamped with the host time it was due (its recorded
+     * offset, scaled by the speed; nowNanos at max speed or when stepping);
+     * WAIT: call again after getWaitNanos(); END: no more records
+     */
+    public Status next(long nowNanos, TelemetrySample into) {
+        int version = controlVersion.get();
+        if (version != appliedVersion) {
+            applyControls(nowNanos);
+            appliedVersion = version;
+        }
+
+        long count = flight.getRecordCount();
+        if (nextIndex >= count) {
+            waitNanos = IDLE_WAIT_NANOS;
+            return Status.END;
+        }
+
+        if (paused) {
+            if (pendingSteps.get() > 0) {
+                pendingSteps.decrementAndGet();
+                return emit(into, nowNanos);
+            }
+            waitNanos = IDLE_WAIT_NANOS;
+            return Status.WAIT;
+        }
+
+        double currentSpeed = speed;
+        if (currentSpeed == MAX_SPEED) {
+            return emit(into, nowNanos);
+        }
+        long flightDelta = flight.getTimeNanos(nextIndex) - anchorFlightNanos;
+        long due = anchorWallNanos + (long) (flightDelta / currentSpeed);
+        if (due > nowNanos) {
+            waitNanos = due - nowNanos;
+            return Status.WAIT;
+        }
+        return emit(into, due);
+    }
+
+    private Status emit(TelemetrySample into, long receiveNanos) {
+        flight.read(nextIndex, into);
+        into.setReceiveNanos(receiveNanos); // Host clock, keeping the recorded spacing
+        positionNanos = flight.getTimeNanos(nextIndex);
+        position = ++nextIndex;
+        return Status.SAMPLE;
+    }
+
+    private void applyControls(long nowNanos) {
+        // Taken and cleared in one step, so a seek made meanwhile is applied next time
+        long target = seekTarget.getAndSet(-1);
+        if (target >= 0) {
+            nextIndex = flight.findIndex(target);
+            positionNanos = nextIndex > 0 ? flight.getTimeNanos(nextIndex - 1) : 0;
+            position = nextIndex;
+        }
+        // Restart the clock from the next record so nothing is skipped or bunched up
+        anchorWallNanos = nowNanos;
+        anchorFlightNanos = nextIndex < flight.getRecordCount() ? flight.getTimeNanos(nextIndex) : 0;
+    }
+
+    /**
+     * How long to wait after a WAIT or END
+     */
+    public long getWaitNanos() { return waitNanos; }
+
+    // Controls
+
+    public void setSpeed(double speed) {
+        this.speed = checkSpeed(speed);
+        controlVersion.incrementAndGet();
+    }
+
+    public double getSpeed() { return speed; }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        pendingSteps.set(0);
+        controlVersion.incrementAndGet();
+    }
+
+    public boolean isPaused() { return paused; }
+
+    /**
+     * Publish the next record while paused (pauses first if playing)
+     */
+    public void step() {
+        if (!paused) setPaused(true);
+        pendingSteps.incrementAndGet();
+    }
+
+    /**
+     * Jump to a flight time (ns since recording start); O(log n)
+     */
+    public void seek(long timeNanos) {
+        seekTarget.set(Math.max(0, Math.min(timeNanos, flight.getDurationNanos())));
+        controlVersion.incrementAndGet();
+    }
+
+    /**
+     * Jump relative to the current position
+     */
+    public void seekBy(long deltaNanos) {
+        seek(getPositionNanos() + deltaNanos);
+    }
+
+    /**
+     * Records played so far (index of the next record)
+     */
+    public long getPosition() { return position; }
+
+    /**
+     * Flight time of the last record played
+     */
+    public long getPositionNanos() { return positionNanos; }
+
+    public RecordedFlight getFlight() { return flight; }
+
+    private static double checkSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        return speed;
+    }
+}
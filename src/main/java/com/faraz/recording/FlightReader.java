@@ -0,0 +1,211 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Random access to a recorded flight
+ *
+ * Opening a flight that was not closed cleanly recovers it: the final segment is read
+ * up to the last record whose CRC matches, and anything after a missing or damaged
+ * segment is ignored. Reads never modify the files.
+ */
+public class FlightReader implements RecordedFlight {
+    private final Path directory;
+    private final MappedByteBuffer[] segments;
+    private final long[] firstRecord;
+    private final int[] segmentCounts;
+    private final long recordCount;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final boolean cleanlyClosed;
+    private final long recoveredCount;
+
+    private FlightReader(Path directory, List<MappedByteBuffer> segments, List<Integer> counts,
+                         long startEpochMillis, long startNanos, boolean cleanlyClosed, long recoveredCount) {
+        this.directory = directory;
+        this.segments = segments.toArray(new MappedByteBuffer[0]);
+        this.firstRecord = new long[this.segments.length];
+        this.segmentCounts = new int[this.segments.length];
+        long total = 0;
+        for (int i = 0; i < this.segments.length; i++) {
+            firstRecord[i] = total;
+            segmentCounts[i] = counts.get(i);
+            total += segmentCounts[i];
+        }
+        this.recordCount = total;
+        this.startEpochMillis = startEpochMillis;
+        this.startNanos = startNanos;
+        this.cleanlyClosed = cleanlyClosed;
+        this.recoveredCount = recoveredCount;
+    }
+
+    public static FlightReader open(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> FlightFormat.isSegmentName(p.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            throw new IOException("No flight segments in " + directory);
+        }
+
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        long startEpochMillis = 0;
+        long startNanos = 0;
+        long total = 0;
+        long recovered = 0;
+        boolean closed = false;
+
+        for (int i = 0; i < files.size(); i++) {
+            MappedByteBuffer segment = map(files.get(i));
+            if (segment == null || !isValidHeader(segment, i, total)) {
+                System.err.println("Flight " + directory + ": ignoring " + files.get(i).getFileName() + " and later segments");
+                break;
+            }
+            if (i == 0) {
+                startEpochMillis = segment.getLong(FlightFormat.HEADER_START_EPOCH_MILLIS);
+                startNanos = segment.getLong(FlightFormat.HEADER_START_NANOS);
+            }
+
+            int flags = segment.getShort(FlightFormat.HEADER_FLAGS);
+            int capacity = segment.getInt(FlightFormat.HEADER_CAPACITY);
+            int committed = (int) Math.min(capacity, segment.getLong(FlightFormat.HEADER_RECORD_COUNT));
+            int count = committed;
+            if ((flags & (FlightFormat.FLAG_CLOSED | FlightFormat.FLAG_SEALED)) == 0) {
+                // Writer did not finish this segment - take every whole record after the committed count
+                count = scanValidRecords(segment, crc, committed, capacity);
+                recovered += count - committed;
+            }
+
+            segments.add(segment);
+            counts.add(count);
+            total += count;
+            closed = (flags & FlightFormat.FLAG_CLOSED) != 0;
+            if ((flags & FlightFormat.FLAG_SEALED) == 0) break; // Last segment written
+        }
+
+        if (segments.isEmpty()) {
+            throw new IOException("Not a readable flight: " + directory);
+        }
+        if (!closed) {
+            System.out.println("Flight " + directory + " was not closed cleanly; recovered "
+                    + recovered + " records past the last commit");
+        }
+        return new FlightReader(directory, segments, counts, startEpochMillis, startNanos, closed, recovered);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FlightFormat.HEADER_SIZE || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private static boolean isValidHeader(ByteBuffer segment, int index, long expectedFirst) {
+        if (segment.getLong(FlightFormat.HEADER_MAGIC) != FlightFormat.MAGIC) return false;
+        if (segment.getShort(FlightFormat.HEADER_VERSION) != FlightFormat.VERSION) return false;
+        if (segment.getShort(FlightFormat.HEADER_RECORD_SIZE) != FlightFormat.RECORD_SIZE) return false;
+        if (segment.getInt(FlightFormat.HEADER_SEGMENT_INDEX) != index) return false;
+        if (segment.getLong(FlightFormat.HEADER_FIRST_RECORD) != expectedFirst) return false;
+        long capacity = segment.getInt(FlightFormat.HEADER_CAPACITY);
+        return capacity > 0 && FlightFormat.HEADER_SIZE + capacity * FlightFormat.RECORD_SIZE <= segment.capacity();
+    }
+
+    private static int scanValidRecords(MappedByteBuffer segment, CRC32C crc, int from, int capacity) {
+        ByteBuffer view = segment.duplicate();
+        int count = from;
+        while (count < capacity) {
+            int offset = FlightFormat.HEADER_SIZE + count * FlightFormat.RECORD_SIZE;
+            if (segment.getInt(offset + FlightFormat.RECORD_CRC) != FlightFormat.recordCrc(crc, view, offset)) break;
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void read(long index, TelemetrySample into) {
+        int s = segmentOf(index);
+        ByteBuffer buf = segments[s];
+        int offset = recordOffset(index, s);
+        into.set(buf.getDouble(offset + FlightFormat.RECORD_PITCH),
+                buf.getDouble(offset + FlightFormat.RECORD_ROLL),
+                buf.getDouble(offset + FlightFormat.RECORD_PID_PITCH),
+                buf.getDouble(offset + FlightFormat.RECORD_PID_ROLL),
+                buf.getInt(offset + FlightFormat.RECORD_SERVO_X),
+                buf.getInt(offset + FlightFormat.RECORD_SERVO_Y),
+                buf.getInt(offset + FlightFormat.RECORD_BUFFER),
+                buf.getDouble(offset + FlightFormat.RECORD_ALTITUDE));
+        into.setSequence(buf.getLong(offset + FlightFormat.RECORD_SEQUENCE));
+        into.setReceiveNanos(startNanos + buf.getLong(offset + FlightFormat.RECORD_TIME));
+    }
+
+    @Override
+    public long getTimeNanos(long index) {
+        int s = segmentOf(index);
+        return segments[s].getLong(recordOffset(index, s) + FlightFormat.RECORD_TIME);
+    }
+
+    private int segmentOf(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        int s = Arrays.binarySearch(firstRecord, index);
+        if (s < 0) s = -s - 2;
+        // Skip empty segments that share a first record number
+        while (index - firstRecord[s] >= segmentCounts[s]) s++;
+        return s;
+    }
+
+    private int recordOffset(long index, int segment) {
+        return FlightFormat.HEADER_SIZE + (int) (index - firstRecord[segment]) * FlightFormat.RECORD_SIZE;
+    }
+
+    @Override
+    public Path getDirectory() { return directory; }
+
+    @Override
+    public long getRecordCount() { return recordCount; }
+
+    public int getSegmentCount() { return segments.length; }
+
+    @Override
+    public long getStartEpochMillis() { return startEpochMillis; }
+
+    @Override
+    public long getStartNanos() { return startNanos; }
+
+    /**
+     * False if the recorder crashed or is still writing
+     */
+    public boolean isCleanlyClosed() { return cleanlyClosed; }
+
+    /**
+     * Records recovered past the last committed count (0 for a clean flight)
+     */
+    public long getRecoveredCount() { return recoveredCount; }
+
+    @Override
+    public void close() {
+        Arrays.fill(segments, null); // Unmapped once collected
+    }
+}
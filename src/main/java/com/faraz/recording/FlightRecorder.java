@@ -0,0 +1,182 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetryHistory;
+import com.faraz.model.TelemetrySample;
+import com.faraz.model.TelemetrySampleBatch;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every published sample to a flight on a dedicated writer thread
+ *
+ * The recorder follows TelemetryHistory with its own reader, so the ingest thread does
+ * no extra work at all: it appends to the history as before and the writer copies
+ * batches out behind it. The history holds about a minute at 2 kHz, which is how far
+ * the writer may fall behind (e.g. on a slow disk) before samples are dropped.
+ * Durability is batched: the mapped segment is forced at most once per interval.
+ * The flight's summary pyramid is built alongside, so it is ready for queries as soon
+ * as the recording stops.
+ */
+public class FlightRecorder {
+    public static final long DEFAULT_FORCE_INTERVAL_MILLIS = 1000;
+
+    private static final int BATCH_SIZE = 4096;
+    // Writer back-off while no samples arrive
+    private static final long MIN_IDLE_PARK_NANOS = 1_000_000L;
+    private static final long MAX_IDLE_PARK_NANOS = 50_000_000L;
+
+    private final TelemetryHistory history;
+    private final Path directory;
+    private final boolean compressed;
+    private final long segmentBytes;
+    private final long forceIntervalNanos;
+
+    private volatile boolean isRunning = false;
+    private Thread writerThread;
+    private FlightSink writer;
+    private FlightSummaryWriter summary;
+    private TelemetryHistory.Reader reader;
+
+    // Written by the writer thread, read by the UI
+    private volatile long recordedCount = 0;
+    private volatile long droppedCount = 0;
+    private volatile IOException failure;
+
+    public FlightRecorder(TelemetryHistory history, Path directory) {
+        this(history, directory, Boolean.getBoolean("tvc.record.compress"), FlightFormat.DEFAULT_SEGMENT_BYTES,
+                Long.getLong("tvc.record.forceMillis", DEFAULT_FORCE_INTERVAL_MILLIS));
+    }
+
+    /**
+     * @param compressed write a compressed flight instead of raw segments (segmentBytes is then unused)
+     * @param forceIntervalMillis how much data a crash may lose at most (0 forces every batch)
+     */
+    public FlightRecorder(TelemetryHistory history, Path directory, boolean compressed, long segmentBytes,
+                          long forceIntervalMillis) {
+        this.history = history;
+        this.directory = directory;
+        this.compressed = compressed;
+        this.segmentBytes = segmentBytes;
+        this.forceIntervalNanos = forceIntervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Create the flight and start recording samples published from now on
+     */
+    public synchronized void start() throws IOException {
+        if (isRunning) return;
+
+        if (compressed) {
+            writer = new CompressedFlightWriter(directory, CompressedFlightFormat.DEFAULT_BLOCK_SAMPLES,
+                    System.currentTimeMillis(), System.nanoTime());
+        } else {
+            writer = new FlightWriter(directory, segmentBytes, System.currentTimeMillis(), System.nanoTime());
+        }
+        try {
+            summary = new FlightSummaryWriter(directory);
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        reader = history.newReader();
+        isRunning = true;
+
+        writerThread = new Thread(this::writerLoop, "FlightRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        System.out.println("Recording " + (compressed ? "compressed " : "") + "flight to " + directory);
+    }
+
+    /**
+     * Write what is still queued, close the flight and stop the writer thread
+     */
+    public synchronized void stop() {
+        if (!isRunning) return;
+        isRunning = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Flight recording stopped: " + recordedCount + " samples in " + directory);
+    }
+
+    private void writerLoop() {
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(BATCH_SIZE);
+        TelemetrySample sample = new TelemetrySample();
+        long lastForce = System.nanoTime();
+        long idlePark = MIN_IDLE_PARK_NANOS;
+
+        try {
+            while (true) {
+                boolean running = isRunning; // Read before polling so the final drain sees everything
+                int count = reader.poll(batch);
+                for (int i = 0; i < count; i++) {
+                    batch.getRaw(i, sample);
+                    writer.append(sample);
+                    summary.append(sample.getReceiveNanos() - writer.getStartNanos(), sample);
+                }
+                if (count > 0) {
+                    recordedCount = writer.getRecordCount();
+                    droppedCount = reader.getLappedCount();
+                }
+
+                long now = System.nanoTime();
+                if (now - lastForce >= forceIntervalNanos) {
+                    writer.force();
+                    summary.flush();
+                    lastForce = now;
+                }
+
+                if (count == batch.capacity()) continue; // More queued
+                if (!running) break;
+                if (count > 0) {
+                    idlePark = MIN_IDLE_PARK_NANOS;
+                } else {
+                    idlePark = Math.min(MAX_IDLE_PARK_NANOS, idlePark * 2);
+                }
+                LockSupport.parkNanos(idlePark);
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Flight recording failed: " + e.getMessage());
+        } finally {
+            closeQuietly(writer);
+            closeQuietly(summary);
+            recordedCount = writer.getRecordCount();
+            droppedCount = reader.getLappedCount();
+            isRunning = false;
+        }
+    }
+
+    private void closeQuietly(Closeable file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+            System.err.println("Closing flight failed: " + e.getMessage());
+        }
+    }
+
+    public boolean isRecording() { return isRunning; }
+
+    public Path getDirectory() { return directory; }
+
+    /**
+     * Samples written so far
+     */
+    public long getRecordedCount() { return recordedCount; }
+
+    /**
+     * Samples lost because the writer fell a whole history behind
+     */
+    public long getDroppedCount() { return droppedCount; }
+
+    /**
+     * Write error that stopped the recording, or null
+     */
+    public IOException getFailure() { return failure; }
+}
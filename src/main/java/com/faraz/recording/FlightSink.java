@@ -0,0 +1,44 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Append side of a recorded flight, whatever its storage format
+ * Single-threaded
+ */
+public interface FlightSink extends Closeable {
+
+    /**
+     * Append one sample, timed by its receive stamp
+     */
+    default void append(TelemetrySample sample) throws IOException {
+        append(sample.getReceiveNanos() - getStartNanos(), sample.getSequence(),
+                sample.getPitch(), sample.getRoll(), sample.getPidPitch(), sample.getPidRoll(),
+                sample.getServoX(), sample.getServoY(), sample.getBufferCount(), sample.getAltitude());
+    }
+
+    /**
+     * Append one record with an explicit time (ns since the recording start)
+     */
+    void append(long timeNanos, long sequence, double pitch, double roll, double pidPitch, double pidRoll,
+                int servoX, int servoY, int bufferCount, double altitude) throws IOException;
+
+    /**
+     * Make what was appended so far durable (a compressed flight may hold back a short tail)
+     */
+    void force() throws IOException;
+
+    /**
+     * Records appended so far
+     */
+    long getRecordCount();
+
+    Path getDirectory();
+
+    long getStartEpochMillis();
+
+    long getStartNanos();
+}
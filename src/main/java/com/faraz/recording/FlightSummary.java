@@ -0,0 +1,194 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zoomable time-range queries over a flight through its summary pyramid
+ *
+ * A query for N buckets is answered from the coarsest level whose buckets are no wider
+ * than the requested ones, so it reads at most about 8 stored buckets per answer bucket
+ * however long the range is. Stored buckets are assigned to answer buckets by their
+ * centre. Ranges too short for level 0 are computed from the samples themselves.
+ * The flight must not be recording while its summary is opened.
+ *
+ * Each level's buckets are mapped in windows of up to WINDOW_BYTES holding whole
+ * buckets, so levels of any length open (one mapping stops at 2 GiB, which level 0
+ * reaches after about 75 h).
+ */
+public class FlightSummary implements Closeable {
+    static final int WINDOW_BYTES = 1 << 30;
+
+    private final RecordedFlight flight;
+    private final MappedByteBuffer[][] levels = new MappedByteBuffer[FlightSummaryFormat.LEVEL_COUNT][];
+    private final long[] bucketCounts = new long[FlightSummaryFormat.LEVEL_COUNT];
+    private final int bucketsPerWindow;
+
+    private FlightSummary(RecordedFlight flight, int windowBytes) throws IOException {
+        this.flight = flight;
+        this.bucketsPerWindow = windowBytes / FlightSummaryFormat.BUCKET_SIZE;
+        long windowSize = (long) bucketsPerWindow * FlightSummaryFormat.BUCKET_SIZE;
+        for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) {
+            try (FileChannel channel = FileChannel.open(FlightSummaryFormat.levelPath(flight.getDirectory(), level),
+                    StandardOpenOption.READ)) {
+                long buckets = (channel.size() - FlightSummaryFormat.HEADER_SIZE) / FlightSummaryFormat.BUCKET_SIZE;
+                MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((buckets + bucketsPerWindow - 1) / bucketsPerWindow)];
+                for (int w = 0; w < windows.length; w++) {
+                    long start = w * windowSize;
+                    long length = Math.min(windowSize, buckets * FlightSummaryFormat.BUCKET_SIZE - start);
+                    windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, FlightSummaryFormat.HEADER_SIZE + start, length);
+                    windows[w].order(ByteOrder.LITTLE_ENDIAN);
+                }
+                levels[level] = windows;
+                bucketCounts[level] = buckets;
+            }
+        }
+    }
+
+    /**
+     * Summary of a flight, built first if it is missing, incomplete or out of date
+     */
+    public static FlightSummary open(RecordedFlight flight) throws IOException {
+        return open(flight, WINDOW_BYTES);
+    }
+
+    /**
+     * @param windowBytes largest single mapping; at least one bucket
+     */
+    static FlightSummary open(RecordedFlight flight, int windowBytes) throws IOException {
+        if (windowBytes < FlightSummaryFormat.BUCKET_SIZE) {
+            throw new IllegalArgumentException("Window too small: " + windowBytes);
+        }
+        if (!isComplete(flight)) {
+            long start = System.nanoTime();
+            FlightSummaryWriter.build(flight);
+            System.out.printf("Built summary of %s: %d samples in %.2f s%n",
+                    flight.getDirectory(), flight.getRecordCount(), (System.nanoTime() - start) / 1e9);
+        }
+        return new FlightSummary(flight, windowBytes);
+    }
+
+    private static boolean isComplete(RecordedFlight flight) throws IOException {
+        for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) {
+            Path path = FlightSummaryFormat.levelPath(flight.getDirectory(), level);
+            if (!Files.exists(path)) return false;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() < FlightSummaryFormat.HEADER_SIZE) return false;
+                // Only the top level is read past its header, and it is a handful of buckets
+                boolean top = level == FlightSummaryFormat.LEVEL_COUNT - 1;
+                if (top && channel.size() > Integer.MAX_VALUE) return false;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        top ? channel.size() : FlightSummaryFormat.HEADER_SIZE);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.getLong(FlightSummaryFormat.HEADER_MAGIC) != FlightSummaryFormat.MAGIC
+                        || buffer.getShort(FlightSummaryFormat.HEADER_VERSION) != FlightSummaryFormat.VERSION
+                        || (buffer.getShort(FlightSummaryFormat.HEADER_FLAGS) & FlightSummaryFormat.FLAG_CLOSED) == 0) {
+                    return false;
+                }
+                // The top level's total must match the flight
+                if (top) {
+                    long total = 0;
+                    for (int offset = FlightSummaryFormat.HEADER_SIZE;
+                         offset + FlightSummaryFormat.BUCKET_SIZE <= buffer.capacity();
+                         offset += FlightSummaryFormat.BUCKET_SIZE) {
+                        total += buffer.getLong(offset + FlightSummaryFormat.BUCKET_COUNT);
+                    }
+                    if (total != flight.getRecordCount()) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * N buckets of a channel between two flight times (ns since recording start)
+     */
+    public SummarySeries query(FlightChannel channel, long fromNanos, long toNanos, int buckets) {
+        SummarySeries series = new SummarySeries(buckets);
+        query(channel, fromNanos, toNanos, series);
+        return series;
+    }
+
+    /**
+     * Same as above into a reusable series; the bucket count is series.size()
+     */
+    public void query(FlightChannel channel, long fromNanos, long toNanos, SummarySeries into) {
+        if (toNanos <= fromNanos) {
+            throw new IllegalArgumentException("Empty time range " + fromNanos + " .. " + toNanos);
+        }
+        int buckets = into.size();
+        double width = (toNanos - fromNanos) / (double) buckets;
+
+        int level = FlightSummaryFormat.LEVEL_COUNT - 1;
+        while (level >= 0 && (1L << FlightSummaryFormat.bucketShift(level)) > width) level--;
+        into.reset(channel, fromNanos, width, level);
+
+        if (level < 0) {
+            querySamples(channel, fromNanos, toNanos, width, into);
+            return;
+        }
+
+        MappedByteBuffer[] windows = levels[level];
+        int shift = FlightSummaryFormat.bucketShift(level);
+        long half = 1L << (shift - 1);
+        int statistics = FlightSummaryFormat.channelOffset(channel);
+        long first = Math.max(0, Math.floorDiv(fromNanos - half, 1L << shift));
+        long last = Math.min(bucketCounts[level] - 1, Math.floorDiv(toNanos - half, 1L << shift));
+
+        for (long k = first; k <= last; k++) {
+            long centre = (k << shift) + half;
+            if (centre < fromNanos || centre >= toNanos) continue;
+            MappedByteBuffer buffer = windows[(int) (k / bucketsPerWindow)];
+            int offset = (int) (k % bucketsPerWindow) * FlightSummaryFormat.BUCKET_SIZE;
+            long count = buffer.getLong(offset + FlightSummaryFormat.BUCKET_COUNT);
+            if (count == 0) continue;
+
+            int i = Math.min(buckets - 1, (int) ((centre - fromNanos) / width));
+            int at = offset + statistics;
+            into.add(i, count,
+                    buffer.getDouble(at + FlightSummaryFormat.BUCKET_MIN),
+                    buffer.getDouble(at + FlightSummaryFormat.BUCKET_MAX),
+                    buffer.getDouble(at + FlightSummaryFormat.BUCKET_SUM),
+                    buffer.getDouble(at + FlightSummaryFormat.BUCKET_SUM_SQ));
+        }
+    }
+
+    // Zoomed in below level 0: the range holds few samples, read them directly
+    private void querySamples(FlightChannel channel, long fromNanos, long toNanos, double width, SummarySeries into) {
+        TelemetrySample sample = new TelemetrySample();
+        int buckets = into.size();
+        long count = flight.getRecordCount();
+        for (long index = flight.findIndex(fromNanos); index < count; index++) {
+            long time = flight.getTimeNanos(index);
+            if (time >= toNanos) break;
+            flight.read(index, sample);
+            double value = channel.get(sample);
+            into.add(Math.min(buckets - 1, (int) ((time - fromNanos) / width)), 1, value, value, value, value * value);
+        }
+    }
+
+    /**
+     * Width of a level's buckets in ns
+     */
+    public static long getBucketNanos(int level) {
+        return 1L << FlightSummaryFormat.bucketShift(level);
+    }
+
+    public long getBucketCount(int level) { return bucketCounts[level]; }
+
+    int getWindowCount(int level) { return levels[level].length; }
+
+    public RecordedFlight getFlight() { return flight; }
+
+    @Override
+    public void close() {
+        // Mappings are released once collected
+    }
+}
@@ -0,0 +1,70 @@
+package com.faraz.recording;
+
+import java.nio.file.Path;
+
+/**
+ * On-disk layout of a flight's summary pyramid (all values little-endian)
+ *
+ * The pyramid lives next to the flight as one file per level, summary-0.tvcs ... Level
+ * L holds fixed-size buckets of 2^(BASE_SHIFT + L * FANOUT_SHIFT) ns of flight time, so
+ * bucket k covers [k << shift, (k + 1) << shift) and is found without an index: level 0
+ * is ~34 ms, each level above is 8x coarser, the top one ~20 h.
+ *
+ *   Header                              Bucket
+ *   0   magic "TVCSUMRY"                0   i64 sample count
+ *   8   u16 version                     8   per FlightChannel, 32 bytes each:
+ *   10  u16 header size                       f64 min, f64 max, f64 sum, f64 sum of squares
+ *   12  u16 flags (CLOSED)
+ *   14  u16 level
+ *   16  i32 bucket shift (width = 1 << shift ns)
+ *   20  i32 bucket size
+ *   24  reserved
+ *
+ * A level without the CLOSED flag was cut off by a crash and is rebuilt from the flight.
+ */
+public final class FlightSummaryFormat {
+    public static final long MAGIC = 0x59524D5553435654L; // "TVCSUMRY" read little-endian
+    public static final int VERSION = 1;
+
+    public static final int BASE_SHIFT = 25;  // 2^25 ns = 33.6 ms
+    public static final int FANOUT_SHIFT = 3; // 8 buckets per parent
+    public static final int LEVEL_COUNT = 8;
+
+    public static final int HEADER_SIZE = 64;
+    public static final int BUCKET_SIZE = 8 + FlightChannel.values().length * 32;
+
+    public static final int FLAG_CLOSED = 1;
+
+    // Header offsets
+    public static final int HEADER_MAGIC = 0;
+    public static final int HEADER_VERSION = 8;
+    public static final int HEADER_HEADER_SIZE = 10;
+    public static final int HEADER_FLAGS = 12;
+    public static final int HEADER_LEVEL = 14;
+    public static final int HEADER_BUCKET_SHIFT = 16;
+    public static final int HEADER_BUCKET_SIZE = 20;
+
+    // Bucket offsets
+    public static final int BUCKET_COUNT = 0;
+    public static final int BUCKET_MIN = 0;
+    public static final int BUCKET_MAX = 8;
+    public static final int BUCKET_SUM = 16;
+    public static final int BUCKET_SUM_SQ = 24;
+
+    private FlightSummaryFormat() {}
+
+    public static Path levelPath(Path flightDirectory, int level) {
+        return flightDirectory.resolve("summary-" + level + ".tvcs");
+    }
+
+    public static int bucketShift(int level) {
+        return BASE_SHIFT + level * FANOUT_SHIFT;
+    }
+
+    /**
+     * Offset of channel statistics within a bucket
+     */
+    public static int channelOffset(FlightChannel channel) {
+        return 8 + channel.ordinal() * 32;
+    }
+}
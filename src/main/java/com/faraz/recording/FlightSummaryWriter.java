@@ -0,0 +1,188 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Builds a flight's summary pyramid as samples arrive
+ *
+ * Only the open bucket of each level is kept in memory. A sample updates the level 0
+ * bucket; a bucket is written when time moves past it and folded into its parent, so
+ * the upper levels cost almost nothing per sample. Samples must arrive in time order
+ * (a late one is counted in the open bucket). Single-threaded.
+ */
+public class FlightSummaryWriter implements Closeable {
+    private static final int CHANNELS = FlightChannel.values().length;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final FileChannel[] files = new FileChannel[FlightSummaryFormat.LEVEL_COUNT];
+    private final ByteBuffer[] buffers = new ByteBuffer[FlightSummaryFormat.LEVEL_COUNT];
+
+    // Open bucket of every level
+    private final long[] open = new long[FlightSummaryFormat.LEVEL_COUNT];
+    private final long[] count = new long[FlightSummaryFormat.LEVEL_COUNT];
+    private final double[] min = new double[FlightSummaryFormat.LEVEL_COUNT * CHANNELS];
+    private final double[] max = new double[FlightSummaryFormat.LEVEL_COUNT * CHANNELS];
+    private final double[] sum = new double[FlightSummaryFormat.LEVEL_COUNT * CHANNELS];
+    private final double[] sumSq = new double[FlightSummaryFormat.LEVEL_COUNT * CHANNELS];
+
+    private final double[] values = new double[CHANNELS];
+    private boolean closed = false;
+
+    /**
+     * Start a new pyramid in a flight directory (replaces any existing one)
+     */
+    public FlightSummaryWriter(Path directory) throws IOException {
+        this.directory = directory;
+        for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) {
+            files[level] = FileChannel.open(FlightSummaryFormat.levelPath(directory, level), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(FlightSummaryFormat.HEADER_MAGIC, FlightSummaryFormat.MAGIC);
+            buffer.putShort(FlightSummaryFormat.HEADER_VERSION, (short) FlightSummaryFormat.VERSION);
+            buffer.putShort(FlightSummaryFormat.HEADER_HEADER_SIZE, (short) FlightSummaryFormat.HEADER_SIZE);
+            buffer.putShort(FlightSummaryFormat.HEADER_FLAGS, (short) 0);
+            buffer.putShort(FlightSummaryFormat.HEADER_LEVEL, (short) level);
+            buffer.putInt(FlightSummaryFormat.HEADER_BUCKET_SHIFT, FlightSummaryFormat.bucketShift(level));
+            buffer.putInt(FlightSummaryFormat.HEADER_BUCKET_SIZE, FlightSummaryFormat.BUCKET_SIZE);
+            buffer.position(FlightSummaryFormat.HEADER_SIZE);
+            buffers[level] = buffer;
+            reset(level);
+        }
+    }
+
+    /**
+     * Build the pyramid of an existing flight
+     */
+    public static void build(RecordedFlight flight) throws IOException {
+        TelemetrySample sample = new TelemetrySample();
+        try (FlightSummaryWriter writer = new FlightSummaryWriter(flight.getDirectory())) {
+            for (long i = 0; i < flight.getRecordCount(); i++) {
+                flight.read(i, sample);
+                writer.append(flight.getTimeNanos(i), sample);
+            }
+        }
+    }
+
+    /**
+     * Add one sample at a flight time (ns since recording start)
+     */
+    public void append(long timeNanos, TelemetrySample sample) throws IOException {
+        FlightChannel[] channels = FlightChannel.values();
+        for (int c = 0; c < CHANNELS; c++) values[c] = channels[c].get(sample);
+        append(timeNanos, values);
+    }
+
+    /**
+     * Add one sample given as a value per FlightChannel ordinal
+     */
+    public void append(long timeNanos, double[] channelValues) throws IOException {
+        if (closed) throw new IOException("Summary writer is closed");
+        long bucket = Math.max(0, timeNanos) >>> FlightSummaryFormat.BASE_SHIFT;
+        if (bucket > open[0]) advance(0, bucket);
+
+        count[0]++;
+        for (int c = 0; c < CHANNELS; c++) {
+            double v = channelValues[c];
+            if (v < min[c]) min[c] = v;
+            if (v > max[c]) max[c] = v;
+            sum[c] += v;
+            sumSq[c] += v * v;
+        }
+    }
+
+    // Close buckets of a level until the open one is target
+    private void advance(int level, long target) throws IOException {
+        while (open[level] < target) {
+            emit(level);
+            open[level]++;
+            reset(level);
+        }
+    }
+
+    // Write the open bucket of a level and fold it into its parent
+    private void emit(int level) throws IOException {
+        ByteBuffer buffer = buffers[level];
+        if (buffer.remaining() < FlightSummaryFormat.BUCKET_SIZE) flush(level);
+        int base = level * CHANNELS;
+        buffer.putLong(count[level]);
+        for (int c = 0; c < CHANNELS; c++) {
+            buffer.putDouble(min[base + c]);
+            buffer.putDouble(max[base + c]);
+            buffer.putDouble(sum[base + c]);
+            buffer.putDouble(sumSq[base + c]);
+        }
+
+        int parent = level + 1;
+        if (parent == FlightSummaryFormat.LEVEL_COUNT || count[level] == 0) return;
+        long parentBucket = open[level] >>> FlightSummaryFormat.FANOUT_SHIFT;
+        if (parentBucket > open[parent]) advance(parent, parentBucket);
+
+        int up = parent * CHANNELS;
+        count[parent] += count[level];
+        for (int c = 0; c < CHANNELS; c++) {
+            min[up + c] = Math.min(min[up + c], min[base + c]);
+            max[up + c] = Math.max(max[up + c], max[base + c]);
+            sum[up + c] += sum[base + c];
+            sumSq[up + c] += sumSq[base + c];
+        }
+    }
+
+    private void reset(int level) {
+        int base = level * CHANNELS;
+        count[level] = 0;
+        Arrays.fill(min, base, base + CHANNELS, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, base, base + CHANNELS, Double.NEGATIVE_INFINITY);
+        Arrays.fill(sum, base, base + CHANNELS, 0);
+        Arrays.fill(sumSq, base, base + CHANNELS, 0);
+    }
+
+    private void flush(int level) throws IOException {
+        ByteBuffer buffer = buffers[level];
+        buffer.flip();
+        while (buffer.hasRemaining()) files[level].write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Write the finished buckets (the open ones are only written by close())
+     */
+    public void flush() throws IOException {
+        if (closed) return;
+        for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) flush(level);
+    }
+
+    /**
+     * Write the open buckets and mark every level complete
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            // Bottom-up, so each bucket is folded into its parent before the parent is written
+            for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) {
+                emit(level);
+                flush(level);
+            }
+            ByteBuffer flags = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN);
+            for (FileChannel file : files) {
+                flags.clear();
+                flags.putShort(0, (short) FlightSummaryFormat.FLAG_CLOSED);
+                file.write(flags, FlightSummaryFormat.HEADER_FLAGS);
+            }
+        } finally {
+            for (FileChannel file : files) file.close();
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+}
@@ -0,0 +1,164 @@
+package com.faraz.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends samples to a new flight directory through memory-mapped segments
+ * Single-threaded; FlightRecorder runs one on its own thread
+ */
+public class FlightWriter implements FlightSink {
+    private final Path directory;
+    private final long segmentBytes;
+    private final int recordCapacity;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final CRC32C crc = new CRC32C();
+
+    // Current segment
+    private MappedByteBuffer segment;
+    private ByteBuffer crcView;
+    private int segmentIndex = -1;
+    private long segmentFirstRecord = 0;
+    private int segmentCount = 0;  // Records written to the current segment
+    private int forcedCount = 0;   // Records of the current segment already forced
+
+    private long recordCount = 0;
+    private boolean closed = false;
+
+    /**
+     * @param startNanos host System.nanoTime() that record time 0 corresponds to
+     */
+    public FlightWriter(Path directory, long segmentBytes, long startEpochMillis, long startNanos) throws IOException {
+        this.directory = directory;
+        this.recordCapacity = FlightFormat.recordCapacity(segmentBytes);
+        this.segmentBytes = FlightFormat.HEADER_SIZE + (long) recordCapacity * FlightFormat.RECORD_SIZE;
+        this.startEpochMillis = startEpochMillis;
+        this.startNanos = startNanos;
+
+        Files.createDirectories(directory);
+        if (Files.exists(FlightFormat.segmentPath(directory, 0))) {
+            throw new IOException("Flight already exists: " + directory);
+        }
+        openSegment(0);
+    }
+
+    /**
+     * New flight starting now, default segment size
+     */
+    public static FlightWriter create(Path directory) throws IOException {
+        return new FlightWriter(directory, FlightFormat.DEFAULT_SEGMENT_BYTES,
+                System.currentTimeMillis(), System.nanoTime());
+    }
+
+    @Override
+    public void append(long timeNanos, long sequence, double pitch, double roll, double pidPitch, double pidRoll,
+                       int servoX, int servoY, int bufferCount, double altitude) throws IOException {
+        if (closed) throw new IOException("Flight writer is closed");
+        if (segmentCount == recordCapacity) {
+            rollSegment();
+        }
+
+        MappedByteBuffer buf = segment;
+        int offset = FlightFormat.HEADER_SIZE + segmentCount * FlightFormat.RECORD_SIZE;
+        buf.putLong(offset + FlightFormat.RECORD_TIME, timeNanos);
+        buf.putLong(offset + FlightFormat.RECORD_SEQUENCE, sequence);
+        buf.putDouble(offset + FlightFormat.RECORD_PITCH, pitch);
+        buf.putDouble(offset + FlightFormat.RECORD_ROLL, roll);
+        buf.putDouble(offset + FlightFormat.RECORD_PID_PITCH, pidPitch);
+        buf.putDouble(offset + FlightFormat.RECORD_PID_ROLL, pidRoll);
+        buf.putDouble(offset + FlightFormat.RECORD_ALTITUDE, altitude);
+        buf.putInt(offset + FlightFormat.RECORD_SERVO_X, servoX);
+        buf.putInt(offset + FlightFormat.RECORD_SERVO_Y, servoY);
+        buf.putInt(offset + FlightFormat.RECORD_BUFFER, bufferCount);
+        buf.putInt(offset + FlightFormat.RECORD_CRC, FlightFormat.recordCrc(crc, crcView, offset));
+
+        segmentCount++;
+        recordCount++;
+    }
+
+    /**
+     * Make everything appended so far durable: records first, then the header count
+     */
+    @Override
+    public void force() {
+        if (closed || segmentCount == forcedCount) return;
+        int from = FlightFormat.HEADER_SIZE + forcedCount * FlightFormat.RECORD_SIZE;
+        int to = FlightFormat.HEADER_SIZE + segmentCount * FlightFormat.RECORD_SIZE;
+        segment.force(from, to - from);
+
+        segment.putLong(FlightFormat.HEADER_RECORD_COUNT, segmentCount);
+        segment.force(0, FlightFormat.HEADER_SIZE);
+        forcedCount = segmentCount;
+    }
+
+    private void rollSegment() throws IOException {
+        force();
+        segment.putShort(FlightFormat.HEADER_FLAGS, (short) FlightFormat.FLAG_SEALED);
+        segment.force(0, FlightFormat.HEADER_SIZE);
+        openSegment(segmentIndex + 1);
+    }
+
+    private void openSegment(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(FlightFormat.segmentPath(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        crcView = segment.duplicate();
+
+        segmentIndex = index;
+        segmentFirstRecord = recordCount;
+        segmentCount = 0;
+        forcedCount = 0;
+
+        segment.putLong(FlightFormat.HEADER_MAGIC, FlightFormat.MAGIC);
+        segment.putShort(FlightFormat.HEADER_VERSION, (short) FlightFormat.VERSION);
+        segment.putShort(FlightFormat.HEADER_HEADER_SIZE, (short) FlightFormat.HEADER_SIZE);
+        segment.putShort(FlightFormat.HEADER_RECORD_SIZE, (short) FlightFormat.RECORD_SIZE);
+        segment.putShort(FlightFormat.HEADER_FLAGS, (short) 0);
+        segment.putInt(FlightFormat.HEADER_SEGMENT_INDEX, index);
+        segment.putInt(FlightFormat.HEADER_CAPACITY, recordCapacity);
+        segment.putLong(FlightFormat.HEADER_FIRST_RECORD, segmentFirstRecord);
+        segment.putLong(FlightFormat.HEADER_RECORD_COUNT, 0);
+        segment.putLong(FlightFormat.HEADER_START_EPOCH_MILLIS, startEpochMillis);
+        segment.putLong(FlightFormat.HEADER_START_NANOS, startNanos);
+        segment.force(0, FlightFormat.HEADER_SIZE);
+    }
+
+    @Override
+    public Path getDirectory() { return directory; }
+
+    @Override
+    public long getRecordCount() { return recordCount; }
+
+    public int getSegmentIndex() { return segmentIndex; }
+
+    @Override
+    public long getStartEpochMillis() { return startEpochMillis; }
+
+    @Override
+    public long getStartNanos() { return startNanos; }
+
+    /**
+     * Force the tail and mark the flight as cleanly closed
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        force();
+        segment.putShort(FlightFormat.HEADER_FLAGS, (short) FlightFormat.FLAG_CLOSED);
+        segment.force(0, FlightFormat.HEADER_SIZE);
+        closed = true;
+        segment = null; // Unmapped once collected
+        crcView = null;
+    }
+}
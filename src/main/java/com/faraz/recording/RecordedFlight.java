@@ -0,0 +1,122 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Random access to a recorded flight, whatever its storage format
+ * Records are numbered from 0 and in time order
+ *
+ * read(), getTimeNanos() and findIndex() are for one thread at a time; threads reading
+ * one flight in parallel each take their own newCursor().
+ */
+public interface RecordedFlight extends Closeable {
+
+    /**
+     * Open a raw (segment files) or compressed flight directory
+     */
+    static RecordedFlight open(Path directory) throws IOException {
+        if (Files.exists(directory.resolve(CompressedFlightFormat.FILE_NAME))) {
+            return CompressedFlightReader.open(directory);
+        }
+        return FlightReader.open(directory);
+    }
+
+    static boolean isFlight(Path directory) {
+        return Files.exists(directory.resolve(CompressedFlightFormat.FILE_NAME))
+                || Files.exists(FlightFormat.segmentPath(directory, 0));
+    }
+
+    /**
+     * A flight directory as is, or every flight directly inside a folder, sorted by name
+     */
+    static List<Path> findFlights(Path path) throws IOException {
+        List<Path> flights = new ArrayList<>();
+        if (isFlight(path)) {
+            flights.add(path);
+            return flights;
+        }
+        try (Stream<Path> children = Files.list(path)) {
+            for (Path child : children.sorted().collect(Collectors.toList())) {
+                if (Files.isDirectory(child) && isFlight(child)) flights.add(child);
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Reads records for one thread, independently of other cursors on the same flight
+     */
+    interface Cursor {
+        void read(long index, TelemetrySample into);
+
+        long getTimeNanos(long index);
+    }
+
+    /**
+     * A cursor owned by the caller; formats that read in place just delegate to the flight
+     */
+    default Cursor newCursor() {
+        RecordedFlight flight = this;
+        return new Cursor() {
+            @Override
+            public void read(long index, TelemetrySample into) { flight.read(index, into); }
+
+            @Override
+            public long getTimeNanos(long index) { return flight.getTimeNanos(index); }
+        };
+    }
+
+    /**
+     * Copy record index into a sample (receive stamp is rebuilt from the recording start)
+     */
+    void read(long index, TelemetrySample into);
+
+    /**
+     * Record time in ns since the recording start
+     */
+    long getTimeNanos(long index);
+
+    long getRecordCount();
+
+    /**
+     * First record at or after a time (ns since recording start); getRecordCount() if none
+     */
+    default long findIndex(long timeNanos) {
+        long low = 0;
+        long high = getRecordCount();
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (getTimeNanos(mid) < timeNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Time of the last record (ns since recording start)
+     */
+    default long getDurationNanos() {
+        long count = getRecordCount();
+        return count > 0 ? getTimeNanos(count - 1) : 0;
+    }
+
+    Path getDirectory();
+
+    long getStartEpochMillis();
+
+    long getStartNanos();
+
+    @Override
+    void close();
+}
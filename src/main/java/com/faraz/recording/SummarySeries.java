@@ -0,0 +1,85 @@
+package com.faraz.recording;
+
+import java.util.Arrays;
+
+/**
+ * Equal-width buckets of one channel over a time range, as answered by FlightSummary
+ * Reusable; a bucket with no samples has count 0 and NaN statistics
+ */
+public class SummarySeries {
+    private final long[] count;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final double[] sumSq;
+
+    private FlightChannel channel;
+    private long startNanos;
+    private double bucketNanos;
+    private int level;
+
+    public SummarySeries(int buckets) {
+        if (buckets < 1) throw new IllegalArgumentException("Need at least one bucket");
+        count = new long[buckets];
+        min = new double[buckets];
+        max = new double[buckets];
+        sum = new double[buckets];
+        sumSq = new double[buckets];
+    }
+
+    void reset(FlightChannel channel, long startNanos, double bucketNanos, int level) {
+        this.channel = channel;
+        this.startNanos = startNanos;
+        this.bucketNanos = bucketNanos;
+        this.level = level;
+        Arrays.fill(count, 0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        Arrays.fill(sum, 0);
+        Arrays.fill(sumSq, 0);
+    }
+
+    void add(int i, long n, double bucketMin, double bucketMax, double bucketSum, double bucketSumSq) {
+        count[i] += n;
+        if (bucketMin < min[i]) min[i] = bucketMin;
+        if (bucketMax > max[i]) max[i] = bucketMax;
+        sum[i] += bucketSum;
+        sumSq[i] += bucketSumSq;
+    }
+
+    public int size() { return count.length; }
+
+    public FlightChannel getChannel() { return channel; }
+
+    /**
+     * Flight time where bucket i starts (ns since recording start)
+     */
+    public long getStartNanos(int i) { return startNanos + (long) (i * bucketNanos); }
+
+    public double getBucketNanos() { return bucketNanos; }
+
+    /**
+     * Pyramid level the answer came from, or -1 if it was computed from the samples
+     */
+    public int getLevel() { return level; }
+
+    public long getCount(int i) { return count[i]; }
+
+    public double getMin(int i) { return count[i] > 0 ? min[i] : Double.NaN; }
+
+    public double getMax(int i) { return count[i] > 0 ? max[i] : Double.NaN; }
+
+    public double getSum(int i) { return sum[i]; }
+
+    public double getSumOfSquares(int i) { return sumSq[i]; }
+
+    public double getMean(int i) { return count[i] > 0 ? sum[i] / count[i] : Double.NaN; }
+
+    public double getRms(int i) { return count[i] > 0 ? Math.sqrt(sumSq[i] / count[i]) : Double.NaN; }
+
+    public double getStdDev(int i) {
+        if (count[i] == 0) return Double.NaN;
+        double mean = sum[i] / count[i];
+        return Math.sqrt(Math.max(0, sumSq[i] / count[i] - mean * mean));
+    }
+}
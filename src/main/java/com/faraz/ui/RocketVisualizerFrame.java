@@ -1,32 +1,57 @@
 package com.faraz.ui;
 
+import com.faraz.communication.IngestStatistics;
 import com.faraz.communication.SerialReader;
+import com.faraz.communication.source.FlightTelemetrySource;
+import com.faraz.communication.source.SerialTelemetrySource;
+import com.faraz.communication.source.TelemetryInput;
+import com.faraz.communication.source.TelemetrySources;
+import com.faraz.model.DeliveryPolicy;
+import com.faraz.model.Subscription;
 import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryListener;
+import com.faraz.model.TelemetrySample;
+import com.faraz.recording.FlightPlayback;
+import com.faraz.recording.FlightRecorder;
+import com.faraz.ui.components.StripChart;
 import com.faraz.ui.components.TelemetryPanel;
 import com.faraz.ui.components.VisualizationPanel;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Enhanced main application frame for TVC Rocket Control Center
  * Features improved 3D visualization and TVC monitoring
  */
-public class RocketVisualizerFrame extends JFrame implements KeyListener {
+public class RocketVisualizerFrame extends JFrame implements KeyListener, TelemetryListener {
     private final TelemetryData telemetryData;
+    private final TelemetryInput telemetrySource;
     private final SerialReader serialReader;
-    private Timer renderTimer;
-    private Timer statusTimer;
+    private final FlightRecorder flightRecorder; // null unless -Dtvc.record is set
+    private Subscription statusSubscription;
+    private Timer staleTimer; // Fires once if data stops, to show STALE
 
     // UI Components
+    private VisualizationPanel visualizationPanel;
+    private TelemetryPanel telemetryPanel;
+    private StripChart servoChart;
     private JLabel connectionLabel;
     private JLabel tvcStatusLabel;
     private JLabel frameRateLabel;
+    private JLabel ingestLabel;
+    private JLabel recordingLabel;
+    private JLabel linkLabel;
 
     // Performance monitoring
     private long lastFrameTime = System.currentTimeMillis();
-    private int frameCount = 0;
+    private long lastFrameCount = 0;
     private double currentFPS = 0;
 
     // UI Colors - Enhanced for 3D theme
@@ -43,13 +68,22 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
     private static final Color TVC_ACTIVE = new Color(255, 165, 0);
 
     // Configuration
-    private static final String SERIAL_PORT = "/dev/ttyACM0";
-    private static final int BAUD_RATE = 500000;
-    private static final int TARGET_FPS = 60;
+    private static final String DEFAULT_SOURCE = "serial:/dev/ttyACM0@500000";
+    private static final int STATUS_RATE_HZ = 2;
+    private static final long REPLAY_SEEK_NANOS = 5_000_000_000L;
 
     public RocketVisualizerFrame() {
+        this(System.getProperty("tvc.source", DEFAULT_SOURCE));
+    }
+
+    /**
+     * @param sourceSpec telemetry source, see TelemetrySources (e.g. "tcp:relay.local:5760")
+     */
+    public RocketVisualizerFrame(String sourceSpec) {
         this.telemetryData = new TelemetryData();
-        this.serialReader = new SerialReader(telemetryData, SERIAL_PORT, BAUD_RATE);
+        this.telemetrySource = TelemetrySources.fromSpec(sourceSpec);
+        this.serialReader = new SerialReader(telemetryData, telemetrySource);
+        this.flightRecorder = createFlightRecorder(System.getProperty("tvc.record"));
 
         setupFrame();
         createComponents();
@@ -60,6 +94,16 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         setFocusable(true);
     }
 
+    /**
+     * One flight per session under the given directory, e.g. flights/flight-20250101-120000
+     */
+    private FlightRecorder createFlightRecorder(String flightsDirectory) {
+        if (flightsDirectory == null || flightsDirectory.trim().isEmpty()) return null;
+        String name = "flight-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path directory = Paths.get(flightsDirectory.trim()).resolve(name);
+        return new FlightRecorder(telemetryData.getHistory(), directory);
+    }
+
     /**
      * Enhanced frame setup with better styling
      */
@@ -93,8 +137,15 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         JPanel headerPanel = createEnhancedHeaderPanel();
 
         // Create main content panels
-        VisualizationPanel visualizationPanel = new VisualizationPanel(telemetryData);
-        TelemetryPanel telemetryPanel = new TelemetryPanel(telemetryData);
+        visualizationPanel = new VisualizationPanel(telemetryData);
+        telemetryPanel = new TelemetryPanel(telemetryData);
+        servoChart = new StripChart(telemetryData, StripChart.Channel.SERVO_X, StripChart.Channel.SERVO_Y);
+
+        // Readouts with the servo chart under them
+        JPanel sidePanel = new JPanel(new BorderLayout(0, 10));
+        sidePanel.setBackground(BG_DARK);
+        sidePanel.add(telemetryPanel, BorderLayout.CENTER);
+        sidePanel.add(servoChart, BorderLayout.SOUTH);
 
         // Create footer panel for additional info
         JPanel footerPanel = createFooterPanel();
@@ -102,7 +153,7 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         // Layout components
         mainPanel.add(headerPanel, BorderLayout.NORTH);
         mainPanel.add(visualizationPanel, BorderLayout.CENTER);
-        mainPanel.add(telemetryPanel, BorderLayout.EAST);
+        mainPanel.add(sidePanel, BorderLayout.EAST);
         mainPanel.add(footerPanel, BorderLayout.SOUTH);
 
         add(mainPanel);
@@ -158,7 +209,7 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         frameRateLabel.setFont(new Font("Consolas", Font.PLAIN, 12));
         frameRateLabel.setForeground(TEXT_SECONDARY);
 
-        JLabel portLabel = new JLabel("Port: " + SERIAL_PORT);
+        JLabel portLabel = new JLabel("Source: " + telemetrySource.getDescription());
         portLabel.setFont(new Font("Consolas", Font.PLAIN, 12));
         portLabel.setForeground(TEXT_SECONDARY);
 
@@ -197,7 +248,9 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         controlsLabel.setFont(new Font("Consolas", Font.BOLD, 11));
         controlsLabel.setForeground(TEXT_SECONDARY);
 
-        JLabel spaceLabel = new JLabel("[SPACE] Pause | [R] Reset | [ESC] Exit");
+        JLabel spaceLabel = new JLabel(telemetrySource instanceof FlightTelemetrySource
+                ? "[SPACE] Pause | [P] Play/Pause | [N] Step | [←/→] Seek | [1-8/0] Speed | [ESC] Exit"
+                : "[SPACE] Pause | [R] Reset | [ESC] Exit");
         spaceLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
         spaceLabel.setForeground(TEXT_SECONDARY);
 
@@ -212,13 +265,27 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
         renderLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
         renderLabel.setForeground(ACCENT_CYAN);
 
-        JLabel baudLabel = new JLabel("BAUD: " + BAUD_RATE);
-        baudLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
-        baudLabel.setForeground(TEXT_SECONDARY);
+        linkLabel = new JLabel(telemetrySource instanceof SerialTelemetrySource
+                ? "BAUD: " + ((SerialTelemetrySource) telemetrySource).getBaudRate()
+                : "LINK: " + telemetrySource.getType());
+        linkLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
+        linkLabel.setForeground(TEXT_SECONDARY);
+
+        ingestLabel = new JLabel("RX: -- B/s | -- lines/s");
+        ingestLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
+        ingestLabel.setForeground(TEXT_SECONDARY);
+
+        recordingLabel = new JLabel(flightRecorder != null ? "REC: --" : "REC: OFF");
+        recordingLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
+        recordingLabel.setForeground(TEXT_SECONDARY);
 
         infoPanel.add(renderLabel);
         infoPanel.add(new JLabel("|") {{ setForeground(TEXT_SECONDARY); }});
-        infoPanel.add(baudLabel);
+        infoPanel.add(recordingLabel);
+        infoPanel.add(new JLabel("|") {{ setForeground(TEXT_SECONDARY); }});
+        infoPanel.add(ingestLabel);
+        infoPanel.add(new JLabel("|") {{ setForeground(TEXT_SECONDARY); }});
+        infoPanel.add(linkLabel);
 
         footerPanel.add(controlsPanel, BorderLayout.WEST);
         footerPanel.add(infoPanel, BorderLayout.EAST);
@@ -230,53 +297,78 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
      * Start all system components with enhanced monitoring
      */
     private void startSystems() {
+        // Start recording before the link so the first samples are kept
+        if (flightRecorder != null) {
+            try {
+                flightRecorder.start();
+            } catch (IOException e) {
+                System.err.println("Failed to start flight recording: " + e.getMessage());
+            }
+        }
+
         // Start serial communication
         boolean serialStarted = serialReader.start();
         if (!serialStarted) {
             showConnectionError();
         }
 
-        // Start render timer with precise timing
-        renderTimer = new Timer(1000 / TARGET_FPS, e -> {
-            repaint();
-            updateFrameRate();
+        // Status follows telemetry; nothing runs while the link is quiet
+        staleTimer = new Timer((int) TelemetryData.DATA_FRESH_MILLIS + 50, e -> {
+            updateAllStatus();
+            visualizationPanel.requestFrame(); // HUD freshness indicator
         });
-        renderTimer.start();
-
-        // Start status update timer
-        statusTimer = new Timer(500, e -> updateAllStatus());
-        statusTimer.start();
+        staleTimer.setRepeats(false);
+        statusSubscription = telemetryData.subscribe(this, DeliveryPolicy.rateLimited(STATUS_RATE_HZ), SwingUtilities::invokeLater);
 
         System.out.println("Enhanced TVC 3D Control Center started successfully");
-        System.out.println("Target FPS: " + TARGET_FPS);
-        System.out.println("Serial Port: " + SERIAL_PORT + " @ " + BAUD_RATE + " baud");
+        System.out.println("Max FPS: " + visualizationPanel.getMaxFrameRate() + " (frames rendered on new data only)");
+        System.out.println("Telemetry Source: " + telemetrySource.getDescription());
         System.out.println("3D Renderer: ACTIVE");
         System.out.println("TVC Physics: STABILIZATION MODE");
     }
 
     /**
-     * Update frame rate calculation
+     * Status refresh on new telemetry (at most STATUS_RATE_HZ)
+     */
+    @Override
+    public void onTelemetry(TelemetrySample sample) {
+        updateAllStatus(sample);
+        staleTimer.restart();
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        updateAllStatus();
+    }
+
+    /**
+     * Update frame rate from the frames the renderer actually drew
      */
     private void updateFrameRate() {
-        frameCount++;
         long currentTime = System.currentTimeMillis();
+        long elapsed = currentTime - lastFrameTime;
+        if (elapsed < 250) return;
 
-        if (currentTime - lastFrameTime >= 1000) {
-            currentFPS = frameCount * 1000.0 / (currentTime - lastFrameTime);
-            frameCount = 0;
-            lastFrameTime = currentTime;
-
-            // Update FPS display
-            frameRateLabel.setText(String.format("FPS: %.1f", currentFPS));
-
-            // Color code FPS based on performance
-            if (currentFPS >= TARGET_FPS * 0.9) {
-                frameRateLabel.setForeground(STATUS_OK);
-            } else if (currentFPS >= TARGET_FPS * 0.7) {
-                frameRateLabel.setForeground(STATUS_WARNING);
-            } else {
-                frameRateLabel.setForeground(STATUS_ERROR);
-            }
+        long frames = visualizationPanel.getRenderedFrameCount();
+        currentFPS = (frames - lastFrameCount) * 1000.0 / elapsed;
+        lastFrameCount = frames;
+        lastFrameTime = currentTime;
+
+        if (currentFPS == 0) {
+            frameRateLabel.setText("FPS: idle");
+            frameRateLabel.setForeground(TEXT_SECONDARY);
+            return;
+        }
+        frameRateLabel.setText(String.format("FPS: %.1f", currentFPS));
+
+        // Frames follow the data, so compare with what the link can deliver
+        double expectedFPS = Math.min(visualizationPanel.getMaxFrameRate(), serialReader.getStatistics().getLinesPerSecond());
+        if (currentFPS >= expectedFPS * 0.9) {
+            frameRateLabel.setForeground(STATUS_OK);
+        } else if (currentFPS >= expectedFPS * 0.7) {
+            frameRateLabel.setForeground(STATUS_WARNING);
+        } else {
+            frameRateLabel.setForeground(STATUS_ERROR);
         }
     }
 
@@ -284,8 +376,93 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
      * Update all status indicators
      */
     private void updateAllStatus() {
+        updateAllStatus(null);
+    }
+
+    private void updateAllStatus(TelemetrySample sample) {
         updateConnectionStatus();
-        updateTVCStatus();
+        updateTVCStatus(sample);
+        updateIngestStatus();
+        updateRecordingStatus();
+        updateReplayStatus();
+        updateFrameRate();
+    }
+
+    /**
+     * Replay position and speed in place of the link info
+     */
+    private void updateReplayStatus() {
+        FlightPlayback playback = getPlayback();
+        if (playback == null) return;
+        double speed = playback.getSpeed();
+        linkLabel.setText(String.format("REPLAY %s %s %.1f / %.1f s",
+                playback.isPaused() ? "||" : "▶",
+                speed == FlightPlayback.MAX_SPEED ? "MAX" : String.format("%.4gx", speed),
+                playback.getPositionNanos() / 1e9,
+                playback.getFlight().getDurationNanos() / 1e9));
+    }
+
+    private FlightPlayback getPlayback() {
+        return telemetrySource instanceof FlightTelemetrySource
+                ? ((FlightTelemetrySource) telemetrySource).getPlayback()
+                : null;
+    }
+
+    /**
+     * Replay keys: P play/pause, N step, arrows seek 5 s, 1-8 speed, 0 max speed
+     */
+    private boolean handleReplayKey(KeyEvent e) {
+        FlightPlayback playback = getPlayback();
+        if (playback == null) return false;
+
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_P) {
+            playback.setPaused(!playback.isPaused());
+        } else if (key == KeyEvent.VK_N) {
+            playback.step();
+        } else if (key == KeyEvent.VK_LEFT) {
+            playback.seekBy(-REPLAY_SEEK_NANOS);
+        } else if (key == KeyEvent.VK_RIGHT) {
+            playback.seekBy(REPLAY_SEEK_NANOS);
+        } else if (key == KeyEvent.VK_0) {
+            playback.setSpeed(FlightPlayback.MAX_SPEED);
+        } else if (key >= KeyEvent.VK_1 && key <= KeyEvent.VK_8) {
+            playback.setSpeed(key - KeyEvent.VK_0);
+        } else {
+            return false;
+        }
+        updateReplayStatus();
+        return true;
+    }
+
+    /**
+     * Show how much of the session has been written to disk
+     */
+    private void updateRecordingStatus() {
+        if (flightRecorder == null) return;
+        if (flightRecorder.getFailure() != null) {
+            recordingLabel.setText("REC: FAILED");
+            recordingLabel.setForeground(STATUS_ERROR);
+        } else if (flightRecorder.isRecording()) {
+            long dropped = flightRecorder.getDroppedCount();
+            recordingLabel.setText(dropped > 0
+                    ? String.format("● REC: %d (DROP %d)", flightRecorder.getRecordedCount(), dropped)
+                    : String.format("● REC: %d", flightRecorder.getRecordedCount()));
+            recordingLabel.setForeground(dropped > 0 ? STATUS_WARNING : STATUS_ERROR);
+        } else {
+            recordingLabel.setText("REC: STOPPED");
+            recordingLabel.setForeground(TEXT_SECONDARY);
+        }
+    }
+
+    /**
+     * Show serial ingest throughput
+     */
+    private void updateIngestStatus() {
+        IngestStatistics stats = serialReader.getStatistics();
+        ingestLabel.setText(String.format("RX %s: %.1f kB/s | %.0f lines/s | ERR: %d | LOST: %d",
+                serialReader.getProtocol(), stats.getBytesPerSecond() / 1024.0,
+                stats.getLinesPerSecond(), stats.getTotalMalformedLines(), stats.getTotalLostFrames()));
     }
 
     /**
@@ -305,19 +482,20 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
     }
 
     /**
-     * Update TVC system status
+     * Update TVC system status (keeps the last state when no sample is given)
      */
-    private void updateTVCStatus() {
+    private void updateTVCStatus(TelemetrySample sample) {
         if (!telemetryData.isConnected()) {
             tvcStatusLabel.setText("● OFFLINE");
             tvcStatusLabel.setForeground(STATUS_ERROR);
             return;
         }
+        if (sample == null) return;
 
         // Calculate TVC activity level
         double pidActivity = Math.sqrt(
-                Math.pow(telemetryData.getPidPitch(), 2) +
-                        Math.pow(telemetryData.getPidRoll(), 2)
+                Math.pow(sample.getPidPitch(), 2) +
+                        Math.pow(sample.getPidRoll(), 2)
         );
 
         // Determine TVC status based on activity
@@ -349,7 +527,7 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
                             "✓ No other applications using the port\n\n" +
                             "The 3D visualizer will continue running and attempt to reconnect.\n" +
                             "Check the connection status indicator in the header.",
-                    SERIAL_PORT, SERIAL_PORT
+                    telemetrySource.getDescription(), telemetrySource.getDescription()
             );
 
             JOptionPane.showMessageDialog(this, message,
@@ -362,14 +540,16 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
      */
     @Override
     public void keyPressed(KeyEvent e) {
+        if (handleReplayKey(e)) return;
+
         switch (e.getKeyCode()) {
             case KeyEvent.VK_SPACE:
                 // Toggle pause/resume
-                if (renderTimer.isRunning()) {
-                    renderTimer.stop();
+                if (!visualizationPanel.isPaused()) {
+                    visualizationPanel.setPaused(true);
                     setTitle(getTitle() + " [PAUSED]");
                 } else {
-                    renderTimer.start();
+                    visualizationPanel.setPaused(false);
                     setTitle(getTitle().replace(" [PAUSED]", ""));
                 }
                 break;
@@ -412,6 +592,12 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
                         "R - Reset telemetry data\n" +
                         "ESC - Exit application\n" +
                         "F1 - Show this help dialog\n\n" +
+                        "3D VIEW (click it first):\n" +
+                        "D - Debug axes, I - Attitude smoothing, T - Trail\n" +
+                        "F - Frame-time overlay, E - Export frame times\n\n" +
+                        "REPLAY (replay:<flight> source):\n" +
+                        "P - Play/Pause, N - Step one sample\n" +
+                        "LEFT/RIGHT - Seek 5 s, 1-8 - Speed, 0 - Max speed\n\n" +
                         "TVC SYSTEM OPERATION:\n" +
                         "• Engine gimbal actively counters rocket rotation\n" +
                         "• PID controller calculates correction signals\n" +
@@ -433,16 +619,23 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
     public void shutdown() {
         System.out.println("Shutting down Enhanced TVC 3D Control Center...");
 
-        // Stop all timers
-        if (renderTimer != null) {
-            renderTimer.stop();
-            System.out.println("Render timer stopped");
+        // Stop telemetry subscriptions
+        if (statusSubscription != null) {
+            statusSubscription.cancel();
         }
-
-        if (statusTimer != null) {
-            statusTimer.stop();
-            System.out.println("Status timer stopped");
+        if (staleTimer != null) {
+            staleTimer.stop();
+        }
+        if (visualizationPanel != null) {
+            visualizationPanel.cleanup();
+        }
+        if (telemetryPanel != null) {
+            telemetryPanel.cleanup();
         }
+        if (servoChart != null) {
+            servoChart.cleanup();
+        }
+        System.out.println("Telemetry subscriptions cancelled");
 
         // Stop serial communication
         if (serialReader != null) {
@@ -450,6 +643,11 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
             System.out.println("Serial communication stopped");
         }
 
+        // Flush and close the flight after the last sample came in
+        if (flightRecorder != null) {
+            flightRecorder.stop();
+        }
+
         System.out.println("Enhanced shutdown complete - all systems offline");
     }
 
@@ -477,9 +675,11 @@ public class RocketVisualizerFrame extends JFrame implements KeyListener {
     public boolean isTVCActive() {
         if (!telemetryData.isConnected()) return false;
 
+        TelemetrySample sample = new TelemetrySample();
+        telemetryData.snapshot(sample);
         double pidActivity = Math.sqrt(
-                Math.pow(telemetryData.getPidPitch(), 2) +
-                        Math.pow(telemetryData.getPidRoll(), 2)
+                Math.pow(sample.getPidPitch(), 2) +
+                        Math.pow(sample.getPidRoll(), 2)
         );
 
         return pidActivity > 5; // Threshold for "active" TVC
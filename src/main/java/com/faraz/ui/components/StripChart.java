@@ -0,0 +1,389 @@
+package com.faraz.ui.components;
+
+import com.faraz.graphics.DecimalText;
+import com.faraz.model.DeliveryPolicy;
+import com.faraz.model.Subscription;
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryHistory;
+import com.faraz.model.TelemetryListener;
+import com.faraz.model.TelemetrySample;
+import com.faraz.model.TelemetrySampleBatch;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Scrolling strip chart of telemetry channels over the last minute
+ *
+ * Each pixel column covers window/width of time and keeps, per channel, the minimum,
+ * maximum and last value of the samples that fell in it, so drawing a column costs the
+ * same whether it saw two samples or two hundred (60 s at 2 kHz is 120k per channel).
+ * The plot is cached in an image: when time moves on, its pixels are shifted left by
+ * the columns that scrolled out and only the new columns are drawn. Each channel has
+ * its own scale around its centre, which doubles when a value leaves it (the whole image
+ * is then redrawn once). Right-click picks the channels.
+ */
+public class StripChart extends JComponent implements TelemetryListener {
+    public static final int DEFAULT_SECONDS = 60;
+
+    private static final int UPDATE_RATE_HZ = 60;
+    private static final int BATCH = 1024;
+    private static final long GRID_NANOS = 10_000_000_000L; // A vertical line every 10 s
+    private static final int MARGIN = 4;                      // Above and below full scale
+
+    // UI Colors
+    private static final Color BG_CHART = new Color(15, 20, 30);
+    private static final Color GRID = new Color(40, 50, 70);
+    private static final Color TEXT_SECONDARY = new Color(180, 180, 180);
+    private static final Font LEGEND_FONT = new Font("Consolas", Font.BOLD, 11);
+
+    /**
+     * A plottable value of a sample, with the colour and starting scale it is drawn with
+     */
+    public enum Channel {
+        PITCH("PITCH", "°", new Color(64, 150, 255), 0.0, 20.0),
+        ROLL("ROLL", "°", new Color(50, 200, 100), 0.0, 20.0),
+        PID_PITCH("PID P", "", new Color(0, 220, 220), 0.0, 1.0),
+        PID_ROLL("PID R", "", new Color(255, 165, 0), 0.0, 1.0),
+        SERVO_X("SERVO X", "°", new Color(255, 220, 60), 90.0, 30.0),
+        SERVO_Y("SERVO Y", "°", new Color(230, 90, 230), 90.0, 30.0);
+
+        private final String label;
+        private final String unit;
+        private final Color color;
+        private final double center;
+        private final double initialRange;
+
+        Channel(String label, String unit, Color color, double center, double initialRange) {
+            this.label = label;
+            this.unit = unit;
+            this.color = color;
+            this.center = center;
+            this.initialRange = initialRange;
+        }
+
+        public String getLabel() { return label; }
+
+        double value(TelemetrySampleBatch batch, int i) {
+            switch (this) {
+                case PITCH: return batch.getPitch(i);
+                case ROLL: return batch.getRoll(i);
+                case PID_PITCH: return batch.getPidPitch(i);
+                case PID_ROLL: return batch.getPidRoll(i);
+                case SERVO_X: return batch.getServoX(i);
+                default: return batch.getServoY(i);
+            }
+        }
+    }
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    private final TelemetryHistory history;
+    private final TelemetryData telemetryData;
+    private TelemetryHistory.Reader reader;
+    private final TelemetrySampleBatch batch = new TelemetrySampleBatch(BATCH);
+    private final long windowNanos;
+    private final String windowLabel;
+    private Subscription subscription;
+
+    // Per channel
+    private final boolean[] visible = new boolean[CHANNELS.length];
+    private final double[] range = new double[CHANNELS.length]; // Half of full scale
+    private final String[] legend = new String[CHANNELS.length];
+
+    // Per column, a ring indexed by column number modulo its size: [channel][column]. One
+    // column more than the width, so the leftmost drawn column can still join its predecessor.
+    private int columns = 0;
+    private long nanosPerColumn;
+    private float[][] min = new float[CHANNELS.length][0];
+    private float[][] max = new float[CHANNELS.length][0];
+    private float[][] last = new float[CHANNELS.length][0];
+    private boolean[] filled = new boolean[0];
+    private long newestColumn = Long.MIN_VALUE; // Column of the newest sample; MIN_VALUE while empty
+
+    // The plot, and how much of it is current
+    private BufferedImage image;
+    private int[] pixels;
+    private int[] background; // One empty column: background and horizontal grid lines
+    private long drawnColumn = Long.MIN_VALUE; // Newest column in the image (it may have grown since)
+    private boolean redrawAll = true;
+    private long plottedColumns = 0; // Columns drawn so far, for measuring
+
+    /**
+     * Window length from -Dtvc.chart.seconds
+     */
+    public StripChart(TelemetryData telemetryData, Channel... shown) {
+        this(telemetryData, Integer.getInteger("tvc.chart.seconds", DEFAULT_SECONDS), shown);
+    }
+
+    public StripChart(TelemetryData telemetryData, int seconds, Channel... shown) {
+        if (seconds <= 0) throw new IllegalArgumentException("Chart window must be positive: " + seconds);
+        this.telemetryData = telemetryData;
+        this.history = telemetryData.getHistory();
+        this.windowNanos = seconds * 1_000_000_000L;
+        this.windowLabel = "-" + seconds + " s";
+        for (int c = 0; c < CHANNELS.length; c++) {
+            range[c] = CHANNELS[c].initialRange;
+            legend[c] = legendText(CHANNELS[c], range[c]);
+        }
+        for (Channel channel : shown) {
+            visible[channel.ordinal()] = true;
+        }
+
+        setOpaque(true);
+        setPreferredSize(new Dimension(300, 160));
+        setBorder(BorderFactory.createLineBorder(new Color(50, 60, 80), 1));
+        setComponentPopupMenu(createChannelMenu());
+        subscription = telemetryData.subscribe(this, DeliveryPolicy.rateLimited(UPDATE_RATE_HZ), SwingUtilities::invokeLater);
+    }
+
+    private JPopupMenu createChannelMenu() {
+        JPopupMenu menu = new JPopupMenu();
+        for (Channel channel : CHANNELS) {
+            JCheckBoxMenuItem item = new JCheckBoxMenuItem(channel.getLabel(), isChannelVisible(channel));
+            item.setForeground(channel.color);
+            item.addActionListener(e -> setChannelVisible(channel, item.isSelected()));
+            menu.add(item);
+        }
+        return menu;
+    }
+
+    private static String legendText(Channel channel, double range) {
+        StringBuilder text = new StringBuilder(channel.label).append(" ±");
+        return DecimalText.append(text, range, range < 1 ? 2 : 0).append(channel.unit).toString();
+    }
+
+    public boolean isChannelVisible(Channel channel) { return visible[channel.ordinal()]; }
+
+    public void setChannelVisible(Channel channel, boolean shown) {
+        if (visible[channel.ordinal()] == shown) return;
+        visible[channel.ordinal()] = shown;
+        redrawAll = true;
+        repaint();
+    }
+
+    /**
+     * Take in the samples that arrived since the last update and scroll (called on the EDT)
+     */
+    @Override
+    public void onTelemetry(TelemetrySample sample) {
+        if (columns == 0) return; // Not laid out yet; the first paint reads the history
+        readNewSamples();
+        repaint();
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        repaint();
+    }
+
+    private void readNewSamples() {
+        while (reader.poll(batch) > 0) {
+            for (int i = 0; i < batch.size(); i++) {
+                add(batch, i);
+            }
+        }
+    }
+
+    private void add(TelemetrySampleBatch samples, int i) {
+        long column = Math.floorDiv(samples.getReceiveNanos(i), nanosPerColumn);
+        if (newestColumn == Long.MIN_VALUE || column < newestColumn || column - newestColumn >= columns) {
+            // First sample, time went backwards (a replay seeked or looped), or a gap longer than the window
+            clearColumns();
+            redrawAll = true;
+        } else {
+            for (long next = newestColumn + 1; next <= column; next++) {
+                filled[slot(next)] = false;
+            }
+        }
+        if (column > newestColumn) newestColumn = column;
+
+        int slot = slot(column);
+        boolean first = !filled[slot];
+        filled[slot] = true;
+        for (int c = 0; c < CHANNELS.length; c++) {
+            float value = (float) CHANNELS[c].value(samples, i);
+            if (first) {
+                min[c][slot] = value;
+                max[c][slot] = value;
+            } else {
+                if (value < min[c][slot]) min[c][slot] = value;
+                if (value > max[c][slot]) max[c][slot] = value;
+            }
+            last[c][slot] = value;
+
+            double offset = Math.abs(value - CHANNELS[c].center);
+            if (offset > range[c] && !Double.isInfinite(offset)) {
+                while (offset > range[c]) range[c] *= 2;
+                legend[c] = legendText(CHANNELS[c], range[c]);
+                redrawAll = true;
+            }
+        }
+    }
+
+    private int slot(long column) {
+        return (int) Math.floorMod(column, (long) columns);
+    }
+
+    private void clearColumns() {
+        Arrays.fill(filled, false);
+        newestColumn = Long.MIN_VALUE;
+    }
+
+    /**
+     * New width: size the column ring and the image to it and read the window again from the history
+     */
+    private void resizeColumns(int width, int height) {
+        columns = width + 1;
+        nanosPerColumn = Math.max(1, windowNanos / width);
+        for (int c = 0; c < CHANNELS.length; c++) {
+            min[c] = new float[columns];
+            max[c] = new float[columns];
+            last[c] = new float[columns];
+        }
+        filled = new boolean[columns];
+        clearColumns();
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        background = new int[height];
+        int bg = BG_CHART.getRGB();
+        int grid = GRID.getRGB();
+        Arrays.fill(background, bg);
+        background[height / 2] = grid;
+        background[toY(0.5, height)] = grid;
+        background[toY(-0.5, height)] = grid;
+
+        reader = history.newReaderFromOldest();
+        readNewSamples();
+        redrawAll = true;
+    }
+
+    /**
+     * Row of a value given as a fraction of full scale, +1 at the top
+     */
+    private static int toY(double fraction, int height) {
+        int half = height / 2;
+        int y = (int) Math.round(half - fraction * (half - MARGIN));
+        return Math.max(0, Math.min(height - 1, y));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right;
+        int height = getHeight() - insets.top - insets.bottom;
+        if (width <= 0 || height <= 0) return;
+        if (image == null || width != image.getWidth() || height != image.getHeight()) {
+            resizeColumns(width, height);
+        }
+
+        updateImage();
+        g.drawImage(image, insets.left, insets.top, null);
+        drawLegend(g, insets.left, insets.top, width, height);
+    }
+
+    /**
+     * Bring the image up to the newest column: shift and draw the new ones, or redraw it all
+     */
+    private void updateImage() {
+        int width = image.getWidth();
+        if (newestColumn == Long.MIN_VALUE) {
+            if (redrawAll || drawnColumn != Long.MIN_VALUE) {
+                for (int x = 0; x < width; x++) drawColumn(x, Long.MIN_VALUE);
+                drawnColumn = Long.MIN_VALUE;
+                redrawAll = false;
+            }
+            return;
+        }
+
+        long shift = drawnColumn == Long.MIN_VALUE ? width : newestColumn - drawnColumn;
+        if (redrawAll || shift >= width || shift < 0) {
+            for (int x = 0; x < width; x++) drawColumn(x, newestColumn - (width - 1 - x));
+        } else {
+            int s = (int) shift;
+            if (s > 0) {
+                int height = image.getHeight();
+                for (int y = 0; y < height; y++) {
+                    System.arraycopy(pixels, y * width + s, pixels, y * width, width - s);
+                }
+            }
+            // The previously newest column may have gained samples, then the new ones
+            for (int x = width - 1 - s; x < width; x++) drawColumn(x, newestColumn - (width - 1 - x));
+        }
+        drawnColumn = newestColumn;
+        redrawAll = false;
+    }
+
+    private void drawColumn(int x, long column) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean grid = column != Long.MIN_VALUE
+                && Math.floorDiv(column * nanosPerColumn, GRID_NANOS) != Math.floorDiv((column + 1) * nanosPerColumn - 1, GRID_NANOS);
+        int gridColor = GRID.getRGB();
+        for (int y = 0, at = x; y < height; y++, at += width) {
+            pixels[at] = grid ? gridColor : background[y];
+        }
+        plottedColumns++;
+        if (column == Long.MIN_VALUE || column <= newestColumn - columns) return;
+
+        int slot = slot(column);
+        if (!filled[slot]) return;
+        int previous = slot(column - 1);
+        boolean joined = column - 1 > newestColumn - columns && filled[previous];
+        for (int c = 0; c < CHANNELS.length; c++) {
+            if (!visible[c]) continue;
+            double low = min[c][slot];
+            double high = max[c][slot];
+            if (joined) {
+                // Join the trace to where it left the previous column
+                low = Math.min(low, last[c][previous]);
+                high = Math.max(high, last[c][previous]);
+            }
+            double center = CHANNELS[c].center;
+            int top = toY((high - center) / range[c], height);
+            int bottom = toY((low - center) / range[c], height);
+            int color = CHANNELS[c].color.getRGB();
+            for (int y = top, at = top * width + x; y <= bottom; y++, at += width) {
+                pixels[at] = color;
+            }
+        }
+    }
+
+    private void drawLegend(Graphics g, int left, int top, int width, int height) {
+        g.setFont(LEGEND_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int x = left + 6;
+        int y = top + metrics.getAscent() + 2;
+        for (int c = 0; c < CHANNELS.length; c++) {
+            if (!visible[c]) continue;
+            g.setColor(CHANNELS[c].color);
+            g.drawString(legend[c], x, y);
+            x += metrics.stringWidth(legend[c]) + 12;
+        }
+
+        g.setColor(TEXT_SECONDARY);
+        int bottom = top + height - 4;
+        g.drawString(windowLabel, left + 6, bottom);
+        if (!telemetryData.isConnected()) {
+            g.drawString("NO DATA", left + width - metrics.stringWidth("NO DATA") - 6, bottom);
+        }
+    }
+
+    /**
+     * Columns drawn into the image so far (all of them after a resize, then only new ones)
+     */
+    public long getPlottedColumns() { return plottedColumns; }
+
+    /**
+     * Stop receiving telemetry
+     */
+    public void cleanup() {
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.faraz.ui.components;
 
+import com.faraz.graphics.DecimalText;
+import com.faraz.model.DeliveryPolicy;
+import com.faraz.model.Subscription;
 import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryListener;
+import com.faraz.model.TelemetrySample;
 import javax.swing.*;
 import java.awt.*;
-import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Professional telemetry display panel
  * Shows real-time rocket data with color-coded status indicators
  */
-public class TelemetryPanel extends JPanel {
+public class TelemetryPanel extends JPanel implements TelemetryListener {
     private final TelemetryData telemetryData;
     private TelemetryDisplay[] displays;
+    private Subscription subscription;
+
+    // Readouts refresh at most this often, and only when new data arrived
+    private static final int UPDATE_RATE_HZ = 20;
 
     // UI Colors
     private static final Color BG_PANEL = new Color(25, 35, 50);
@@ -27,7 +36,7 @@ public class TelemetryPanel extends JPanel {
 
         setupLayout();
         createTelemetryDisplays();
-        startUpdateTimer();
+        subscription = telemetryData.subscribe(this, DeliveryPolicy.rateLimited(UPDATE_RATE_HZ), SwingUtilities::invokeLater);
     }
 
     private void setupLayout() {
@@ -42,15 +51,15 @@ public class TelemetryPanel extends JPanel {
 
     private void createTelemetryDisplays() {
         displays = new TelemetryDisplay[] {
-                new TelemetryDisplay("PITCH", "°", () -> telemetryData.getPitch()),
-                new TelemetryDisplay("ROLL", "°", () -> telemetryData.getRoll()),
-                new TelemetryDisplay("PID PITCH", "", () -> telemetryData.getPidPitch()),
-                new TelemetryDisplay("PID ROLL", "", () -> telemetryData.getPidRoll()),
-                new TelemetryDisplay("SERVO X", "°", () -> (double)telemetryData.getServoX()),
-                new TelemetryDisplay("SERVO Y", "°", () -> (double)telemetryData.getServoY()),
-                new TelemetryDisplay("BUFFER", "", () -> (double)telemetryData.getBufferCount()),
-                new TelemetryDisplay("ALTITUDE", "m", () -> telemetryData.getAltitude()),
-                new TelemetryDisplay("TVC ACTIVITY", "%", () -> telemetryData.getTvcActivity())
+                new TelemetryDisplay("PITCH", "°", 2, StatusRule.ATTITUDE, TelemetrySample::getPitch),
+                new TelemetryDisplay("ROLL", "°", 2, StatusRule.ATTITUDE, TelemetrySample::getRoll),
+                new TelemetryDisplay("PID PITCH", "", 3, StatusRule.NONE, TelemetrySample::getPidPitch),
+                new TelemetryDisplay("PID ROLL", "", 3, StatusRule.NONE, TelemetrySample::getPidRoll),
+                new TelemetryDisplay("SERVO X", "°", 2, StatusRule.SERVO, TelemetrySample::getServoX),
+                new TelemetryDisplay("SERVO Y", "°", 2, StatusRule.SERVO, TelemetrySample::getServoY),
+                new TelemetryDisplay("BUFFER", "", 2, StatusRule.BUFFER, TelemetrySample::getBufferCount),
+                new TelemetryDisplay("ALTITUDE", "m", 2, StatusRule.NONE, TelemetrySample::getAltitude),
+                new TelemetryDisplay("TVC ACTIVITY", "%", 1, StatusRule.ACTIVITY, TelemetrySample::getTvcActivity)
         };
 
         for (TelemetryDisplay display : displays) {
@@ -58,27 +67,55 @@ public class TelemetryPanel extends JPanel {
         }
     }
 
-    private void startUpdateTimer() {
-        Timer updateTimer = new Timer(50, e -> {
-            for (TelemetryDisplay display : displays) {
-                display.updateValue();
-            }
-        });
-        updateTimer.start();
+    /**
+     * All displays show the same sample (called on the EDT)
+     */
+    @Override
+    public void onTelemetry(TelemetrySample sample) {
+        for (TelemetryDisplay display : displays) {
+            display.updateValue(sample);
+        }
+    }
+
+    /**
+     * Stop receiving telemetry
+     */
+    public void cleanup() {
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
     }
 
+    /**
+     * How a readout's value maps to its colour
+     */
+    private enum StatusRule { NONE, ATTITUDE, SERVO, BUFFER, ACTIVITY }
+
     /**
      * Individual telemetry display component
+     *
+     * The value is formatted into a reused StringBuilder and compared with what the label
+     * shows; the label is only touched when its text or colour changes, so an unchanged
+     * readout costs no allocation and no repaint.
      */
     private class TelemetryDisplay extends JPanel {
         private final String label;
         private final String unit;
-        private final Supplier<Double> valueProvider;
+        private final int decimals;
+        private final StatusRule statusRule;
+        private final ToDoubleFunction<TelemetrySample> valueProvider;
         private final JLabel valueLabel;
+        private final StringBuilder text = new StringBuilder(16);  // This update's text
+        private final StringBuilder shown = new StringBuilder(16); // The label's text
+        private Color shownColor = TEXT_PRIMARY;
 
-        public TelemetryDisplay(String label, String unit, Supplier<Double> valueProvider) {
+        public TelemetryDisplay(String label, String unit, int decimals, StatusRule statusRule,
+                                ToDoubleFunction<TelemetrySample> valueProvider) {
             this.label = label;
             this.unit = unit;
+            this.decimals = decimals;
+            this.statusRule = statusRule;
             this.valueProvider = valueProvider;
 
             setupLayout();
@@ -96,9 +133,10 @@ public class TelemetryPanel extends JPanel {
         }
 
         private JLabel createValueLabel() {
-            JLabel label = new JLabel("0.00" + unit);
+            shown.append("0.00").append(unit);
+            JLabel label = new JLabel(shown.toString());
             label.setFont(new Font("Consolas", Font.BOLD, 16));
-            label.setForeground(TEXT_PRIMARY);
+            label.setForeground(shownColor);
             label.setHorizontalAlignment(SwingConstants.CENTER);
             return label;
         }
@@ -113,44 +151,49 @@ public class TelemetryPanel extends JPanel {
             add(valueLabel, BorderLayout.CENTER);
         }
 
-        public void updateValue() {
-            double value = valueProvider.get();
-            String formatted;
-
-            // Format based on value type
-            if (label.contains("PID")) {
-                formatted = String.format("%.3f%s", value, unit);
-            } else if (label.equals("TVC ACTIVITY")) {
-                formatted = String.format("%.1f%s", value, unit);
-            } else {
-                formatted = String.format("%.2f%s", value, unit);
-            }
+        public void updateValue(TelemetrySample sample) {
+            double value = valueProvider.applyAsDouble(sample);
 
-            valueLabel.setText(formatted);
+            text.setLength(0);
+            DecimalText.append(text, value, decimals).append(unit);
+            if (!sameText()) {
+                shown.setLength(0);
+                shown.append(text);
+                valueLabel.setText(shown.toString());
+            }
 
             // Apply color coding based on parameter type and value
             Color textColor = getStatusColor(value);
-            valueLabel.setForeground(textColor);
+            if (textColor != shownColor) {
+                shownColor = textColor;
+                valueLabel.setForeground(textColor);
+            }
+        }
+
+        private boolean sameText() {
+            if (text.length() != shown.length()) return false;
+            for (int i = text.length() - 1; i >= 0; i--) { // Last digits change first
+                if (text.charAt(i) != shown.charAt(i)) return false;
+            }
+            return true;
         }
 
         private Color getStatusColor(double value) {
-            switch (label) {
-                case "PITCH":
-                case "ROLL":
+            switch (statusRule) {
+                case ATTITUDE:
                     return Math.abs(value) > 15 ? STATUS_ERROR :
                             Math.abs(value) > 8 ? STATUS_WARN : TEXT_PRIMARY;
 
-                case "BUFFER":
+                case BUFFER:
                     return value > 800 ? STATUS_ERROR :
                             value > 500 ? STATUS_WARN : STATUS_OK;
 
-                case "TVC ACTIVITY":
+                case ACTIVITY:
                     return value > 70 ? STATUS_ERROR :
                             value > 40 ? STATUS_WARN :
                                     value > 10 ? STATUS_OK : TEXT_SECONDARY;
 
-                case "SERVO X":
-                case "SERVO Y":
+                case SERVO:
                     double deflection = Math.abs(value - 90);
                     return deflection > 25 ? STATUS_ERROR :
                             deflection > 15 ? STATUS_WARN : TEXT_PRIMARY;
@@ -160,4 +203,4 @@ public class TelemetryPanel extends JPanel {
             }
         }
     }
-}
\ No newline at end of file
+}
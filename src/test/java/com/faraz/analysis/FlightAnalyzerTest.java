@@ -0,0 +1,98 @@
+package com.faraz.analysis;
+
+import com.faraz.model.TelemetrySample;
+import com.faraz.recording.FlightWriter;
+import com.faraz.recording.TestFlights;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stats of a flight split over several range tasks match the values worked out by hand,
+ * with a corrupt flight failing beside it in the same batch
+ */
+class FlightAnalyzerTest {
+    private static final long SPLIT = 1024;
+    private static final int RECORDS = 4 * (int) SPLIT; // Ranges [0,1024) [1024,2048) [2048,3072) [3072,4096)
+    private static final long PERIOD_NANOS = 500_000;
+    private static final long GAP_NANOS = 200_000_000;
+
+    // Placed on and across range boundaries, so each only comes out right if the ranges merge correctly
+    private static final int GAP_AFTER = 1023;
+    private static final int INVALID = 2048;
+    private static final int PEAK_PITCH = 3000;
+    private static final int SATURATED_X_FROM = 500, SATURATED_X_TO = 1600;
+    private static final int SATURATED_Y_FROM = 3070, SATURATED_Y_TO = 3080;
+    private static final int BUFFER_PEAK = 4000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statsMergeAcrossRangesToTheHandComputedValues() throws IOException {
+        Path flight = writeFixture(directory.resolve("fixture"));
+        Path corrupt = TestFlights.writeCorruptCompressed(directory.resolve("corrupt"), RECORDS);
+
+        List<FlightAnalyzer.Result> results = new FlightAnalyzer(ForkJoinPool.commonPool(), SPLIT)
+                .analyzeAll(List.of(flight, corrupt));
+        assertNotNull(results.get(1).getFailure(), "corrupt flight fails");
+        assertNull(results.get(0).getFailure());
+        FlightStats stats = results.get(0).getStats();
+
+        assertEquals(RECORDS, stats.getSamples());
+        assertEquals(1, stats.getGaps());
+        assertEquals(1, stats.getInvalid());
+        // Every sample but the last lasts one period, except the one before the gap
+        long covered = (RECORDS - 2) * PERIOD_NANOS;
+        assertEquals(covered, stats.getCoveredNanos());
+
+        assertEquals(7.5, stats.getMaxAbsPitch());
+        assertEquals(2.0, stats.getMaxAbsRoll());
+        long valid = RECORDS - 1;
+        assertEquals(Math.sqrt((valid - 1 + 7.5 * 7.5) / valid), stats.getRmsPitch(), 1e-12);
+        assertEquals(2.0, stats.getRmsRoll(), 1e-12);
+
+        long saturatedX = (SATURATED_X_TO - SATURATED_X_FROM - 1) * PERIOD_NANOS; // Less the sample before the gap
+        long saturatedY = (SATURATED_Y_TO - SATURATED_Y_FROM) * PERIOD_NANOS;
+        assertEquals(saturatedX, stats.getServoXSaturatedNanos());
+        assertEquals(saturatedY, stats.getServoYSaturatedNanos());
+        assertEquals(saturatedX + saturatedY, stats.getAnySaturatedNanos());
+
+        // All valid covered time falls in the steady attitude's bin, bar the one peak sample
+        int steadyBin = FlightStats.stabilityBin(sample(1.0).getStability());
+        int peakBin = FlightStats.stabilityBin(sample(-7.5).getStability());
+        long[] expectedBins = new long[FlightStats.STABILITY_BINS];
+        expectedBins[steadyBin] += covered - 2 * PERIOD_NANOS;
+        expectedBins[peakBin] += PERIOD_NANOS;
+        for (int b = 0; b < FlightStats.STABILITY_BINS; b++) {
+            assertEquals(expectedBins[b], stats.getStabilityNanos(b), "stability bin " + b);
+        }
+
+        assertEquals(77, stats.getBufferHighWater());
+    }
+
+    private static Path writeFixture(Path directory) throws IOException {
+        try (FlightWriter writer = FlightWriter.create(directory)) {
+            for (int i = 0; i < RECORDS; i++) {
+                long time = i * PERIOD_NANOS + (i > GAP_AFTER ? GAP_NANOS : 0);
+                double pitch = i == INVALID ? Double.NaN : i == PEAK_PITCH ? -7.5 : 1.0;
+                int servoX = i >= SATURATED_X_FROM && i < SATURATED_X_TO ? 180 : 90;
+                int servoY = i >= SATURATED_Y_FROM && i < SATURATED_Y_TO ? 0 : 90;
+                writer.append(time, i, pitch, 2.0, 0, 0, servoX, servoY, i == BUFFER_PEAK ? 77 : 5, 0);
+            }
+        }
+        return directory;
+    }
+
+    private static TelemetrySample sample(double pitch) {
+        TelemetrySample sample = new TelemetrySample();
+        sample.set(pitch, 2.0, 0, 0, 90, 90, 5, 0);
+        return sample;
+    }
+}
@@ -0,0 +1,122 @@
+package com.faraz.communication;
+
+import com.faraz.model.TelemetrySample;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TelemetryLineParser against the regex path it replaced, on captured and edge-case lines
+ */
+class TelemetryLineParserTest {
+    // The pattern and parse calls SerialReader used before the byte-level parser
+    private static final Pattern TELEMETRY_PATTERN = Pattern.compile(
+            "P:([-\\d.]+) R:([-\\d.]+) \\| PID P:([-\\d.]+) R:([-\\d.]+) \\| SRV X:(\\d+) Y:(\\d+) \\| BUF:(\\d+)(?:: \\| ALT:([-\\d.]+)m)?"
+    );
+
+    @Test
+    void corpusMatchesRegexPathBitForBit() throws IOException {
+        List<String> lines = readCorpus();
+        TelemetryLineParser parser = new TelemetryLineParser();
+        TelemetrySample sample = new TelemetrySample();
+        int parsed = 0;
+        int malformed = 0;
+
+        for (String line : lines) {
+            byte[] bytes = line.getBytes(StandardCharsets.ISO_8859_1);
+            TelemetryLineParser.Result result = parser.parse(bytes, 0, bytes.length, sample);
+            Matcher matcher = TELEMETRY_PATTERN.matcher(line);
+
+            if (!matcher.find()) {
+                boolean reported = line.contains("P:") && line.contains("R:");
+                assertEquals(reported ? TelemetryLineParser.Result.MALFORMED : TelemetryLineParser.Result.IGNORED, result, line);
+                if (reported) malformed++;
+                continue;
+            }
+
+            double[] expected;
+            try {
+                expected = new double[] {
+                        Double.parseDouble(matcher.group(1)),
+                        Double.parseDouble(matcher.group(2)),
+                        Double.parseDouble(matcher.group(3)),
+                        Double.parseDouble(matcher.group(4)),
+                        Integer.parseInt(matcher.group(5)),
+                        Integer.parseInt(matcher.group(6)),
+                        Integer.parseInt(matcher.group(7)),
+                        matcher.group(8) != null ? Double.parseDouble(matcher.group(8)) : 0.0
+                };
+            } catch (NumberFormatException e) {
+                assertEquals(TelemetryLineParser.Result.MALFORMED, result, line);
+                malformed++;
+                continue;
+            }
+
+            assertEquals(TelemetryLineParser.Result.PARSED, result, line);
+            double[] actual = {
+                    sample.getPitch(), sample.getRoll(), sample.getPidPitch(), sample.getPidRoll(),
+                    sample.getServoX(), sample.getServoY(), sample.getBufferCount(), sample.getAltitude()
+            };
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                        "field " + (i + 1) + " of " + line);
+            }
+            parsed++;
+        }
+
+        assertEquals(parsed, parser.getParsedCount());
+        assertEquals(malformed, parser.getMalformedCount());
+        assertTrue(parsed > 150, "corpus should be mostly captured lines");
+        assertTrue(malformed >= 8, "corpus should cover malformed numbers");
+    }
+
+    @Test
+    void decimalsMatchParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String text = randomDecimal(random);
+            byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)),
+                    Double.doubleToRawLongBits(TelemetryLineParser.parseDecimal(bytes, 0, bytes.length)), text);
+        }
+    }
+
+    /**
+     * -?digits.digits with up to 25 digits on each side, so both the exact path and the fallback run
+     */
+    private static String randomDecimal(Random random) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextBoolean()) text.append('-');
+        int whole = random.nextInt(random.nextBoolean() ? 4 : 26);
+        int fraction = random.nextInt(random.nextBoolean() ? 4 : 26);
+        if (whole + fraction == 0) whole = 1;
+        for (int i = 0; i < whole; i++) text.append((char) ('0' + random.nextInt(10)));
+        if (fraction > 0 || random.nextBoolean()) text.append('.');
+        for (int i = 0; i < fraction; i++) text.append((char) ('0' + random.nextInt(10)));
+        return text.toString();
+    }
+
+    private static List<String> readCorpus() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = TelemetryLineParserTest.class.getResourceAsStream("telemetry-lines.txt")) {
+            assertNotNull(in, "telemetry-lines.txt on the test classpath");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
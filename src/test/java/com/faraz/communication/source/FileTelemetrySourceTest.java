@@ -0,0 +1,59 @@
+package com.faraz.communication.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A paced capture keeps its byte rate however long it has been running
+ */
+class FileTelemetrySourceTest {
+    private static final long BYTES_PER_SECOND = 1_000_000;
+    private static final long HOUR_NANOS = 3_600_000_000_000L;
+    private static final byte[] CAPTURE = "P:1.00,R:2.00,PP:0.10,PR:0.20,SX:90,SY:90,B:0,A:0.00\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pacingSurvivesHoursOfLooping() throws IOException {
+        Path file = Files.write(directory.resolve("capture.txt"), CAPTURE);
+        long[] now = {0};
+        byte[] buffer = new byte[4096];
+        try (FileTelemetrySource source = new FileTelemetrySource(file.toString(), BYTES_PER_SECOND, true, () -> now[0])) {
+            source.open();
+            assertEquals(0, source.read(buffer, 0, buffer.length), "nothing allowed before time passes");
+
+            // Long past the point where elapsed nanoseconds times the rate overflows a long
+            now[0] = 1000 * HOUR_NANOS;
+            assertEquals(CAPTURE.length, source.read(buffer, 0, buffer.length), "first lap");
+            assertEquals(0, source.read(buffer, 0, buffer.length), "rewound at end of file");
+
+            // The next lap is paced from the rewind: 1 byte per microsecond
+            now[0] += 10_000;
+            assertEquals(10, source.read(buffer, 0, buffer.length), "second lap paced from the rewind");
+        }
+    }
+
+    @Test
+    void readsAreLimitedToTheByteRate() throws IOException {
+        byte[] content = new byte[64 * 1024];
+        Path file = Files.write(directory.resolve("capture.bin"), content);
+        long[] now = {0};
+        byte[] buffer = new byte[content.length];
+        try (FileTelemetrySource source = new FileTelemetrySource(file.toString(), BYTES_PER_SECOND, false, () -> now[0])) {
+            source.open();
+            now[0] = 10_000_000; // 10 ms
+            assertEquals(10_000, source.read(buffer, 0, buffer.length));
+            now[0] = 20_000_000;
+            assertEquals(10_000, source.read(buffer, 0, buffer.length));
+        }
+    }
+}
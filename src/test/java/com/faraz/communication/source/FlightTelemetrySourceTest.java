@@ -0,0 +1,114 @@
+package com.faraz.communication.source;
+
+import com.faraz.communication.SerialReader;
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetryHistory;
+import com.faraz.model.TelemetrySample;
+import com.faraz.model.TelemetrySampleBatch;
+import com.faraz.recording.FlightWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replay hands recorded samples over exactly as recorded, at their recorded spacing
+ */
+class FlightTelemetrySourceTest {
+    private static final int RECORDS = 200;
+    private static final long PERIOD_NANOS = 2_500_000; // 400 Hz
+    private static final double SPEED = 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void samplesKeepRecordedValuesAndSpacing() throws IOException {
+        Path flight = writeFlight();
+        TelemetrySample sample = new TelemetrySample();
+        try (FlightTelemetrySource source = new FlightTelemetrySource(flight.toString(), SPEED, false)) {
+            source.open();
+            long firstReceive = 0;
+            int received = 0;
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (received < RECORDS && System.nanoTime() < deadline) {
+                if (source.readSample(sample) == 0) continue;
+                if (received == 0) firstReceive = sample.getReceiveNanos();
+                assertRecord(received, sample);
+                assertEquals((long) (received * PERIOD_NANOS / SPEED), sample.getReceiveNanos() - firstReceive,
+                        "receive offset of " + received);
+                received++;
+            }
+            assertEquals(RECORDS, received, "samples replayed");
+        }
+    }
+
+    @Test
+    void serialReaderPublishesReplayWhateverTheProtocol() throws Exception {
+        Path flight = writeFlight();
+        TelemetryData data = new TelemetryData(1024);
+        TelemetryHistory.Reader history = data.getHistory().newReader();
+
+        // Text would reject a binary re-encoding; samples bypass the decoder altogether
+        System.setProperty("tvc.protocol", "text");
+        SerialReader reader;
+        try {
+            reader = new SerialReader(data, new FlightTelemetrySource(flight.toString(), SPEED, false));
+        } finally {
+            System.clearProperty("tvc.protocol");
+        }
+        reader.start();
+
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(256);
+        TelemetrySample sample = new TelemetrySample();
+        int received = 0;
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        try {
+            while (received < RECORDS && System.nanoTime() < deadline) {
+                int count = history.poll(batch);
+                for (int i = 0; i < count; i++) {
+                    batch.getRaw(i, sample);
+                    assertRecord(received++, sample);
+                }
+                if (count == 0) Thread.sleep(5);
+            }
+        } finally {
+            reader.stop();
+        }
+        assertEquals(RECORDS, received, "samples published");
+    }
+
+    /**
+     * Values an f32 / u8 / u16 frame could not carry: fractions, servos past 255, buffers past 65535
+     */
+    private Path writeFlight() throws IOException {
+        Path flight = directory.resolve("flight-" + System.nanoTime());
+        try (FlightWriter writer = FlightWriter.create(flight)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.append(i * PERIOD_NANOS, 1000 + i, pitch(i), -pitch(i), pitch(i) / 3, -pitch(i) / 7,
+                        300 + i, -5 - i, 70_000 + i, i % 2 == 0 ? 0.0 : pitch(i) * 11);
+            }
+        }
+        return flight;
+    }
+
+    private static double pitch(int i) {
+        return 0.1 + i * 1.000000001;
+    }
+
+    private static void assertRecord(int i, TelemetrySample sample) {
+        assertEquals(1000 + i, sample.getSequence(), "sequence of " + i);
+        assertEquals(Double.doubleToRawLongBits(pitch(i)), Double.doubleToRawLongBits(sample.getPitch()), "pitch of " + i);
+        assertEquals(Double.doubleToRawLongBits(-pitch(i)), Double.doubleToRawLongBits(sample.getRoll()), "roll of " + i);
+        assertEquals(Double.doubleToRawLongBits(pitch(i) / 3), Double.doubleToRawLongBits(sample.getPidPitch()), "PID pitch of " + i);
+        assertEquals(Double.doubleToRawLongBits(-pitch(i) / 7), Double.doubleToRawLongBits(sample.getPidRoll()), "PID roll of " + i);
+        assertEquals(300 + i, sample.getServoX(), "servo X of " + i);
+        assertEquals(-5 - i, sample.getServoY(), "servo Y of " + i);
+        assertEquals(70_000 + i, sample.getBufferCount(), "buffer of " + i);
+        double altitude = i % 2 == 0 ? 0.0 : pitch(i) * 11;
+        assertEquals(Double.doubleToRawLongBits(altitude), Double.doubleToRawLongBits(sample.getAltitude()), "altitude of " + i);
+    }
+}
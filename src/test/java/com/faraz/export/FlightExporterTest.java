@@ -0,0 +1,104 @@
+package com.faraz.export;
+
+import com.faraz.recording.TestFlights;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Next to a flight that fails mid-export, the good flight's table is complete and the
+ * failed one leaves no file behind
+ */
+class FlightExporterTest {
+    private static final int RECORDS = 10_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvOfGoodFlightIsCompleteAndCorruptFlightLeavesNoFile() throws IOException {
+        Path out = directory.resolve("csv");
+        List<FlightExporter.Result> results = exportGoodAndCorrupt(FlightExporter.Format.CSV, out);
+
+        List<String> lines = Files.readAllLines(results.get(0).getFile(), StandardCharsets.US_ASCII);
+        assertEquals(RECORDS + 1, lines.size(), "header and one line per record");
+        String[] header = lines.get(0).split(",");
+        assertEquals(ExportBatch.COLUMN_COUNT, header.length);
+        int pitch = List.of(header).indexOf("pitch");
+        for (int i = 0; i < RECORDS; i++) {
+            String[] row = lines.get(i + 1).split(",");
+            assertEquals(ExportBatch.COLUMN_COUNT, row.length, "columns of row " + i);
+            assertEquals(i * 500_000L, Long.parseLong(row[ExportBatch.TIME]), "time of row " + i);
+            assertEquals(i, Long.parseLong(row[ExportBatch.SEQUENCE]), "sequence of row " + i);
+            assertEquals(pitch(i), Double.parseDouble(row[pitch]), "pitch of row " + i);
+        }
+    }
+
+    @Test
+    void arrowOfGoodFlightIsCompleteAndCorruptFlightLeavesNoFile() throws IOException {
+        Path out = directory.resolve("arrow");
+        List<FlightExporter.Result> results = exportGoodAndCorrupt(FlightExporter.Format.ARROW, out);
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(results.get(0).getFile())).order(ByteOrder.LITTLE_ENDIAN);
+        int size = file.limit();
+        assertEquals("ARROW1", ascii(file, 0, 6), "leading magic");
+        assertEquals("ARROW1", ascii(file, size - 6, 6), "trailing magic");
+
+        // Schema message, then the one record batch these rows fit in, then its body
+        int schema = 8;
+        assertEquals(0xFFFFFFFF, file.getInt(schema), "schema continuation");
+        int batch = schema + 8 + file.getInt(schema + 4);
+        assertEquals(0xFFFFFFFF, file.getInt(batch), "record batch continuation");
+        int body = batch + 8 + file.getInt(batch + 4);
+        int sequence = body + ExportBatch.SEQUENCE * RECORDS * 8;
+        int pitch = body + ExportBatch.FIRST_CHANNEL * RECORDS * 8;
+        for (int i = 0; i < RECORDS; i++) {
+            assertEquals(i * 500_000L, file.getLong(body + i * 8), "time of row " + i);
+            assertEquals(i, file.getLong(sequence + i * 8), "sequence of row " + i);
+            assertEquals(pitch(i), file.getDouble(pitch + i * 8), "pitch of row " + i);
+        }
+
+        // Footer after the body and the end-of-stream marker
+        int footerLength = file.getInt(size - 10);
+        assertTrue(footerLength > 0 && size - 10 - footerLength > pitch + RECORDS * 8, "footer " + footerLength);
+    }
+
+    private List<FlightExporter.Result> exportGoodAndCorrupt(FlightExporter.Format format, Path out) throws IOException {
+        Path good = TestFlights.writeRaw(directory.resolve("good"), RECORDS);
+        Path corrupt = TestFlights.writeCorruptCompressed(directory.resolve("corrupt"), RECORDS);
+
+        List<FlightExporter.Result> results = new FlightExporter(ForkJoinPool.commonPool(), format)
+                .exportAll(List.of(good, corrupt), out);
+
+        assertNull(results.get(0).getFailure());
+        assertEquals(RECORDS, results.get(0).getRows());
+        assertNotNull(results.get(1).getFailure(), "corrupt flight fails");
+        assertFalse(Files.exists(results.get(1).getFile()), "no partial table for the corrupt flight");
+        try (Stream<Path> files = Files.list(out)) {
+            assertEquals(List.of(results.get(0).getFile()), files.collect(Collectors.toList()), "only the good table is left");
+        }
+        return results;
+    }
+
+    private static double pitch(int i) {
+        return Math.sin(i * 0.01) * 30;
+    }
+
+    private static String ascii(ByteBuffer buffer, int at, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,122 @@
+package com.faraz.graphics;
+
+import com.faraz.model.TelemetryData;
+import com.faraz.model.TelemetrySample;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each smoothing mode draws the state it promises: interpolation a render delay back, extrapolation
+ * at most 100 ms ahead, angles blended the short way round, servos clamped as TelemetryData publishes them
+ */
+class TelemetryInterpolatorTest {
+    private static final long PERIOD_NANOS = 500_000; // 2 kHz
+    private static final long MILLI = 1_000_000L;
+    private static final long START = 1_000_000_000L;
+
+    @Test
+    void interpolatesTheStateARenderDelayAgo() {
+        TelemetryData data = new TelemetryData(4096);
+        TelemetryInterpolator interpolator = new TelemetryInterpolator(data.getHistory(),
+                TelemetryInterpolator.Mode.INTERPOLATE, 10 * MILLI);
+        // One sample per read, 1 ms apart, pitch rising 0.5 degrees per sample
+        for (int i = 0; i < 100; i++) {
+            publish(data, i, START + i * MILLI, i * 0.5, -i * 0.25);
+        }
+
+        // 10 ms before this is a quarter of the way from sample 89 to sample 90
+        interpolator.update(START + 99 * MILLI + MILLI / 4);
+        assertEquals(89.25 * 0.5, interpolator.getPitch(), 1e-9, "pitch");
+        assertEquals(-89.25 * 0.25, interpolator.getRoll(), 1e-9, "roll");
+        assertEquals(10.0, interpolator.getDelayMillis(), 1e-9, "delay");
+        assertTrue(interpolator.isMoving());
+    }
+
+    @Test
+    void extrapolatesAtMostAHundredMillisecondsAhead() {
+        TelemetryData data = new TelemetryData(4096);
+        TelemetryInterpolator interpolator = new TelemetryInterpolator(data.getHistory(),
+                TelemetryInterpolator.Mode.EXTRAPOLATE, 0);
+        // Pitch rises 0.1 degrees per ms
+        for (int i = 0; i < 100; i++) {
+            publish(data, i, START + i * MILLI, i * 0.1, 0);
+        }
+        long newest = START + 99 * MILLI;
+
+        interpolator.update(newest + 30 * MILLI);
+        assertEquals(9.9 + 3.0, interpolator.getPitch(), 1e-9, "30 ms ahead");
+        assertTrue(interpolator.isMoving());
+
+        interpolator.update(newest + 500 * MILLI);
+        assertEquals(9.9 + 10.0, interpolator.getPitch(), 1e-9, "capped at 100 ms ahead");
+        assertEquals(400.0, interpolator.getDelayMillis(), 1e-9, "shown this far behind");
+        assertFalse(interpolator.isMoving(), "nothing left to animate");
+    }
+
+    @Test
+    void anglesBlendTheShortWayRound() {
+        TelemetryData data = new TelemetryData(4096);
+        TelemetryInterpolator interpolator = new TelemetryInterpolator(data.getHistory(),
+                TelemetryInterpolator.Mode.INTERPOLATE, 4 * MILLI + MILLI / 2);
+        // Pitch 175, 176, ... 179, -180, -179 ... through the +-180 seam; roll the other way
+        for (int i = 0; i < 10; i++) {
+            double angle = 175 + i >= 180 ? 175 + i - 360 : 175 + i;
+            publish(data, i, START + i * MILLI, angle, -angle);
+        }
+
+        // Halfway from 179 (sample 4) to -180 (sample 5): one degree apart, not 359
+        interpolator.update(START + 9 * MILLI);
+        assertEquals(179.5, interpolator.getPitch(), 1e-9, "pitch");
+        assertEquals(-179.5, interpolator.getRoll(), 1e-9, "roll");
+    }
+
+    @Test
+    void servosAreClampedInEveryMode() {
+        for (TelemetryInterpolator.Mode mode : TelemetryInterpolator.Mode.values()) {
+            TelemetryData data = new TelemetryData(4096);
+            TelemetryInterpolator interpolator = new TelemetryInterpolator(data.getHistory(), mode, 2_000_000L);
+            TelemetrySample sample = new TelemetrySample();
+            long now = START;
+            for (int i = 0; i < 400; i++) {
+                // Servo X ramps far past 180, servo Y far below 0
+                sample.set(0, 0, 0, 0, 170 + i, 10 - i, 0, 0);
+                sample.setSequence(i);
+                sample.setReceiveNanos(now);
+                data.publish(sample);
+                now += PERIOD_NANOS;
+                if (i % 8 == 0) {
+                    interpolator.update(now);
+                    assertInRange(mode, interpolator);
+                }
+            }
+            interpolator.update(now);
+            assertEquals(data.getServoX(), interpolator.getServoX(), mode + " servo X");
+            assertEquals(data.getServoY(), interpolator.getServoY(), mode + " servo Y");
+        }
+    }
+
+    @Test
+    void parsesModeNamesAndTheirLabels() {
+        for (TelemetryInterpolator.Mode mode : TelemetryInterpolator.Mode.values()) {
+            assertEquals(mode, TelemetryInterpolator.parseMode(mode.getLabel()), mode.getLabel());
+            assertEquals(mode, TelemetryInterpolator.parseMode(mode.name()), mode.name());
+        }
+        assertEquals(TelemetryInterpolator.Mode.INTERPOLATE, TelemetryInterpolator.parseMode(null));
+    }
+
+    private static void publish(TelemetryData data, int sequence, long receiveNanos, double pitch, double roll) {
+        TelemetrySample sample = new TelemetrySample();
+        sample.set(pitch, roll, 0, 0, 90, 90, 0, 0);
+        sample.setSequence(sequence);
+        sample.setReceiveNanos(receiveNanos);
+        data.publish(sample);
+    }
+
+    private static void assertInRange(TelemetryInterpolator.Mode mode, TelemetryInterpolator interpolator) {
+        assertTrue(interpolator.getServoX() >= TelemetryData.SERVO_MIN && interpolator.getServoX() <= TelemetryData.SERVO_MAX,
+                mode + " servo X " + interpolator.getServoX());
+        assertTrue(interpolator.getServoY() >= TelemetryData.SERVO_MIN && interpolator.getServoY() <= TelemetryData.SERVO_MAX,
+                mode + " servo Y " + interpolator.getServoY());
+    }
+}
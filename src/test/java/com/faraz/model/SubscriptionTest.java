@@ -0,0 +1,133 @@
+package com.faraz.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * New subscribers get the current sample at once, setters publish like publish(), and a link
+ * change raised from another thread while a dispatch pass is running reaches the listener
+ */
+class SubscriptionTest {
+
+    @Test
+    void everySampleSubscriberStartsWithCurrentSample() throws Exception {
+        TelemetryData data = new TelemetryData(64);
+        TelemetrySample published = new TelemetrySample();
+        published.setPitch(12.5);
+        published.setSequence(7);
+        data.publish(published);
+
+        BlockingQueue<Long> sequences = new LinkedBlockingQueue<>();
+        Subscription subscription = data.subscribe(sample -> sequences.add(sample.getSequence()),
+                DeliveryPolicy.everySample(), Runnable::run);
+        try {
+            assertEquals(7L, sequences.poll(5, TimeUnit.SECONDS), "current sample on subscribe");
+            assertNull(sequences.poll(100, TimeUnit.MILLISECONDS), "delivered once");
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    void settersReachHistoryAndSubscribers() throws Exception {
+        TelemetryData data = new TelemetryData(64);
+        TelemetryHistory.Reader history = data.getHistory().newReader();
+        BlockingQueue<Double> altitudes = new LinkedBlockingQueue<>();
+        Subscription subscription = data.subscribe(sample -> altitudes.add(sample.getAltitude()),
+                DeliveryPolicy.everySample(), Runnable::run);
+        try {
+            data.setPitch(3.0);
+            data.setAltitude(120.0);
+
+            TelemetrySampleBatch batch = new TelemetrySampleBatch(8);
+            assertEquals(2, history.poll(batch), "samples in history");
+            TelemetrySample sample = new TelemetrySample();
+            batch.get(1, sample);
+            assertEquals(3.0, sample.getPitch(), "earlier setter kept");
+            assertEquals(120.0, sample.getAltitude());
+
+            assertEquals(0.0, altitudes.poll(5, TimeUnit.SECONDS));
+            assertEquals(120.0, altitudes.poll(5, TimeUnit.SECONDS));
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    void connectionChangeDuringDispatchIsDelivered() throws Exception {
+        TelemetryData data = new TelemetryData(64);
+        LinkDropper listener = new LinkDropper(data);
+        Subscription subscription = data.subscribe(listener, DeliveryPolicy.latest(), SwingUtilities::invokeLater);
+        try {
+            assertEquals(Boolean.FALSE, listener.seen.poll(5, TimeUnit.SECONDS), "initial state");
+
+            data.setConnected(true);
+            assertEquals(Boolean.TRUE, listener.seen.poll(5, TimeUnit.SECONDS), "link up");
+            // No sample follows, so only the pass that is running can deliver the drop
+            assertEquals(Boolean.FALSE, listener.seen.poll(5, TimeUnit.SECONDS), "link dropped during dispatch");
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    void connectionChangeDuringEarlyRateLimitedPassIsNotHeldBack() throws Exception {
+        TelemetryData data = new TelemetryData(64);
+        LinkDropper listener = new LinkDropper(data);
+        Subscription subscription = data.subscribe(listener, DeliveryPolicy.rateLimited(0.5), SwingUtilities::invokeLater);
+        try {
+            assertEquals(Boolean.FALSE, listener.seen.poll(5, TimeUnit.SECONDS), "initial state");
+            assertTrue(listener.firstSample.await(5, TimeUnit.SECONDS), "first sample");
+
+            // One pass carrying both: the sample is early and waits for the 2 s delay timer
+            SwingUtilities.invokeAndWait(() -> {
+                data.publish(new TelemetrySample());
+                data.setConnected(true);
+            });
+            assertEquals(Boolean.TRUE, listener.seen.poll(5, TimeUnit.SECONDS), "link up");
+            assertEquals(Boolean.FALSE, listener.seen.poll(1, TimeUnit.SECONDS), "link dropped during early pass");
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Drops the link from another thread the first time it is told the link came up
+     */
+    private static final class LinkDropper implements TelemetryListener {
+        final BlockingQueue<Boolean> seen = new LinkedBlockingQueue<>();
+        final CountDownLatch firstSample = new CountDownLatch(1);
+        private final TelemetryData data;
+        private boolean dropped = false;
+
+        LinkDropper(TelemetryData data) {
+            this.data = data;
+        }
+
+        @Override
+        public void onTelemetry(TelemetrySample sample) {
+            firstSample.countDown();
+        }
+
+        @Override
+        public void onConnectionChanged(boolean connected) {
+            seen.add(connected);
+            if (!connected || dropped) return;
+            dropped = true;
+            Thread link = new Thread(() -> data.setConnected(false), "link");
+            link.start();
+            try {
+                link.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.faraz.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * One producer and one reader on TelemetryHistory: nothing dropped at 2 kHz, lapping reported,
+ * servo angles kept as published
+ */
+class TelemetryHistoryTest {
+    private static final long PERIOD_NANOS = 500_000; // 2 kHz
+
+    @Test
+    void readerSeesEverySampleAt2kHz() throws Exception {
+        TelemetryHistory history = new TelemetryHistory(TelemetryHistory.DEFAULT_CAPACITY);
+        TelemetryHistory.Reader reader = history.newReader();
+        int total = 6000; // 3 s
+
+        // Producer paced like the ingest thread at 2 kHz; the reader polls at UI rate
+        Thread producer = new Thread(() -> {
+            TelemetrySample sample = new TelemetrySample();
+            long next = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                fill(sample, i);
+                history.append(sample);
+                next += PERIOD_NANOS;
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+        }, "producer");
+
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(256);
+        long expected = 0;
+        producer.start();
+        while (producer.isAlive() || reader.getBacklog() > 0) {
+            while (reader.poll(batch) > 0) {
+                for (int i = 0; i < batch.size(); i++) {
+                    assertEquals(expected, batch.getSequence(i), "sequence");
+                    assertSample(batch, i, expected);
+                    expected++;
+                }
+            }
+            Thread.sleep(16);
+        }
+        producer.join();
+
+        assertEquals(total, expected, "samples received");
+        assertEquals(0, reader.getLappedCount(), "lapped");
+    }
+
+    @Test
+    void stalledReaderIsLappedAndResumesAtOldestIntact() {
+        TelemetryHistory history = new TelemetryHistory(64);
+        TelemetryHistory.Reader reader = history.newReader();
+        TelemetrySample sample = new TelemetrySample();
+        int total = 1000;
+        for (int i = 0; i < total; i++) {
+            fill(sample, i);
+            history.append(sample);
+        }
+
+        // One slot is never readable, so a full ring behind keeps capacity - 1 samples
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(256);
+        int count = reader.poll(batch);
+        long oldest = total - history.getCapacity() + 1;
+        assertEquals(history.getCapacity() - 1, count);
+        assertEquals(oldest, reader.getLappedCount());
+        for (int i = 0; i < count; i++) {
+            assertEquals(oldest + i, batch.getSequence(i));
+            assertSample(batch, i, oldest + i);
+        }
+        assertEquals(0, reader.getBacklog());
+    }
+
+    @Test
+    void concurrentReaderNeverSeesTornSamples() throws Exception {
+        TelemetryHistory history = new TelemetryHistory(1024);
+        TelemetryHistory.Reader reader = history.newReader();
+        int total = 2_000_000;
+
+        // Unpaced, so the reader is lapped often; whatever it does get must be intact and in order
+        Thread producer = new Thread(() -> {
+            TelemetrySample sample = new TelemetrySample();
+            for (int i = 0; i < total; i++) {
+                fill(sample, i);
+                history.append(sample);
+            }
+        }, "producer");
+
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(256);
+        long received = 0;
+        long last = -1;
+        producer.start();
+        while (producer.isAlive() || reader.getBacklog() > 0) {
+            int count = reader.poll(batch);
+            for (int i = 0; i < count; i++) {
+                long sequence = batch.getSequence(i);
+                assertTrue(sequence > last, "in order");
+                assertSample(batch, i, sequence);
+                last = sequence;
+                received++;
+            }
+        }
+        producer.join();
+
+        assertEquals(total, received + reader.getLappedCount(), "every sample received or counted as lapped");
+    }
+
+    @Test
+    void servoAnglesReadBackAsPublished() {
+        TelemetryData data = new TelemetryData(64);
+        TelemetryHistory.Reader reader = data.getHistory().newReader();
+        TelemetrySample sample = new TelemetrySample();
+        sample.set(0, 0, 0, 0, 250, -40, 0, 0);
+        data.publish(sample);
+        sample.set(0, 0, 0, 0, -1, 181, 0, 0);
+        data.publish(sample);
+
+        TelemetrySampleBatch batch = new TelemetrySampleBatch(8);
+        assertEquals(2, reader.poll(batch));
+        assertEquals(TelemetryData.SERVO_MAX, batch.getServoX(0));
+        assertEquals(TelemetryData.SERVO_MIN, batch.getServoY(0));
+        assertEquals(TelemetryData.SERVO_MIN, batch.getServoX(1));
+        assertEquals(TelemetryData.SERVO_MAX, batch.getServoY(1));
+
+        batch.get(1, sample);
+        assertEquals(data.getServoX(), sample.getServoX(), "copy matches the published state");
+        assertEquals(data.getServoY(), sample.getServoY(), "copy matches the published state");
+
+        // Kept as received for lossless recording
+        assertEquals(250, batch.getRawServoX(0));
+        assertEquals(-40, batch.getRawServoY(0));
+        batch.getRaw(1, sample);
+        assertEquals(-1, sample.getServoX());
+        assertEquals(181, sample.getServoY());
+    }
+
+    private static void fill(TelemetrySample sample, long i) {
+        sample.set(i * 0.01, -i * 0.02, i * 0.001, -i * 0.001, (int) (i % 181), (int) ((i + 90) % 181),
+                (int) (i % 1000), i * 0.5);
+        sample.setSequence(i);
+        sample.setReceiveNanos(i * PERIOD_NANOS);
+    }
+
+    private static void assertSample(TelemetrySampleBatch batch, int i, long sequence) {
+        assertEquals(sequence * 0.01, batch.getPitch(i), "pitch of " + sequence);
+        assertEquals(-sequence * 0.02, batch.getRoll(i), "roll of " + sequence);
+        assertEquals(sequence * 0.001, batch.getPidPitch(i), "PID pitch of " + sequence);
+        assertEquals(-sequence * 0.001, batch.getPidRoll(i), "PID roll of " + sequence);
+        assertEquals(sequence % 181, batch.getServoX(i), "servo X of " + sequence);
+        assertEquals((sequence + 90) % 181, batch.getServoY(i), "servo Y of " + sequence);
+        assertEquals(sequence % 1000, batch.getBufferCount(i), "buffer of " + sequence);
+        assertEquals(sequence * 0.5, batch.getAltitude(i), "altitude of " + sequence);
+        assertEquals(sequence * PERIOD_NANOS, batch.getReceiveNanos(i), "receive time of " + sequence);
+    }
+}
@@ -0,0 +1,89 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked parallel import: every line lands once and in order, whatever the chunk boundaries,
+ * and a failed import leaves no flight behind
+ */
+class CaptureImporterTest {
+    private static final int CHUNK_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void importsEveryLineInOrderAcrossChunks() throws IOException {
+        int lines = 5000;
+        Path capture = directory.resolve("capture.txt");
+        try (Writer out = Files.newBufferedWriter(capture, StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < lines; i++) {
+                out.write(line(i));
+                // A line far longer than any chunk, with no newline for a long way
+                if (i == 2500) out.write("x".repeat(300_000) + "\n");
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CaptureImporter.Summary summary = new CaptureImporter(pool, CHUNK_BYTES, 2000)
+                    .importCapture(capture, directory.resolve("flight"));
+            assertEquals(lines, summary.getSampleCount(), "samples");
+            assertEquals(0, summary.getMalformedCount(), "malformed");
+            assertTrue(summary.getChunkCount() > 10, "split into chunks");
+        } finally {
+            pool.shutdown();
+        }
+
+        try (RecordedFlight flight = RecordedFlight.open(directory.resolve("flight"))) {
+            assertEquals(lines, flight.getRecordCount());
+            TelemetrySample sample = new TelemetrySample();
+            for (int i = 0; i < lines; i++) {
+                flight.read(i, sample);
+                assertEquals(i, sample.getSequence(), "sequence of " + i);
+                assertEquals(i % 181, sample.getServoX(), "servo X of " + i);
+                assertEquals(i, sample.getBufferCount(), "buffer of " + i);
+                assertEquals(i * 500_000L, flight.getTimeNanos(i), "time of " + i);
+            }
+        }
+    }
+
+    @Test
+    void failedImportRemovesPartialFlight() throws IOException {
+        Path capture = directory.resolve("capture.txt");
+        try (Writer out = Files.newBufferedWriter(capture, StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < 1000; i++) out.write(line(i));
+        }
+
+        // The flight is created before any chunk is submitted, so this fails with it on disk
+        ForkJoinPool pool = new ForkJoinPool(2);
+        pool.shutdown();
+        Path flight = directory.resolve("flight");
+        assertThrows(RejectedExecutionException.class,
+                () -> new CaptureImporter(pool, CHUNK_BYTES, 2000).importCapture(capture, flight));
+        assertFalse(Files.exists(flight), "partial flight left behind");
+    }
+
+    @Test
+    void rejectsChunksThatDoNotFitAnArray() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CaptureImporter(ForkJoinPool.commonPool(), Integer.MAX_VALUE, 2000));
+    }
+
+    private static String line(int i) {
+        return "P:" + (i * 0.25) + " R:-1.50 | PID P:0.125 R:-0.040 | SRV X:" + (i % 181)
+                + " Y:90 | BUF:" + i + ":\r\n";
+    }
+}
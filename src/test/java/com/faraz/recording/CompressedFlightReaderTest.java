@@ -0,0 +1,83 @@
+package com.faraz.recording;
+
+import com.faraz.model.TelemetrySample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Windowed mapping: a flight spread over many windows reads the same as one mapped whole,
+ * and cursors on one flight read independently of each other
+ */
+class CompressedFlightReaderTest {
+    private static final int RECORDS = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAcrossWindowsLikeOneMapping() throws IOException {
+        Path flight = writeFlight();
+
+        // Small windows force a new mapping every few blocks
+        try (CompressedFlightReader whole = CompressedFlightReader.open(flight);
+             CompressedFlightReader windowed = CompressedFlightReader.open(flight, 16 * 1024)) {
+            assertEquals(1, whole.getWindowCount());
+            assertTrue(windowed.getWindowCount() > 10, "windows: " + windowed.getWindowCount());
+            assertEquals(RECORDS, windowed.getRecordCount());
+            assertEquals(whole.getBlockCount(), windowed.getBlockCount());
+
+            TelemetrySample expected = new TelemetrySample();
+            TelemetrySample actual = new TelemetrySample();
+            for (int i = 0; i < RECORDS; i++) {
+                whole.read(i, expected);
+                windowed.read(i, actual);
+                assertEquals(i, actual.getSequence(), "sequence of " + i);
+                assertEquals(expected.getPitch(), actual.getPitch(), "pitch of " + i);
+                assertEquals(expected.getRoll(), actual.getRoll(), "roll of " + i);
+                assertEquals(expected.getAltitude(), actual.getAltitude(), "altitude of " + i);
+                assertEquals(expected.getServoX(), actual.getServoX(), "servo X of " + i);
+                assertEquals(42 + i * 500_000L, actual.getReceiveNanos(), "receive time of " + i);
+            }
+            for (int b = 0; b < windowed.getBlockCount(); b++) {
+                assertEquals(whole.getBlockMax(b, FlightChannel.PITCH), windowed.getBlockMax(b, FlightChannel.PITCH));
+            }
+            assertEquals(12_345, windowed.findIndex(12_345 * 500_000L));
+        }
+    }
+
+    @Test
+    void cursorsKeepTheirOwnBlock() throws IOException {
+        Path flight = writeFlight();
+        try (CompressedFlightReader reader = CompressedFlightReader.open(flight)) {
+            RecordedFlight.Cursor forward = reader.newCursor();
+            RecordedFlight.Cursor backward = reader.newCursor();
+            TelemetrySample sample = new TelemetrySample();
+            // Interleaved at opposite ends, so any shared block would be decoded for the wrong one
+            for (int i = 0; i < RECORDS; i += 7) {
+                forward.read(i, sample);
+                assertEquals(i, sample.getSequence(), "forward " + i);
+                int j = RECORDS - 1 - i;
+                backward.read(j, sample);
+                assertEquals(j, sample.getSequence(), "backward " + j);
+                assertEquals(i * 500_000L, forward.getTimeNanos(i));
+                assertEquals(j * 500_000L, backward.getTimeNanos(j));
+            }
+        }
+    }
+
+    private Path writeFlight() throws IOException {
+        Path flight = directory.resolve("flight");
+        try (CompressedFlightWriter writer = new CompressedFlightWriter(flight, 64, 1_700_000_000_000L, 42)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.append(i * 500_000L, i, Math.sin(i * 0.01) * 30, Math.cos(i * 0.013) * 20, i * 1e-4, -i * 1e-4,
+                        90 + i % 7, 90 - i % 5, i % 40, i * 0.05);
+            }
+        }
+        return flight;
+    }
+}
@@ -0,0 +1,37 @@
+package com.faraz.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Frequent forces on a slow link do not cut the flight into tiny blocks, and close() keeps the tail
+ */
+class CompressedFlightWriterTest {
+    private static final int RECORDS = 1000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void forceHoldsBackShortBlocks() throws IOException {
+        Path flight = directory.resolve("flight");
+        try (CompressedFlightWriter writer = new CompressedFlightWriter(flight, 4096, 1_700_000_000_000L, 0)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.append(i * 10_000_000L, i, i, -i, 0, 0, 90, 90, 0, 0);
+                writer.force(); // As the recorder does once per batch on a slow link
+            }
+            assertEquals(RECORDS / CompressedFlightWriter.MIN_FORCED_BLOCK_SAMPLES, writer.getBlockCount(), "blocks");
+        }
+
+        try (CompressedFlightReader reader = CompressedFlightReader.open(flight)) {
+            assertEquals(RECORDS, reader.getRecordCount());
+            assertEquals(RECORDS / CompressedFlightWriter.MIN_FORCED_BLOCK_SAMPLES + 1, reader.getBlockCount(), "blocks with tail");
+            assertTrue(reader.isCleanlyClosed());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.faraz.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Windowed level mapping: a summary spread over many windows answers like one mapped whole
+ */
+class FlightSummaryTest {
+    private static final int RECORDS = 40_000; // 20 s at 2 kHz, about 600 level 0 buckets
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void queriesAcrossWindowsLikeOneMapping() throws IOException {
+        Path path = TestFlights.writeRaw(directory.resolve("flight"), RECORDS);
+        try (RecordedFlight flight = RecordedFlight.open(path);
+             FlightSummary whole = FlightSummary.open(flight);
+             FlightSummary windowed = FlightSummary.open(flight, 7 * FlightSummaryFormat.BUCKET_SIZE + 5)) {
+            assertEquals(1, whole.getWindowCount(0));
+            assertTrue(windowed.getWindowCount(0) > 50, "windows: " + windowed.getWindowCount(0));
+            for (int level = 0; level < FlightSummaryFormat.LEVEL_COUNT; level++) {
+                assertEquals(whole.getBucketCount(level), windowed.getBucketCount(level), "buckets of level " + level);
+            }
+
+            long duration = flight.getDurationNanos();
+            for (int buckets : new int[] { 3, 40, 200, 600 }) {
+                for (FlightChannel channel : FlightChannel.values()) {
+                    SummarySeries expected = whole.query(channel, 0, duration, buckets);
+                    SummarySeries actual = windowed.query(channel, 0, duration, buckets);
+                    assertEquals(expected.getLevel(), actual.getLevel());
+                    long total = 0;
+                    for (int i = 0; i < buckets; i++) {
+                        String at = channel + " bucket " + i + " of " + buckets;
+                        assertEquals(expected.getCount(i), actual.getCount(i), at);
+                        assertEquals(expected.getMin(i), actual.getMin(i), at);
+                        assertEquals(expected.getMax(i), actual.getMax(i), at);
+                        assertEquals(expected.getSum(i), actual.getSum(i), at);
+                        total += actual.getCount(i);
+                    }
+                    assertTrue(total > 0, channel + " over " + buckets + " buckets is empty");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.faraz.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Small flights for tests
+ */
+public final class TestFlights {
+    private TestFlights() {}
+
+    /**
+     * Raw flight of records at 2 kHz with deterministic values
+     */
+    public static Path writeRaw(Path directory, int records) throws IOException {
+        try (FlightWriter writer = FlightWriter.create(directory)) {
+            for (int i = 0; i < records; i++) {
+                writer.append(i * 500_000L, i, Math.sin(i * 0.01) * 30, Math.cos(i * 0.01) * 20, i * 1e-4, -i * 1e-4,
+                        90 + i % 7, 90 - i % 5, i % 40, i * 0.05);
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Compressed flight whose first block passes its CRC but cannot be decoded, so it opens
+     * and then fails with a RuntimeException on the first read
+     */
+    public static Path writeCorruptCompressed(Path directory, int records) throws IOException {
+        Path raw = writeRaw(directory.resolveSibling(directory.getFileName() + "-raw"), records);
+        try (RecordedFlight from = RecordedFlight.open(raw)) {
+            CompressedFlightWriter.compress(from, directory);
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(CompressedFlightFormat.FILE_NAME),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int block = CompressedFlightFormat.HEADER_SIZE;
+            ByteBuffer header = ByteBuffer.allocate(CompressedFlightFormat.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, block);
+            int payload = header.getInt(CompressedFlightFormat.BLOCK_LENGTH);
+
+            ByteBuffer data = ByteBuffer.allocate(CompressedFlightFormat.BLOCK_HEADER_SIZE + payload).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(data, block);
+            // The time column claims far more bytes than the block has
+            data.putInt(CompressedFlightFormat.BLOCK_HEADER_SIZE, 1_000_000_000);
+            data.putInt(CompressedFlightFormat.BLOCK_CRC, CompressedFlightFormat.blockCrc(new CRC32C(), data.duplicate(), 0, payload));
+            data.clear();
+            channel.write(data, block);
+        }
+        return directory;
+    }
+}